@@ -0,0 +1,162 @@
+package com.example.app.model;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * The aggregates financial advice was generated from, used to decide whether the advice is out of date.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Records the month, total spending and how far each budget is used</li>
+ *   <li>Reports drift from an earlier basis: a new month, spending that moved by a large amount,
+ *       or a budget crossing its warning level or its limit</li>
+ *   <li>Round-trips through a one-line text form for storage next to the advice</li>
+ * </ul>
+ */
+public final class AdviceBasis {
+    /** Budget use, in percent, from which a budget counts as nearly used up */
+    static final double WARNING_PERCENTAGE = 90.0;
+
+    /** Key of the overall budget among the budget levels */
+    private static final String OVERALL = "*";
+
+    private final YearMonth month;
+    private final double expenses;
+    private final Map<String, Integer> budgetLevels;
+
+    private AdviceBasis(YearMonth month, double expenses, Map<String, Integer> budgetLevels) {
+        this.month = month;
+        this.expenses = expenses;
+        this.budgetLevels = budgetLevels;
+    }
+
+    /**
+     * Captures the basis of a user's finance data.
+     *
+     * @param financeData the finance data, with transactions imported and budgets loaded
+     * @param month the current month
+     * @return the basis
+     */
+    public static AdviceBasis of(FinanceData financeData, YearMonth month) {
+        Map<String, Integer> levels = new TreeMap<>();
+        if (financeData.getMonthlyBudget() > 0) {
+            levels.put(OVERALL, level(financeData.getOverallBudgetPercentage()));
+        }
+        for (Map.Entry<String, Double> budget : financeData.getCategoryBudgets().entrySet()) {
+            if (budget.getValue() > 0) {
+                levels.put(budget.getKey(), level(financeData.getCategoryPercentage(budget.getKey())));
+            }
+        }
+        return new AdviceBasis(month, Math.round(financeData.getTotalExpenses() * 100) / 100.0, levels);
+    }
+
+    /**
+     * Parses the text form written by {@link #toString()}.
+     *
+     * @param text the text form
+     * @return the basis, or null if the text is not a valid basis
+     */
+    public static AdviceBasis parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String[] parts = text.trim().split("\\|", -1);
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            Map<String, Integer> levels = new TreeMap<>();
+            if (!parts[2].isEmpty()) {
+                for (String entry : parts[2].split(",")) {
+                    int separator = entry.lastIndexOf('=');
+                    levels.put(entry.substring(0, separator), Integer.parseInt(entry.substring(separator + 1)));
+                }
+            }
+            return new AdviceBasis(YearMonth.parse(parts[0]), Double.parseDouble(parts[1]), levels);
+        } catch (DateTimeParseException | NumberFormatException | StringIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Describes how far this basis has drifted from the one earlier advice was generated from.
+     *
+     * @param previous the basis of the earlier advice
+     * @param spendRatio fraction of the earlier spending by which spending must move to count as drift
+     * @param minSpend smallest change in spending that counts as drift
+     * @return the reason the advice is out of date, or null if it is still current
+     */
+    public String describeDrift(AdviceBasis previous, double spendRatio, double minSpend) {
+        if (!month.equals(previous.month)) {
+            return "new month " + month;
+        }
+        double change = Math.abs(expenses - previous.expenses);
+        if (change >= Math.max(minSpend, spendRatio * previous.expenses)) {
+            return String.format(Locale.ROOT, "spending moved by %.2f", change);
+        }
+        for (Map.Entry<String, Integer> budget : budgetLevels.entrySet()) {
+            if (!budget.getValue().equals(previous.budgetLevels.getOrDefault(budget.getKey(), 0))) {
+                return (OVERALL.equals(budget.getKey()) ? "overall" : budget.getKey()) + " budget crossed a threshold";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the month the basis was captured in.
+     *
+     * @return the month
+     */
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    /**
+     * Gets the total spending.
+     *
+     * @return the total expenses
+     */
+    public double getExpenses() {
+        return expenses;
+    }
+
+    /**
+     * 0 below the warning level, 1 from the warning level, 2 once the budget is used up.
+     */
+    private static int level(double percentage) {
+        return percentage >= 100 ? 2 : percentage >= WARNING_PERCENTAGE ? 1 : 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AdviceBasis)) {
+            return false;
+        }
+        AdviceBasis other = (AdviceBasis) o;
+        return month.equals(other.month) && Double.compare(expenses, other.expenses) == 0
+                && budgetLevels.equals(other.budgetLevels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(month, expenses, budgetLevels);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner levels = new StringJoiner(",");
+        for (Map.Entry<String, Integer> budget : budgetLevels.entrySet()) {
+            levels.add(budget.getKey() + "=" + budget.getValue());
+        }
+        return month + "|" + String.format(Locale.ROOT, "%.2f", expenses) + "|" + levels;
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.app.model;
+
+import com.example.app.ui.pages.AI.AIClient;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Builds a compact summary of a user's finances to send along with an advice prompt,
+ * so the advice is grounded in the user's data without pasting raw transactions.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Summarizes the in-memory {@link FinanceData} aggregates: overall totals, budget use per category,
+ *       unusually large expenses, top merchants and per-category monthly totals</li>
+ *   <li>Adds sections in order of importance, and lines within a section in order of relevance,
+ *       until a token budget is used up, so the prompt size stays bounded as the history grows</li>
+ *   <li>Lists months newest first, so older history is the first to be left out</li>
+ * </ul>
+ */
+public class AdviceContextBuilder {
+    /** Default upper bound on the estimated tokens of the summary */
+    public static final int DEFAULT_TOKEN_BUDGET = 800;
+
+    /** Default number of merchants listed */
+    public static final int DEFAULT_TOP_MERCHANTS = 5;
+
+    /** Default number of unusual expenses listed */
+    public static final int DEFAULT_MAX_ANOMALIES = 5;
+
+    /** An expense is unusual when it exceeds this multiple of its category's median expense */
+    static final double ANOMALY_FACTOR = 3.0;
+
+    /** Expenses a category needs before its outliers are reported */
+    static final int MIN_ANOMALY_SAMPLES = 4;
+
+    private final FinanceData financeData;
+    private int tokenBudget = DEFAULT_TOKEN_BUDGET;
+    private int topMerchants = DEFAULT_TOP_MERCHANTS;
+    private int maxAnomalies = DEFAULT_MAX_ANOMALIES;
+
+    /**
+     * Creates a builder for a user's finance data.
+     *
+     * @param financeData the finance data, with transactions imported and budgets loaded
+     */
+    public AdviceContextBuilder(FinanceData financeData) {
+        this.financeData = financeData;
+    }
+
+    /**
+     * Sets the upper bound on the size of the summary.
+     *
+     * @param tokenBudget the estimated tokens the summary may take up
+     * @return this builder
+     */
+    public AdviceContextBuilder withTokenBudget(int tokenBudget) {
+        this.tokenBudget = Math.max(0, tokenBudget);
+        return this;
+    }
+
+    /**
+     * Sets how many merchants are listed.
+     *
+     * @param topMerchants the number of merchants
+     * @return this builder
+     */
+    public AdviceContextBuilder withTopMerchants(int topMerchants) {
+        this.topMerchants = Math.max(0, topMerchants);
+        return this;
+    }
+
+    /**
+     * Sets how many unusual expenses are listed.
+     *
+     * @param maxAnomalies the number of unusual expenses
+     * @return this builder
+     */
+    public AdviceContextBuilder withMaxAnomalies(int maxAnomalies) {
+        this.maxAnomalies = Math.max(0, maxAnomalies);
+        return this;
+    }
+
+    /**
+     * Builds the summary.
+     *
+     * @return the summary, or an empty string if there are no transactions
+     */
+    public String build() {
+        List<FinanceData.Transaction> transactions = financeData.getTransactions();
+        if (transactions.isEmpty()) {
+            return "";
+        }
+        Summary summary = new Summary(tokenBudget);
+        summary.addSection("Overview", overviewLines(transactions));
+        summary.addSection("Budget use by category", budgetLines());
+        summary.addSection("Unusually large expenses", anomalyLines(transactions));
+        summary.addSection("Top merchants by spending", merchantLines(transactions));
+        summary.addSection("Monthly spending by category", monthlyLines(transactions));
+        return summary.toString();
+    }
+
+    private List<String> overviewLines(List<FinanceData.Transaction> transactions) {
+        LocalDate first = transactions.get(0).getDate();
+        LocalDate last = first;
+        for (FinanceData.Transaction transaction : transactions) {
+            if (transaction.getDate().isBefore(first)) {
+                first = transaction.getDate();
+            }
+            if (transaction.getDate().isAfter(last)) {
+                last = transaction.getDate();
+            }
+        }
+        return Arrays.asList(
+                transactions.size() + " transactions from " + first + " to " + last,
+                "Income " + money(financeData.getTotalIncome())
+                        + ", expenses " + money(financeData.getTotalExpenses())
+                        + ", balance " + money(financeData.getTotalBalance()),
+                "Overall budget used: " + Math.round(financeData.getOverallBudgetPercentage()) + "%");
+    }
+
+    /**
+     * Budgeted categories, most used budget first.
+     */
+    private List<String> budgetLines() {
+        List<String> categories = new ArrayList<>();
+        for (Map.Entry<String, Double> budget : financeData.getCategoryBudgets().entrySet()) {
+            if (budget.getValue() > 0) {
+                categories.add(budget.getKey());
+            }
+        }
+        categories.sort(Comparator.comparingDouble(financeData::getCategoryPercentage).reversed());
+
+        List<String> lines = new ArrayList<>();
+        for (String category : categories) {
+            lines.add(category + ": spent " + money(financeData.getCategoryExpense(category))
+                    + " of " + money(financeData.getCategoryBudget(category))
+                    + " (" + Math.round(financeData.getCategoryPercentage(category)) + "%)");
+        }
+        return lines;
+    }
+
+    /**
+     * Expenses far above the median of their category, largest first.
+     */
+    private List<String> anomalyLines(List<FinanceData.Transaction> transactions) {
+        Map<String, List<FinanceData.Transaction>> byCategory = new HashMap<>();
+        for (FinanceData.Transaction transaction : transactions) {
+            if (transaction.isExpense()) {
+                byCategory.computeIfAbsent(transaction.getCategory(), c -> new ArrayList<>()).add(transaction);
+            }
+        }
+
+        List<FinanceData.Transaction> anomalies = new ArrayList<>();
+        Map<FinanceData.Transaction, Double> medians = new HashMap<>();
+        for (List<FinanceData.Transaction> expenses : byCategory.values()) {
+            if (expenses.size() < MIN_ANOMALY_SAMPLES) {
+                continue;
+            }
+            double median = median(expenses);
+            for (FinanceData.Transaction expense : expenses) {
+                if (Math.abs(expense.getAmount()) > ANOMALY_FACTOR * median) {
+                    anomalies.add(expense);
+                    medians.put(expense, median);
+                }
+            }
+        }
+        anomalies.sort(Comparator.comparingDouble(FinanceData.Transaction::getAmount)); // most negative first
+
+        List<String> lines = new ArrayList<>();
+        for (FinanceData.Transaction anomaly : anomalies.subList(0, Math.min(maxAnomalies, anomalies.size()))) {
+            lines.add(anomaly.getDate() + " " + anomaly.getCategory() + " " + money(Math.abs(anomaly.getAmount()))
+                    + " at " + anomaly.getDescription().trim()
+                    + " (usually " + money(medians.get(anomaly)) + ")");
+        }
+        return lines;
+    }
+
+    /**
+     * Merchants with the highest total spending.
+     */
+    private List<String> merchantLines(List<FinanceData.Transaction> transactions) {
+        Map<String, double[]> merchants = new HashMap<>();
+        for (FinanceData.Transaction transaction : transactions) {
+            if (transaction.isExpense()) {
+                double[] totals = merchants.computeIfAbsent(transaction.getDescription().trim(), m -> new double[2]);
+                totals[0] += Math.abs(transaction.getAmount());
+                totals[1]++;
+            }
+        }
+        List<Map.Entry<String, double[]>> ranked = new ArrayList<>(merchants.entrySet());
+        ranked.sort((a, b) -> Double.compare(b.getValue()[0], a.getValue()[0]));
+
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, double[]> merchant : ranked.subList(0, Math.min(topMerchants, ranked.size()))) {
+            int count = (int) merchant.getValue()[1];
+            lines.add(merchant.getKey() + ": " + money(merchant.getValue()[0])
+                    + " in " + count + (count == 1 ? " payment" : " payments"));
+        }
+        return lines;
+    }
+
+    /**
+     * Spending per category for each month, newest month first and largest category first.
+     */
+    private List<String> monthlyLines(List<FinanceData.Transaction> transactions) {
+        Map<YearMonth, Map<String, Double>> months = new TreeMap<>(Comparator.reverseOrder());
+        for (FinanceData.Transaction transaction : transactions) {
+            if (transaction.isExpense()) {
+                months.computeIfAbsent(YearMonth.from(transaction.getDate()), m -> new HashMap<>())
+                        .merge(transaction.getCategory(), Math.abs(transaction.getAmount()), Double::sum);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<YearMonth, Map<String, Double>> month : months.entrySet()) {
+            List<Map.Entry<String, Double>> categories = new ArrayList<>(month.getValue().entrySet());
+            categories.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+            StringJoiner line = new StringJoiner(", ", month.getKey() + ": ", "");
+            for (Map.Entry<String, Double> category : categories) {
+                line.add(category.getKey() + " " + money(category.getValue()));
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private static double median(List<FinanceData.Transaction> expenses) {
+        double[] amounts = new double[expenses.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = Math.abs(expenses.get(i).getAmount());
+        }
+        Arrays.sort(amounts);
+        int middle = amounts.length / 2;
+        return amounts.length % 2 == 1 ? amounts[middle] : (amounts[middle - 1] + amounts[middle]) / 2;
+    }
+
+    private static String money(double amount) {
+        return String.format(Locale.ROOT, "%.2f", amount);
+    }
+
+    /**
+     * Accumulates sections while keeping track of the remaining token budget.
+     */
+    private static class Summary {
+        private final StringBuilder text = new StringBuilder();
+        private int remaining;
+
+        Summary(int tokenBudget) {
+            this.remaining = tokenBudget;
+        }
+
+        /**
+         * Adds a section with as many of its lines as fit. A section is left out entirely
+         * if not even its heading and first line fit.
+         */
+        void addSection(String heading, List<String> lines) {
+            if (lines.isEmpty()) {
+                return;
+            }
+            String header = heading + ":\n";
+            int headerTokens = AIClient.estimateTokens(header);
+            String first = "- " + lines.get(0) + "\n";
+            if (headerTokens + AIClient.estimateTokens(first) > remaining) {
+                return;
+            }
+            text.append(header);
+            remaining -= headerTokens;
+            for (String line : lines) {
+                String item = "- " + line + "\n";
+                int tokens = AIClient.estimateTokens(item);
+                if (tokens > remaining) {
+                    break;
+                }
+                text.append(item);
+                remaining -= tokens;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.app.model;
+
+import javax.swing.SwingUtilities;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps financial advice up to date in the background, so the dashboard can always show stored advice
+ * without waiting on the network.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Listens for transaction and budget changes and checks the advice once the data has been
+ *       left alone for an idle delay, so a burst of edits or an import leads to one check</li>
+ *   <li>Regenerates only when the data has drifted from the {@link AdviceBasis} the advice was
+ *       generated from: a new month, a large change in spending, or a budget crossing a threshold</li>
+ *   <li>Runs regeneration as background advice work, behind chat replies, with the result stored
+ *       through the advice's own storage</li>
+ *   <li>Checks once shortly after start, which catches a new month since the last session</li>
+ * </ul>
+ * The finance data is only read on the event dispatch thread, where the dashboard changes it: each change
+ * is summarized there into an {@link AdviceBasis}, and the delayed check compares that snapshot.
+ */
+public class AdviceRefreshScheduler implements DataRefreshListener {
+    private static final Logger LOGGER = Logger.getLogger(AdviceRefreshScheduler.class.getName());
+
+    /** System property that overrides the idle delay, in milliseconds */
+    public static final String IDLE_DELAY_PROPERTY = "advice.refresh.idle.ms";
+
+    /** Default time the data must be left unchanged before the advice is checked */
+    public static final Duration DEFAULT_IDLE_DELAY = Duration.ofSeconds(30);
+
+    /** Default fraction of the earlier spending by which spending must move to make advice stale */
+    public static final double DEFAULT_SPEND_DRIFT_RATIO = 0.10;
+
+    /** Default smallest change in spending that makes advice stale */
+    public static final double DEFAULT_MIN_SPEND_DRIFT = 100.0;
+
+    private final FinancialAdvice advice;
+    private final FinanceData financeData;
+    private final Supplier<CompletableFuture<String>> regenerate;
+    private final ScheduledExecutorService timer;
+    private long idleDelayMillis = Long.getLong(IDLE_DELAY_PROPERTY, DEFAULT_IDLE_DELAY.toMillis());
+    private double spendDriftRatio = DEFAULT_SPEND_DRIFT_RATIO;
+    private double minSpendDrift = DEFAULT_MIN_SPEND_DRIFT;
+    private ScheduledFuture<?> pendingCheck;
+    private CompletableFuture<String> regeneration;
+
+    /**
+     * Creates a scheduler for a user's advice.
+     *
+     * @param advice the advice to keep up to date, initialized for the user
+     * @param financeData the user's finance data, kept current by the dashboard
+     */
+    public AdviceRefreshScheduler(FinancialAdvice advice, FinanceData financeData) {
+        this(advice, financeData, advice::regenerateAsync);
+    }
+
+    /**
+     * Creates a scheduler that regenerates advice through the given action.
+     *
+     * @param advice the advice to keep up to date, initialized for the user
+     * @param financeData the user's finance data, kept current by the dashboard
+     * @param regenerate starts regenerating the advice in the background
+     */
+    public AdviceRefreshScheduler(FinancialAdvice advice, FinanceData financeData,
+                                  Supplier<CompletableFuture<String>> regenerate) {
+        this.advice = advice;
+        this.financeData = financeData;
+        this.regenerate = regenerate;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "advice-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets how long the data must be left unchanged before the advice is checked.
+     *
+     * @param idleDelay the idle delay
+     * @return this scheduler
+     */
+    public AdviceRefreshScheduler withIdleDelay(Duration idleDelay) {
+        this.idleDelayMillis = Math.max(0, idleDelay.toMillis());
+        return this;
+    }
+
+    /**
+     * Sets how much spending must change to make the advice stale.
+     *
+     * @param ratio fraction of the spending the advice was generated from
+     * @param minimum smallest change that counts
+     * @return this scheduler
+     */
+    public AdviceRefreshScheduler withSpendDrift(double ratio, double minimum) {
+        this.spendDriftRatio = Math.max(0, ratio);
+        this.minSpendDrift = Math.max(0, minimum);
+        return this;
+    }
+
+    /**
+     * Starts listening for data changes and schedules a first check.
+     *
+     * @return this scheduler
+     */
+    public AdviceRefreshScheduler start() {
+        DataRefreshManager.getInstance().addListener(this);
+        snapshotAndScheduleCheck();
+        return this;
+    }
+
+    /**
+     * Stops listening and cancels a pending check. A regeneration already running is left to finish.
+     */
+    public synchronized void stop() {
+        DataRefreshManager.getInstance().removeListener(this);
+        timer.shutdownNow();
+    }
+
+    @Override
+    public void onDataRefresh(DataRefreshManager.RefreshType type) {
+        if (type == DataRefreshManager.RefreshType.TRANSACTIONS
+                || type == DataRefreshManager.RefreshType.BUDGETS
+                || type == DataRefreshManager.RefreshType.ALL) {
+            snapshotAndScheduleCheck();
+        }
+    }
+
+    /**
+     * Summarizes the finance data on the event dispatch thread and schedules a check of that summary.
+     */
+    private void snapshotAndScheduleCheck() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(this::snapshotAndScheduleCheck);
+            return;
+        }
+        scheduleCheck(AdviceBasis.of(financeData, YearMonth.now()));
+    }
+
+    /**
+     * Schedules a check after the idle delay, replacing one that has not run yet.
+     *
+     * @param current the aggregates of the data as last changed
+     */
+    private synchronized void scheduleCheck(AdviceBasis current) {
+        if (timer.isShutdown()) {
+            return;
+        }
+        if (pendingCheck != null) {
+            pendingCheck.cancel(false);
+        }
+        pendingCheck = timer.schedule(() -> check(current), idleDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Regenerates the advice if the data has drifted from its basis.
+     * Reads the finance data on the calling thread, which must be the one that changes it.
+     *
+     * @return the regeneration started, or null if the advice is current or already being regenerated
+     */
+    synchronized CompletableFuture<String> check() {
+        return check(AdviceBasis.of(financeData, YearMonth.now()));
+    }
+
+    /**
+     * Regenerates the advice if the given aggregates have drifted from its basis.
+     *
+     * @param current the aggregates of the current data
+     * @return the regeneration started, or null if the advice is current or already being regenerated
+     */
+    private synchronized CompletableFuture<String> check(AdviceBasis current) {
+        if (regeneration != null && !regeneration.isDone()) {
+            scheduleCheck(current); // look again once the running regeneration has recorded its basis
+            return null;
+        }
+        AdviceBasis previous = advice.getBasis();
+        String reason = previous == null ? "no basis recorded"
+                : current.describeDrift(previous, spendDriftRatio, minSpendDrift);
+        if (reason == null) {
+            LOGGER.log(Level.FINE, "Advice is current");
+            return null;
+        }
+        LOGGER.log(Level.INFO, "Regenerating advice in the background: {0}", reason);
+        regeneration = regenerate.get();
+        return regeneration;
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.app.model;
 
+import com.example.app.model.importer.MerchantRules;
+import com.example.app.user_data.UserBillStorage;
+
+import java.io.File;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -35,6 +39,9 @@ public class FinanceData {
     /** Directory path for storing budget files */
     private String dataDirectory;
     
+    /** Merchant keyword rules used to categorize expenses, reloaded on each import */
+    private MerchantRules merchantRules;
+    
     /**
      * Constructs a new FinanceData object with initialized data structures.
      */
@@ -89,6 +96,11 @@ public class FinanceData {
             }
         }
         
+        // Pick up any edits to the merchant rules file; it is only parsed again after it changed
+        merchantRules = dataDirectory != null
+                ? UserBillStorage.getMerchantRules(new File(dataDirectory))
+                : new MerchantRules(MerchantRules.getDefaultRules());
+        
         // Now continue with transaction import as before
         dailyIncomes.clear();
         dailyExpenses.clear();
@@ -96,6 +108,8 @@ public class FinanceData {
         dailyExpenseDescriptions.clear();
         dailyExpenseCategories.clear();
         transactions.clear();
+        categoryExpenses.clear();
+        categoryIncomes.clear();
         
         // For collecting all possible categories
         Set<String> incomeCategories = new HashSet<>();
@@ -244,18 +258,24 @@ public class FinanceData {
     
     /**
      * Determines the appropriate expense category based on description and CSV category.
+     * A CSV category with a budget is kept; otherwise the merchant keyword rules are matched
+     * against the description.
      *
      * @param description the transaction description
      * @param csvCategory the category from CSV
      * @return the determined expense category
      */
     private String determineExpenseCategory(String description, String csvCategory) {
-        // For categories not in budget categories, categorize them into "Other"
         // categoryBudgets has all categories
-        if (!categoryBudgets.containsKey(csvCategory)) {
-            return "Other";
+        if (categoryBudgets.containsKey(csvCategory)) {
+            return csvCategory;
         }
-        else return csvCategory;
+        MerchantRules.Rule rule = merchantRules.match(description);
+        if (rule != null && categoryBudgets.containsKey(rule.getCategory())) {
+            return rule.getCategory();
+        }
+        // For categories not in budget categories, categorize them into "Other"
+        return "Other";
     }
     
     // Other methods remain unchanged...
@@ -577,14 +597,26 @@ public class FinanceData {
      * Notifies listeners when budget data changes.
      */
     public void loadBudgets() {
+        loadBudgets(true);
+    }
+
+    /**
+     * Loads budget data from CSV file in the configured directory.
+     *
+     * @param notify true to notify listeners when budget data changes; false when no view
+     *               shows this data yet
+     */
+    public void loadBudgets(boolean notify) {
         if (dataDirectory != null) {
             Map<String, Double> loadedBudgets = BudgetManager.loadBudgetsFromCSV(dataDirectory);
             if (!loadedBudgets.isEmpty()) {
                 categoryBudgets.clear();
                 categoryBudgets.putAll(loadedBudgets);
                 System.out.println("Budget data loaded successfully");
-                // Notify listeners that budget data has changed
-                DataRefreshManager.getInstance().refreshBudgets();
+                if (notify) {
+                    // Notify listeners that budget data has changed
+                    DataRefreshManager.getInstance().refreshBudgets();
+                }
             }
         }
     }
@@ -1,12 +1,24 @@
 package com.example.app.model;
 
+import com.example.app.user_data.AIResponseCache;
+import com.example.app.user_data.AdviceHistory;
 import com.example.app.user_data.FinancialAdviceStorage;
+import com.example.app.user_data.UserBillStorage;
+import com.example.app.ui.pages.AI.AIClient;
+import com.example.app.ui.pages.AI.AITaskScheduler;
 import com.example.app.ui.pages.AI.getRes;
 
+import javax.swing.SwingUtilities;
 import java.io.IOException;
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * A model class representing personalized financial advice for users.
@@ -15,22 +27,49 @@ import java.time.format.DateTimeFormatter;
  */
 public class FinancialAdvice implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(FinancialAdvice.class.getName());
+    
+    /** Shared AI service; its client keeps connections to the API open between calls */
+    private static final getRes AI_SERVICE = new getRes();
     
     /**
      * The financial advice text content.
      */
-    private String advice;
+    private volatile String advice;
     
     /**
      * The timestamp when the advice was generated.
      */
-    private LocalDateTime generationTime;
+    private volatile LocalDateTime generationTime;
     
     /**
      * The username associated with this advice.
      */
     private String username;
     
+    /**
+     * The user's finance data summarized into the advice prompt, or null to load it on demand.
+     */
+    private transient FinanceData financeData;
+    
+    /**
+     * The aggregates the current advice was generated from, or null if unknown.
+     */
+    private transient volatile AdviceBasis basis;
+    
+    /**
+     * Upper bound on the estimated tokens of the data summary sent with the prompt.
+     */
+    private int contextTokenBudget = AdviceContextBuilder.DEFAULT_TOKEN_BUDGET;
+    
+    /**
+     * Instructions sent ahead of the data summary.
+     */
+    private static final String ADVICE_PROMPT =
+            "Please analyze my financial data and provide personalized advice. " +
+            "Focus on my spending patterns, budget adherence, and suggestions for saving money. " +
+            "Keep the advice concise but actionable, within 3-4 sentences.";
+    
     /**
      * Default advice text used if AI generation fails or before
      * the first advice is generated.
@@ -60,6 +99,25 @@ public class FinancialAdvice implements Serializable {
         loadFromStorage();
     }
     
+    /**
+     * Sets the finance data the advice is based on, typically the model already loaded by the dashboard.
+     * Without it, regenerating loads the user's data from storage.
+     * 
+     * @param financeData The user's finance data
+     */
+    public void setFinanceData(FinanceData financeData) {
+        this.financeData = financeData;
+    }
+    
+    /**
+     * Sets the upper bound on the size of the data summary sent with the prompt.
+     * 
+     * @param contextTokenBudget The estimated tokens the summary may take up
+     */
+    public void setContextTokenBudget(int contextTokenBudget) {
+        this.contextTokenBudget = contextTokenBudget;
+    }
+    
     /**
      * Loads advice from storage file.
      */
@@ -69,6 +127,7 @@ public class FinancialAdvice implements Serializable {
             this.advice = (String) loadedData[0];
             this.generationTime = (LocalDateTime) loadedData[1];
         }
+        this.basis = AdviceBasis.parse(FinancialAdviceStorage.loadAdviceBasis());
     }
     
     /**
@@ -87,21 +146,33 @@ public class FinancialAdvice implements Serializable {
      * @param advice The new financial advice text to set
      */
     public void setAdvice(String advice) {
+        setAdvice(advice, AdviceHistory.UNKNOWN, AdviceHistory.UNKNOWN);
+    }
+    
+    /**
+     * Sets newly generated advice, recording what it was generated from in the advice history.
+     * Listeners are notified on the event dispatch thread, as advice is usually generated in the background.
+     * 
+     * @param advice The new financial advice text to set
+     * @param fingerprint Fingerprint of the ledger the advice is based on
+     * @param promptHash Hash of the prompt the advice answers
+     */
+    private void setAdvice(String advice, String fingerprint, String promptHash) {
         this.advice = advice;
         this.generationTime = LocalDateTime.now();
-        saveToStorage();
+        saveToStorage(fingerprint, promptHash);
         // Notify listeners that advice has changed
-        com.example.app.model.DataRefreshManager.getInstance().notifyRefresh(
+        SwingUtilities.invokeLater(() -> com.example.app.model.DataRefreshManager.getInstance().notifyRefresh(
             com.example.app.model.DataRefreshManager.RefreshType.ADVICE
-        );
+        ));
     }
     
     /**
      * Saves current advice to storage file.
      */
-    private void saveToStorage() {
+    private void saveToStorage(String fingerprint, String promptHash) {
         if (username != null) {
-            FinancialAdviceStorage.saveAdvice(advice, generationTime);
+            FinancialAdviceStorage.saveAdvice(advice, generationTime, fingerprint, promptHash);
         }
     }
     
@@ -124,24 +195,173 @@ public class FinancialAdvice implements Serializable {
         return generationTime.format(formatter);
     }
     
+    /**
+     * Gets one page of the advice generated for the user so far, newest first.
+     * 
+     * @param page The page index, starting at 0
+     * @param pageSize Entries per page
+     * @return The entries of the page, empty if there are none or no user is set
+     */
+    public List<AdviceHistory.Entry> getHistoryPage(int page, int pageSize) {
+        if (username == null) {
+            return Collections.emptyList();
+        }
+        return AdviceHistory.forUser(username).getPage(page, pageSize);
+    }
+    
+    /**
+     * Gets the aggregates the current advice was generated from.
+     * 
+     * @return The basis, or null if the advice was not generated from known data
+     */
+    public AdviceBasis getBasis() {
+        return basis;
+    }
+    
     /**
      * Regenerates financial advice using AI.
      * Makes an API call to the DeepSeek AI service to get personalized
-     * financial advice based on the user's data.
+     * financial advice based on a token-bounded summary of the user's data, unless
+     * advice for the same prompt and unchanged ledger aggregates is in the user's response cache.
+     * Failures are logged and keep the current advice.
      */
     public void regenerate() {
         if (username == null) return;
         try {
-            String apiKey = "sk-fdf26a37926f46ab8d4884c2cd533db8";
-            getRes aiService = new getRes();
-            String prompt = "Please analyze my financial data and provide personalized advice. " +
-                    "Focus on my spending patterns, budget adherence, and suggestions for saving money. " +
-                    "Keep the advice concise but actionable, within 3-4 sentences.";
-            String response = aiService.getResponse(apiKey, prompt);
-            String parsedResponse = aiService.parseAIResponse(response);
-            setAdvice(parsedResponse); // <-- This will trigger refresh
+            generate(prepareRequest(financeData != null ? financeData : loadFinanceData()));
         } catch (IOException e) {
-            System.err.println("Failed to generate advice: " + e.getMessage());
+            LOGGER.log(Level.WARNING, "Failed to generate advice: {0}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Regenerates financial advice in the background as {@link AITaskScheduler.Priority#ADVICE advice} work,
+     * so it waits behind chat replies but ahead of bulk classification.
+     * The attached finance data is summarized on the event dispatch thread, where the dashboard changes it;
+     * only the finished prompt is handed to the background task.
+     * 
+     * @return The advice text once regeneration has finished, or a future that completes exceptionally
+     *         if the AI call failed, in which case the current advice is kept
+     */
+    public CompletableFuture<String> regenerateAsync() {
+        if (username == null) {
+            return CompletableFuture.completedFuture(advice);
+        }
+        FinanceData data = financeData;
+        if (data == null) {
+            // Data loaded from storage belongs to the task alone
+            return AITaskScheduler.getInstance().submit(AITaskScheduler.Priority.ADVICE,
+                cancellation -> generate(prepareRequest(loadFinanceData())));
+        }
+        CompletableFuture<AdviceRequest> request = new CompletableFuture<>();
+        Runnable snapshot = () -> {
+            try {
+                request.complete(prepareRequest(data));
+            } catch (RuntimeException e) {
+                request.completeExceptionally(e);
+            }
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            snapshot.run();
+        } else {
+            SwingUtilities.invokeLater(snapshot);
+        }
+        return request.thenCompose(prepared -> AITaskScheduler.getInstance().submit(
+            AITaskScheduler.Priority.ADVICE, cancellation -> generate(prepared)));
+    }
+    
+    /**
+     * Summarizes the finance data into the prompt and the basis of the advice to generate.
+     * 
+     * @param data The finance data, read only by the calling thread
+     * @return The request
+     */
+    private AdviceRequest prepareRequest(FinanceData data) {
+        return new AdviceRequest(buildPrompt(data), AdviceBasis.of(data, YearMonth.now()));
+    }
+    
+    /**
+     * Generates advice for a prepared request, from the response cache if possible, and sets it.
+     * 
+     * @param request The prompt and basis of the advice
+     * @return The new advice text
+     * @throws IOException If the AI service could not be reached or its response could not be parsed
+     */
+    private String generate(AdviceRequest request) throws IOException {
+        String apiKey = "sk-fdf26a37926f46ab8d4884c2cd533db8";
+        String fingerprint = UserBillStorage.getLedgerFingerprint();
+        String promptHash = AIResponseCache.key(AIClient.MODEL, request.prompt, "").substring(0, 16);
+        AIResponseCache cache = AIResponseCache.forUser(username);
+        String key = AIResponseCache.key(AIClient.MODEL, request.prompt, fingerprint);
+        String cached = cache.get(key);
+        if (cached != null) {
+            setBasis(request.basis);
+            setAdvice(cached, fingerprint, promptHash);
+            return cached;
+        }
+        String response = AI_SERVICE.getResponse(apiKey, request.prompt);
+        String parsedResponse = AI_SERVICE.parseAIResponse(response);
+        if (parsedResponse.startsWith("Error:")) {
+            throw new IOException("Unable to parse the advice from the AI response");
+        }
+        cache.put(key, parsedResponse);
+        setBasis(request.basis);
+        setAdvice(parsedResponse, fingerprint, promptHash); // <-- This will trigger refresh
+        return parsedResponse;
+    }
+    
+    /**
+     * Builds the advice prompt: the instructions followed by a summary of the user's data.
+     * 
+     * @return The prompt
+     */
+    String buildPrompt() {
+        return buildPrompt(financeData != null ? financeData : loadFinanceData());
+    }
+    
+    private String buildPrompt(FinanceData data) {
+        String context = new AdviceContextBuilder(data).withTokenBudget(contextTokenBudget).build();
+        if (context.isEmpty()) {
+            return ADVICE_PROMPT;
+        }
+        return ADVICE_PROMPT + "\n\nHere is a summary of my finances:\n" + context;
+    }
+    
+    /**
+     * Records the basis of newly generated advice.
+     */
+    private void setBasis(AdviceBasis basis) {
+        this.basis = basis;
+        FinancialAdviceStorage.saveAdviceBasis(basis.toString());
+    }
+    
+    /**
+     * Loads the user's transactions and budgets from storage.
+     * 
+     * @return The finance data
+     */
+    private FinanceData loadFinanceData() {
+        FinanceData data = new FinanceData();
+        String dataDirectory = ".\\user_data\\" + username;
+        data.setDataDirectory(dataDirectory);
+        List<Object[]> transactions = CSVDataImporter.importTransactionsFromCSV(dataDirectory + "\\user_bill.csv");
+        if (transactions != null && !transactions.isEmpty()) {
+            data.importTransactions(transactions);
+        }
+        data.loadBudgets();
+        return data;
+    }
+    
+    /**
+     * The prompt of an advice request and the aggregates it summarizes.
+     */
+    private static class AdviceRequest {
+        private final String prompt;
+        private final AdviceBasis basis;
+        
+        AdviceRequest(String prompt, AdviceBasis basis) {
+            this.prompt = prompt;
+            this.basis = basis;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.example.app.model;
+
+import com.example.app.user_data.UserBillStorage;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Session context of a logged-in user, owning the one {@link FinanceData} that all of the user's
+ * panels and view models read.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>One shared copy of the user's transactions and budgets per session, instead of one per panel</li>
+ *   <li>Imports the ledger again only when it has been written since the last import,
+ *       judged by its write version in {@link UserBillStorage}, so the first view model told of
+ *       a change imports it and the others reuse the result</li>
+ *   <li>Sessions are shared by username and closed when the user's window is closed</li>
+ * </ul>
+ */
+public class UserSession {
+    private static final Logger LOGGER = Logger.getLogger(UserSession.class.getName());
+
+    /** Shared sessions by username */
+    private static final Map<String, UserSession> SESSIONS = new HashMap<>();
+
+    private final String username;
+    private final FinanceData financeData;
+    private final File ledgerFile;
+    private long ledgerVersion = -1;
+    private boolean imported;
+
+    /**
+     * Creates a session around the given finance data and loads the user's transactions and budgets into it.
+     *
+     * @param username the username
+     * @param financeData the finance data to load
+     */
+    public UserSession(String username, FinanceData financeData) {
+        this.username = username;
+        this.financeData = financeData;
+        String dataDirectory = ".\\user_data\\" + username;
+        this.ledgerFile = new File(dataDirectory, "user_bill.csv");
+        financeData.setDataDirectory(dataDirectory);
+        reloadTransactions();
+        financeData.loadBudgets(false); // no view shows this session yet
+    }
+
+    /**
+     * Gets the shared session of a user, creating it on first use. An existing session picks up
+     * writes to the ledger made since its last import.
+     *
+     * @param username the username
+     * @return the user's session
+     */
+    public static synchronized UserSession forUser(String username) {
+        UserSession session = SESSIONS.get(username);
+        if (session == null) {
+            session = new UserSession(username, new FinanceData());
+            SESSIONS.put(username, session);
+        } else {
+            session.reloadTransactions();
+        }
+        return session;
+    }
+
+    /**
+     * Closes the shared session of a user. Later calls to {@link #forUser(String)} load the data again.
+     *
+     * @param username the username
+     */
+    public static synchronized void close(String username) {
+        SESSIONS.remove(username);
+    }
+
+    /**
+     * Gets the username of this session.
+     *
+     * @return the username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the finance data shared by this session.
+     *
+     * @return the FinanceData instance
+     */
+    public FinanceData getFinanceData() {
+        return financeData;
+    }
+
+    /**
+     * Imports the user's ledger if it has been written since the last import.
+     *
+     * @return true if the ledger was imported
+     */
+    public synchronized boolean reloadTransactions() {
+        long version = UserBillStorage.getLedgerVersion(username);
+        if (version == ledgerVersion) {
+            return false;
+        }
+        ledgerVersion = version;
+
+        List<Object[]> transactions = CSVDataImporter.importTransactionsFromCSV(ledgerFile.getPath());
+        if (transactions.isEmpty() && !imported) {
+            LOGGER.log(Level.WARNING, "No transactions loaded from {0}", ledgerFile.getPath());
+            return false;
+        }
+        // An emptied ledger is imported too, so the session stops showing the old transactions
+        financeData.importTransactions(transactions);
+        imported = true;
+        LOGGER.log(Level.INFO, "Loaded {0} transactions for {1}", new Object[]{transactions.size(), username});
+        return true;
+    }
+}
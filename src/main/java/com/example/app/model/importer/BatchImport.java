@@ -0,0 +1,271 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.FingerprintIndex;
+import com.example.app.user_data.LongHashSet;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Imports several CSV files, such as a month of statements from different banks, in one go.
+ * Compressed files and every CSV entry of a zip archive are imported as separate sources.
+ * <p>
+ * Each source is parsed by its own {@link ImportPipeline} task, running concurrently. The results are
+ * then merged in file order, deduplicated across files and against the ledger, and handed to the
+ * target sink in a single call, so storage is written once and listeners are refreshed once.
+ * Rows repeated within one file can be genuine identical payments, so they are reported and handled by the
+ * near-duplicate policy, as in a single-file import.
+ * <p>
+ * A source that cannot be read is reported in the result's errors and the others are still imported.
+ */
+public class BatchImport {
+    private static final Logger LOGGER = Logger.getLogger(BatchImport.class.getName());
+
+    /** Sink for the per-file pipelines; transactions are collected, not persisted, until the merge */
+    private static final TransactionSink DISCARD = batch -> { };
+
+    private final TransactionSink target;
+    private ColumnMapping preferredMapping;
+    private TransactionClassifier classifier;
+    private FingerprintIndex ledgerIndex;
+    private NearDuplicateDetector nearDuplicateDetector;
+    private ImportPipeline.NearDuplicatePolicy nearDuplicatePolicy = ImportPipeline.NearDuplicatePolicy.FLAG;
+    private int parallelism = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Creates a batch import.
+     *
+     * @param target where the merged transactions are persisted
+     */
+    public BatchImport(TransactionSink target) {
+        this.target = target;
+    }
+
+    /**
+     * Sets the mapping to use for every file whose header row contains its columns.
+     * Other files, or all files if no mapping is set, use {@link ColumnMapping#forHeaders(List)}.
+     *
+     * @param preferredMapping the preferred mapping, or null to detect a mapping per file
+     * @return this import
+     */
+    public BatchImport withMapping(ColumnMapping preferredMapping) {
+        this.preferredMapping = preferredMapping;
+        return this;
+    }
+
+    /**
+     * Sets the classifier used for rows without a category.
+     *
+     * @param classifier the classifier, or null to leave categories untouched
+     * @return this import
+     */
+    public BatchImport withClassifier(TransactionClassifier classifier) {
+        this.classifier = classifier;
+        return this;
+    }
+
+    /**
+     * Sets the fingerprint index of the ledger being imported into.
+     *
+     * @param ledgerIndex the ledger's fingerprint index, or null to only drop repeats within the batch
+     * @return this import
+     */
+    public BatchImport withLedgerIndex(FingerprintIndex ledgerIndex) {
+        this.ledgerIndex = ledgerIndex;
+        return this;
+    }
+
+    /**
+     * Enables fuzzy duplicate detection across all files of the batch.
+     *
+     * @param detector the detector, optionally pre-filled with ledger transactions, or null to disable
+     * @param policy whether near duplicates are imported and flagged or skipped
+     * @return this import
+     */
+    public BatchImport withNearDuplicateDetection(NearDuplicateDetector detector,
+                                                  ImportPipeline.NearDuplicatePolicy policy) {
+        this.nearDuplicateDetector = detector;
+        this.nearDuplicatePolicy = policy;
+        return this;
+    }
+
+    /**
+     * Sets how many files are parsed at the same time.
+     *
+     * @param parallelism maximum number of concurrent file tasks
+     * @return this import
+     */
+    public BatchImport withParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    /**
+     * Imports the given files, expanding folders to the CSV and compressed files they contain
+     * and archives to their CSV entries.
+     *
+     * @param paths files and folders to import
+     * @return the combined import result
+     * @throws IOException if a folder or archive cannot be listed, no source could be imported,
+     *         the target fails or the import is interrupted
+     */
+    public ImportResult run(List<Path> paths) throws IOException {
+        return runSources(ImportSource.fromPaths(paths));
+    }
+
+    /**
+     * Imports the given sources.
+     *
+     * @param sources the CSV sources to import
+     * @return the combined import result
+     * @throws IOException if no source could be imported, the target fails or the import is interrupted
+     */
+    public ImportResult runSources(List<ImportSource> sources) throws IOException {
+        String[] failures = new String[sources.size()];
+        List<ImportResult> fileResults = parseAll(sources, failures);
+        if (!sources.isEmpty() && fileResults.stream().allMatch(Objects::isNull)) {
+            throw new IOException("No file could be imported: " + failures[0]);
+        }
+
+        int totalRows = 0;
+        int skippedRows = 0;
+        int duplicateRows = 0;
+        List<String> nearDuplicates = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        List<StageStats> stageStats = new ArrayList<>();
+        List<Object[]> merged = new ArrayList<>();
+        // Fingerprints of the files already merged
+        LongHashSet seen = new LongHashSet();
+
+        for (int i = 0; i < sources.size(); i++) {
+            String fileName = sources.get(i).getName();
+            ImportResult fileResult = fileResults.get(i);
+            if (fileResult == null) {
+                errors.add(fileName + ": could not be imported: " + failures[i]);
+                continue;
+            }
+            totalRows += fileResult.getTotalRows();
+            skippedRows += fileResult.getSkippedRows();
+            duplicateRows += fileResult.getDuplicateRows();
+            for (String error : fileResult.getErrors()) {
+                errors.add(fileName + ": " + error);
+            }
+            for (String nearDuplicate : fileResult.getNearDuplicates()) {
+                nearDuplicates.add(fileName + ": " + nearDuplicate);
+            }
+            stageStats.addAll(fileResult.getStageStats());
+
+            // Deduplicate across files and apply near-duplicate detection in file order
+            LongHashSet fileFingerprints = new LongHashSet();
+            for (Object[] transaction : fileResult.getTransactions()) {
+                long fingerprint = FingerprintIndex.fingerprint(transaction);
+                if (seen.contains(fingerprint) || (ledgerIndex != null && ledgerIndex.contains(fingerprint))) {
+                    duplicateRows++;
+                    continue;
+                }
+                if (fileFingerprints.contains(fingerprint)) {
+                    // Repeated within this file, already reported and kept by its pipeline
+                    if (nearDuplicateDetector != null) {
+                        nearDuplicateDetector.add(transaction);
+                    }
+                } else if (nearDuplicateDetector != null) {
+                    Object[] match = nearDuplicateDetector.findMatch(transaction);
+                    if (match != null) {
+                        nearDuplicates.add(fileName + ": " + transaction[0] + " " + transaction[1]
+                                + " looks like " + match[0] + " " + match[1]);
+                        if (nearDuplicatePolicy == ImportPipeline.NearDuplicatePolicy.SKIP) {
+                            continue;
+                        }
+                    }
+                    nearDuplicateDetector.add(transaction);
+                }
+                fileFingerprints.add(fingerprint);
+                merged.add(transaction);
+            }
+            for (long fingerprint : fileFingerprints.toArray()) {
+                seen.add(fingerprint);
+            }
+        }
+
+        // Single write for the whole batch
+        if (!merged.isEmpty()) {
+            target.accept(merged);
+        }
+        LOGGER.log(Level.INFO, "Batch import of {0} files: {1} rows read, {2} imported, {3} duplicates",
+                new Object[]{sources.size(), totalRows, merged.size(), duplicateRows});
+
+        return new ImportResult(merged, totalRows, merged.size(), skippedRows, duplicateRows,
+                nearDuplicates, errors, stageStats);
+    }
+
+    /**
+     * Parses every source on a thread pool, one task per source.
+     *
+     * @param failures receives the failure message of each source that failed
+     * @return the result of each source in input order, or null for sources that failed
+     */
+    private List<ImportResult> parseAll(List<ImportSource> sources, String[] failures) throws IOException {
+        if (sources.isEmpty()) {
+            return Collections.emptyList();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, sources.size()), runnable -> {
+            Thread thread = new Thread(runnable, "batch-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<ImportResult>> futures = new ArrayList<>();
+            for (ImportSource source : sources) {
+                futures.add(executor.submit(() -> parseSource(source)));
+            }
+
+            List<ImportResult> results = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Failed to import " + sources.get(i), e.getCause());
+                    failures[i] = e.getCause().getMessage();
+                    results.add(null);
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch import was cancelled");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ImportResult parseSource(ImportSource source) throws IOException {
+        return new ImportPipeline(mappingFor(source), DISCARD)
+                .withClassifier(classifier)
+                .withNearDuplicateDetection(null, nearDuplicatePolicy)
+                .run(source);
+    }
+
+    /**
+     * Chooses the mapping for a source from its header row.
+     */
+    private ColumnMapping mappingFor(ImportSource source) throws IOException {
+        List<String> headers = source.readHeader();
+        if (preferredMapping != null && preferredMapping.matches(headers)) {
+            return preferredMapping;
+        }
+        return ColumnMapping.forHeaders(headers);
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.app.model.importer;
+
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Date parser for a single CSV date column.
+ * A parser is created once per column by sniffing a sample of its values, which locks in
+ * the format that matches best. Parsing a row afterwards never throws: unparseable values
+ * simply return {@code null}.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>One-time format sniffing over a sample of column values</li>
+ *   <li>Shared cache of compiled {@link DateTimeFormatter} instances</li>
+ *   <li>Hand-written fast path for {@code yyyy-MM-dd[ HH:mm[:ss]]} style layouts</li>
+ *   <li>Exception-free fallback over the other known formats when the locked one misses</li>
+ * </ul>
+ */
+public final class CSVDateParser {
+    /** Date formats recognised when sniffing, in order of preference */
+    static final List<String> KNOWN_FORMATS = Collections.unmodifiableList(Arrays.asList(
+            // Formats with hyphens
+            "yyyy-MM-dd", "yyyy-MM-dd HH:mm", "yyyy-MM-dd HH:mm:ss",
+            // Formats with slashes
+            "yyyy/MM/dd", "yyyy/M/d HH:mm", "yyyy/M/d HH:mm:ss",
+            "yyyy/MM/dd HH:mm", "yyyy/MM/dd HH:mm:ss",
+            // US formats
+            "MM/dd/yyyy", "MM/dd/yyyy HH:mm", "MM/dd/yyyy HH:mm:ss",
+            // European formats
+            "dd/MM/yyyy", "dd/MM/yyyy HH:mm", "dd/MM/yyyy HH:mm:ss",
+            "MM-dd-yyyy", "dd-MM-yyyy", "dd-MM-yyyy HH:mm:ss",
+            // Other common formats
+            "yyyy.MM.dd", "dd.MM.yyyy", "MM.dd.yyyy"
+    ));
+
+    /** Maximum number of column values inspected while sniffing */
+    public static final int DEFAULT_SAMPLE_SIZE = 200;
+
+    /** Compiled formatters shared by all parsers, keyed by pattern */
+    private static final Map<String, DateTimeFormatter> FORMATTER_CACHE = new ConcurrentHashMap<>();
+
+    /** Patterns that {@link DateTimeFormatter#ofPattern(String)} rejected, so they are not retried */
+    private static final Set<String> INVALID_PATTERNS = ConcurrentHashMap.newKeySet();
+
+    /** The pattern locked in by sniffing, or null if no sample value could be parsed */
+    private final String pattern;
+
+    /** Patterns tried in order when parsing a value; the locked pattern comes first */
+    private final List<String> candidates;
+
+    private CSVDateParser(String pattern, List<String> candidates) {
+        this.pattern = pattern;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Creates a parser for a column by finding the format that parses the most sample values.
+     * The preferred pattern wins ties, so a user's explicit choice is kept whenever it fits.
+     *
+     * @param samples sample values from the date column (empty values are ignored)
+     * @param preferredPattern the pattern selected by the user or template, may be null
+     * @return a parser locked to the best matching format
+     */
+    public static CSVDateParser sniff(List<String> samples, String preferredPattern) {
+        List<String> order = new ArrayList<>(KNOWN_FORMATS.size() + 1);
+        if (preferredPattern != null && !preferredPattern.trim().isEmpty()
+                && formatterFor(preferredPattern) != null) {
+            order.add(preferredPattern);
+        }
+        for (String format : KNOWN_FORMATS) {
+            if (!order.contains(format)) {
+                order.add(format);
+            }
+        }
+
+        String best = null;
+        int bestHits = 0;
+        for (String candidate : order) {
+            int hits = 0;
+            int inspected = 0;
+            for (String sample : samples) {
+                if (sample == null || sample.trim().isEmpty()) {
+                    continue;
+                }
+                if (inspected == DEFAULT_SAMPLE_SIZE) {
+                    break;
+                }
+                inspected++;
+                if (parseWith(sample.trim(), candidate) != null) {
+                    hits++;
+                }
+            }
+            if (hits > bestHits) {
+                best = candidate;
+                bestHits = hits;
+                if (hits == inspected) {
+                    break; // Every sample matched, no better candidate possible
+                }
+            }
+        }
+
+        List<String> candidates = new ArrayList<>(order);
+        if (best != null) {
+            candidates.remove(best);
+            candidates.add(0, best);
+        }
+        return new CSVDateParser(best, Collections.unmodifiableList(candidates));
+    }
+
+    /**
+     * Gets the format locked in for this column.
+     *
+     * @return the locked pattern, or null if none of the sample values could be parsed
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Parses a column value, trying the locked format first and the other known formats after it.
+     *
+     * @param text the raw column value
+     * @return the parsed date, or null if the value is empty or matches no known format
+     */
+    public LocalDate parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        for (String candidate : candidates) {
+            LocalDate date = parseWith(trimmed, candidate);
+            if (date != null) {
+                return date;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a column value and formats it the way the ledger stores dates.
+     *
+     * @param text the raw column value
+     * @return the date in 'yyyy-MM-dd' format, or null if the value cannot be parsed
+     */
+    public String format(String text) {
+        LocalDate date = parse(text);
+        return date == null ? null : date.toString();
+    }
+
+    /**
+     * Gets the compiled formatter for a pattern, compiling and caching it on first use.
+     *
+     * @param pattern the date pattern
+     * @return the formatter, or null if the pattern is not a valid {@link DateTimeFormatter} pattern
+     */
+    public static DateTimeFormatter formatterFor(String pattern) {
+        if (pattern == null || INVALID_PATTERNS.contains(pattern)) {
+            return null;
+        }
+        DateTimeFormatter formatter = FORMATTER_CACHE.get(pattern);
+        if (formatter == null) {
+            try {
+                formatter = DateTimeFormatter.ofPattern(pattern);
+            } catch (IllegalArgumentException e) {
+                INVALID_PATTERNS.add(pattern);
+                return null;
+            }
+            FORMATTER_CACHE.putIfAbsent(pattern, formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * Parses a value with one specific pattern without throwing.
+     *
+     * @param text the trimmed value
+     * @param pattern the pattern to apply
+     * @return the parsed date, or null if the value does not match
+     */
+    static LocalDate parseWith(String text, String pattern) {
+        if (isYearFirstNumeric(pattern)) {
+            return parseYearFirst(text, pattern.charAt(4));
+        }
+        DateTimeFormatter formatter = formatterFor(pattern);
+        if (formatter == null) {
+            return null;
+        }
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = formatter.parseUnresolved(text, position);
+        if (parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != text.length()) {
+            return null;
+        }
+        ChronoField yearField = parsed.isSupported(ChronoField.YEAR_OF_ERA)
+                ? ChronoField.YEAR_OF_ERA : ChronoField.YEAR;
+        if (!parsed.isSupported(yearField) || !parsed.isSupported(ChronoField.MONTH_OF_YEAR)
+                || !parsed.isSupported(ChronoField.DAY_OF_MONTH)) {
+            return null;
+        }
+        return toDate(parsed.getLong(yearField), parsed.getLong(ChronoField.MONTH_OF_YEAR),
+                parsed.getLong(ChronoField.DAY_OF_MONTH));
+    }
+
+    /**
+     * Checks whether a pattern is one of the year-first numeric layouts handled by the fast path,
+     * i.e. {@code yyyy<sep>M[M]<sep>d[d]} optionally followed by {@code HH:mm} or {@code HH:mm:ss}.
+     *
+     * @param pattern the pattern to check
+     * @return true if the fast path can parse values for this pattern
+     */
+    static boolean isYearFirstNumeric(String pattern) {
+        if (!pattern.startsWith("yyyy") || pattern.length() < 8) {
+            return false;
+        }
+        char separator = pattern.charAt(4);
+        if (separator != '-' && separator != '/' && separator != '.') {
+            return false;
+        }
+        String datePart = pattern;
+        int space = pattern.indexOf(' ');
+        if (space >= 0) {
+            String timePart = pattern.substring(space + 1);
+            if (!timePart.equals("HH:mm") && !timePart.equals("HH:mm:ss")) {
+                return false;
+            }
+            datePart = pattern.substring(0, space);
+        }
+        String rest = datePart.substring(5);
+        int second = rest.indexOf(separator);
+        if (second < 0) {
+            return false;
+        }
+        String month = rest.substring(0, second);
+        String day = rest.substring(second + 1);
+        return (month.equals("M") || month.equals("MM")) && (day.equals("d") || day.equals("dd"));
+    }
+
+    /**
+     * Hand-written parser for year-first numeric dates with an optional time of day.
+     * Accepts one or two digit months and days, which covers both padded exports and
+     * layouts such as WeChat's {@code 2025/4/14 12:19}.
+     *
+     * @param text the trimmed value
+     * @param separator the date separator expected between year, month and day
+     * @return the parsed date, or null if the value does not match the layout
+     */
+    static LocalDate parseYearFirst(String text, char separator) {
+        int length = text.length();
+        if (length < 8 || text.charAt(4) != separator) {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        if (year < 0) {
+            return null;
+        }
+
+        int index = 5;
+        int monthEnd = index;
+        while (monthEnd < length && monthEnd - index < 2 && isDigit(text.charAt(monthEnd))) {
+            monthEnd++;
+        }
+        if (monthEnd == index || monthEnd >= length || text.charAt(monthEnd) != separator) {
+            return null;
+        }
+        int month = digits(text, index, monthEnd);
+
+        index = monthEnd + 1;
+        int dayEnd = index;
+        while (dayEnd < length && dayEnd - index < 2 && isDigit(text.charAt(dayEnd))) {
+            dayEnd++;
+        }
+        if (dayEnd == index) {
+            return null;
+        }
+        int day = digits(text, index, dayEnd);
+
+        if (dayEnd < length && !isTimeOfDay(text, dayEnd)) {
+            return null;
+        }
+        return toDate(year, month, day);
+    }
+
+    /**
+     * Validates an optional time suffix of the form {@code ( |T)H[H]:mm[:ss]}.
+     *
+     * @param text the full value
+     * @param start index of the character following the day
+     * @return true if the remainder of the value is a valid time of day
+     */
+    private static boolean isTimeOfDay(String text, int start) {
+        char c = text.charAt(start);
+        if (c != ' ' && c != 'T') {
+            return false;
+        }
+        int index = start + 1;
+        int length = text.length();
+        int hourEnd = index;
+        while (hourEnd < length && hourEnd - index < 2 && isDigit(text.charAt(hourEnd))) {
+            hourEnd++;
+        }
+        if (hourEnd == index || digits(text, index, hourEnd) > 23) {
+            return false;
+        }
+        index = hourEnd;
+        // Minutes are required, seconds are optional
+        for (int part = 0; part < 2 && index < length; part++) {
+            if (text.charAt(index) != ':' || index + 3 > length) {
+                return false;
+            }
+            int value = digits(text, index + 1, index + 3);
+            if (value < 0 || value > 59) {
+                return false;
+            }
+            index += 3;
+        }
+        return index == length && hourEnd + 3 <= length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Reads an unsigned decimal number from a range of characters.
+     *
+     * @return the number, or -1 if the range contains a non-digit
+     */
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Builds a date after range checking each field, so invalid dates never throw.
+     */
+    private static LocalDate toDate(long year, long month, long day) {
+        if (year < 1 || year > 9999 || month < 1 || month > 12 || day < 1) {
+            return null;
+        }
+        int lengthOfMonth = YearMonth.of((int) year, (int) month).lengthOfMonth();
+        if (day > lengthOfMonth) {
+            return null;
+        }
+        return LocalDate.of((int) year, (int) month, (int) day);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.app.model.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits CSV lines into fields.
+ * Handles quoted fields, commas within quotes and doubled quotes used as escapes.
+ */
+public final class CSVTokenizer {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private CSVTokenizer() {
+    }
+
+    /**
+     * Parses a CSV line into a list of trimmed fields.
+     *
+     * @param line the CSV line to parse
+     * @return a list of fields extracted from the line
+     */
+    public static List<String> tokenize(String line) {
+        List<String> result = new ArrayList<>();
+        boolean inQuotes = false;
+        StringBuilder currentField = new StringBuilder();
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"') {
+                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    // Escaped quote inside a quoted field
+                    currentField.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                result.add(currentField.toString().trim());
+                currentField.setLength(0);
+            } else {
+                currentField.append(c);
+            }
+        }
+
+        // Add the last field
+        result.add(currentField.toString().trim());
+
+        return result;
+    }
+
+    /**
+     * Removes a UTF-8 byte order mark from the start of a line, as written by some bank exports.
+     *
+     * @param line the first line of a file
+     * @return the line without a leading byte order mark
+     */
+    public static String stripByteOrderMark(String line) {
+        if (line != null && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+            return line.substring(1);
+        }
+        return line;
+    }
+}
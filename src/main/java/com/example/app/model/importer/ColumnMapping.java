@@ -0,0 +1,250 @@
+package com.example.app.model.importer;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes how the columns of a CSV export map onto transaction fields.
+ * Columns are referenced by header name and resolved against the actual header row of a file.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Named templates for common exports such as WeChat Pay</li>
+ *   <li>Template detection from a header row</li>
+ *   <li>Heuristic mapping for files that match no template</li>
+ *   <li>Income/expense identifiers for exports where all amounts are positive</li>
+ * </ul>
+ */
+@Getter
+@Builder(toBuilder = true)
+public class ColumnMapping {
+    /** Name of the custom (non-template) mapping */
+    public static final String CUSTOM = "Custom";
+
+    /** Name of the WeChat Pay template */
+    public static final String WECHAT_PAY = "WeChat Pay";
+
+    /** Default identifiers for income rows when a type column is used */
+    public static final String DEFAULT_INCOME_IDENTIFIERS = "Income,Revenue,Deposit";
+
+    /** Default identifiers for expense rows when a type column is used */
+    public static final String DEFAULT_EXPENSE_IDENTIFIERS = "Expense,Withdrawal,Debit";
+
+    /** Templates for known export formats, keyed by name */
+    private static final Map<String, ColumnMapping> TEMPLATES = new LinkedHashMap<>();
+
+    static {
+        TEMPLATES.put(WECHAT_PAY, ColumnMapping.builder()
+                .name(WECHAT_PAY)
+                .dateFormat("yyyy/M/d HH:mm") // Matches format like 2025/4/14 12:19
+                .dateColumn("Transaction Time")
+                .descriptionColumn("Product")
+                .amountColumn("Amount")
+                .useTypeColumn(true)
+                .typeColumn("Income/Expense")
+                .incomeIdentifiers(parseIdentifiers("Income"))
+                .expenseIdentifiers(parseIdentifiers("Expense"))
+                .build());
+    }
+
+    /** Name of the template this mapping came from, or {@link #CUSTOM} */
+    @Builder.Default
+    private final String name = CUSTOM;
+
+    /** Header of the date column */
+    private final String dateColumn;
+
+    /** Header of the description column, may be null */
+    private final String descriptionColumn;
+
+    /** Header of the category column, may be null */
+    private final String categoryColumn;
+
+    /** Header of the amount column */
+    private final String amountColumn;
+
+    /** Header of the transaction type column, may be null */
+    private final String typeColumn;
+
+    /** Preferred date format; the actual format is sniffed from the data */
+    @Builder.Default
+    private final String dateFormat = "yyyy-MM-dd";
+
+    /** Whether amounts are all positive and the type column decides the sign */
+    private final boolean useTypeColumn;
+
+    /** Lowercase identifiers marking income rows */
+    @Builder.Default
+    private final Set<String> incomeIdentifiers = parseIdentifiers(DEFAULT_INCOME_IDENTIFIERS);
+
+    /** Lowercase identifiers marking expense rows */
+    @Builder.Default
+    private final Set<String> expenseIdentifiers = parseIdentifiers(DEFAULT_EXPENSE_IDENTIFIERS);
+
+    /**
+     * Gets the names of all known templates.
+     *
+     * @return template names in display order
+     */
+    public static List<String> getTemplateNames() {
+        return Collections.unmodifiableList(new ArrayList<>(TEMPLATES.keySet()));
+    }
+
+    /**
+     * Gets a template by name.
+     *
+     * @param templateName the template name
+     * @return the template mapping, or null if no template has that name
+     */
+    public static ColumnMapping forTemplate(String templateName) {
+        return TEMPLATES.get(templateName);
+    }
+
+    /**
+     * Finds the first template whose required columns all appear in a header row.
+     *
+     * @param headers the header row of a CSV file
+     * @return the matching template, or null if none matches
+     */
+    public static ColumnMapping detectTemplate(List<String> headers) {
+        for (ColumnMapping template : TEMPLATES.values()) {
+            if (template.matches(headers)) {
+                return template;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a header row contains every column this mapping requires.
+     *
+     * @param headers the header row of a CSV file
+     * @return true if the date, amount and (when used) type columns are all present
+     */
+    public boolean matches(List<String> headers) {
+        return indexOf(headers, dateColumn) >= 0
+                && indexOf(headers, amountColumn) >= 0
+                && (!useTypeColumn || indexOf(headers, typeColumn) >= 0);
+    }
+
+    /**
+     * Builds a mapping for a header row: a matching template if there is one,
+     * otherwise a best guess from the header names.
+     *
+     * @param headers the header row of a CSV file
+     * @return a mapping for the file
+     */
+    public static ColumnMapping forHeaders(List<String> headers) {
+        ColumnMapping template = detectTemplate(headers);
+        return template != null ? template : guess(headers);
+    }
+
+    /**
+     * Guesses a mapping from header names, e.g. a header containing "date" becomes the date column.
+     *
+     * @param headers the header row of a CSV file
+     * @return the guessed mapping; columns that could not be guessed are null
+     */
+    public static ColumnMapping guess(List<String> headers) {
+        ColumnMappingBuilder builder = ColumnMapping.builder();
+        for (String header : headers) {
+            String headerLower = header.toLowerCase();
+
+            if (headerLower.contains("date")) {
+                builder.dateColumn(header);
+            } else if (headerLower.contains("desc") || headerLower.contains("memo")
+                    || headerLower.contains("narration")) {
+                builder.descriptionColumn(header);
+            } else if (headerLower.contains("categ")) {
+                builder.categoryColumn(header);
+            } else if (headerLower.contains("amount") || headerLower.contains("sum")
+                    || headerLower.contains("value")) {
+                builder.amountColumn(header);
+            } else if (headerLower.contains("type") || headerLower.contains("direction")
+                    || headerLower.contains("flow") || headerLower.contains("inout")) {
+                builder.typeColumn(header).useTypeColumn(true);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Finds a column in a header row, trying an exact match first and then a partial,
+     * case-insensitive match.
+     *
+     * @param headers the header row
+     * @param column the column name to look for, may be null
+     * @return the column index, or -1 if not found
+     */
+    public static int indexOf(List<String> headers, String column) {
+        if (column == null || column.isEmpty()) {
+            return -1;
+        }
+        int exact = headers.indexOf(column);
+        if (exact >= 0) {
+            return exact;
+        }
+        String columnLower = column.toLowerCase();
+        for (int i = 0; i < headers.size(); i++) {
+            String header = headers.get(i);
+            if (!header.isEmpty() && header.toLowerCase().contains(columnLower)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a comma-separated string of identifiers into a set.
+     *
+     * @param identifiersString comma-separated list of identifiers
+     * @return a set of lowercase identifiers
+     */
+    public static Set<String> parseIdentifiers(String identifiersString) {
+        Set<String> result = new HashSet<>();
+        if (identifiersString == null || identifiersString.trim().isEmpty()) {
+            return result;
+        }
+
+        for (String part : identifiersString.split(",")) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                result.add(trimmed.toLowerCase());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a value matches any of the provided identifiers.
+     * Performs both exact and partial matching.
+     *
+     * @param value the value to check
+     * @param identifiers the set of identifiers to match against
+     * @return true if the value matches any identifier, false otherwise
+     */
+    public static boolean matchesAnyIdentifier(String value, Set<String> identifiers) {
+        if (value == null || value.isEmpty() || identifiers.isEmpty()) {
+            return false;
+        }
+
+        String lowerValue = value.toLowerCase();
+        if (identifiers.contains(lowerValue)) {
+            return true;
+        }
+        for (String identifier : identifiers) {
+            if (lowerValue.contains(identifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.FingerprintIndex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sorts any number of transactions by date using bounded memory.
+ * <p>
+ * Transactions handed to {@link #accept(List)} are buffered until a run is full, sorted by day,
+ * fingerprint and source, and spilled to a temporary file.
+ * {@link #mergeInto(TransactionSink, int, FingerprintIndex, ImportPipeline.NearDuplicatePolicy)} then k-way
+ * merges the runs with a priority queue and streams the result to another sink in batches.
+ * Because equal transactions sort next to each other, duplicates are found by comparing each row
+ * with the previous one, without remembering every fingerprint: a row repeating one of an earlier
+ * source is dropped, while a row repeated within its own source is handled like a near duplicate.
+ * <p>
+ * Memory use is bounded by the run size plus one buffered row per open run.
+ */
+public class ExternalMergeSorter implements TransactionSink, Closeable {
+    private static final Logger LOGGER = Logger.getLogger(ExternalMergeSorter.class.getName());
+
+    /** Default number of transactions held in memory before a run is spilled */
+    public static final int DEFAULT_RUN_SIZE = 50_000;
+
+    /** Maximum number of runs merged at once; more runs are merged in several passes */
+    static final int MAX_FAN_IN = 64;
+
+    /** Maximum number of repeated rows described in {@link #getRepeats()} */
+    static final int MAX_REPORTED_REPEATS = 1000;
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    /** Orders rows by day, then fingerprint so equal transactions are adjacent, then source */
+    private static final Comparator<SortedRow> ROW_ORDER = Comparator.comparing((SortedRow row) -> row.day)
+            .thenComparingLong(row -> row.fingerprint)
+            .thenComparingInt(row -> row.source);
+
+    private final File spillDirectory;
+    private final int runSize;
+    private final List<File> runs = new ArrayList<>();
+    private List<SortedRow> buffer = new ArrayList<>();
+    private long acceptedRows;
+    private int duplicateRows;
+    private int repeatedRows;
+    private final List<String> repeats = new ArrayList<>();
+    private int source;
+
+    /** A transaction with its sort key */
+    private static final class SortedRow {
+        final String day;
+        final long fingerprint;
+        final int source;
+        final Object[] transaction;
+
+        SortedRow(Object[] transaction, int source) {
+            String date = (String) transaction[0];
+            this.day = date.length() > 10 ? date.substring(0, 10) : date;
+            this.fingerprint = FingerprintIndex.fingerprint(transaction);
+            this.source = source;
+            this.transaction = transaction;
+        }
+
+        SortedRow(String day, long fingerprint, int source, Object[] transaction) {
+            this.day = day;
+            this.fingerprint = fingerprint;
+            this.source = source;
+            this.transaction = transaction;
+        }
+    }
+
+    /** Sequential reader over one spilled run */
+    private static final class RunReader implements Closeable {
+        private final DataInputStream in;
+        SortedRow current;
+
+        RunReader(File run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), IO_BUFFER_SIZE));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                String day = in.readUTF();
+                long fingerprint = in.readLong();
+                int source = in.readInt();
+                Object[] transaction = {in.readUTF(), in.readUTF(), in.readUTF(), in.readDouble(), in.readBoolean()};
+                current = new SortedRow(day, fingerprint, source, transaction);
+                return true;
+            } catch (EOFException e) {
+                current = null;
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Creates a sorter with the default run size.
+     *
+     * @param spillDirectory directory for temporary run files, created if needed
+     */
+    public ExternalMergeSorter(File spillDirectory) {
+        this(spillDirectory, DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * Creates a sorter.
+     *
+     * @param spillDirectory directory for temporary run files, created if needed
+     * @param runSize number of transactions held in memory before a run is spilled
+     */
+    public ExternalMergeSorter(File spillDirectory, int runSize) {
+        this.spillDirectory = spillDirectory;
+        this.runSize = Math.max(1, runSize);
+    }
+
+    /**
+     * Marks the start of the next source, such as the next file of an import. Transactions accepted
+     * from then on belong to that source.
+     */
+    public synchronized void startSource() {
+        source++;
+    }
+
+    /**
+     * Buffers a batch of transactions, spilling a sorted run whenever the buffer is full.
+     *
+     * @param batch the transactions to sort
+     * @throws IOException if a run cannot be written
+     */
+    @Override
+    public synchronized void accept(List<Object[]> batch) throws IOException {
+        for (Object[] transaction : batch) {
+            buffer.add(new SortedRow(transaction, source));
+            acceptedRows++;
+            if (buffer.size() >= runSize) {
+                spill();
+            }
+        }
+    }
+
+    /**
+     * Merges everything accepted so far and streams it to a sink in date order.
+     * Transactions already in the ledger index, or in an earlier source, are dropped. Transactions
+     * repeated within one source are reported in {@link #getRepeats()} and kept unless the policy is
+     * {@code SKIP}, as in {@link ImportPipeline}.
+     *
+     * @param target the sink receiving the merged transactions
+     * @param batchSize number of transactions handed to the target at once
+     * @param ledgerIndex fingerprint index of the ledger, or null to only drop repeats of earlier sources
+     * @param repeatPolicy whether rows repeated within one source are imported and flagged or skipped
+     * @return the number of transactions handed to the target
+     * @throws IOException if a run cannot be read or the target fails
+     */
+    public synchronized long mergeInto(TransactionSink target, int batchSize, FingerprintIndex ledgerIndex,
+                                       ImportPipeline.NearDuplicatePolicy repeatPolicy) throws IOException {
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+
+        // Reduce the number of runs until they can be merged with one reader each
+        while (runs.size() > MAX_FAN_IN) {
+            List<File> merged = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                List<File> group = new ArrayList<>(runs.subList(i, Math.min(runs.size(), i + MAX_FAN_IN)));
+                File output = createRunFile();
+                try (DataOutputStream out = openRun(output)) {
+                    merge(group, row -> writeRow(out, row));
+                }
+                deleteAll(group);
+                merged.add(output);
+            }
+            runs.clear();
+            runs.addAll(merged);
+        }
+
+        long[] written = {0};
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long[] previous = {0};
+        int[] previousSource = {0};
+        boolean[] hasPrevious = {false};
+        merge(runs, row -> {
+            if (ledgerIndex != null && ledgerIndex.contains(row.fingerprint)) {
+                duplicateRows++;
+                return;
+            }
+            if (hasPrevious[0] && row.fingerprint == previous[0]) {
+                // Equal rows are ordered by source, so the first one came from the earliest source
+                if (row.source != previousSource[0]) {
+                    duplicateRows++;
+                    return;
+                }
+                repeatedRows++;
+                if (repeats.size() < MAX_REPORTED_REPEATS) {
+                    repeats.add(ImportPipeline.describe(row.transaction) + " repeats an earlier row");
+                }
+                if (repeatPolicy == ImportPipeline.NearDuplicatePolicy.SKIP) {
+                    return;
+                }
+            } else {
+                previous[0] = row.fingerprint;
+                previousSource[0] = row.source;
+                hasPrevious[0] = true;
+            }
+            batch.add(row.transaction);
+            if (batch.size() >= batchSize) {
+                target.accept(batch);
+                written[0] += batch.size();
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            target.accept(batch);
+            written[0] += batch.size();
+        }
+
+        deleteAll(runs);
+        runs.clear();
+        LOGGER.log(Level.INFO, "Merged {0} transactions into {1}, dropped {2} duplicates",
+                new Object[]{acceptedRows, written[0], duplicateRows});
+        return written[0];
+    }
+
+    /**
+     * Gets the number of transactions accepted so far.
+     *
+     * @return accepted transactions
+     */
+    public synchronized long getAcceptedRows() {
+        return acceptedRows;
+    }
+
+    /**
+     * Gets the number of duplicates dropped while merging.
+     *
+     * @return duplicate transactions
+     */
+    public synchronized int getDuplicateRows() {
+        return duplicateRows;
+    }
+
+    /**
+     * Gets the number of rows found repeated within their source while merging.
+     *
+     * @return repeated transactions, whether kept or skipped
+     */
+    public synchronized int getRepeatedRows() {
+        return repeatedRows;
+    }
+
+    /**
+     * Describes the rows found repeated within their source while merging, up to
+     * {@value #MAX_REPORTED_REPEATS} of them.
+     *
+     * @return one description per repeated row
+     */
+    public synchronized List<String> getRepeats() {
+        return new ArrayList<>(repeats);
+    }
+
+    /**
+     * Gets the number of runs currently spilled to disk.
+     *
+     * @return spilled runs
+     */
+    synchronized int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Deletes any remaining run files.
+     */
+    @Override
+    public synchronized void close() {
+        deleteAll(runs);
+        runs.clear();
+        buffer = new ArrayList<>();
+    }
+
+    /** Receives merged rows in order */
+    private interface RowConsumer {
+        void accept(SortedRow row) throws IOException;
+    }
+
+    private void merge(List<File> inputs, RowConsumer consumer) throws IOException {
+        PriorityQueue<RunReader> heads = new PriorityQueue<>(
+                Math.max(1, inputs.size()), Comparator.comparing(reader -> reader.current, ROW_ORDER));
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            for (File input : inputs) {
+                RunReader reader = new RunReader(input);
+                readers.add(reader);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+            while (!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                consumer.accept(reader.current);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        buffer.sort(ROW_ORDER);
+        File run = createRunFile();
+        try (DataOutputStream out = openRun(run)) {
+            for (SortedRow row : buffer) {
+                writeRow(out, row);
+            }
+        }
+        runs.add(run);
+        LOGGER.log(Level.FINE, "Spilled run of {0} transactions to {1}", new Object[]{buffer.size(), run});
+        buffer = new ArrayList<>();
+    }
+
+    private File createRunFile() throws IOException {
+        Files.createDirectories(spillDirectory.toPath());
+        File run = Files.createTempFile(spillDirectory.toPath(), "import-run-", ".bin").toFile();
+        run.deleteOnExit();
+        return run;
+    }
+
+    private static DataOutputStream openRun(File run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), IO_BUFFER_SIZE));
+    }
+
+    private static void writeRow(DataOutputStream out, SortedRow row) throws IOException {
+        Object[] transaction = row.transaction;
+        out.writeUTF(row.day);
+        out.writeLong(row.fingerprint);
+        out.writeInt(row.source);
+        out.writeUTF((String) transaction[0]);
+        out.writeUTF(transaction[1] != null ? (String) transaction[1] : "");
+        out.writeUTF(transaction[2] != null ? (String) transaction[2] : "");
+        out.writeDouble(((Number) transaction[3]).doubleValue());
+        out.writeBoolean(transaction.length > 4 && Boolean.TRUE.equals(transaction[4]));
+    }
+
+    private static void deleteAll(List<File> files) {
+        for (File file : files) {
+            if (file.exists() && !file.delete()) {
+                LOGGER.log(Level.WARNING, "Could not delete run file: {0}", file.getAbsolutePath());
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.UserBillStorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command line entry point for importing a CSV export into a user's ledger.
+ * Drives the same {@link ImportPipeline} as the CSV import dialog.
+ * <p>
+ * Usage: {@code ImportCommand <username> <csv-file|folder> [template]}
+ * <br>
+ * Without a template name the mapping is detected from the header row.
+ * The file may be gzip-compressed or a zip archive; a folder, or an archive with several
+ * CSV entries, is imported as one batch.
+ * Files larger than {@link OutOfCoreImport#THRESHOLD_BYTES} once decompressed are imported out of core.
+ */
+public final class ImportCommand {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ImportCommand() {
+    }
+
+    /**
+     * Runs an import from the command line.
+     *
+     * @param args username, CSV file or folder path and an optional template name
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: ImportCommand <username> <csv-file|csv.gz|zip|folder> [template]");
+            System.err.println("Templates: " + ColumnMapping.getTemplateNames());
+            System.exit(2);
+        }
+
+        Path file = Paths.get(args[1]);
+        try {
+            ColumnMapping mapping = null;
+            if (args.length > 2) {
+                mapping = ColumnMapping.forTemplate(args[2]);
+                if (mapping == null) {
+                    System.err.println("Unknown template: " + args[2]);
+                    System.exit(2);
+                }
+            }
+
+            // A folder or an archive with several CSV entries is imported as one batch
+            List<ImportSource> sources = ImportSource.fromPaths(Collections.singletonList(file));
+            boolean batch = Files.isDirectory(file) || sources.size() != 1;
+            if (mapping == null && !batch) {
+                mapping = ColumnMapping.forHeaders(sources.get(0).readHeader());
+            }
+
+            UserBillStorage.setUsername(args[0]);
+            TransactionClassifier classifier = UserBillStorage.getMerchantRules()
+                    .orElse(UserBillStorage.getCategoryClassifier());
+            ImportResult result;
+            if (!batch && sources.get(0).getEstimatedSize() > OutOfCoreImport.THRESHOLD_BYTES) {
+                File spillDirectory = new File(UserBillStorage.getUserDirectory(), "import-tmp");
+                result = new OutOfCoreImport(mapping, new LedgerSink(), spillDirectory)
+                        .withClassifier(classifier)
+                        .withLedgerIndex(UserBillStorage.getFingerprintIndex())
+                        .run(Collections.singletonList(file));
+                System.out.println("File too large for the look-alike check against the ledger;"
+                        + " only exact duplicates and rows repeated within the file were checked");
+            } else {
+                NearDuplicateDetector nearDuplicates = new NearDuplicateDetector();
+                nearDuplicates.addAll(UserBillStorage.loadTransactions());
+                if (batch) {
+                    result = new BatchImport(new LedgerSink())
+                            .withMapping(mapping)
+                            .withClassifier(classifier)
+                            .withLedgerIndex(UserBillStorage.getFingerprintIndex())
+                            .withNearDuplicateDetection(nearDuplicates, ImportPipeline.NearDuplicatePolicy.FLAG)
+                            .runSources(sources);
+                } else {
+                    result = new ImportPipeline(mapping, new LedgerSink())
+                            .withClassifier(classifier)
+                            .withLedgerIndex(UserBillStorage.getFingerprintIndex())
+                            .withNearDuplicateDetection(nearDuplicates, ImportPipeline.NearDuplicatePolicy.FLAG)
+                            .collectTransactions(false)
+                            .run(sources.get(0));
+                }
+            }
+
+            System.out.println("Imported " + result.getImportedRows() + " of " + result.getTotalRows()
+                    + " rows into " + UserBillStorage.getBillFilePath()
+                    + " (" + result.getSkippedRows() + " skipped, "
+                    + result.getDuplicateRows() + " duplicates)");
+            for (String nearDuplicate : result.getNearDuplicates()) {
+                System.out.println("  Possible duplicate: " + nearDuplicate);
+            }
+            for (String error : result.getErrors()) {
+                System.out.println("  " + error);
+            }
+            for (StageStats stats : result.getStageStats()) {
+                System.out.println("  " + stats);
+            }
+        } catch (IOException e) {
+            System.err.println("Import failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,740 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.FingerprintIndex;
+import com.example.app.user_data.LongHashSet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Staged, pipelined engine for importing transactions from CSV exports.
+ * Each stage runs on its own worker thread and hands items to the next stage through a
+ * bounded queue, so a slow stage (usually persist) applies back-pressure instead of letting
+ * parsed rows pile up in memory.
+ * <p>
+ * Stages, in order:
+ * <ol>
+ *   <li><b>read</b> - reads lines from the source</li>
+ *   <li><b>tokenize</b> - splits lines into CSV fields</li>
+ *   <li><b>map</b> - resolves the {@link ColumnMapping} against the header and picks out fields</li>
+ *   <li><b>validate</b> - parses dates and amounts and normalises the amount sign</li>
+ *   <li><b>classify</b> - fills in missing categories using a {@link TransactionClassifier}</li>
+ *   <li><b>dedupe</b> - drops rows already in the ledger; rows repeated within the source are reported
+ *       as near duplicates and, since a statement can list genuine identical payments on one day,
+ *       kept unless the {@link NearDuplicatePolicy} is {@code SKIP}</li>
+ *   <li><b>persist</b> - hands batches of transactions to a {@link TransactionSink}</li>
+ * </ol>
+ * The CSV import dialog and {@link ImportCommand} both drive imports through this class.
+ */
+public class ImportPipeline {
+    private static final Logger LOGGER = Logger.getLogger(ImportPipeline.class.getName());
+
+    /** Default capacity of each queue between two stages */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /** Default number of transactions handed to the sink at once */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** Stage names in pipeline order */
+    public static final List<String> STAGE_NAMES = Collections.unmodifiableList(Arrays.asList(
+            "read", "tokenize", "map", "validate", "classify", "dedupe", "persist"));
+
+    /** Category assigned when the export has no category column */
+    public static final String UNCATEGORISED = "Uncategorised";
+
+    /** Marker passed down the queues after the last item */
+    private static final Object END = new Object();
+
+    /** Characters stripped from amounts, such as currency symbols and thousands separators */
+    private static final Pattern NON_NUMERIC = Pattern.compile("[^\\d.-]");
+
+    private final ColumnMapping mapping;
+    private final TransactionSink sink;
+    private TransactionClassifier classifier;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean deduplicate = true;
+    private FingerprintIndex ledgerIndex;
+    private NearDuplicateDetector nearDuplicateDetector;
+    private NearDuplicatePolicy nearDuplicatePolicy = NearDuplicatePolicy.FLAG;
+    private boolean collectTransactions = true;
+
+    /**
+     * Creates a pipeline for one column mapping and sink.
+     *
+     * @param mapping how CSV columns map to transaction fields
+     * @param sink where validated transactions are persisted
+     */
+    public ImportPipeline(ColumnMapping mapping, TransactionSink sink) {
+        this.mapping = mapping;
+        this.sink = sink;
+    }
+
+    /**
+     * Sets the classifier used for rows without a category.
+     *
+     * @param classifier the classifier, or null to leave categories untouched
+     * @return this pipeline
+     */
+    public ImportPipeline withClassifier(TransactionClassifier classifier) {
+        this.classifier = classifier;
+        return this;
+    }
+
+    /**
+     * Sets the capacity of the queues between stages.
+     *
+     * @param queueCapacity maximum number of items buffered between two stages
+     * @return this pipeline
+     */
+    public ImportPipeline withQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        return this;
+    }
+
+    /**
+     * Sets the number of transactions handed to the sink at once.
+     *
+     * @param batchSize the batch size
+     * @return this pipeline
+     */
+    public ImportPipeline withBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    /**
+     * Enables or disables dropping of rows that are already in the ledger, with a
+     * {@link #withLedgerIndex(FingerprintIndex) ledger index}, and reporting of rows repeated within the source.
+     *
+     * @param deduplicate true to drop repeated rows
+     * @return this pipeline
+     */
+    public ImportPipeline withDeduplication(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+        return this;
+    }
+
+    /**
+     * Sets the fingerprint index of the ledger being imported into.
+     * Rows already in the ledger are counted as duplicates and not persisted again.
+     *
+     * @param ledgerIndex the ledger's fingerprint index, or null to only drop repeats within the import
+     * @return this pipeline
+     */
+    public ImportPipeline withLedgerIndex(FingerprintIndex ledgerIndex) {
+        this.ledgerIndex = ledgerIndex;
+        return this;
+    }
+
+    /**
+     * Enables fuzzy duplicate detection. The detector may be pre-filled with ledger transactions;
+     * every row that passes exact deduplication is checked against it and then added to it,
+     * so near duplicates within the import are found as well. The policy also applies to rows
+     * repeated within the source.
+     *
+     * @param detector the detector, or null to only apply the policy to repeated rows
+     * @param policy whether near duplicates and repeated rows are imported and flagged or skipped
+     * @return this pipeline
+     */
+    public ImportPipeline withNearDuplicateDetection(NearDuplicateDetector detector, NearDuplicatePolicy policy) {
+        this.nearDuplicateDetector = detector;
+        this.nearDuplicatePolicy = policy;
+        return this;
+    }
+
+    /**
+     * Controls whether imported transactions are kept in the {@link ImportResult}.
+     * Disable for very large imports where the caller only needs the counts.
+     *
+     * @param collectTransactions true to collect imported transactions
+     * @return this pipeline
+     */
+    public ImportPipeline collectTransactions(boolean collectTransactions) {
+        this.collectTransactions = collectTransactions;
+        return this;
+    }
+
+    /**
+     * Imports a CSV file, which may be gzip-compressed or a zip archive holding a single CSV file.
+     * Malformed characters are replaced rather than failing the import.
+     *
+     * @param file the CSV file
+     * @return the import result
+     * @throws IOException if the file cannot be read, the header does not match the mapping,
+     *         the sink fails or the import is interrupted
+     */
+    public ImportResult run(Path file) throws IOException {
+        return run(ImportSource.single(file));
+    }
+
+    /**
+     * Imports one CSV source, decompressing it while it is read.
+     *
+     * @param source the CSV source
+     * @return the import result
+     * @throws IOException if the source cannot be read, the header does not match the mapping,
+     *         the sink fails or the import is interrupted
+     */
+    public ImportResult run(ImportSource source) throws IOException {
+        try (Reader reader = source.openReader()) {
+            return run(reader);
+        }
+    }
+
+    /**
+     * Imports CSV content from a reader. The first non-empty line must be the header row.
+     * Blocks until all stages have finished; the reader is not closed.
+     *
+     * @param source the CSV content
+     * @return the import result
+     * @throws IOException if the source cannot be read, the header does not match the mapping,
+     *         the sink fails or the import is interrupted
+     */
+    public ImportResult run(Reader source) throws IOException {
+        return new Execution(source).execute();
+    }
+
+    /**
+     * Describes a transaction in import reports.
+     *
+     * @param transaction the transaction
+     * @return the date, description and amount
+     */
+    static String describe(Object[] transaction) {
+        return String.format("%s %s (%.2f)", transaction[0], transaction[1], ((Number) transaction[3]).doubleValue());
+    }
+
+    /**
+     * What to do with rows that repeat a row of the same source, or look like a transaction already seen
+     * under a slightly different description. Every import path applies the policy the same way.
+     */
+    public enum NearDuplicatePolicy {
+        /** Import the row and report it in {@link ImportResult#getNearDuplicates()} */
+        FLAG,
+        /** Report the row and leave it out of the import */
+        SKIP
+    }
+
+    /** A raw line and its data row number (0 for the header) */
+    private static final class Line {
+        final int number;
+        final String text;
+
+        Line(int number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+    }
+
+    /** A tokenized line */
+    private static final class TokenizedLine {
+        final int number;
+        final List<String> fields;
+
+        TokenizedLine(int number, List<String> fields) {
+            this.number = number;
+            this.fields = fields;
+        }
+    }
+
+    /** The mapped fields of a data row, still unparsed */
+    private static final class MappedRow {
+        final int number;
+        final String date;
+        final String description;
+        final String category;
+        final String amount;
+        final String type;
+
+        MappedRow(int number, String date, String description, String category, String amount, String type) {
+            this.number = number;
+            this.date = date;
+            this.description = description;
+            this.category = category;
+            this.amount = amount;
+            this.type = type;
+        }
+    }
+
+    /**
+     * State of a single pipeline run: the queues, counters and stage threads.
+     */
+    private final class Execution {
+        private final Reader source;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private final List<Object[]> collected = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger totalRows = new AtomicInteger();
+        private final AtomicInteger skippedRows = new AtomicInteger();
+        private final AtomicInteger duplicateRows = new AtomicInteger();
+        private final List<String> nearDuplicates = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger importedRows = new AtomicInteger();
+        private final List<StageStats> stats = new ArrayList<>();
+
+        Execution(Reader source) {
+            this.source = source;
+            for (String name : STAGE_NAMES) {
+                stats.add(new StageStats(name));
+            }
+        }
+
+        ImportResult execute() throws IOException {
+            List<BlockingQueue<Object>> queues = new ArrayList<>();
+            for (int i = 0; i < STAGE_NAMES.size() - 1; i++) {
+                queues.add(new ArrayBlockingQueue<>(queueCapacity));
+            }
+
+            List<Runnable> workers = new ArrayList<>();
+            workers.add(new ReadStage(stats.get(0), queues.get(0)));
+            workers.add(new TokenizeStage(stats.get(1), queues.get(0), queues.get(1)));
+            workers.add(new MapStage(stats.get(2), queues.get(1), queues.get(2)));
+            workers.add(new ValidateStage(stats.get(3), queues.get(2), queues.get(3)));
+            workers.add(new ClassifyStage(stats.get(4), queues.get(3), queues.get(4)));
+            workers.add(new DedupeStage(stats.get(5), queues.get(4), queues.get(5)));
+            workers.add(new PersistStage(stats.get(6), queues.get(5)));
+
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < workers.size(); i++) {
+                Thread thread = new Thread(workers.get(i), "import-" + STAGE_NAMES.get(i));
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+
+            try {
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                for (Thread thread : threads) {
+                    thread.interrupt();
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import was cancelled");
+            }
+
+            for (StageStats stageStats : stats) {
+                LOGGER.log(Level.INFO, "Import stage {0}", stageStats);
+            }
+
+            Throwable cause = failure.get();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause != null) {
+                throw new IOException("Import failed: " + cause.getMessage(), cause);
+            }
+
+            return new ImportResult(new ArrayList<>(collected), totalRows.get(), importedRows.get(),
+                    skippedRows.get(), duplicateRows.get(), new ArrayList<>(nearDuplicates),
+                    new ArrayList<>(errors), stats);
+        }
+
+        private void fail(Throwable cause) {
+            if (failure.compareAndSet(null, cause)) {
+                LOGGER.log(Level.WARNING, "Import pipeline failed", cause);
+            }
+        }
+
+        /**
+         * Passes the end marker downstream. Downstream stages keep draining after a failure,
+         * so a blocking put is safe unless this thread was interrupted by a cancelled import.
+         */
+        private void signalEnd(BlockingQueue<Object> output, boolean interrupted) {
+            if (interrupted) {
+                output.offer(END);
+                return;
+            }
+            try {
+                output.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void rowError(int rowNumber, String message) {
+            errors.add("Row " + rowNumber + ": " + message);
+        }
+
+        /**
+         * Base class for stages that consume from one queue and optionally emit into another.
+         */
+        private abstract class Stage implements Runnable {
+            private final StageStats stageStats;
+            private final BlockingQueue<Object> input;
+            private final BlockingQueue<Object> output;
+            private long blockedNanos;
+
+            Stage(StageStats stageStats, BlockingQueue<Object> input, BlockingQueue<Object> output) {
+                this.stageStats = stageStats;
+                this.input = input;
+                this.output = output;
+            }
+
+            abstract void process(Object item) throws Exception;
+
+            void finish() throws Exception {
+                // Nothing buffered by default
+            }
+
+            void emit(Object item) throws InterruptedException {
+                long start = System.nanoTime();
+                output.put(item);
+                blockedNanos += System.nanoTime() - start;
+                stageStats.recordOut();
+            }
+
+            @Override
+            public void run() {
+                long started = System.nanoTime();
+                boolean interrupted = false;
+                try {
+                    Object item;
+                    while ((item = input.take()) != END) {
+                        if (failure.get() != null) {
+                            continue; // Keep draining so upstream stages never block
+                        }
+                        try {
+                            long start = System.nanoTime();
+                            blockedNanos = 0;
+                            process(item);
+                            stageStats.recordIn(System.nanoTime() - start - blockedNanos);
+                        } catch (InterruptedException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            fail(e);
+                        }
+                    }
+                    if (failure.get() == null) {
+                        long start = System.nanoTime();
+                        blockedNanos = 0;
+                        finish();
+                        stageStats.addBusyNanos(System.nanoTime() - start - blockedNanos);
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    fail(e);
+                } catch (Exception e) {
+                    fail(e);
+                } finally {
+                    if (output != null) {
+                        signalEnd(output, interrupted);
+                    }
+                    stageStats.setElapsedNanos(System.nanoTime() - started);
+                }
+            }
+        }
+
+        /** Reads non-empty lines from the source */
+        private final class ReadStage implements Runnable {
+            private final StageStats stageStats;
+            private final BlockingQueue<Object> output;
+
+            ReadStage(StageStats stageStats, BlockingQueue<Object> output) {
+                this.stageStats = stageStats;
+                this.output = output;
+            }
+
+            @Override
+            public void run() {
+                long started = System.nanoTime();
+                try {
+                    BufferedReader reader = source instanceof BufferedReader
+                            ? (BufferedReader) source : new BufferedReader(source);
+                    int number = 0;
+                    boolean header = true;
+                    while (failure.get() == null) {
+                        long start = System.nanoTime();
+                        String text = reader.readLine();
+                        if (text == null) {
+                            break;
+                        }
+                        if (header) {
+                            text = CSVTokenizer.stripByteOrderMark(text);
+                        }
+                        if (text.trim().isEmpty()) {
+                            continue;
+                        }
+                        Line line = new Line(header ? 0 : ++number, text);
+                        header = false;
+                        stageStats.recordIn(System.nanoTime() - start);
+                        output.put(line);
+                        stageStats.recordOut();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(e);
+                } catch (IOException e) {
+                    fail(e);
+                } finally {
+                    signalEnd(output, Thread.currentThread().isInterrupted());
+                    stageStats.setElapsedNanos(System.nanoTime() - started);
+                }
+            }
+        }
+
+        /** Splits lines into fields */
+        private final class TokenizeStage extends Stage {
+            TokenizeStage(StageStats stageStats, BlockingQueue<Object> input, BlockingQueue<Object> output) {
+                super(stageStats, input, output);
+            }
+
+            @Override
+            void process(Object item) throws InterruptedException {
+                Line line = (Line) item;
+                emit(new TokenizedLine(line.number, CSVTokenizer.tokenize(line.text)));
+            }
+        }
+
+        /** Resolves the column mapping against the header and extracts mapped fields */
+        private final class MapStage extends Stage {
+            private List<String> headers;
+            private int dateIdx = -1, descIdx = -1, catIdx = -1, amountIdx = -1, typeIdx = -1;
+
+            MapStage(StageStats stageStats, BlockingQueue<Object> input, BlockingQueue<Object> output) {
+                super(stageStats, input, output);
+            }
+
+            @Override
+            void process(Object item) throws Exception {
+                TokenizedLine record = (TokenizedLine) item;
+                if (headers == null) {
+                    resolveHeaders(record.fields);
+                    return;
+                }
+
+                totalRows.incrementAndGet();
+                List<String> fields = record.fields;
+                if (fields.size() != headers.size()) {
+                    rowError(record.number, "Expected " + headers.size() + " columns but found " + fields.size());
+                    skippedRows.incrementAndGet();
+                    return;
+                }
+                emit(new MappedRow(record.number,
+                        field(fields, dateIdx, ""),
+                        field(fields, descIdx, ""),
+                        field(fields, catIdx, UNCATEGORISED),
+                        field(fields, amountIdx, "0.0"),
+                        field(fields, typeIdx, null)));
+            }
+
+            private void resolveHeaders(List<String> headerRow) throws IOException {
+                headers = headerRow;
+                dateIdx = ColumnMapping.indexOf(headers, mapping.getDateColumn());
+                descIdx = ColumnMapping.indexOf(headers, mapping.getDescriptionColumn());
+                catIdx = ColumnMapping.indexOf(headers, mapping.getCategoryColumn());
+                amountIdx = ColumnMapping.indexOf(headers, mapping.getAmountColumn());
+                typeIdx = ColumnMapping.indexOf(headers, mapping.getTypeColumn());
+                if (dateIdx < 0 || amountIdx < 0) {
+                    throw new IOException("CSV header does not contain the Date and Amount columns "
+                            + "expected by the '" + mapping.getName() + "' mapping");
+                }
+                if (mapping.isUseTypeColumn() && typeIdx < 0) {
+                    throw new IOException("CSV header does not contain the Transaction Type column '"
+                            + mapping.getTypeColumn() + "'");
+                }
+            }
+
+            private String field(List<String> fields, int index, String defaultValue) {
+                return index >= 0 && index < fields.size() ? fields.get(index) : defaultValue;
+            }
+        }
+
+        /** Parses dates and amounts; the date format is sniffed from the first rows */
+        private final class ValidateStage extends Stage {
+            private final List<MappedRow> sniffBuffer = new ArrayList<>();
+            private CSVDateParser dateParser;
+
+            ValidateStage(StageStats stageStats, BlockingQueue<Object> input, BlockingQueue<Object> output) {
+                super(stageStats, input, output);
+            }
+
+            @Override
+            void process(Object item) throws InterruptedException {
+                MappedRow row = (MappedRow) item;
+                if (dateParser == null) {
+                    sniffBuffer.add(row);
+                    if (sniffBuffer.size() >= CSVDateParser.DEFAULT_SAMPLE_SIZE) {
+                        flushSniffBuffer();
+                    }
+                    return;
+                }
+                validate(row);
+            }
+
+            @Override
+            void finish() throws InterruptedException {
+                if (dateParser == null) {
+                    flushSniffBuffer();
+                }
+            }
+
+            private void flushSniffBuffer() throws InterruptedException {
+                List<String> samples = new ArrayList<>(sniffBuffer.size());
+                for (MappedRow row : sniffBuffer) {
+                    samples.add(row.date);
+                }
+                dateParser = CSVDateParser.sniff(samples, mapping.getDateFormat());
+                for (MappedRow row : sniffBuffer) {
+                    validate(row);
+                }
+                sniffBuffer.clear();
+            }
+
+            private void validate(MappedRow row) throws InterruptedException {
+                if (row.date.isEmpty()) {
+                    rowError(row.number, "Empty date field");
+                    skippedRows.incrementAndGet();
+                    return;
+                }
+                String formattedDate = dateParser.format(row.date);
+                if (formattedDate == null) {
+                    rowError(row.number, "Failed to parse date '" + row.date
+                            + "' using format '" + dateParser.getPattern() + "'");
+                    skippedRows.incrementAndGet();
+                    return;
+                }
+
+                String cleanAmount = NON_NUMERIC.matcher(row.amount).replaceAll("");
+                if (cleanAmount.isEmpty()) {
+                    rowError(row.number, "Empty amount field");
+                    skippedRows.incrementAndGet();
+                    return;
+                }
+                double amount;
+                try {
+                    amount = Double.parseDouble(cleanAmount);
+                } catch (NumberFormatException e) {
+                    rowError(row.number, "Failed to parse amount '" + row.amount + "'");
+                    skippedRows.incrementAndGet();
+                    return;
+                }
+
+                // Apply transaction type if enabled
+                if (mapping.isUseTypeColumn() && row.type != null) {
+                    String typeValue = row.type.trim();
+                    if (ColumnMapping.matchesAnyIdentifier(typeValue, mapping.getExpenseIdentifiers())) {
+                        amount = -Math.abs(amount);
+                    } else if (ColumnMapping.matchesAnyIdentifier(typeValue, mapping.getIncomeIdentifiers())) {
+                        amount = Math.abs(amount);
+                    } else {
+                        rowError(row.number, "Could not determine transaction type from '" + typeValue + "'");
+                    }
+                }
+
+                Object[] transaction = {formattedDate, row.description, row.category, amount, false};
+                LOGGER.log(Level.FINE, "Parsed transaction: {0}", Arrays.toString(transaction));
+                emit(transaction);
+            }
+        }
+
+        /** Fills in categories for rows that arrived without one */
+        private final class ClassifyStage extends Stage {
+            ClassifyStage(StageStats stageStats, BlockingQueue<Object> input, BlockingQueue<Object> output) {
+                super(stageStats, input, output);
+            }
+
+            @Override
+            void process(Object item) throws InterruptedException {
+                Object[] transaction = (Object[]) item;
+                String category = (String) transaction[2];
+                if (classifier != null && (category.isEmpty() || UNCATEGORISED.equals(category))) {
+                    String suggested = classifier.classify((String) transaction[1], (Double) transaction[3]);
+                    if (suggested != null && !suggested.isEmpty()) {
+                        transaction[2] = suggested;
+                    }
+                }
+                emit(transaction);
+            }
+        }
+
+        /** Drops rows already in the ledger and reports rows repeated within this import */
+        private final class DedupeStage extends Stage {
+            private final LongHashSet seen = new LongHashSet();
+
+            DedupeStage(StageStats stageStats, BlockingQueue<Object> input, BlockingQueue<Object> output) {
+                super(stageStats, input, output);
+            }
+
+            @Override
+            void process(Object item) throws InterruptedException {
+                Object[] transaction = (Object[]) item;
+                long fingerprint = FingerprintIndex.fingerprint(transaction);
+                if (deduplicate && ledgerIndex != null && ledgerIndex.contains(fingerprint)) {
+                    duplicateRows.incrementAndGet();
+                    return;
+                }
+                if (deduplicate && seen.contains(fingerprint)) {
+                    // Same day, amount and description as an earlier row of this source
+                    nearDuplicates.add(describe(transaction) + " repeats an earlier row");
+                    if (nearDuplicatePolicy == NearDuplicatePolicy.SKIP) {
+                        return;
+                    }
+                    if (nearDuplicateDetector != null) {
+                        nearDuplicateDetector.add(transaction);
+                    }
+                } else if (nearDuplicateDetector != null) {
+                    Object[] match = nearDuplicateDetector.findMatch(transaction);
+                    if (match != null) {
+                        nearDuplicates.add(describe(transaction) + " looks like " + describe(match));
+                        if (nearDuplicatePolicy == NearDuplicatePolicy.SKIP) {
+                            return;
+                        }
+                    }
+                    nearDuplicateDetector.add(transaction);
+                }
+                if (deduplicate) {
+                    seen.add(fingerprint);
+                }
+                emit(transaction);
+            }
+        }
+
+        /** Hands batches of transactions to the sink */
+        private final class PersistStage extends Stage {
+            private List<Object[]> batch = new ArrayList<>();
+
+            PersistStage(StageStats stageStats, BlockingQueue<Object> input) {
+                super(stageStats, input, null);
+            }
+
+            @Override
+            void process(Object item) throws IOException {
+                batch.add((Object[]) item);
+                if (batch.size() >= batchSize) {
+                    flush();
+                }
+            }
+
+            @Override
+            void finish() throws IOException {
+                if (!batch.isEmpty()) {
+                    flush();
+                }
+            }
+
+            private void flush() throws IOException {
+                sink.accept(batch);
+                importedRows.addAndGet(batch.size());
+                if (collectTransactions) {
+                    collected.addAll(batch);
+                }
+                batch = new ArrayList<>();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.app.model.importer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an {@link ImportPipeline} run.
+ * Holds the imported transactions (when collected), row counts, likely duplicates,
+ * per-row error messages and throughput statistics for every stage.
+ */
+public class ImportResult {
+    private final List<Object[]> transactions;
+    private final int totalRows;
+    private final int importedRows;
+    private final int skippedRows;
+    private final int duplicateRows;
+    private final List<String> nearDuplicates;
+    private final List<String> errors;
+    private final List<StageStats> stageStats;
+
+    /**
+     * Creates an import result.
+     *
+     * @param transactions the imported transactions, empty if the pipeline did not collect them
+     * @param totalRows the number of data rows read
+     * @param importedRows the number of rows handed to the sink
+     * @param skippedRows the number of rows rejected by validation
+     * @param duplicateRows the number of rows dropped as duplicates
+     * @param nearDuplicates descriptions of rows that look like a transaction seen before
+     * @param errors per-row error and warning messages
+     * @param stageStats statistics for each stage in pipeline order
+     */
+    public ImportResult(List<Object[]> transactions, int totalRows, int importedRows, int skippedRows,
+                        int duplicateRows, List<String> nearDuplicates, List<String> errors,
+                        List<StageStats> stageStats) {
+        this.transactions = Collections.unmodifiableList(transactions);
+        this.totalRows = totalRows;
+        this.importedRows = importedRows;
+        this.skippedRows = skippedRows;
+        this.duplicateRows = duplicateRows;
+        this.nearDuplicates = Collections.unmodifiableList(nearDuplicates);
+        this.errors = Collections.unmodifiableList(errors);
+        this.stageStats = Collections.unmodifiableList(stageStats);
+    }
+
+    /**
+     * Gets the imported transactions in {@code [date, description, category, amount, confirmed]} layout.
+     * @return the imported transactions
+     */
+    public List<Object[]> getTransactions() { return transactions; }
+
+    /**
+     * Gets the number of data rows read from the source, excluding the header.
+     * @return total data rows
+     */
+    public int getTotalRows() { return totalRows; }
+
+    /**
+     * Gets the number of rows handed to the sink.
+     * @return imported rows
+     */
+    public int getImportedRows() { return importedRows; }
+
+    /**
+     * Gets the number of rows rejected by validation.
+     * @return skipped rows
+     */
+    public int getSkippedRows() { return skippedRows; }
+
+    /**
+     * Gets the number of rows dropped as duplicates.
+     * @return duplicate rows
+     */
+    public int getDuplicateRows() { return duplicateRows; }
+
+    /**
+     * Gets rows that look like a transaction already in the ledger or earlier in the import,
+     * for example the same payment exported by two apps. Depending on the pipeline's policy
+     * these rows were either imported or skipped. Rows repeated exactly within one file are
+     * listed as well and follow the same policy.
+     * @return one message per likely duplicate
+     */
+    public List<String> getNearDuplicates() { return nearDuplicates; }
+
+    /**
+     * Gets the per-row error and warning messages.
+     * @return error messages in row order
+     */
+    public List<String> getErrors() { return errors; }
+
+    /**
+     * Gets throughput statistics for every stage.
+     * @return stage statistics in pipeline order
+     */
+    public List<StageStats> getStageStats() { return stageStats; }
+
+    /**
+     * Joins the error messages into one string, truncated for display in a dialog.
+     *
+     * @param maxLength maximum number of characters before truncation
+     * @return the joined messages
+     */
+    public String formatErrors(int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        for (String error : errors) {
+            builder.append(error).append('\n');
+            if (builder.length() > maxLength) {
+                return builder.substring(0, maxLength) + "...\n(more errors not shown)";
+            }
+        }
+        return builder.toString();
+    }
+}
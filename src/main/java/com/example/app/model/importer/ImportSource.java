@@ -0,0 +1,367 @@
+package com.example.app.model.importer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * One CSV document to import: a plain file, a gzip-compressed file or a CSV entry inside a zip archive.
+ * Compressed content is decompressed while it is read, so nothing is extracted to disk.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Expands a zip archive into one source per CSV entry</li>
+ *   <li>Reads zip entry names written as UTF-8 or, by many Chinese tools, as GBK</li>
+ *   <li>Reads CSV content as UTF-8 or UTF-16 when a byte order mark says so, as UTF-8 when the
+ *       leading bytes are valid UTF-8, and otherwise as GB18030, as exported by many Chinese banks</li>
+ *   <li>Each source can be opened more than once, e.g. for the header row and then the import</li>
+ *   <li>Estimates the uncompressed size of a source without reading it, to choose an import mode</li>
+ * </ul>
+ */
+public class ImportSource {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Charset used by many Windows tools for zip entry names when the UTF-8 flag is not set */
+    private static final String LEGACY_ZIP_CHARSET = "GBK";
+
+    /** Charset of CSV content that is not valid UTF-8; a superset of GBK */
+    private static final String LEGACY_TEXT_CHARSET = "GB18030";
+
+    /** Number of leading bytes checked when detecting the charset of CSV content */
+    private static final int CHARSET_SAMPLE_SIZE = 64 * 1024;
+
+    /**
+     * Opens a fresh stream over the raw CSV bytes.
+     */
+    @FunctionalInterface
+    public interface StreamOpener {
+        /**
+         * Opens the stream.
+         *
+         * @return the stream, to be closed by the caller
+         * @throws IOException if the stream cannot be opened
+         */
+        InputStream open() throws IOException;
+    }
+
+    private final String name;
+    private final StreamOpener opener;
+    private final long estimatedSize;
+
+    /**
+     * Creates a source of unknown size.
+     *
+     * @param name display name, such as the file name or {@code archive.zip!/entry.csv}
+     * @param opener opens the uncompressed CSV bytes
+     */
+    public ImportSource(String name, StreamOpener opener) {
+        this(name, opener, -1);
+    }
+
+    /**
+     * Creates a source.
+     *
+     * @param name display name, such as the file name or {@code archive.zip!/entry.csv}
+     * @param opener opens the uncompressed CSV bytes
+     * @param estimatedSize estimated number of uncompressed bytes, or -1 if unknown
+     */
+    public ImportSource(String name, StreamOpener opener, long estimatedSize) {
+        this.name = name;
+        this.opener = opener;
+        this.estimatedSize = estimatedSize;
+    }
+
+    /**
+     * Checks whether a file is a CSV file or a compressed export this class can read.
+     *
+     * @param file the file
+     * @return true for {@code .csv}, {@code .gz} and {@code .zip} files
+     */
+    public static boolean isSupported(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".gz") || name.endsWith(".zip");
+    }
+
+    /**
+     * Gets the sources in a file: the file itself, its gzip content, or each CSV entry of a zip archive.
+     *
+     * @param file the file
+     * @return the sources in the file, in archive order
+     * @throws IOException if a zip archive cannot be read
+     */
+    public static List<ImportSource> fromFile(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        String lowerName = fileName.toLowerCase(Locale.ROOT);
+        List<ImportSource> sources = new ArrayList<>();
+
+        if (lowerName.endsWith(".zip")) {
+            Charset charset = zipCharset(file);
+            try (ZipFile zip = new ZipFile(file.toFile(), charset)) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (isCsvEntry(entry)) {
+                        String entryName = entry.getName();
+                        long size = entry.getSize() >= 0 ? entry.getSize() : entry.getCompressedSize();
+                        sources.add(new ImportSource(fileName + "!/" + entryName,
+                                () -> openZipEntry(file, charset, entryName), size));
+                    }
+                }
+            }
+        } else if (lowerName.endsWith(".gz")) {
+            sources.add(new ImportSource(fileName,
+                    () -> new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), gzipSize(file)));
+        } else {
+            sources.add(new ImportSource(fileName,
+                    () -> new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), Files.size(file)));
+        }
+        return sources;
+    }
+
+    /**
+     * Gets the sources in a list of files and folders. Folders contribute every supported file
+     * directly inside them, sorted by name; archives contribute each CSV entry.
+     *
+     * @param paths files and folders
+     * @return the sources, in order
+     * @throws IOException if a folder cannot be listed or an archive cannot be read
+     */
+    public static List<ImportSource> fromPaths(List<Path> paths) throws IOException {
+        List<ImportSource> sources = new ArrayList<>();
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                List<Path> files;
+                try (Stream<Path> entries = Files.list(path)) {
+                    files = entries
+                            .filter(Files::isRegularFile)
+                            .filter(ImportSource::isSupported)
+                            .sorted()
+                            .collect(Collectors.toList());
+                }
+                for (Path file : files) {
+                    sources.addAll(fromFile(file));
+                }
+            } else {
+                sources.addAll(fromFile(path));
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Gets the only source in a file.
+     *
+     * @param file a CSV file, gzip file or zip archive with exactly one CSV entry
+     * @return the source
+     * @throws IOException if the file holds no CSV content or more than one CSV entry
+     */
+    public static ImportSource single(Path file) throws IOException {
+        List<ImportSource> sources = fromFile(file);
+        if (sources.size() != 1) {
+            throw new IOException(file.getFileName() + " contains " + sources.size()
+                    + " CSV files; import it as a batch instead");
+        }
+        return sources.get(0);
+    }
+
+    /**
+     * Gets the display name of this source.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the estimated size of the uncompressed CSV content, for choosing between an in-memory
+     * and an out-of-core import.
+     *
+     * @return the estimated number of bytes, or -1 if unknown
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * Opens the uncompressed CSV bytes.
+     *
+     * @return the stream, to be closed by the caller
+     * @throws IOException if the stream cannot be opened
+     */
+    public InputStream openStream() throws IOException {
+        return opener.open();
+    }
+
+    /**
+     * Opens the CSV content as text in its detected charset.
+     * A byte order mark decides between UTF-8 and UTF-16; without one the content is read as UTF-8
+     * if its leading bytes are valid UTF-8, and as GB18030 otherwise.
+     *
+     * @return the reader, to be closed by the caller
+     * @throws IOException if the stream cannot be opened
+     */
+    public Reader openReader() throws IOException {
+        InputStream stream = openStream();
+        try {
+            if (!stream.markSupported()) {
+                stream = new BufferedInputStream(stream, BUFFER_SIZE);
+            }
+            stream.mark(CHARSET_SAMPLE_SIZE);
+            byte[] sample = new byte[CHARSET_SAMPLE_SIZE];
+            int length = stream.readNBytes(sample, 0, sample.length);
+            stream.reset();
+            return new InputStreamReader(stream, detectCharset(sample, length, length < sample.length));
+        } catch (IOException | RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Detects the charset of CSV content from its leading bytes.
+     *
+     * @param sample the leading bytes
+     * @param length number of bytes in the sample
+     * @param complete whether the sample is the whole content, so a truncated character at its end is an error
+     * @return the charset to read the content with
+     */
+    static Charset detectCharset(byte[] sample, int length, boolean complete) {
+        if (length >= 3 && (sample[0] & 0xff) == 0xEF && (sample[1] & 0xff) == 0xBB && (sample[2] & 0xff) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && ((sample[0] & 0xff) == 0xFE && (sample[1] & 0xff) == 0xFF
+                || (sample[0] & 0xff) == 0xFF && (sample[1] & 0xff) == 0xFE)) {
+            return StandardCharsets.UTF_16;
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CoderResult result = decoder.decode(ByteBuffer.wrap(sample, 0, length),
+                CharBuffer.allocate(length), complete);
+        if (!result.isError() || !Charset.isSupported(LEGACY_TEXT_CHARSET)) {
+            return StandardCharsets.UTF_8;
+        }
+        return Charset.forName(LEGACY_TEXT_CHARSET);
+    }
+
+    /**
+     * Reads and tokenizes the header row.
+     *
+     * @return the header fields
+     * @throws IOException if the content cannot be read or is empty
+     */
+    public List<String> readHeader() throws IOException {
+        try (BufferedReader reader = new BufferedReader(openReader())) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("File is empty: " + name);
+            }
+            return CSVTokenizer.tokenize(CSVTokenizer.stripByteOrderMark(header));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static boolean isCsvEntry(ZipEntry entry) {
+        String entryName = entry.getName();
+        String baseName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        return !entry.isDirectory()
+                && !entryName.startsWith("__MACOSX/")
+                && !baseName.startsWith(".")
+                && baseName.toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    /**
+     * Estimates the uncompressed size of a gzip file from the size recorded in its trailer.
+     * The trailer holds the size modulo 4 GiB, so the compressed size is used if it is larger.
+     */
+    private static long gzipSize(Path file) throws IOException {
+        long compressedSize = Files.size(file);
+        if (compressedSize < 4) {
+            return compressedSize;
+        }
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(compressedSize - 4);
+            while (trailer.hasRemaining() && channel.read(trailer) >= 0) {
+                // read the whole trailer
+            }
+            trailer.flip();
+            long recordedSize = trailer.remaining() == 4 ? trailer.getInt() & 0xFFFFFFFFL : 0;
+            return Math.max(recordedSize, compressedSize);
+        }
+    }
+
+    /**
+     * Opens one zip entry; closing the returned stream also closes the archive.
+     */
+    private static InputStream openZipEntry(Path file, Charset charset, String entryName) throws IOException {
+        ZipFile zip = new ZipFile(file.toFile(), charset);
+        try {
+            ZipEntry entry = zip.getEntry(entryName);
+            if (entry == null) {
+                throw new IOException("Entry " + entryName + " is missing from " + file.getFileName());
+            }
+            return new FilterInputStream(new BufferedInputStream(zip.getInputStream(entry), BUFFER_SIZE)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        zip.close();
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Picks the charset for entry names: UTF-8 if all names decode, otherwise the legacy charset.
+     */
+    private static Charset zipCharset(Path file) throws IOException {
+        try (ZipFile zip = new ZipFile(file.toFile(), StandardCharsets.UTF_8)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                entries.nextElement();
+            }
+            return StandardCharsets.UTF_8;
+        } catch (IllegalArgumentException | ZipException e) {
+            if (!Charset.isSupported(LEGACY_ZIP_CHARSET)) {
+                throw new IOException("Cannot read entry names in " + file.getFileName(), e);
+            }
+            return Charset.forName(LEGACY_ZIP_CHARSET);
+        }
+    }
+}
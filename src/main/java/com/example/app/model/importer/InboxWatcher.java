@@ -0,0 +1,324 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.UserBillStorage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Watches a user's inbox folder and imports statement files dropped into it.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Watches {@code user_data/<user>/inbox} on a low-priority daemon thread</li>
+ *   <li>Waits until a dropped file has stopped changing before importing it</li>
+ *   <li>Accepts CSV files as well as {@code .csv.gz} and {@code .zip} exports, read without extracting them</li>
+ *   <li>Detects the column mapping from the header row against the known templates</li>
+ *   <li>Imports one file at a time with a pause in between, so it never competes with the UI</li>
+ *   <li>Moves imported files to {@code archive} and files that could not be imported to {@code archive/failed}</li>
+ * </ul>
+ */
+public class InboxWatcher implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(InboxWatcher.class.getName());
+
+    /** Name of the inbox folder inside the user's data directory */
+    public static final String INBOX_DIRECTORY = "inbox";
+
+    /** Name of the archive folder inside the user's data directory */
+    public static final String ARCHIVE_DIRECTORY = "archive";
+
+    /** Name of the folder inside the archive for files that could not be imported */
+    public static final String FAILED_DIRECTORY = "failed";
+
+    /** Time a file must be left unchanged before it is imported */
+    static final long DEFAULT_QUIET_PERIOD_MILLIS = 2000;
+
+    /** Pause after each imported file */
+    static final long THROTTLE_MILLIS = 500;
+
+    private static final DateTimeFormatter ARCHIVE_PREFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-");
+
+    /**
+     * Imports a single file from the inbox.
+     */
+    @FunctionalInterface
+    public interface FileImporter {
+        /**
+         * Imports a file.
+         *
+         * @param file the file to import
+         * @return the import result
+         * @throws IOException if the file cannot be imported
+         */
+        ImportResult importFile(Path file) throws IOException;
+    }
+
+    /**
+     * Receives the outcome of each inbox file. Called on the watcher thread.
+     */
+    public interface Listener {
+        /**
+         * Called after a file was imported and archived.
+         *
+         * @param archivedFile where the file was moved to
+         * @param result the import result
+         */
+        void onFileImported(Path archivedFile, ImportResult result);
+
+        /**
+         * Called after a file could not be imported and was moved aside.
+         *
+         * @param failedFile where the file was moved to
+         * @param error the reason
+         */
+        default void onFileFailed(Path failedFile, Exception error) {
+        }
+    }
+
+    private final Path inbox;
+    private final Path archive;
+    private final FileImporter importer;
+    private final Listener listener;
+    private final long quietPeriodMillis;
+    private final Set<Path> pending = new LinkedHashSet<>();
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Creates a watcher.
+     *
+     * @param userDirectory the user's data directory containing the inbox and archive folders
+     * @param importer imports a single file
+     * @param listener receives the outcome of each file, may be null
+     */
+    public InboxWatcher(File userDirectory, FileImporter importer, Listener listener) {
+        this(userDirectory, importer, listener, DEFAULT_QUIET_PERIOD_MILLIS);
+    }
+
+    InboxWatcher(File userDirectory, FileImporter importer, Listener listener, long quietPeriodMillis) {
+        this.inbox = userDirectory.toPath().resolve(INBOX_DIRECTORY);
+        this.archive = userDirectory.toPath().resolve(ARCHIVE_DIRECTORY);
+        this.importer = importer;
+        this.listener = listener;
+        this.quietPeriodMillis = quietPeriodMillis;
+    }
+
+    /**
+     * Creates a watcher for the user set in {@link UserBillStorage} that imports into their ledger,
+     * skipping transactions already recorded and flagging likely duplicates in the log.
+     *
+     * @param listener receives the outcome of each file, may be null
+     * @return the watcher, not yet started
+     */
+    public static InboxWatcher forCurrentUser(Listener listener) {
+        return new InboxWatcher(UserBillStorage.getUserDirectory(), InboxWatcher::importIntoLedger, listener);
+    }
+
+    /**
+     * Imports a file into the current user's ledger with mappings detected from the header rows.
+     * A zip archive is imported as one batch of all its CSV entries.
+     *
+     * @param file the file to import
+     * @return the import result
+     * @throws IOException if the file cannot be read or no CSV content in it could be imported
+     */
+    static ImportResult importIntoLedger(Path file) throws IOException {
+        NearDuplicateDetector nearDuplicates = new NearDuplicateDetector();
+        nearDuplicates.addAll(UserBillStorage.loadTransactions());
+        ImportResult result = new BatchImport(new LedgerSink())
+                .withClassifier(UserBillStorage.getMerchantRules().orElse(UserBillStorage.getCategoryClassifier()))
+                .withLedgerIndex(UserBillStorage.getFingerprintIndex())
+                .withNearDuplicateDetection(nearDuplicates, ImportPipeline.NearDuplicatePolicy.FLAG)
+                .run(Collections.singletonList(file));
+        for (String nearDuplicate : result.getNearDuplicates()) {
+            LOGGER.log(Level.WARNING, "Possible duplicate imported from {0}: {1}",
+                    new Object[]{file.getFileName(), nearDuplicate});
+        }
+        return result;
+    }
+
+    /**
+     * Gets the inbox folder.
+     *
+     * @return the inbox path
+     */
+    public Path getInbox() {
+        return inbox;
+    }
+
+    /**
+     * Gets the archive folder.
+     *
+     * @return the archive path
+     */
+    public Path getArchive() {
+        return archive;
+    }
+
+    /**
+     * Creates the inbox and archive folders and starts watching.
+     * Files already in the inbox are imported as well.
+     *
+     * @throws IOException if the folders cannot be created or watched
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        Files.createDirectories(inbox);
+        Files.createDirectories(archive.resolve(FAILED_DIRECTORY));
+        watchService = FileSystems.getDefault().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        running = true;
+        thread = new Thread(this::watch, "inbox-watcher");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        LOGGER.log(Level.INFO, "Watching inbox: {0}", inbox.toAbsolutePath());
+    }
+
+    /**
+     * Stops watching. A file being imported is finished first.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error closing inbox watch service", e);
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * Checks whether a file in the inbox looks like an importable statement.
+     *
+     * @param file the file
+     * @return true for CSV files and gzip or zip compressed exports
+     */
+    static boolean isSupported(Path file) {
+        return !file.getFileName().toString().startsWith(".") && ImportSource.isSupported(file);
+    }
+
+    private void watch() {
+        scanInbox();
+        try {
+            while (running) {
+                // Wake up at least once per quiet period to import files that have settled
+                WatchKey key = watchService.poll(Math.max(100, quietPeriodMillis), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scanInbox();
+                        } else {
+                            Path file = inbox.resolve((Path) event.context());
+                            if (isSupported(file)) {
+                                pending.add(file);
+                            }
+                        }
+                    }
+                    key.reset();
+                }
+                processSettledFiles();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher was closed
+        }
+        LOGGER.log(Level.INFO, "Stopped watching inbox: {0}", inbox.toAbsolutePath());
+    }
+
+    private void scanInbox() {
+        try (Stream<Path> files = Files.list(inbox)) {
+            files.filter(Files::isRegularFile).filter(InboxWatcher::isSupported).sorted().forEach(pending::add);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error scanning inbox", e);
+        }
+    }
+
+    /**
+     * Imports each pending file that has not changed for the quiet period.
+     */
+    private void processSettledFiles() throws InterruptedException {
+        for (Path file : pending.toArray(new Path[0])) {
+            if (!running) {
+                return;
+            }
+            if (!Files.isRegularFile(file)) {
+                pending.remove(file);
+                continue;
+            }
+            try {
+                long age = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+                if (age < quietPeriodMillis) {
+                    continue; // Still being written
+                }
+            } catch (IOException e) {
+                continue;
+            }
+            pending.remove(file);
+            processFile(file);
+            Thread.sleep(THROTTLE_MILLIS);
+        }
+    }
+
+    private void processFile(Path file) {
+        try {
+            ImportResult result = importer.importFile(file);
+            Path archived = moveTo(file, archive);
+            LOGGER.log(Level.INFO, "Imported {0} of {1} rows from inbox file {2}",
+                    new Object[]{result.getImportedRows(), result.getTotalRows(), file.getFileName()});
+            if (listener != null) {
+                listener.onFileImported(archived, result);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Could not import inbox file " + file.getFileName(), e);
+            try {
+                Path failed = moveTo(file, archive.resolve(FAILED_DIRECTORY));
+                if (listener != null) {
+                    listener.onFileFailed(failed, e);
+                }
+            } catch (IOException moveError) {
+                LOGGER.log(Level.SEVERE, "Could not move failed inbox file " + file.getFileName(), moveError);
+            }
+        }
+    }
+
+    /**
+     * Moves a file into a folder, prefixing it with a timestamp if the name is taken.
+     */
+    private static Path moveTo(Path file, Path folder) throws IOException {
+        Files.createDirectories(folder);
+        Path target = folder.resolve(file.getFileName());
+        if (Files.exists(target)) {
+            target = folder.resolve(LocalDateTime.now().format(ARCHIVE_PREFIX) + file.getFileName());
+        }
+        return Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.UserBillStorage;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Sink that appends imported transactions to the current user's ledger file.
+ * {@link UserBillStorage#setUsername(String)} must have been called before the import runs.
+ */
+public class LedgerSink implements TransactionSink {
+    /**
+     * Appends a batch of transactions to the ledger.
+     *
+     * @param batch the transactions to persist
+     * @throws IOException if the ledger file could not be written
+     */
+    @Override
+    public void accept(List<Object[]> batch) throws IOException {
+        if (!UserBillStorage.appendTransactions(batch)) {
+            throw new IOException("Failed to append transactions to " + UserBillStorage.getBillFilePath());
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.example.app.model.importer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A user-editable set of merchant keyword rules, such as "美团" meaning Food, compiled into an
+ * Aho-Corasick automaton. One pass over a description finds every rule whose keyword it contains,
+ * so matching takes time linear in the description no matter how many rules there are.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Rules stored per user in {@value #RULES_FILENAME} as {@code Keyword,Category,Priority} lines</li>
+ *   <li>Seeded with common merchants the first time the file is loaded</li>
+ *   <li>Case-insensitive matching of Chinese and Latin keywords</li>
+ *   <li>When several rules match, the highest priority wins, then the longest keyword, then the earliest rule</li>
+ *   <li>Usable as the first {@link TransactionClassifier} of an import and for re-categorizing a ledger</li>
+ * </ul>
+ * A compiled rule set is immutable and safe to share between threads.
+ */
+public final class MerchantRules implements TransactionClassifier {
+    private static final Logger LOGGER = Logger.getLogger(MerchantRules.class.getName());
+
+    /** Name of the rules file in a user's data directory */
+    public static final String RULES_FILENAME = "merchant_rules.csv";
+
+    private static final String CSV_HEADER = "Keyword,Category,Priority";
+
+    /** Rules written to a new rules file */
+    private static final List<Rule> DEFAULT_RULES = Collections.unmodifiableList(Arrays.asList(
+            new Rule("美团", "Food", 0),
+            new Rule("饿了么", "Food", 0),
+            new Rule("物美", "Food", 0),
+            new Rule("一卡通充值", "Transportation", 10),
+            new Rule("美团打车", "Transportation", 10),
+            new Rule("滴滴", "Transportation", 0),
+            new Rule("地铁", "Transportation", 0),
+            new Rule("电费", "Utilities", 0),
+            new Rule("水费", "Utilities", 0),
+            new Rule("燃气", "Utilities", 0),
+            new Rule("医院", "Healthcare", 0),
+            new Rule("药房", "Healthcare", 0)));
+
+    private final List<Rule> rules;
+
+    /** Automaton states; state 0 is the root */
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] failure;
+    /** Nearest state along the failure chain that ends a keyword, or -1 */
+    private final int[] outputLink;
+    /** Index of the best rule ending exactly at each state, or -1 */
+    private final int[] ruleAt;
+
+    /**
+     * A keyword rule.
+     */
+    public static final class Rule {
+        private final String keyword;
+        private final String category;
+        private final int priority;
+
+        /**
+         * Creates a rule.
+         *
+         * @param keyword text that must appear in the description
+         * @param category the category to assign
+         * @param priority higher priorities win when several rules match
+         */
+        public Rule(String keyword, String category, int priority) {
+            this.keyword = keyword;
+            this.category = category;
+            this.priority = priority;
+        }
+
+        /**
+         * Gets the keyword.
+         *
+         * @return the keyword
+         */
+        public String getKeyword() {
+            return keyword;
+        }
+
+        /**
+         * Gets the category.
+         *
+         * @return the category
+         */
+        public String getCategory() {
+            return category;
+        }
+
+        /**
+         * Gets the priority.
+         *
+         * @return the priority
+         */
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public String toString() {
+            return keyword + " -> " + category + " (" + priority + ")";
+        }
+    }
+
+    /**
+     * Compiles a rule set. Rules with an empty keyword or category are ignored.
+     *
+     * @param rules the rules, in file order
+     */
+    public MerchantRules(List<Rule> rules) {
+        List<Rule> valid = new ArrayList<>();
+        for (Rule rule : rules) {
+            if (rule.keyword != null && !rule.keyword.trim().isEmpty()
+                    && rule.category != null && !rule.category.trim().isEmpty()) {
+                valid.add(rule);
+            }
+        }
+        this.rules = Collections.unmodifiableList(valid);
+
+        // Build the keyword trie
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> ruleList = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ruleList.add(-1);
+        for (int r = 0; r < valid.size(); r++) {
+            String keyword = normalize(valid.get(r).keyword.trim());
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                Integer next = trie.get(state).get(keyword.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    ruleList.add(-1);
+                    trie.get(state).put(keyword.charAt(i), next);
+                }
+                state = next;
+            }
+            int existing = ruleList.get(state);
+            if (existing < 0 || valid.get(r).priority > valid.get(existing).priority) {
+                ruleList.set(state, r);
+            }
+        }
+
+        int stateCount = trie.size();
+        edgeChars = new char[stateCount][];
+        edgeTargets = new int[stateCount][];
+        ruleAt = new int[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            TreeMap<Character, Integer> edges = trie.get(s);
+            edgeChars[s] = new char[edges.size()];
+            edgeTargets[s] = new int[edges.size()];
+            int e = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                edgeChars[s][e] = edge.getKey();
+                edgeTargets[s][e] = edge.getValue();
+                e++;
+            }
+            ruleAt[s] = ruleList.get(s);
+        }
+
+        // Breadth-first pass computing failure and output links
+        failure = new int[stateCount];
+        outputLink = new int[stateCount];
+        outputLink[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int target : edgeTargets[0]) {
+            failure[target] = 0;
+            outputLink[target] = -1;
+            queue.add(target);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = 0; e < edgeChars[state].length; e++) {
+                char c = edgeChars[state][e];
+                int target = edgeTargets[state][e];
+                int fallback = failure[state];
+                while (fallback != 0 && next(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int fallbackTarget = next(fallback, c);
+                failure[target] = fallbackTarget >= 0 ? fallbackTarget : 0;
+                outputLink[target] = ruleAt[failure[target]] >= 0 ? failure[target] : outputLink[failure[target]];
+                queue.add(target);
+            }
+        }
+    }
+
+    /**
+     * Gets the built-in rules written to a new rules file.
+     *
+     * @return the default rules
+     */
+    public static List<Rule> getDefaultRules() {
+        return DEFAULT_RULES;
+    }
+
+    /**
+     * Loads the rules file from a user's data directory, creating it with the default rules
+     * if it does not exist. Malformed lines are skipped.
+     *
+     * @param directory the user's data directory
+     * @return the compiled rules; the default rules if the file cannot be read
+     */
+    public static MerchantRules load(File directory) {
+        Path file = new File(directory, RULES_FILENAME).toPath();
+        if (!Files.exists(file)) {
+            try {
+                save(directory, DEFAULT_RULES);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not create merchant rules file: " + e.getMessage());
+            }
+            return new MerchantRules(DEFAULT_RULES);
+        }
+
+        List<Rule> loaded = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            // Skip CSV header
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("//")) {
+                    continue;
+                }
+                List<String> fields = CSVTokenizer.tokenize(line);
+                if (fields.size() < 2) {
+                    LOGGER.log(Level.WARNING, "Skipping merchant rule: {0}", line);
+                    continue;
+                }
+                int priority = 0;
+                if (fields.size() > 2 && !fields.get(2).isEmpty()) {
+                    try {
+                        priority = Integer.parseInt(fields.get(2));
+                    } catch (NumberFormatException e) {
+                        LOGGER.log(Level.WARNING, "Invalid priority in merchant rule: {0}", line);
+                    }
+                }
+                loaded.add(new Rule(fields.get(0), fields.get(1), priority));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error loading merchant rules: " + e.getMessage(), e);
+            return new MerchantRules(DEFAULT_RULES);
+        }
+        LOGGER.log(Level.INFO, "Loaded {0} merchant rules from {1}", new Object[]{loaded.size(), file});
+        return new MerchantRules(loaded);
+    }
+
+    /**
+     * Writes rules to the rules file of a user's data directory.
+     *
+     * @param directory the user's data directory
+     * @param rules the rules to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(File directory, List<Rule> rules) throws IOException {
+        Files.createDirectories(directory.toPath());
+        Path file = new File(directory, RULES_FILENAME).toPath();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+            for (Rule rule : rules) {
+                writer.write(rule.keyword + "," + rule.category + "," + rule.priority);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Gets the rules in file order.
+     *
+     * @return the rules
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Finds every rule whose keyword appears in a description.
+     *
+     * @param description the transaction description
+     * @return the matching rules in the order their keywords end in the description
+     */
+    public List<Rule> findAll(String description) {
+        List<Rule> matches = new ArrayList<>();
+        if (description == null) {
+            return matches;
+        }
+        String text = normalize(description);
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            for (int s = ruleAt[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                matches.add(rules.get(ruleAt[s]));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the winning rule for a description.
+     *
+     * @param description the transaction description
+     * @return the matching rule with the highest priority, or null if no rule matches
+     */
+    public Rule match(String description) {
+        if (description == null || rules.isEmpty()) {
+            return null;
+        }
+        String text = normalize(description);
+        int best = -1;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            for (int s = ruleAt[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                if (best < 0 || beats(ruleAt[s], best)) {
+                    best = ruleAt[s];
+                }
+            }
+        }
+        return best >= 0 ? rules.get(best) : null;
+    }
+
+    /**
+     * Gets the category of the winning rule for a description.
+     *
+     * @param description the transaction description
+     * @param amount the signed amount; not used by keyword rules
+     * @return the category, or null if no rule matches
+     */
+    @Override
+    public String classify(String description, double amount) {
+        Rule rule = match(description);
+        return rule != null ? rule.category : null;
+    }
+
+    /**
+     * Re-categorizes a ledger in place. Confirmed rows are left alone.
+     *
+     * @param transactions rows in {@code [date, description, category, amount, confirmed]} layout
+     * @return the number of rows whose category changed
+     */
+    public int recategorize(List<Object[]> transactions) {
+        int changed = 0;
+        for (Object[] transaction : transactions) {
+            if (transaction.length > 4 && Boolean.TRUE.equals(transaction[4])) {
+                continue;
+            }
+            Rule rule = match((String) transaction[1]);
+            if (rule != null && !rule.category.equals(transaction[2])) {
+                transaction[2] = rule.category;
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Checks whether one rule wins over another matching rule.
+     */
+    private boolean beats(int candidate, int current) {
+        Rule a = rules.get(candidate);
+        Rule b = rules.get(current);
+        if (a.priority != b.priority) {
+            return a.priority > b.priority;
+        }
+        if (a.keyword.length() != b.keyword.length()) {
+            return a.keyword.length() > b.keyword.length();
+        }
+        return candidate < current;
+    }
+
+    /**
+     * Follows the goto function from a state, falling back along failure links.
+     */
+    private int step(int state, char c) {
+        while (true) {
+            int target = next(state, c);
+            if (target >= 0) {
+                return target;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failure[state];
+        }
+    }
+
+    /**
+     * Finds the trie edge for a character, or -1.
+     */
+    private int next(int state, char c) {
+        int index = Arrays.binarySearch(edgeChars[state], c);
+        return index >= 0 ? edgeTargets[state][index] : -1;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,406 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.FingerprintIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An offline category classifier: multinomial naive Bayes over character n-grams of the description
+ * and a few amount features. It is trained incrementally from transactions the user has confirmed,
+ * so categorising an import needs no network round trip.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Character unigrams, bigrams and trigrams of the normalized description, which work for
+ *       Chinese merchant names as well as space-separated English text</li>
+ *   <li>Income/expense sign and an order-of-magnitude bucket of the amount</li>
+ *   <li>Hashed feature counts in fixed-size tables, so classifying allocates almost nothing</li>
+ *   <li>Incremental training from appended rows, and syncing with a saved ledger that unlearns
+ *       rows the user deleted, un-confirmed or moved to another category</li>
+ *   <li>A fallback classifier, such as the remote AI model, can be chained in for low-confidence rows</li>
+ * </ul>
+ * The classifier is safe to use from several import pipelines at once.
+ */
+public class NaiveBayesClassifier implements TransactionClassifier {
+    /** Default posterior probability below which a local prediction is not trusted */
+    public static final double DEFAULT_MIN_CONFIDENCE = 0.6;
+
+    /** Number of hash buckets for features; a power of two */
+    private static final int BUCKETS = 1 << 16;
+
+    /** Additive (Laplace) smoothing applied to every feature count */
+    private static final double ALPHA = 0.5;
+
+    /** Longest character n-gram taken from a description */
+    private static final int MAX_NGRAM = 3;
+
+    /** Number of order-of-magnitude buckets for amounts */
+    private static final int AMOUNT_BUCKETS = 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<String> categories = new ArrayList<>();
+    /** Feature counts per category, indexed by hash bucket */
+    private final List<int[]> featureCounts = new ArrayList<>();
+    private final List<Long> featureTotals = new ArrayList<>();
+    private final List<Integer> documentCounts = new ArrayList<>();
+    private final boolean[] seenBuckets = new boolean[BUCKETS];
+    /** Confirmed transactions the model has learned, by transaction fingerprint */
+    private final Map<Long, LearnedRows> learnedRows = new HashMap<>();
+    private int vocabularySize;
+    private int trainingSize;
+
+    /**
+     * A category suggestion with the classifier's confidence in it.
+     */
+    public static final class Prediction {
+        private final String category;
+        private final double confidence;
+
+        Prediction(String category, double confidence) {
+            this.category = category;
+            this.confidence = confidence;
+        }
+
+        /**
+         * Gets the most likely category.
+         *
+         * @return the category
+         */
+        public String getCategory() {
+            return category;
+        }
+
+        /**
+         * Gets the posterior probability of the category.
+         *
+         * @return a probability between 0 and 1
+         */
+        public double getConfidence() {
+            return confidence;
+        }
+
+        @Override
+        public String toString() {
+            return category + String.format(" (%.0f%%)", confidence * 100);
+        }
+    }
+
+    /**
+     * The learned transactions sharing one fingerprint: the categories they were learned with,
+     * one per row, and the description and amount needed to unlearn them.
+     */
+    private static final class LearnedRows {
+        private final String description;
+        private final double amount;
+        private final List<String> categories = new ArrayList<>(1);
+
+        LearnedRows(String description, double amount) {
+            this.description = description;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * Creates a classifier that uses this model and asks another classifier about rows this model is
+     * unsure about. The model is shared, so it keeps learning while the returned classifier is in use.
+     *
+     * @param fallback the fallback classifier
+     * @param minConfidence posterior probability below which the fallback is used
+     * @return the combined classifier
+     */
+    public TransactionClassifier withFallback(TransactionClassifier fallback, double minConfidence) {
+        return (description, amount) -> {
+            Prediction prediction = predict(description, amount);
+            if (prediction != null && prediction.getConfidence() >= minConfidence) {
+                return prediction.getCategory();
+            }
+            return fallback.classify(description, amount);
+        };
+    }
+
+    /**
+     * Learns confirmed transactions, such as rows just appended to the ledger. Every row is learned,
+     * so identical transactions count once each. Unconfirmed rows are ignored, since their category
+     * may be a guess.
+     *
+     * @param transactions ledger rows in {@code [date, description, category, amount, confirmed]} layout
+     * @return the number of transactions learned
+     */
+    public int learnConfirmed(List<Object[]> transactions) {
+        int count = 0;
+        lock.writeLock().lock();
+        try {
+            for (Object[] transaction : transactions) {
+                if (isLearnable(transaction)) {
+                    learnRow(FingerprintIndex.fingerprint(transaction), transaction);
+                    count++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return count;
+    }
+
+    /**
+     * Brings the model in line with the confirmed rows of a whole saved ledger. Rows not learned yet
+     * are learned, and learned rows the user has since deleted, un-confirmed or moved to another
+     * category are unlearned.
+     *
+     * @param ledger all ledger rows in {@code [date, description, category, amount, confirmed]} layout
+     * @return the number of transactions learned
+     */
+    public int syncConfirmed(List<Object[]> ledger) {
+        Map<Long, List<Object[]>> confirmed = new HashMap<>();
+        for (Object[] transaction : ledger) {
+            if (isLearnable(transaction)) {
+                confirmed.computeIfAbsent(FingerprintIndex.fingerprint(transaction), k -> new ArrayList<>(1))
+                        .add(transaction);
+            }
+        }
+
+        int count = 0;
+        lock.writeLock().lock();
+        try {
+            Iterator<Map.Entry<Long, LearnedRows>> removed = learnedRows.entrySet().iterator();
+            while (removed.hasNext()) {
+                Map.Entry<Long, LearnedRows> entry = removed.next();
+                if (!confirmed.containsKey(entry.getKey())) {
+                    LearnedRows rows = entry.getValue();
+                    for (String category : rows.categories) {
+                        untrain(rows.description, rows.amount, category);
+                    }
+                    removed.remove();
+                }
+            }
+
+            for (Map.Entry<Long, List<Object[]>> entry : confirmed.entrySet()) {
+                LearnedRows rows = learnedRows.get(entry.getKey());
+                List<String> unmatched = rows == null ? new ArrayList<>() : new ArrayList<>(rows.categories);
+                List<Object[]> unlearned = new ArrayList<>();
+                for (Object[] transaction : entry.getValue()) {
+                    if (!unmatched.remove((String) transaction[2])) {
+                        unlearned.add(transaction);
+                    }
+                }
+                // Learned categories no row has any more were corrected or their rows deleted
+                for (String category : unmatched) {
+                    rows.categories.remove(category);
+                    untrain(rows.description, rows.amount, category);
+                }
+                for (Object[] transaction : unlearned) {
+                    learnRow(entry.getKey(), transaction);
+                    count++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a ledger row is confirmed and has a real category.
+     */
+    private static boolean isLearnable(Object[] transaction) {
+        if (transaction.length < 5 || !Boolean.TRUE.equals(transaction[4])) {
+            return false;
+        }
+        String category = (String) transaction[2];
+        return category != null && !category.isEmpty() && !ImportPipeline.UNCATEGORISED.equals(category);
+    }
+
+    /**
+     * Learns one ledger row and records it under its fingerprint; the caller holds the write lock.
+     */
+    private void learnRow(long fingerprint, Object[] transaction) {
+        String description = (String) transaction[1];
+        double amount = ((Number) transaction[3]).doubleValue();
+        String category = (String) transaction[2];
+        learnedRows.computeIfAbsent(fingerprint, k -> new LearnedRows(description, amount)).categories.add(category);
+        train(description, amount, category);
+    }
+
+    /**
+     * Learns a single transaction.
+     *
+     * @param description the transaction description
+     * @param amount the signed amount
+     * @param category the correct category
+     */
+    public void learn(String description, double amount, String category) {
+        lock.writeLock().lock();
+        try {
+            train(description, amount, category);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of transactions learned so far.
+     *
+     * @return the training set size
+     */
+    public int getTrainingSize() {
+        lock.readLock().lock();
+        try {
+            return trainingSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests a category if the local model is at least {@link #DEFAULT_MIN_CONFIDENCE} sure of it.
+     *
+     * @param description the transaction description
+     * @param amount the signed transaction amount
+     * @return the category, or null if the model is unsure or has learned nothing yet
+     */
+    @Override
+    public String classify(String description, double amount) {
+        Prediction prediction = predict(description, amount);
+        if (prediction != null && prediction.getConfidence() >= DEFAULT_MIN_CONFIDENCE) {
+            return prediction.getCategory();
+        }
+        return null;
+    }
+
+    /**
+     * Predicts the most likely category using only the local model.
+     *
+     * @param description the transaction description
+     * @param amount the signed transaction amount
+     * @return the prediction, or null if nothing has been learned yet
+     */
+    public Prediction predict(String description, double amount) {
+        int[] features = features(description, amount);
+        lock.readLock().lock();
+        try {
+            int categoryCount = categories.size();
+            if (categoryCount == 0 || trainingSize == 0) {
+                return null;
+            }
+
+            double[] scores = new double[categoryCount];
+            double vocabulary = Math.max(1, vocabularySize) * ALPHA;
+            for (int c = 0; c < categoryCount; c++) {
+                int[] counts = featureCounts.get(c);
+                double denominator = Math.log(featureTotals.get(c) + vocabulary);
+                double score = Math.log(documentCounts.get(c) / (double) trainingSize);
+                for (int feature : features) {
+                    // Features never seen in training say nothing about the category
+                    if (seenBuckets[feature]) {
+                        score += Math.log(counts[feature] + ALPHA) - denominator;
+                    }
+                }
+                scores[c] = score;
+            }
+
+            // Normalise the log scores into posterior probabilities
+            int best = 0;
+            for (int c = 1; c < categoryCount; c++) {
+                if (scores[c] > scores[best]) {
+                    best = c;
+                }
+            }
+            double sum = 0;
+            for (double score : scores) {
+                sum += Math.exp(score - scores[best]);
+            }
+            return new Prediction(categories.get(best), 1.0 / sum);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds one training example; the caller holds the write lock.
+     */
+    private void train(String description, double amount, String category) {
+        int c = categories.indexOf(category);
+        if (c < 0) {
+            c = categories.size();
+            categories.add(category);
+            featureCounts.add(new int[BUCKETS]);
+            featureTotals.add(0L);
+            documentCounts.add(0);
+        }
+        int[] counts = featureCounts.get(c);
+        int[] features = features(description, amount);
+        for (int feature : features) {
+            counts[feature]++;
+            if (!seenBuckets[feature]) {
+                seenBuckets[feature] = true;
+                vocabularySize++;
+            }
+        }
+        featureTotals.set(c, featureTotals.get(c) + features.length);
+        documentCounts.set(c, documentCounts.get(c) + 1);
+        trainingSize++;
+    }
+
+    /**
+     * Removes one training example added by {@link #train}; the caller holds the write lock.
+     * Buckets stay in the vocabulary, which only affects smoothing slightly.
+     */
+    private void untrain(String description, double amount, String category) {
+        int c = categories.indexOf(category);
+        if (c < 0 || documentCounts.get(c) == 0) {
+            return;
+        }
+        int[] counts = featureCounts.get(c);
+        int[] features = features(description, amount);
+        for (int feature : features) {
+            if (counts[feature] > 0) {
+                counts[feature]--;
+            }
+        }
+        featureTotals.set(c, Math.max(0, featureTotals.get(c) - features.length));
+        documentCounts.set(c, documentCounts.get(c) - 1);
+        trainingSize--;
+    }
+
+    /**
+     * Extracts the hashed features of a transaction: every character n-gram of the normalized
+     * description, padded with boundary markers, plus the amount sign and magnitude.
+     */
+    static int[] features(String description, double amount) {
+        String text = "^" + NearDuplicateDetector.normalize(description) + "$";
+        int length = text.length();
+        int[] features = new int[length * MAX_NGRAM + 2];
+        int count = 0;
+        for (int start = 0; start < length; start++) {
+            int hash = 0;
+            for (int n = 1; n <= MAX_NGRAM && start + n <= length; n++) {
+                hash = hash * 31 + text.charAt(start + n - 1);
+                // Skip the bare boundary markers, which every description has
+                if (n == 1 && (start == 0 || start == length - 1)) {
+                    continue;
+                }
+                features[count++] = bucket(hash * 7 + n);
+            }
+        }
+
+        int sign = amount < 0 ? 1 : 0;
+        int magnitude = (int) Math.min(AMOUNT_BUCKETS - 1, Math.floor(Math.log10(Math.abs(amount) + 1) * 2));
+        features[count++] = bucket(0x5A17 + sign);
+        features[count++] = bucket(0x3A0B * 31 + sign * AMOUNT_BUCKETS + magnitude);
+        return Arrays.copyOf(features, count);
+    }
+
+    private static int bucket(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash & (BUCKETS - 1);
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.app.model.importer;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Finds transactions that are probably the same payment described slightly differently,
+ * such as one purchase exported by two payment apps with different order-number suffixes.
+ * <p>
+ * Candidates are grouped into blocks by amount in cents and day, so each lookup only compares
+ * against the few transactions with the same amount within one day either side. Descriptions
+ * in a block are compared by the Dice coefficient of their character bigrams after order numbers,
+ * punctuation and whitespace have been removed. Adding and looking up a transaction is therefore
+ * close to constant time, and checking a whole import is near-linear rather than pairwise.
+ */
+public class NearDuplicateDetector {
+    /** Default minimum description similarity for a near duplicate */
+    public static final double DEFAULT_THRESHOLD = 0.8;
+
+    /** Runs of six or more digits, typically order or reference numbers */
+    private static final Pattern LONG_DIGIT_RUNS = Pattern.compile("\\d{6,}");
+
+    /** Anything that is not a letter or digit, including CJK punctuation */
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final double threshold;
+    private final Map<Long, List<Entry>> blocks = new HashMap<>();
+    private int size;
+
+    /** A transaction already seen by the detector */
+    private static final class Entry {
+        final Object[] transaction;
+        final long cents;
+        final long day;
+        final String normalized;
+        final long[] bigrams;
+
+        Entry(Object[] transaction, long cents, long day, String normalized) {
+            this.transaction = transaction;
+            this.cents = cents;
+            this.day = day;
+            this.normalized = normalized;
+            this.bigrams = bigrams(normalized);
+        }
+    }
+
+    /**
+     * Creates a detector with the default similarity threshold.
+     */
+    public NearDuplicateDetector() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a detector.
+     *
+     * @param threshold minimum description similarity between 0 and 1
+     */
+    public NearDuplicateDetector(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Adds transactions that later lookups are compared against.
+     *
+     * @param transactions transaction records [date, description, category, amount, ...]
+     */
+    public void addAll(List<Object[]> transactions) {
+        for (Object[] transaction : transactions) {
+            add(transaction);
+        }
+    }
+
+    /**
+     * Adds a transaction that later lookups are compared against.
+     * Transactions with an unparseable date are ignored.
+     *
+     * @param transaction transaction record [date, description, category, amount, ...]
+     */
+    public void add(Object[] transaction) {
+        long day = epochDay((String) transaction[0]);
+        if (day == Long.MIN_VALUE) {
+            return;
+        }
+        long cents = Math.round(((Number) transaction[3]).doubleValue() * 100);
+        Entry entry = new Entry(transaction, cents, day, normalize((String) transaction[1]));
+        blocks.computeIfAbsent(blockKey(cents, day), key -> new ArrayList<>(1)).add(entry);
+        size++;
+    }
+
+    /**
+     * Finds a previously added transaction that is probably the same payment.
+     * Only transactions with exactly the same amount dated within one day are considered.
+     *
+     * @param transaction transaction record [date, description, category, amount, ...]
+     * @return the most similar matching transaction, or null if there is none
+     */
+    public Object[] findMatch(Object[] transaction) {
+        long day = epochDay((String) transaction[0]);
+        if (day == Long.MIN_VALUE || size == 0) {
+            return null;
+        }
+        long cents = Math.round(((Number) transaction[3]).doubleValue() * 100);
+        String normalized = normalize((String) transaction[1]);
+        long[] bigrams = null;
+
+        Entry best = null;
+        double bestScore = threshold;
+        for (long candidateDay = day - 1; candidateDay <= day + 1; candidateDay++) {
+            List<Entry> block = blocks.get(blockKey(cents, candidateDay));
+            if (block == null) {
+                continue;
+            }
+            for (Entry entry : block) {
+                if (entry.cents != cents || entry.day != candidateDay) {
+                    continue; // Block key collision
+                }
+                double score;
+                if (normalized.isEmpty() || entry.normalized.isEmpty()) {
+                    continue; // Nothing to compare
+                }
+                if (entry.normalized.equals(normalized)) {
+                    score = 1.0;
+                } else {
+                    if (bigrams == null) {
+                        bigrams = bigrams(normalized);
+                    }
+                    score = similarity(bigrams, entry.bigrams);
+                }
+                if (score >= bestScore) {
+                    best = entry;
+                    bestScore = score;
+                }
+            }
+        }
+        return best != null ? best.transaction : null;
+    }
+
+    /**
+     * Gets the number of transactions added.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Normalizes a description for comparison: lowercases it and removes order numbers,
+     * punctuation and whitespace.
+     *
+     * @param description the description, may be null
+     * @return the normalized description
+     */
+    static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        String result = description.toLowerCase(Locale.ROOT);
+        result = LONG_DIGIT_RUNS.matcher(result).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(result).replaceAll("");
+    }
+
+    /**
+     * Computes the Dice coefficient of two normalized descriptions.
+     *
+     * @param first the first normalized description
+     * @param second the second normalized description
+     * @return similarity between 0 and 1
+     */
+    static double similarity(String first, String second) {
+        if (first.equals(second)) {
+            return 1.0;
+        }
+        return similarity(bigrams(first), bigrams(second));
+    }
+
+    /**
+     * Computes the Dice coefficient of two sorted bigram arrays.
+     */
+    private static double similarity(long[] first, long[] second) {
+        if (first.length == 0 || second.length == 0) {
+            return 0.0;
+        }
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] == second[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (first[i] < second[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return 2.0 * shared / (first.length + second.length);
+    }
+
+    /**
+     * Encodes the code point bigrams of a string as sorted longs.
+     * A single character string yields one bigram so that it can still match itself.
+     */
+    private static long[] bigrams(String text) {
+        int[] codePoints = text.codePoints().toArray();
+        if (codePoints.length == 0) {
+            return new long[0];
+        }
+        if (codePoints.length == 1) {
+            return new long[]{((long) codePoints[0]) << 32};
+        }
+        long[] result = new long[codePoints.length - 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) codePoints[i] << 32) | (codePoints[i + 1] & 0xffffffffL);
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static long blockKey(long cents, long day) {
+        return cents * 0x9E3779B97F4A7C15L + day;
+    }
+
+    /**
+     * Parses the day of a transaction date, ignoring any time of day.
+     *
+     * @return the epoch day, or Long.MIN_VALUE if the date cannot be parsed
+     */
+    private static long epochDay(String date) {
+        if (date == null || date.length() < 10) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return LocalDate.parse(date.substring(0, 10)).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.FingerprintIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Imports CSV files of any size with bounded memory.
+ * Each file is parsed by an {@link ImportPipeline} into an {@link ExternalMergeSorter}, which spills
+ * sorted runs to disk; the runs are then merged by date, deduplicated and streamed into the target sink.
+ * <p>
+ * Unlike a normal import, no transactions are kept in the result and fuzzy near-duplicate detection
+ * is not available, since both need memory proportional to the import. Rows repeated within one file
+ * are still found while merging and handled by the {@link ImportPipeline.NearDuplicatePolicy}.
+ */
+public class OutOfCoreImport {
+    /** Files whose content is larger than this once decompressed are imported out of core by the import dialog */
+    public static final long THRESHOLD_BYTES = 32L * 1024 * 1024;
+
+    private final ColumnMapping mapping;
+    private final TransactionSink target;
+    private final File spillDirectory;
+    private TransactionClassifier classifier;
+    private FingerprintIndex ledgerIndex;
+    private int runSize = ExternalMergeSorter.DEFAULT_RUN_SIZE;
+    private int batchSize = ImportPipeline.DEFAULT_BATCH_SIZE;
+    private ImportPipeline.NearDuplicatePolicy nearDuplicatePolicy = ImportPipeline.NearDuplicatePolicy.FLAG;
+
+    /**
+     * Creates an out-of-core import.
+     *
+     * @param mapping how CSV columns map to transaction fields
+     * @param target where the merged transactions are persisted
+     * @param spillDirectory directory for temporary run files
+     */
+    public OutOfCoreImport(ColumnMapping mapping, TransactionSink target, File spillDirectory) {
+        this.mapping = mapping;
+        this.target = target;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Sets the classifier used for rows without a category.
+     *
+     * @param classifier the classifier, or null to leave categories untouched
+     * @return this import
+     */
+    public OutOfCoreImport withClassifier(TransactionClassifier classifier) {
+        this.classifier = classifier;
+        return this;
+    }
+
+    /**
+     * Sets the fingerprint index of the ledger being imported into.
+     *
+     * @param ledgerIndex the ledger's fingerprint index, or null to only drop repeats within the import
+     * @return this import
+     */
+    public OutOfCoreImport withLedgerIndex(FingerprintIndex ledgerIndex) {
+        this.ledgerIndex = ledgerIndex;
+        return this;
+    }
+
+    /**
+     * Sets what to do with rows repeated within one file, the only near duplicates found in this mode.
+     *
+     * @param policy whether repeated rows are imported and flagged or skipped
+     * @return this import
+     */
+    public OutOfCoreImport withNearDuplicatePolicy(ImportPipeline.NearDuplicatePolicy policy) {
+        this.nearDuplicatePolicy = policy;
+        return this;
+    }
+
+    /**
+     * Sets the number of transactions held in memory before a sorted run is spilled.
+     *
+     * @param runSize the run size
+     * @return this import
+     */
+    public OutOfCoreImport withRunSize(int runSize) {
+        this.runSize = Math.max(1, runSize);
+        return this;
+    }
+
+    /**
+     * Sets the number of transactions handed to the target at once.
+     *
+     * @param batchSize the batch size
+     * @return this import
+     */
+    public OutOfCoreImport withBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    /**
+     * Imports one or more CSV files that share the column mapping.
+     * Compressed files are decompressed while they are read and zip archives contribute every CSV entry.
+     * Transactions reach the target sorted by date across all files.
+     *
+     * @param files the CSV files
+     * @return the combined import result, without transactions
+     * @throws IOException if a file cannot be read, a run cannot be spilled or the target fails
+     */
+    public ImportResult run(List<Path> files) throws IOException {
+        int totalRows = 0;
+        int skippedRows = 0;
+        List<String> errors = new ArrayList<>();
+        List<StageStats> stageStats = new ArrayList<>();
+
+        try (ExternalMergeSorter sorter = new ExternalMergeSorter(spillDirectory, runSize)) {
+            List<ImportSource> sources = ImportSource.fromPaths(files);
+            for (ImportSource source : sources) {
+                sorter.startSource();
+                ImportResult fileResult = new ImportPipeline(mapping, sorter)
+                        .withClassifier(classifier)
+                        .withDeduplication(false)
+                        .withBatchSize(batchSize)
+                        .collectTransactions(false)
+                        .run(source);
+                totalRows += fileResult.getTotalRows();
+                skippedRows += fileResult.getSkippedRows();
+                for (String error : fileResult.getErrors()) {
+                    errors.add(sources.size() > 1 ? source.getName() + ": " + error : error);
+                }
+                stageStats.addAll(fileResult.getStageStats());
+            }
+
+            long start = System.nanoTime();
+            long written = sorter.mergeInto(target, batchSize, ledgerIndex, nearDuplicatePolicy);
+            StageStats mergeStats = new StageStats("merge");
+            mergeStats.recordBulk(sorter.getAcceptedRows(), written, System.nanoTime() - start);
+            stageStats.add(mergeStats);
+
+            List<String> repeats = sorter.getRepeats();
+            if (sorter.getRepeatedRows() > repeats.size()) {
+                repeats.add((sorter.getRepeatedRows() - repeats.size()) + " more rows repeat an earlier row");
+            }
+            return new ImportResult(Collections.emptyList(), totalRows, (int) written, skippedRows,
+                    sorter.getDuplicateRows(), repeats, errors, stageStats);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.app.model.importer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput counters for one stage of the {@link ImportPipeline}.
+ * Busy time only counts time spent processing items, so a stage that mostly waits on its
+ * input queue reports a high throughput and is not the bottleneck.
+ */
+public class StageStats {
+    private final String name;
+    private final AtomicLong itemsIn = new AtomicLong();
+    private final AtomicLong itemsOut = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private volatile long elapsedNanos;
+
+    /**
+     * Creates empty counters for a stage.
+     *
+     * @param name the stage name
+     */
+    public StageStats(String name) {
+        this.name = name;
+    }
+
+    void recordIn(long nanos) {
+        itemsIn.incrementAndGet();
+        busyNanos.addAndGet(nanos);
+    }
+
+    void recordOut() {
+        itemsOut.incrementAndGet();
+    }
+
+    void addBusyNanos(long nanos) {
+        busyNanos.addAndGet(nanos);
+    }
+
+    void recordBulk(long in, long out, long nanos) {
+        itemsIn.addAndGet(in);
+        itemsOut.addAndGet(out);
+        busyNanos.addAndGet(nanos);
+        elapsedNanos += nanos;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the stage name.
+     * @return the stage name
+     */
+    public String getName() { return name; }
+
+    /**
+     * Gets the number of items the stage consumed.
+     * @return items consumed
+     */
+    public long getItemsIn() { return itemsIn.get(); }
+
+    /**
+     * Gets the number of items the stage emitted downstream.
+     * @return items emitted
+     */
+    public long getItemsOut() { return itemsOut.get(); }
+
+    /**
+     * Gets the time the stage spent processing items.
+     * @return busy time in nanoseconds
+     */
+    public long getBusyNanos() { return busyNanos.get(); }
+
+    /**
+     * Gets the wall-clock lifetime of the stage, including time blocked on its queues.
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Gets the number of items the stage can process per second of busy time.
+     * @return items per second, or 0 if the stage processed nothing
+     */
+    public double getThroughput() {
+        long busy = busyNanos.get();
+        return busy > 0 ? itemsIn.get() * 1_000_000_000.0 / busy : 0.0;
+    }
+
+    /**
+     * Formats the counters as a single log line.
+     * @return a human-readable summary
+     */
+    @Override
+    public String toString() {
+        return String.format("%-9s in=%d out=%d busy=%.1fms elapsed=%.1fms throughput=%.0f/s",
+                name, getItemsIn(), getItemsOut(), getBusyNanos() / 1e6, elapsedNanos / 1e6, getThroughput());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.app.model.importer;
+
+/**
+ * Assigns a category to an imported transaction that arrived without one.
+ * Used by the classify stage of the {@link ImportPipeline}.
+ */
+@FunctionalInterface
+public interface TransactionClassifier {
+    /**
+     * Suggests a category for a transaction.
+     *
+     * @param description the transaction description
+     * @param amount the signed transaction amount (negative for expenses)
+     * @return the category, or null if the classifier has no suggestion
+     */
+    String classify(String description, double amount);
+
+    /**
+     * Creates a classifier that asks another classifier when this one has no suggestion.
+     *
+     * @param next the classifier to ask next
+     * @return the combined classifier
+     */
+    default TransactionClassifier orElse(TransactionClassifier next) {
+        return (description, amount) -> {
+            String category = classify(description, amount);
+            return category != null && !category.isEmpty() ? category : next.classify(description, amount);
+        };
+    }
+}
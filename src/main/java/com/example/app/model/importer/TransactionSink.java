@@ -0,0 +1,20 @@
+package com.example.app.model.importer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination for transactions produced by the persist stage of the {@link ImportPipeline}.
+ * Transactions are delivered in batches in the same {@code [date, description, category, amount, confirmed]}
+ * layout used by {@link com.example.app.user_data.UserBillStorage}.
+ */
+@FunctionalInterface
+public interface TransactionSink {
+    /**
+     * Accepts a batch of validated, de-duplicated transactions.
+     *
+     * @param batch the transactions to persist
+     * @throws IOException if the batch could not be persisted
+     */
+    void accept(List<Object[]> batch) throws IOException;
+}
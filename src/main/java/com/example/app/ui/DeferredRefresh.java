@@ -0,0 +1,93 @@
+package com.example.app.ui;
+
+import java.awt.Component;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a component's refresh only while the component is on screen.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Refreshes a showing component in the next frame of the {@link RenderScheduler},
+ *       once however many times it was requested in between</li>
+ *   <li>Marks the component stale while it sits on a hidden page or tab, such as a card of a
+ *       {@link java.awt.CardLayout} that is not in front</li>
+ *   <li>Refreshes a stale component once when it is shown, however many changes it missed</li>
+ *   <li>A refresh still waiting for its frame when the component is hidden is put off until it is shown</li>
+ *   <li>Components not yet added to a window are refreshed at once, as before</li>
+ * </ul>
+ * Requests and refreshes are expected on the event dispatch thread.
+ */
+public class DeferredRefresh implements HierarchyListener {
+    private static final Logger LOGGER = Logger.getLogger(DeferredRefresh.class.getName());
+
+    private final Component component;
+    private final Runnable refresh;
+    private volatile boolean stale;
+
+    /**
+     * Creates a deferred refresh for a component and starts watching when it is shown.
+     *
+     * @param component the component whose visibility decides when to refresh
+     * @param refresh the refresh to run
+     */
+    public DeferredRefresh(Component component, Runnable refresh) {
+        this.component = component;
+        this.refresh = refresh;
+        component.addHierarchyListener(this);
+    }
+
+    /**
+     * Refreshes the component in the next frame if it is showing, otherwise marks it stale until
+     * it is shown. A component not yet in a window is refreshed at once.
+     */
+    public void request() {
+        if (!component.isDisplayable()) {
+            stale = false;
+            refresh.run();
+            return;
+        }
+        if (!component.isShowing()) {
+            if (!stale) {
+                LOGGER.log(Level.FINE, "Deferring refresh of hidden {0}", component.getClass().getSimpleName());
+            }
+            stale = true;
+            return;
+        }
+        stale = false;
+        RenderScheduler.getInstance().schedule(this, refresh);
+    }
+
+    /**
+     * Checks whether the component has missed a refresh while hidden.
+     *
+     * @return true if a refresh is waiting for the component to be shown
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Schedules the waiting refresh when the component becomes visible, and puts off a scheduled
+     * one when it is hidden.
+     *
+     * @param e the hierarchy event
+     */
+    @Override
+    public void hierarchyChanged(HierarchyEvent e) {
+        if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0) {
+            return;
+        }
+        if (component.isShowing()) {
+            if (stale) {
+                stale = false;
+                RenderScheduler.getInstance().schedule(this, refresh);
+            }
+        } else if (RenderScheduler.getInstance().cancel(this)) {
+            stale = true;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.app.ui;
 
+import com.example.app.model.DataRefreshManager;
+import com.example.app.model.UserSession;
+import com.example.app.model.importer.ImportResult;
+import com.example.app.model.importer.InboxWatcher;
 import com.example.app.ui.pages.*;
+import com.example.app.user_data.UserBillStorage;
 import javax.swing.*;
 import javax.swing.border.Border;
 import javax.swing.border.CompoundBorder;
@@ -9,8 +14,16 @@ import javax.swing.border.MatteBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * The MainFrame is the main window of the financial application.
@@ -21,12 +34,16 @@ import java.util.Map;
  * <ul>
  *   <li>Navigation bar with page highlighting</li>
  *   <li>CardLayout for switching between pages</li>
- *   <li>Passes the current username to all sub-pages</li>
+ *   <li>Builds only the dashboard before the window shows; other pages are built on first navigation,
+ *       or one at a time in idle moments once the window is open</li>
+ *   <li>Passes the current username to all sub-pages, which share the user's {@link UserSession}</li>
  *   <li>Responsive UI with consistent styling</li>
+ *   <li>Imports statements dropped into the user's inbox folder in the background</li>
  * </ul>
  
  */
 public class MainFrame extends JFrame {
+    private static final Logger LOGGER = Logger.getLogger(MainFrame.class.getName());
     /** The main content panel using CardLayout */
     private JPanel contentPanel;
     /** The CardLayout for switching pages */
@@ -37,14 +54,29 @@ public class MainFrame extends JFrame {
     private String currentPage;
     /** The current logged-in user */
     private String currentUser;
+    /** Background importer for the user's inbox folder */
+    private InboxWatcher inboxWatcher;
+    /** Builders of the pages, in navigation order */
+    private final Map<String, Function<String, JPanel>> pageBuilders = new LinkedHashMap<>();
+    /** Pages built so far, keyed by page constant */
+    private final Map<String, JPanel> pages = new HashMap<>();
+    /** Timer building the remaining pages after the window opens, or null */
+    private Timer prewarmTimer;
+
+    /** System property that turns building pages ahead of navigation on or off */
+    public static final String PREWARM_PROPERTY = "ui.prewarm.pages";
+    /** Delay after the window opens before the first page is built ahead of navigation */
+    private static final int PREWARM_START_DELAY_MS = 1500;
+    /** Delay between pages built ahead of navigation, leaving the event thread free in between */
+    private static final int PREWARM_INTERVAL_MS = 250;
 
     // Page constants
-    private static final String DASHBOARD_PAGE = "DASHBOARD";
-    private static final String TRANSACTIONS_PAGE = "TRANSACTIONS";
-    private static final String BUDGETS_PAGE = "BUDGETS";
-    private static final String REPORTS_PAGE = "REPORTS";
-    private static final String AI_PAGE = "AI";
-    private static final String SETTINGS_PAGE = "SETTINGS";
+    static final String DASHBOARD_PAGE = "DASHBOARD";
+    static final String TRANSACTIONS_PAGE = "TRANSACTIONS";
+    static final String BUDGETS_PAGE = "BUDGETS";
+    static final String REPORTS_PAGE = "REPORTS";
+    static final String AI_PAGE = "AI";
+    static final String SETTINGS_PAGE = "SETTINGS";
 
     // Colors and borders for navigation highlighting
     private static final Color SELECTED_COLOR = new Color(70, 130, 180);
@@ -73,13 +105,13 @@ public class MainFrame extends JFrame {
         cardLayout = new CardLayout();
         contentPanel = new JPanel(cardLayout);
 
-        // Add all pages to content panel
-        contentPanel.add(new DashboardPanel(username), DASHBOARD_PAGE);
-        contentPanel.add(new TransactionsPanel(username), TRANSACTIONS_PAGE);
-        contentPanel.add(new BudgetsPanel(username), BUDGETS_PAGE);
-        contentPanel.add(new ReportsPanel(username), REPORTS_PAGE);
-        contentPanel.add(new AIPanel(username), AI_PAGE);
-        contentPanel.add(new SettingsPanel(username), SETTINGS_PAGE);
+        // Register the pages; each is built when first shown
+        pageBuilders.put(DASHBOARD_PAGE, DashboardPanel::new);
+        pageBuilders.put(TRANSACTIONS_PAGE, TransactionsPanel::new);
+        pageBuilders.put(BUDGETS_PAGE, BudgetsPanel::new);
+        pageBuilders.put(REPORTS_PAGE, ReportsPanel::new);
+        pageBuilders.put(AI_PAGE, AIPanel::new);
+        pageBuilders.put(SETTINGS_PAGE, SettingsPanel::new);
 
         mainPanel.add(contentPanel, BorderLayout.CENTER);
 
@@ -87,6 +119,105 @@ public class MainFrame extends JFrame {
 
         // Show dashboard by default and highlight its button
         setActivePage(DASHBOARD_PAGE);
+
+        startInboxWatcher();
+
+        // Build the other pages in idle moments once the dashboard is on screen
+        if (Boolean.parseBoolean(System.getProperty(PREWARM_PROPERTY, "true"))) {
+            addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    startPrewarm();
+                }
+            });
+        }
+    }
+
+    /**
+     * Builds a page and adds it to the card layout, unless it has been built already.
+     *
+     * @param pageKey the page key
+     * @return the page
+     */
+    private JPanel ensurePage(String pageKey) {
+        JPanel page = pages.get(pageKey);
+        if (page == null) {
+            long start = System.nanoTime();
+            page = pageBuilders.get(pageKey).apply(currentUser);
+            pages.put(pageKey, page);
+            contentPanel.add(page, pageKey);
+            LOGGER.log(Level.FINE, "Built page {0} in {1} ms",
+                new Object[]{pageKey, (System.nanoTime() - start) / 1_000_000});
+        }
+        return page;
+    }
+
+    /**
+     * Starts building the pages not yet shown, one per timer tick on the event thread.
+     */
+    private void startPrewarm() {
+        if (prewarmTimer != null) {
+            return;
+        }
+        prewarmTimer = new Timer(PREWARM_INTERVAL_MS, e -> {
+            for (String pageKey : pageBuilders.keySet()) {
+                if (!pages.containsKey(pageKey)) {
+                    ensurePage(pageKey);
+                    return;
+                }
+            }
+            ((Timer) e.getSource()).stop();
+        });
+        prewarmTimer.setInitialDelay(PREWARM_START_DELAY_MS);
+        prewarmTimer.start();
+    }
+
+    /**
+     * Checks whether a page has been built.
+     *
+     * @param pageKey the page key
+     * @return true if the page exists
+     */
+    boolean isPageBuilt(String pageKey) {
+        return pages.containsKey(pageKey);
+    }
+
+    /**
+     * Starts importing statement files dropped into the user's inbox folder.
+     * Views are refreshed on the event dispatch thread after each imported file.
+     */
+    private void startInboxWatcher() {
+        UserBillStorage.setUsername(currentUser);
+        inboxWatcher = InboxWatcher.forCurrentUser(new InboxWatcher.Listener() {
+            @Override
+            public void onFileImported(Path archivedFile, ImportResult result) {
+                if (result.getImportedRows() > 0) {
+                    SwingUtilities.invokeLater(() -> DataRefreshManager.getInstance().refreshTransactions());
+                }
+            }
+        });
+        try {
+            inboxWatcher.start();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not start inbox watcher", e);
+            inboxWatcher = null;
+        }
+    }
+
+    /**
+     * Stops the inbox watcher and page building, closes the user's session and disposes the frame.
+     */
+    @Override
+    public void dispose() {
+        if (prewarmTimer != null) {
+            prewarmTimer.stop();
+        }
+        if (inboxWatcher != null) {
+            inboxWatcher.close();
+            inboxWatcher = null;
+        }
+        UserSession.close(currentUser);
+        super.dispose();
     }
 
     /**
@@ -176,7 +307,8 @@ public class MainFrame extends JFrame {
             selectedButton.setForeground(SELECTED_COLOR);
         }
 
-        // Show the selected page
+        // Show the selected page, building it on first use
+        ensurePage(pageKey);
         cardLayout.show(contentPanel, pageKey);
         currentPage = pageKey;
     }
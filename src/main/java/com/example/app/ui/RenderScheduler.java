@@ -0,0 +1,117 @@
+package com.example.app.ui;
+
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Singleton that runs the redraws requested by charts and panels on the event dispatch thread,
+ * at most once per frame interval.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Collects redraw requests from any thread and runs them together in the next frame</li>
+ *   <li>Keeps only the latest request per key, so a burst of changes redraws a component once</li>
+ *   <li>Caps the frame rate, leaving the event thread free for input between frames</li>
+ *   <li>Pending requests can be cancelled, e.g. when their component is hidden</li>
+ *   <li>A failing redraw is logged and does not stop the others in its frame</li>
+ * </ul>
+ */
+public class RenderScheduler {
+    private static final Logger LOGGER = Logger.getLogger(RenderScheduler.class.getName());
+
+    /** System property with the minimum time between frames, in milliseconds */
+    public static final String FRAME_INTERVAL_PROPERTY = "ui.render.interval";
+    /** Default minimum time between frames, about 30 frames per second */
+    private static final int DEFAULT_FRAME_INTERVAL_MS = 33;
+
+    private static RenderScheduler instance;
+
+    private final int frameInterval;
+    /** Pending redraws by key, in the order they were first requested */
+    private final Map<Object, Runnable> pending = new LinkedHashMap<>();
+    /** One-shot timer running the next frame on the event dispatch thread */
+    private final Timer frameTimer;
+    /** Start of the last frame, from System.nanoTime() */
+    private long lastFrame;
+
+    /**
+     * Creates a scheduler with the given minimum time between frames.
+     *
+     * @param frameIntervalMs the minimum time between frames, in milliseconds
+     */
+    RenderScheduler(int frameIntervalMs) {
+        this.frameInterval = Math.max(0, frameIntervalMs);
+        this.lastFrame = System.nanoTime() - frameInterval * 1_000_000L;
+        this.frameTimer = new Timer(frameInterval, e -> runFrame());
+        this.frameTimer.setRepeats(false);
+    }
+
+    /**
+     * Returns the singleton instance of the RenderScheduler.
+     *
+     * @return the shared scheduler
+     */
+    public static synchronized RenderScheduler getInstance() {
+        if (instance == null) {
+            instance = new RenderScheduler(Integer.getInteger(FRAME_INTERVAL_PROPERTY, DEFAULT_FRAME_INTERVAL_MS));
+        }
+        return instance;
+    }
+
+    /**
+     * Requests a redraw in the next frame. A pending redraw with the same key is replaced.
+     * May be called from any thread.
+     *
+     * @param key identifies what is redrawn, usually the component
+     * @param render the redraw to run on the event dispatch thread
+     */
+    public synchronized void schedule(Object key, Runnable render) {
+        boolean idle = pending.isEmpty();
+        pending.put(key, render);
+        if (idle) {
+            long sinceLastFrame = (System.nanoTime() - lastFrame) / 1_000_000;
+            frameTimer.setInitialDelay((int) Math.max(0, frameInterval - sinceLastFrame));
+            frameTimer.restart();
+        }
+    }
+
+    /**
+     * Cancels a pending redraw.
+     *
+     * @param key the key the redraw was requested with
+     * @return true if a redraw was pending
+     */
+    public synchronized boolean cancel(Object key) {
+        boolean removed = pending.remove(key) != null;
+        if (removed && pending.isEmpty()) {
+            frameTimer.stop();
+        }
+        return removed;
+    }
+
+    /**
+     * Runs the pending redraws. Redraws requested while the frame runs go to the next frame.
+     */
+    private void runFrame() {
+        List<Runnable> renders;
+        synchronized (this) {
+            lastFrame = System.nanoTime();
+            renders = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        for (Runnable render : renders) {
+            try {
+                render.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Redraw failed", e);
+            }
+        }
+        LOGGER.log(Level.FINEST, "Ran {0} redraws in {1} ms",
+            new Object[]{renders.size(), (System.nanoTime() - lastFrame) / 1_000_000});
+    }
+}
@@ -2,6 +2,7 @@ package com.example.app.ui.dashboard;
 
 import com.example.app.ui.CurrencyManager;
 import com.example.app.ui.CurrencyManager.CurrencyChangeListener;
+import com.example.app.ui.DeferredRefresh;
 import com.example.app.viewmodel.dashboard.DashboardBudgetsViewModel;
 import com.example.app.viewmodel.dashboard.DashboardBudgetsViewModel.BudgetChangeListener;
 
@@ -33,6 +34,8 @@ public class DashboardBudgetsPanel extends JPanel implements CurrencyChangeListe
     private final JPanel categoriesPanel;
     /** Currency symbol for displaying budget amounts */
     private String currencySymbol;
+    /** Updates the category table now, or once the panel is shown if it is hidden */
+    private final DeferredRefresh tableRefresh;
     
     /**
      * Creates a new budget dashboard panel for the specified user.
@@ -127,6 +130,8 @@ public class DashboardBudgetsPanel extends JPanel implements CurrencyChangeListe
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
         add(scrollPane, BorderLayout.CENTER);
         
+        tableRefresh = new DeferredRefresh(this, () -> updateCategoryTable(budgetTable));
+        
         // Register as listeners
         CurrencyManager.getInstance().addCurrencyChangeListener(this);
     }
@@ -258,12 +263,12 @@ public class DashboardBudgetsPanel extends JPanel implements CurrencyChangeListe
 
     /**
      * Called when budget data changes in the view model.
-     * Updates the UI to reflect the changes.
+     * Updates the UI to reflect the changes, or once the panel is shown if it is hidden.
      */
     @Override
     public void onBudgetDataChanged() {
         // Update UI when the view model notifies of budget changes
-        updateCategoryTable((JTable)((JScrollPane)categoriesPanel.getComponent(0)).getViewport().getView());
+        tableRefresh.request();
     }
 
     /**
@@ -276,7 +281,7 @@ public class DashboardBudgetsPanel extends JPanel implements CurrencyChangeListe
     @Override
     public void onCurrencyChanged(String currencyCode, String currencySymbol) {
         this.currencySymbol = currencySymbol;
-        updateCategoryTable((JTable)((JScrollPane)categoriesPanel.getComponent(0)).getViewport().getView());
+        tableRefresh.request();
     }
     
     /**
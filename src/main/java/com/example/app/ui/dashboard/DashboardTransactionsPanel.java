@@ -2,6 +2,7 @@ package com.example.app.ui.dashboard;
 
 import com.example.app.ui.CurrencyManager;
 import com.example.app.ui.CurrencyManager.CurrencyChangeListener;
+import com.example.app.ui.DeferredRefresh;
 import com.example.app.viewmodel.dashboard.DashboardTransactionsViewModel;
 import com.example.app.viewmodel.dashboard.DashboardTransactionsViewModel.TransactionChangeListener;
 import com.example.app.viewmodel.dashboard.DashboardTransactionsViewModel.TransactionEntry;
@@ -41,6 +42,9 @@ public class DashboardTransactionsPanel extends JPanel implements CurrencyChange
     /** View model providing transaction data and business logic */
     private final DashboardTransactionsViewModel viewModel;
     
+    /** Reloads the table now, or once the panel is shown if it is hidden */
+    private final DeferredRefresh tableRefresh;
+    
     /**
      * Creates a new transactions panel for the specified user.
      *
@@ -71,6 +75,8 @@ public class DashboardTransactionsPanel extends JPanel implements CurrencyChange
         buttonPanel.add(viewAllButton);
         add(buttonPanel, BorderLayout.SOUTH);
         
+        tableRefresh = new DeferredRefresh(this, this::refreshTable);
+        
         // Register as currency change listener
         CurrencyManager.getInstance().addCurrencyChangeListener(this);
     }
@@ -214,22 +220,28 @@ public class DashboardTransactionsPanel extends JPanel implements CurrencyChange
     
     /**
      * Called when transaction data changes in the view model.
-     * Updates the table to display the latest transaction data.
+     * Updates the table to display the latest transaction data,
+     * or once the panel is shown if it is hidden.
      */
     @Override
     public void onTransactionsChanged() {
         // Called by ViewModel when transaction data changes
-        SwingUtilities.invokeLater(() -> {
-            // Update table data
-            populateTableWithRecentTransactions();
-            
-            // Update currency formatting
-            updateAmountRenderer();
-            
-            // Refresh UI
-            transactionsTable.revalidate();
-            transactionsTable.repaint();
-        });
+        SwingUtilities.invokeLater(tableRefresh::request);
+    }
+    
+    /**
+     * Reloads the table with the latest transaction data.
+     */
+    private void refreshTable() {
+        // Update table data
+        populateTableWithRecentTransactions();
+        
+        // Update currency formatting
+        updateAmountRenderer();
+        
+        // Refresh UI
+        transactionsTable.revalidate();
+        transactionsTable.repaint();
     }
     
     /**
@@ -2,6 +2,7 @@ package com.example.app.ui.dashboard;
 
 import com.example.app.ui.CurrencyManager;
 import com.example.app.ui.CurrencyManager.CurrencyChangeListener;
+import com.example.app.ui.DeferredRefresh;
 import com.example.app.viewmodel.dashboard.FinancialDetailsViewModel;
 
 import javax.swing.*;
@@ -42,6 +43,9 @@ public class FinancialDetailsPanel extends JPanel implements CurrencyChangeListe
     /** Label showing when financial advice was generated */
     private JLabel adviceTimeLabel;
     
+    /** Rebuilds the panels now, or once this panel is shown if it is hidden */
+    private final DeferredRefresh panelsRefresh;
+    
     /**
      * Constructs a new FinancialDetailsPanel with the specified view model.
      *
@@ -67,6 +71,8 @@ public class FinancialDetailsPanel extends JPanel implements CurrencyChangeListe
         add(tipsPanel);
         add(Box.createVerticalGlue());
         
+        panelsRefresh = new DeferredRefresh(this, this::refreshAllPanels);
+        
         // Register listeners
         CurrencyManager.getInstance().addCurrencyChangeListener(this);
         viewModel.addChangeListener(this);
@@ -82,17 +88,18 @@ public class FinancialDetailsPanel extends JPanel implements CurrencyChangeListe
     @Override
     public void onCurrencyChanged(String currencyCode, String currencySymbol) {
         // When currency changes, refresh all panels
-        refreshAllPanels();
+        panelsRefresh.request();
     }
     
     /**
      * Called when financial data changes in the view model.
-     * Refreshes all panels to display the updated financial information.
+     * Refreshes all panels to display the updated financial information,
+     * or once this panel is shown if it is hidden.
      */
     @Override
     public void onFinancialDataChanged() {
         // When financial data changes, refresh all panels
-        refreshAllPanels();
+        panelsRefresh.request();
     }
     
     /**
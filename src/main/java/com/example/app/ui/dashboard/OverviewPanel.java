@@ -2,6 +2,8 @@ package com.example.app.ui.dashboard;
 
 import com.example.app.model.FinanceData;
 import com.example.app.model.FinancialAdvice;
+import com.example.app.model.UserSession;
+import com.example.app.ui.DeferredRefresh;
 import com.example.app.viewmodel.dashboard.FinancialDetailsViewModel;
 import com.example.app.viewmodel.dashboard.OverviewViewModel;
 import com.example.app.viewmodel.dashboard.OverviewViewModel.OverviewChangeListener;
@@ -25,7 +27,8 @@ import java.util.logging.Logger;
  
  * <p>
  * This panel implements the OverviewChangeListener interface to respond to changes
- * in the underlying financial data and update the UI accordingly.
+ * in the underlying financial data and update the UI accordingly. While the panel is
+ * hidden, changes only mark it stale and the chart and details are rebuilt once it is shown.
  
  */
 public class OverviewPanel extends JPanel implements OverviewChangeListener {
@@ -44,6 +47,9 @@ public class OverviewPanel extends JPanel implements OverviewChangeListener {
     /** View model for the financial details panel */
     private FinancialDetailsViewModel detailsViewModel;
     
+    /** Rebuilds the chart and details now, or once the panel is shown if it is hidden */
+    private final DeferredRefresh contentRefresh;
+    
     /** Shared financial advice instance accessible across the application */
     public static FinancialAdvice sharedAdvice = new FinancialAdvice();
     
@@ -55,8 +61,9 @@ public class OverviewPanel extends JPanel implements OverviewChangeListener {
      */
     public OverviewPanel(String username) {
         // Initialize ViewModels
-        FinanceData financeData = new FinanceData();
-        viewModel = new OverviewViewModel(username, financeData, sharedAdvice);
+        UserSession session = UserSession.forUser(username);
+        FinanceData financeData = session.getFinanceData();
+        viewModel = new OverviewViewModel(session, sharedAdvice);
         viewModel.addChangeListener(this);
 
         // Explicitly check for warnings after registering as listener
@@ -83,6 +90,8 @@ public class OverviewPanel extends JPanel implements OverviewChangeListener {
         
         // Add the main content to the panel
         add(splitPane, BorderLayout.CENTER);
+        
+        contentRefresh = new DeferredRefresh(this, this::rebuildContent);
     }
     
     /**
@@ -115,10 +124,18 @@ public class OverviewPanel extends JPanel implements OverviewChangeListener {
     
     /**
      * Called when financial data changes in the view model.
-     * Updates both the chart and the details panel to reflect the changes.
+     * Updates both the chart and the details panel to reflect the changes,
+     * or once the panel is shown if it is hidden.
      */
     @Override
     public void onFinancialDataChanged() {
+        contentRefresh.request();
+    }
+    
+    /**
+     * Replaces the chart and the details panel with new ones built from the current data.
+     */
+    private void rebuildContent() {
         // Get the split pane
         JSplitPane splitPane = (JSplitPane) getComponent(0);
         
@@ -2,6 +2,7 @@ package com.example.app.ui.dashboard.report;
 
 import com.example.app.ui.CurrencyManager;
 import com.example.app.ui.CurrencyManager.CurrencyChangeListener;
+import com.example.app.ui.DeferredRefresh;
 import com.example.app.viewmodel.dashboard.report.CategorySpendingChartViewModel;
 import com.example.app.viewmodel.dashboard.report.CategorySpendingChartViewModel.ChartDataChangeListener;
 
@@ -35,6 +36,8 @@ public class CategorySpendingChartPanel extends JPanel implements CurrencyChange
     private final CategorySpendingChartViewModel viewModel;
     /** Chart panel for displaying the spending chart */
     private ChartPanel chartPanel;
+    /** Refreshes the chart now, or once the panel is shown if it is hidden */
+    private final DeferredRefresh chartRefresh;
 
     /**
      * Constructs a new CategorySpendingChartPanel with the specified view model.
@@ -58,6 +61,7 @@ public class CategorySpendingChartPanel extends JPanel implements CurrencyChange
         
         add(chartPanel, BorderLayout.CENTER);
         
+        chartRefresh = new DeferredRefresh(this, this::refreshChart);
         // Register as currency change listener
         CurrencyManager.getInstance().addCurrencyChangeListener(this);
     }
@@ -147,17 +151,17 @@ public class CategorySpendingChartPanel extends JPanel implements CurrencyChange
     @Override
     public void onCurrencyChanged(String currencyCode, String currencySymbol) {
         // Refresh chart when currency changes
-        refreshChart();
+        chartRefresh.request();
     }
     
     /**
      * Called when the chart data changes in the ViewModel.
-     * Updates the chart to reflect the new data.
+     * Updates the chart to reflect the new data, or once the panel is shown if it is hidden.
      */
     @Override
     public void onChartDataChanged() {
         // Called by ViewModel when data changes
-        SwingUtilities.invokeLater(this::refreshChart);
+        SwingUtilities.invokeLater(chartRefresh::request);
     }
     
     /**
@@ -2,6 +2,7 @@ package com.example.app.ui.dashboard.report;
 
 import com.example.app.ui.CurrencyManager;
 import com.example.app.ui.CurrencyManager.CurrencyChangeListener;
+import com.example.app.ui.DeferredRefresh;
 import com.example.app.viewmodel.dashboard.report.IncomeExpensesChartViewModel;
 import com.example.app.viewmodel.dashboard.report.IncomeExpensesChartViewModel.ChartDataChangeListener;
 
@@ -51,6 +52,8 @@ public class IncomeExpensesChartPanel extends JPanel implements CurrencyChangeLi
      * The panel containing the JFreeChart chart
      */
     private ChartPanel chartPanel;
+    /** Refreshes the chart now, or once the panel is shown if it is hidden */
+    private final DeferredRefresh chartRefresh;
     
     /**
      * Constructs a new IncomeExpensesChartPanel with the specified view model.
@@ -74,6 +77,7 @@ public class IncomeExpensesChartPanel extends JPanel implements CurrencyChangeLi
         
         add(chartPanel, BorderLayout.CENTER);
         
+        chartRefresh = new DeferredRefresh(this, this::refreshChart);
         // Register as currency change listener
         CurrencyManager.getInstance().addCurrencyChangeListener(this);
     }
@@ -179,17 +183,17 @@ public class IncomeExpensesChartPanel extends JPanel implements CurrencyChangeLi
     @Override
     public void onCurrencyChanged(String currencyCode, String currencySymbol) {
         // Refresh chart when currency changes
-        refreshChart();
+        chartRefresh.request();
     }
     
     /**
      * Called when the chart data changes in the ViewModel.
-     * Updates the chart to reflect the new data.
+     * Updates the chart to reflect the new data, or once the panel is shown if it is hidden.
      */
     @Override
     public void onChartDataChanged() {
         // Called by ViewModel when data changes
-        SwingUtilities.invokeLater(this::refreshChart);
+        SwingUtilities.invokeLater(chartRefresh::request);
     }
     
     /**
@@ -2,7 +2,21 @@ package com.example.app.ui.dialogs;
 
 import com.example.app.ui.pages.TransactionsPanel;
 import com.example.app.user_data.UserBillStorage;
+import com.example.app.model.DataRefreshManager;
 import com.example.app.model.FinanceData; // Import added
+import com.example.app.model.importer.BatchImport;
+import com.example.app.model.importer.CSVDateParser;
+import com.example.app.model.importer.CSVTokenizer;
+import com.example.app.model.importer.ColumnMapping;
+import com.example.app.model.importer.ImportPipeline;
+import com.example.app.model.importer.ImportResult;
+import com.example.app.model.importer.ImportSource;
+import com.example.app.model.importer.LedgerSink;
+import com.example.app.model.importer.NearDuplicateDetector;
+import com.example.app.model.importer.OutOfCoreImport;
+import com.example.app.model.importer.TransactionClassifier;
+import com.example.app.model.importer.TransactionSink;
+import com.example.app.ui.pages.AI.ClassificationDispatcher;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -10,14 +24,12 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -51,9 +63,24 @@ public class CSVImportDialog extends JDialog {
     /** List of CSV column headers */
     private List<String> csvHeaders;
     
-    /** List of CSV data rows */
+    /** List of CSV data rows, limited to the first {@link #MAX_LOADED_ROWS} rows */
     private List<List<String>> csvData;
     
+    /** Number of well-formed data rows in the CSV file */
+    private int csvRowCount;
+    
+    /** Maximum number of rows kept in memory for the preview and date format detection */
+    private static final int MAX_LOADED_ROWS = 1000;
+    
+    /** The currently loaded CSV file */
+    private File csvFile;
+    
+    /** CSV documents in the loaded file: the file itself, or each CSV entry of a zip archive */
+    private List<ImportSource> csvSources = new ArrayList<>();
+    
+    /** Button that starts the import */
+    private JButton importButton;
+    
     /** Combo box for selecting the date column */
     private JComboBox<String> dateColumnCombo;
     
@@ -152,7 +179,7 @@ public class CSVImportDialog extends JDialog {
         JButton browseButton = new JButton("Browse...");
         browseButton.addActionListener(e -> {
             JFileChooser fileChooser = new JFileChooser();
-            fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files", "csv"));
+            fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files (csv, gz, zip)", "csv", "gz", "zip"));
             
             int result = fileChooser.showOpenDialog(this);
             if (result == JFileChooser.APPROVE_OPTION) {
@@ -162,9 +189,14 @@ public class CSVImportDialog extends JDialog {
             }
         });
         
+        JButton batchButton = new JButton("Batch Import...");
+        batchButton.setToolTipText("Import several files or a whole folder at once");
+        batchButton.addActionListener(e -> batchImport());
+        
         panel.add(fileLabel);
         panel.add(filePathField);
         panel.add(browseButton);
+        panel.add(batchButton);
         
         return panel;
     }
@@ -181,14 +213,15 @@ public class CSVImportDialog extends JDialog {
         // Template selection panel at the top
         JPanel templatePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         templatePanel.add(new JLabel("CSV Template:"));
-        templateComboBox = new JComboBox<>(new String[] {
-            "Custom", "WeChat Pay"
-            // More templates can be added here
-        });
+        templateComboBox = new JComboBox<>();
+        templateComboBox.addItem(ColumnMapping.CUSTOM);
+        for (String templateName : ColumnMapping.getTemplateNames()) {
+            templateComboBox.addItem(templateName);
+        }
         templateComboBox.addActionListener(e -> {
             if (!applyingTemplate) {
                 String selectedTemplate = (String) templateComboBox.getSelectedItem();
-                if (selectedTemplate != null && !selectedTemplate.equals("Custom")) {
+                if (selectedTemplate != null && !selectedTemplate.equals(ColumnMapping.CUSTOM)) {
                     applyTemplate(selectedTemplate);
                 }
             }
@@ -289,7 +322,7 @@ public class CSVImportDialog extends JDialog {
         // Income/Expense identifiers panel
         JPanel identifiersPanel = new JPanel(new GridLayout(1, 4, 5, 0));
         identifiersPanel.add(new JLabel("Income:"));
-        incomeIdentifierField = new JTextField("Income,Revenue,Deposit");
+        incomeIdentifierField = new JTextField(ColumnMapping.DEFAULT_INCOME_IDENTIFIERS);
         incomeIdentifierField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
             public void insertUpdate(javax.swing.event.DocumentEvent e) { updateTemplate(); }
             public void removeUpdate(javax.swing.event.DocumentEvent e) { updateTemplate(); }
@@ -303,7 +336,7 @@ public class CSVImportDialog extends JDialog {
         });
         identifiersPanel.add(incomeIdentifierField);
         identifiersPanel.add(new JLabel("Expense:"));
-        expenseIdentifierField = new JTextField("Expense,Withdrawal,Debit");
+        expenseIdentifierField = new JTextField(ColumnMapping.DEFAULT_EXPENSE_IDENTIFIERS);
         expenseIdentifierField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
             public void insertUpdate(javax.swing.event.DocumentEvent e) { updateTemplate(); }
             public void removeUpdate(javax.swing.event.DocumentEvent e) { updateTemplate(); }
@@ -381,7 +414,7 @@ public class CSVImportDialog extends JDialog {
         panel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
         
         JButton cancelButton = new JButton("Cancel");
-        JButton importButton = new JButton("Import");
+        importButton = new JButton("Import");
         
         cancelButton.addActionListener(e -> dispose());
         importButton.addActionListener(e -> importTransactions());
@@ -395,18 +428,38 @@ public class CSVImportDialog extends JDialog {
     /**
      * Loads and parses a CSV file.
      * Extracts headers and data rows, then updates the UI.
+     * For a gzip file or zip archive the data is decompressed on the fly; an archive with
+     * several CSV entries previews the first one and imports them all.
      *
      * @param file the CSV file to load
      */
     private void loadCSVFile(File file) {
+        csvFile = file;
+        csvSources = new ArrayList<>();
         csvHeaders = new ArrayList<>();
         csvData = new ArrayList<>();
+        csvRowCount = 0;
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        try {
+            csvSources = ImportSource.fromFile(file.toPath());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, 
+                "Error reading CSV file: " + e.getMessage(), 
+                "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (csvSources.isEmpty()) {
+            JOptionPane.showMessageDialog(this, 
+                "The archive contains no CSV files.", 
+                "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        try (BufferedReader reader = new BufferedReader(csvSources.get(0).openReader())) {
             String line = reader.readLine();
             if (line != null) {
                 // Parse headers
-                csvHeaders = parseCSVLine(line);
+                csvHeaders = parseCSVLine(CSVTokenizer.stripByteOrderMark(line));
                 
                 // Update combo boxes with headers
                 updateComboBoxes();
@@ -415,7 +468,10 @@ public class CSVImportDialog extends JDialog {
                 while ((line = reader.readLine()) != null) {
                     List<String> rowData = parseCSVLine(line);
                     if (rowData.size() == csvHeaders.size()) {
-                        csvData.add(rowData);
+                        csvRowCount++;
+                        if (csvData.size() < MAX_LOADED_ROWS) {
+                            csvData.add(rowData);
+                        }
                     }
                 }
                 
@@ -437,27 +493,7 @@ public class CSVImportDialog extends JDialog {
      * @return a list of fields extracted from the line
      */
     private List<String> parseCSVLine(String line) {
-        List<String> result = new ArrayList<>();
-        boolean inQuotes = false;
-        StringBuilder currentField = new StringBuilder();
-        
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                result.add(currentField.toString().trim());
-                currentField = new StringBuilder();
-            } else {
-                currentField.append(c);
-            }
-        }
-        
-        // Add the last field
-        result.add(currentField.toString().trim());
-        
-        return result;
+        return CSVTokenizer.tokenize(line);
     }
     
     /**
@@ -534,11 +570,11 @@ public class CSVImportDialog extends JDialog {
         
         // Get transaction type settings
         boolean useTypeColumn = useTypeColumnCheckBox.isSelected();
-        Set<String> incomeIdentifiers = parseIdentifiers(incomeIdentifierField.getText());
-        Set<String> expenseIdentifiers = parseIdentifiers(expenseIdentifierField.getText());
+        Set<String> incomeIdentifiers = ColumnMapping.parseIdentifiers(incomeIdentifierField.getText());
+        Set<String> expenseIdentifiers = ColumnMapping.parseIdentifiers(expenseIdentifierField.getText());
         
         String dateFormat = (String) dateFormatCombo.getSelectedItem();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(dateFormat);
+        CSVDateParser dateParser = createDateParser(dateColIdx, dateFormat);
         
         // Add preview rows (max 10 for performance)
         int rowCount = Math.min(csvData.size(), 10);
@@ -554,14 +590,11 @@ public class CSVImportDialog extends JDialog {
             String amountStr = (amountColIdx >= 0 && amountColIdx < rowData.size()) ? 
                               rowData.get(amountColIdx) : "0.0";
             
-            // Try to parse date
+            // Try to parse date, keeping the original string if parsing fails
             String formattedDate = dateStr;
-            try {
-                if (!dateStr.isEmpty()) {
-                    formattedDate = parseDate(dateStr, dateFormat);
-                }
-            } catch (DateTimeParseException e) {
-                // Keep original string if parsing fails
+            String parsedDate = dateParser.format(dateStr);
+            if (parsedDate != null) {
+                formattedDate = parsedDate;
             }
             
             // Try to parse amount and apply transaction type if needed
@@ -576,11 +609,11 @@ public class CSVImportDialog extends JDialog {
                     String typeValue = rowData.get(typeColIdx).trim();
                     
                     // Check if this is an expense based on identifiers
-                    if (matchesAnyIdentifier(typeValue, expenseIdentifiers)) {
+                    if (ColumnMapping.matchesAnyIdentifier(typeValue, expenseIdentifiers)) {
                         amount = -Math.abs(amount); // Make negative
                     } 
                     // Check if this is income based on identifiers
-                    else if (matchesAnyIdentifier(typeValue, incomeIdentifiers)) {
+                    else if (ColumnMapping.matchesAnyIdentifier(typeValue, incomeIdentifiers)) {
                         amount = Math.abs(amount); // Make positive
                     }
                     // If no match, keep as is (could add warning)
@@ -595,59 +628,7 @@ public class CSVImportDialog extends JDialog {
         }
         
         // Update record count label using the class field
-        recordCountLabel.setText(csvData.size() + " records found, showing " + rowCount);
-    }
-    
-    /**
-     * Parses a comma-separated string of identifiers into a set.
-     *
-     * @param identifiersString comma-separated list of identifiers
-     * @return a set of lowercase identifiers
-     */
-    private Set<String> parseIdentifiers(String identifiersString) {
-        Set<String> result = new HashSet<>();
-        if (identifiersString == null || identifiersString.trim().isEmpty()) {
-            return result;
-        }
-        
-        String[] parts = identifiersString.split(",");
-        for (String part : parts) {
-            String trimmed = part.trim();
-            if (!trimmed.isEmpty()) {
-                result.add(trimmed.toLowerCase());
-            }
-        }
-        return result;
-    }
-    
-    /**
-     * Checks if a value matches any of the provided identifiers.
-     * Performs both exact and partial matching.
-     *
-     * @param value the value to check
-     * @param identifiers the set of identifiers to match against
-     * @return true if the value matches any identifier, false otherwise
-     */
-    private boolean matchesAnyIdentifier(String value, Set<String> identifiers) {
-        if (value == null || value.isEmpty() || identifiers.isEmpty()) {
-            return false;
-        }
-        
-        String lowerValue = value.toLowerCase();
-        
-        // Direct match
-        if (identifiers.contains(lowerValue)) {
-            return true;
-        }
-        
-        // Partial match (if value contains any identifier)
-        for (String identifier : identifiers) {
-            if (lowerValue.contains(identifier)) {
-                return true;
-            }
-        }
-        
-        return false;
+        recordCountLabel.setText(csvRowCount + " records found, showing " + rowCount);
     }
     
     /**
@@ -666,26 +647,20 @@ public class CSVImportDialog extends JDialog {
     
     /**
      * Imports the transactions from the CSV file based on current settings.
-     * Validates data, handles errors, and updates the application with new transactions.
+     * Validates the column selection, then runs the import pipeline on a worker thread
+     * so parsing and persisting never block the event dispatch thread.
      */
     private void importTransactions() {
         // Check if we have data to import
-        if (csvData.isEmpty()) {
+        if (csvData.isEmpty() || csvFile == null) {
             JOptionPane.showMessageDialog(this, 
                 "No data to import. Please load a CSV file first.", 
                 "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
         
-        // Get selected column indices
-        int dateColIdx = getSelectedIndex(dateColumnCombo);
-        int descColIdx = getSelectedIndex(descriptionColumnCombo);
-        int catColIdx = getSelectedIndex(categoryColumnCombo);
-        int amountColIdx = getSelectedIndex(amountColumnCombo);
-        int typeColIdx = getSelectedIndex(typeColumnCombo);
-        
         // Check if required columns are selected
-        if (dateColIdx < 0 || amountColIdx < 0) {
+        if (getSelectedIndex(dateColumnCombo) < 0 || getSelectedIndex(amountColumnCombo) < 0) {
             JOptionPane.showMessageDialog(this, 
                 "Please select at least Date and Amount columns.", 
                 "Error", JOptionPane.ERROR_MESSAGE);
@@ -693,149 +668,247 @@ public class CSVImportDialog extends JDialog {
         }
         
         // Check for transaction type column if it's enabled
-        boolean useTypeColumn = useTypeColumnCheckBox.isSelected();
-        if (useTypeColumn && typeColIdx < 0) {
+        if (useTypeColumnCheckBox.isSelected() && getSelectedIndex(typeColumnCombo) < 0) {
             JOptionPane.showMessageDialog(this, 
                 "Please select a Transaction Type column or disable its use.", 
                 "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
         
-        // Get transaction type settings
-        Set<String> incomeIdentifiers = parseIdentifiers(incomeIdentifierField.getText());
-        Set<String> expenseIdentifiers = parseIdentifiers(expenseIdentifierField.getText());
+        ColumnMapping mapping = buildColumnMapping();
+        List<ImportSource> sources = csvSources;
+        runImport(() -> {
+            TransactionClassifier classifier = createClassifier();
+            NearDuplicateDetector nearDuplicates = new NearDuplicateDetector();
+            if (sources.size() > 1) {
+                // Archive with several statements: entries matching the mapping use it
+                nearDuplicates.addAll(UserBillStorage.loadTransactions());
+                return new BatchImport(createSink())
+                    .withMapping(mapping)
+                    .withClassifier(classifier)
+                    .withLedgerIndex(UserBillStorage.getFingerprintIndex())
+                    .withNearDuplicateDetection(nearDuplicates, ImportPipeline.NearDuplicatePolicy.FLAG)
+                    .runSources(sources);
+            }
+            if (sources.get(0).getEstimatedSize() > OutOfCoreImport.THRESHOLD_BYTES) {
+                // Too large to hold in memory once decompressed: sort on disk and stream into the ledger
+                File spillDirectory = new File(UserBillStorage.getUserDirectory(), "import-tmp");
+                return new OutOfCoreImport(mapping, createSink(), spillDirectory)
+                    .withClassifier(classifier)
+                    .withLedgerIndex(UserBillStorage.getFingerprintIndex())
+                    .run(Collections.singletonList(csvFile.toPath()));
+            }
+            nearDuplicates.addAll(UserBillStorage.loadTransactions());
+            return new ImportPipeline(mapping, createSink())
+                .withClassifier(classifier)
+                .withLedgerIndex(UserBillStorage.getFingerprintIndex())
+                .withNearDuplicateDetection(nearDuplicates, ImportPipeline.NearDuplicatePolicy.FLAG)
+                .run(sources.get(0));
+        });
+    }
+    
+    /**
+     * Lets the user pick several CSV files or folders and imports them together.
+     * Files whose headers match the current column mapping use it; other files are mapped
+     * from their headers. All files are saved in one write and added to the table in one update.
+     */
+    private void batchImport() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        fileChooser.setMultiSelectionEnabled(true);
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files (csv, gz, zip)", "csv", "gz", "zip"));
         
-        String dateFormat = (String) dateFormatCombo.getSelectedItem();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(dateFormat);
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        List<Path> paths = new ArrayList<>();
+        for (File file : fileChooser.getSelectedFiles()) {
+            paths.add(file.toPath());
+        }
+        if (paths.isEmpty()) {
+            return;
+        }
         
-        List<Object[]> transactions = new ArrayList<>();
-        int skippedRows = 0;
-        StringBuilder errorMessages = new StringBuilder();
+        ColumnMapping mapping = csvFile != null ? buildColumnMapping() : null;
+        runImport(() -> {
+            NearDuplicateDetector nearDuplicates = new NearDuplicateDetector();
+            nearDuplicates.addAll(UserBillStorage.loadTransactions());
+            return new BatchImport(createSink())
+                .withMapping(mapping)
+                .withClassifier(createClassifier())
+                .withLedgerIndex(UserBillStorage.getFingerprintIndex())
+                .withNearDuplicateDetection(nearDuplicates, ImportPipeline.NearDuplicatePolicy.FLAG)
+                .run(paths);
+        });
+    }
+    
+    /**
+     * Creates the classifier for rows without a category: the user's merchant keyword rules first,
+     * then the local model trained from confirmed transactions.
+     *
+     * @return the classifier
+     */
+    private TransactionClassifier createClassifier() {
+        return UserBillStorage.getMerchantRules().orElse(UserBillStorage.getCategoryClassifier());
+    }
+    
+    /**
+     * Creates the sink that persists imported transactions. Rows neither classifier could
+     * categorize are sent to the remote AI model in rate-limited batches just before they are saved;
+     * answers are kept in the user's response cache, so rows seen before are not sent again.
+     *
+     * @return the sink
+     */
+    private TransactionSink createSink() {
+        return ClassificationDispatcher.forDefaultEndpoint()
+                .withCache(UserBillStorage.getResponseCache())
+                .classifyingSink(new LedgerSink());
+    }
+    
+    /**
+     * Runs an import on a worker thread, keeping the dialog responsive, and reports the result.
+     *
+     * @param task the import to run
+     */
+    private void runImport(Callable<ImportResult> task) {
+        importButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
         
-        for (int rowIndex = 0; rowIndex < csvData.size(); rowIndex++) {
-            List<String> rowData = csvData.get(rowIndex);
-            
-            String dateStr = (dateColIdx >= 0 && dateColIdx < rowData.size()) ? 
-                             rowData.get(dateColIdx) : "";
-            String description = (descColIdx >= 0 && descColIdx < rowData.size()) ? 
-                                rowData.get(descColIdx) : "";
-            String category = (catColIdx >= 0 && catColIdx < rowData.size()) ? 
-                              rowData.get(catColIdx) : "Uncategorised";
-            String amountStr = (amountColIdx >= 0 && amountColIdx < rowData.size()) ? 
-                              rowData.get(amountColIdx) : "0.0";
-            
-            // Try to parse date
-            String formattedDate = "";
-            try {
-                if (!dateStr.isEmpty()) {
-                    formattedDate = parseDate(dateStr, dateFormat);
-                } else {
-                    errorMessages.append("Row ").append(rowIndex + 1).append(": Empty date field\n");
-                    skippedRows++;
-                    continue;
-                }
-            } catch (DateTimeParseException e) {
-                // Log error and skip rows with parsing failures
-                errorMessages.append("Row ").append(rowIndex + 1)
-                              .append(": Failed to parse date '").append(dateStr)
-                              .append("' using format '").append(dateFormat).append("' - ")
-                              .append(e.getMessage()).append("\n");
-                skippedRows++;
-                continue;
+        new SwingWorker<ImportResult, Void>() {
+            @Override
+            protected ImportResult doInBackground() throws Exception {
+                return task.call();
             }
             
-            // Try to parse amount and apply transaction type if needed
-            double amount = 0.0;
-            try {
-                // Remove any currency symbols and commas
-                String cleanAmount = amountStr.replaceAll("[^\\d.-]", "");
-                if (cleanAmount.isEmpty()) {
-                    errorMessages.append("Row ").append(rowIndex + 1).append(": Empty amount field\n");
-                    skippedRows++;
-                    continue;
-                }
-                amount = Double.parseDouble(cleanAmount);
-                
-                // Apply transaction type if enabled
-                if (useTypeColumn && typeColIdx >= 0 && typeColIdx < rowData.size()) {
-                    String typeValue = rowData.get(typeColIdx).trim();
-                    
-                    // Check if this is an expense based on identifiers
-                    if (matchesAnyIdentifier(typeValue, expenseIdentifiers)) {
-                        amount = -Math.abs(amount); // Make negative
-                    } 
-                    // Check if this is income based on identifiers
-                    else if (matchesAnyIdentifier(typeValue, incomeIdentifiers)) {
-                        amount = Math.abs(amount); // Make positive
-                    } else {
-                        // Neither income nor expense identifier matched
-                        errorMessages.append("Row ").append(rowIndex + 1)
-                                  .append(": Could not determine transaction type from '")
-                                  .append(typeValue).append("'\n");
-                    }
+            @Override
+            protected void done() {
+                importButton.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    onImportFinished(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.SEVERE, "CSV import failed", e.getCause());
+                    JOptionPane.showMessageDialog(CSVImportDialog.this, 
+                        "There was an error importing transactions: " + e.getCause().getMessage(), 
+                        "Import Failed", JOptionPane.ERROR_MESSAGE);
                 }
-            } catch (NumberFormatException e) {
-                // Log error and skip row if amount parsing fails
-                errorMessages.append("Row ").append(rowIndex + 1)
-                              .append(": Failed to parse amount '").append(amountStr).append("'\n");
-                skippedRows++;
-                continue;
             }
-            
-            // Create transaction row
-            Object[] transaction = {formattedDate, description, category, amount, false};
-            transactions.add(transaction);
-            LOGGER.log(Level.INFO, "Parsed transaction: {0}", Arrays.toString(transaction));
-        }
-        
+        }.execute();
+    }
+    
+    /**
+     * Builds the column mapping described by the current dialog settings.
+     *
+     * @return the column mapping
+     */
+    private ColumnMapping buildColumnMapping() {
+        return ColumnMapping.builder()
+            .name((String) templateComboBox.getSelectedItem())
+            .dateColumn((String) dateColumnCombo.getSelectedItem())
+            .descriptionColumn((String) descriptionColumnCombo.getSelectedItem())
+            .categoryColumn((String) categoryColumnCombo.getSelectedItem())
+            .amountColumn((String) amountColumnCombo.getSelectedItem())
+            .typeColumn((String) typeColumnCombo.getSelectedItem())
+            .dateFormat((String) dateFormatCombo.getSelectedItem())
+            .useTypeColumn(useTypeColumnCheckBox.isSelected())
+            .incomeIdentifiers(ColumnMapping.parseIdentifiers(incomeIdentifierField.getText()))
+            .expenseIdentifiers(ColumnMapping.parseIdentifiers(expenseIdentifierField.getText()))
+            .build();
+    }
+    
+    /**
+     * Reports the outcome of an import and hands the imported transactions to the application.
+     *
+     * @param result the result of the import pipeline
+     */
+    private void onImportFinished(ImportResult result) {
         // Display warning if some rows were skipped
-        if (skippedRows > 0) {
-            String message = "Warning: " + skippedRows + " of " + csvData.size() + 
+        if (result.getSkippedRows() > 0) {
+            String message = "Warning: " + result.getSkippedRows() + " of " + result.getTotalRows() + 
                              " rows were skipped due to parsing errors.\n\n";
-            if (errorMessages.length() > 0) {
+            if (!result.getErrors().isEmpty()) {
                 // Limit the number of error messages to avoid huge dialog
-                String errors = errorMessages.toString();
-                if (errors.length() > 500) {
-                    errors = errors.substring(0, 500) + "...\n(more errors not shown)";
-                }
-                message += "Errors:\n" + errors;
+                message += "Errors:\n" + result.formatErrors(500);
             }
             
             JOptionPane.showMessageDialog(this, message, 
                 "Import Warning", JOptionPane.WARNING_MESSAGE);
         }
         
-        // Check if we have any transactions to save
-        if (transactions.isEmpty()) {
+        if (result.getTransactions().isEmpty() && result.getImportedRows() > 0) {
+            // Imported out of core; the transactions are only in storage, so reload them from there
+            DataRefreshManager.getInstance().refreshTransactions();
             JOptionPane.showMessageDialog(this, 
-                "No valid transactions found to import. Please check your CSV data and column mappings.", 
-                "Import Failed", JOptionPane.ERROR_MESSAGE);
+                result.getImportedRows() + " transactions imported successfully and saved to user_bill.csv" +
+                (result.getDuplicateRows() > 0 ? "\n" + result.getDuplicateRows() + " duplicate transactions were skipped." : "") +
+                formatNearDuplicates(result) +
+                "\n\nThis file was too large to compare with your existing transactions for look-alike entries;" +
+                "\nonly exact duplicates and rows repeated within the file were checked.", 
+                "Import Complete", JOptionPane.INFORMATION_MESSAGE);
+            dispose();
             return;
         }
         
-        // Save transactions using UserBillStorage
-        boolean saveSuccess = UserBillStorage.addTransactions(transactions);
+        List<Object[]> transactions = result.getTransactions();
         
-        if (!saveSuccess) {
+        // Check if we have any transactions to import
+        if (transactions.isEmpty() && result.getDuplicateRows() > 0) {
+            JOptionPane.showMessageDialog(this, 
+                "All " + result.getDuplicateRows() + " transactions in this file are already in your records.", 
+                "Nothing to Import", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        if (transactions.isEmpty()) {
             JOptionPane.showMessageDialog(this, 
-                "There was an error saving transactions to storage.", 
-                "Save Error", JOptionPane.ERROR_MESSAGE);
+                "No valid transactions found to import. Please check your CSV data and column mappings.", 
+                "Import Failed", JOptionPane.ERROR_MESSAGE);
+            return;
         }
         
         // Add imported transactions to FinanceData
-        financeData.importTransactions(transactions);
+        if (financeData != null) {
+            financeData.importTransactions(transactions);
+        }
         
         // Import the transactions into the main panel
         parentPanel.addTransactionsFromCSV(transactions);
         
         // Show success message
-        JOptionPane.showMessageDialog(this, 
-            transactions.size() + " transactions imported successfully and saved to user_bill.csv", 
+        String message = transactions.size() + " transactions imported successfully and saved to user_bill.csv";
+        if (result.getDuplicateRows() > 0) {
+            message += "\n" + result.getDuplicateRows() + " duplicate transactions were skipped.";
+        }
+        message += formatNearDuplicates(result);
+        JOptionPane.showMessageDialog(this, message, 
             "Import Complete", JOptionPane.INFORMATION_MESSAGE);
         
         // Close the dialog
         dispose();
     }
+    
+    /**
+     * Lists the first few likely duplicates of an import for the completion message.
+     *
+     * @param result the result of the import
+     * @return the text to append, or an empty string if there are none
+     */
+    private String formatNearDuplicates(ImportResult result) {
+        List<String> nearDuplicates = result.getNearDuplicates();
+        if (nearDuplicates.isEmpty()) {
+            return "";
+        }
+        String message = "\n\n" + nearDuplicates.size() + 
+                         " imported transactions look like ones you already have. Please review them:\n";
+        for (int i = 0; i < Math.min(5, nearDuplicates.size()); i++) {
+            message += nearDuplicates.get(i) + "\n";
+        }
+        if (nearDuplicates.size() > 5) {
+            message += "...";
+        }
+        return message;
+    }
 
     /**
      * Applies a predefined template for common CSV formats.
@@ -847,45 +920,41 @@ public class CSVImportDialog extends JDialog {
         applyingTemplate = true;
         
         try {
-            switch (templateName) {
-                case "WeChat Pay":
-                    // Date settings
-                    dateFormatCombo.setSelectedItem("yyyy/M/d HH:mm"); // Modified to match format like 2025/4/14 12:19
-                    
-                    // Column mappings
-                    setComboBoxItem(dateColumnCombo, "Transaction Time");
-                    setComboBoxItem(descriptionColumnCombo, "Product");
-                    categoryColumnCombo.setSelectedIndex(0); // Default/empty
-                    setComboBoxItem(amountColumnCombo, "Amount");
-                    
-                    // Transaction type settings
-                    useTypeColumnCheckBox.setSelected(true);
-                    setComboBoxItem(typeColumnCombo, "Income/Expense");
-                    typeColumnCombo.setEnabled(true);
-                    
-                    // Set identifiers
-                    incomeIdentifierField.setText("Income");
-                    expenseIdentifierField.setText("Expense");
-                    incomeIdentifierField.setEnabled(true);
-                    expenseIdentifierField.setEnabled(true);
-                    break;
-                    
-                // More templates can be added in the future
-                default:
-                    // Reset to defaults
-                    dateFormatCombo.setSelectedIndex(0);
-                    dateColumnCombo.setSelectedIndex(0);
-                    descriptionColumnCombo.setSelectedIndex(0);
-                    categoryColumnCombo.setSelectedIndex(0);
-                    amountColumnCombo.setSelectedIndex(0);
-                    typeColumnCombo.setSelectedIndex(0);
-                    useTypeColumnCheckBox.setSelected(false);
-                    typeColumnCombo.setEnabled(false);
-                    incomeIdentifierField.setText("Income,Revenue,Deposit");
-                    expenseIdentifierField.setText("Expense,Withdrawal,Debit");
-                    incomeIdentifierField.setEnabled(false);
-                    expenseIdentifierField.setEnabled(false);
-                    break;
+            ColumnMapping template = ColumnMapping.forTemplate(templateName);
+            if (template != null) {
+                // Date settings
+                dateFormatCombo.setSelectedItem(template.getDateFormat());
+                
+                // Column mappings
+                setComboBoxItem(dateColumnCombo, template.getDateColumn());
+                setOptionalComboBoxItem(descriptionColumnCombo, template.getDescriptionColumn());
+                setOptionalComboBoxItem(categoryColumnCombo, template.getCategoryColumn());
+                setComboBoxItem(amountColumnCombo, template.getAmountColumn());
+                
+                // Transaction type settings
+                useTypeColumnCheckBox.setSelected(template.isUseTypeColumn());
+                setOptionalComboBoxItem(typeColumnCombo, template.getTypeColumn());
+                typeColumnCombo.setEnabled(template.isUseTypeColumn());
+                
+                // Set identifiers
+                incomeIdentifierField.setText(String.join(",", template.getIncomeIdentifiers()));
+                expenseIdentifierField.setText(String.join(",", template.getExpenseIdentifiers()));
+                incomeIdentifierField.setEnabled(template.isUseTypeColumn());
+                expenseIdentifierField.setEnabled(template.isUseTypeColumn());
+            } else {
+                // Reset to defaults
+                dateFormatCombo.setSelectedIndex(0);
+                dateColumnCombo.setSelectedIndex(0);
+                descriptionColumnCombo.setSelectedIndex(0);
+                categoryColumnCombo.setSelectedIndex(0);
+                amountColumnCombo.setSelectedIndex(0);
+                typeColumnCombo.setSelectedIndex(0);
+                useTypeColumnCheckBox.setSelected(false);
+                typeColumnCombo.setEnabled(false);
+                incomeIdentifierField.setText(ColumnMapping.DEFAULT_INCOME_IDENTIFIERS);
+                expenseIdentifierField.setText(ColumnMapping.DEFAULT_EXPENSE_IDENTIFIERS);
+                incomeIdentifierField.setEnabled(false);
+                expenseIdentifierField.setEnabled(false);
             }
             
             // Update the preview with new settings
@@ -895,6 +964,23 @@ public class CSVImportDialog extends JDialog {
         }
     }
     
+    /**
+     * Sets a combo box selection for an optional template column,
+     * selecting the empty option when the template does not use the column.
+     *
+     * @param comboBox the combo box to set
+     * @param text the column name, may be null
+     */
+    private void setOptionalComboBoxItem(JComboBox<String> comboBox, String text) {
+        if (text == null) {
+            if (comboBox.getItemCount() > 0) {
+                comboBox.setSelectedIndex(0); // Default/empty
+            }
+        } else {
+            setComboBoxItem(comboBox, text);
+        }
+    }
+    
     /**
      * Sets a combo box selection based on text content.
      * Tries exact match first, then partial match.
@@ -924,74 +1010,26 @@ public class CSVImportDialog extends JDialog {
     }
 
     /**
-     * Parses a date string using multiple formats.
-     * Tries the primary format first, then falls back to other formats if needed.
+     * Creates a date parser for the selected date column.
+     * Sniffs a sample of the column once so that every row is parsed with the same
+     * locked-in format instead of retrying all formats per row.
      *
-     * @param dateStr the date string to parse
-     * @param primaryFormat the primary date format to try first
-     * @return a formatted date string in 'yyyy-MM-dd' format
-     * @throws DateTimeParseException if the date cannot be parsed with any format
+     * @param dateColIdx index of the date column, or -1 if none is selected
+     * @param preferredFormat the format selected in the date format combo box
+     * @return a parser for the column
      */
-    private String parseDate(String dateStr, String primaryFormat) {
-        if (dateStr == null || dateStr.isEmpty()) {
-            return "";
-        }
-
-        // Try using the primary format first
-        try {
-            return parseDateWithFormat(dateStr, primaryFormat);
-        } catch (DateTimeParseException e) {
-            // Try other possible formats
-            String[] formatsToTry = {
-                // Formats with hyphens
-                "yyyy-MM-dd", "yyyy-MM-dd HH:mm", "yyyy-MM-dd HH:mm:ss",
-                // Formats with slashes
-                "yyyy/MM/dd", "yyyy/M/d HH:mm", "yyyy/M/d HH:mm:ss",
-                "yyyy/MM/dd", "yyyy/MM/dd HH:mm", "yyyy/MM/dd HH:mm:ss",
-                // US formats
-                "MM/dd/yyyy", "MM/dd/yyyy HH:mm", "MM/dd/yyyy HH:mm:ss",
-                // European formats
-                "dd/MM/yyyy", "dd/MM/yyyy HH:mm", "dd/MM/yyyy HH:mm:ss",
-                // Other common formats
-                "yyyy.MM.dd", "dd.MM.yyyy", "MM.dd.yyyy"
-            };
-            
-            for (String format : formatsToTry) {
-                if (format.equals(primaryFormat)) continue; // Skip format already tried
-                
-                try {
-                    return parseDateWithFormat(dateStr, format);
-                } catch (DateTimeParseException ignored) {
-                    // Continue to next format
+    private CSVDateParser createDateParser(int dateColIdx, String preferredFormat) {
+        List<String> samples = new ArrayList<>();
+        if (dateColIdx >= 0) {
+            for (List<String> rowData : csvData) {
+                if (samples.size() >= CSVDateParser.DEFAULT_SAMPLE_SIZE) {
+                    break;
+                }
+                if (dateColIdx < rowData.size() && !rowData.get(dateColIdx).isEmpty()) {
+                    samples.add(rowData.get(dateColIdx));
                 }
             }
-            
-            // All formats failed, throw the original exception
-            throw e;
-        }
-    }
-
-    /**
-     * Parses a date string with a specific format.
-     * Handles both date-only and date-time formats.
-     *
-     * @param dateStr the date string to parse
-     * @param format the format to use for parsing
-     * @return a formatted date string in 'yyyy-MM-dd' format
-     * @throws DateTimeParseException if the date cannot be parsed with the given format
-     */
-    private String parseDateWithFormat(String dateStr, String format) throws DateTimeParseException {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
-        LocalDate date;
-        
-        if (format.contains("HH:mm") || format.contains("HH:mm:ss")) {
-            // If it's a date-time format, first parse as LocalDateTime then convert to LocalDate
-            date = LocalDateTime.parse(dateStr, formatter).toLocalDate();
-        } else {
-            // Pure date format
-            date = LocalDate.parse(dateStr, formatter);
         }
-        
-        return date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        return CSVDateParser.sniff(samples, preferredFormat);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,714 @@
+package com.example.app.ui.pages.AI;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Shared client for the DeepSeek chat completions API, used by every AI feature.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>One {@link HttpClient} per endpoint, negotiating HTTP/2 over TLS and keeping connections alive,
+ *       so repeated calls skip the TCP and TLS handshakes</li>
+ *   <li>Configurable connect and response timeouts</li>
+ *   <li>One reusable Jackson {@link ObjectMapper} for requests and responses</li>
+ *   <li>Streaming extraction of the reply text, which stops reading once it is found</li>
+ *   <li>Streaming chat completions that hand each fragment of the reply to a callback as it arrives</li>
+ *   <li>A {@link CircuitBreaker} for the endpoint, so calls fail fast with a {@link CircuitOpenException}
+ *       while the service is down instead of each waiting out its timeout</li>
+ *   <li>Once enough requests have been seen, a response timeout derived from the recent p99 latency,
+ *       bounded by the configured timeout, so a stalled request is abandoned early</li>
+ *   <li>Optional hedging: a duplicate request is sent when a reply takes longer than the recent p95 latency,
+ *       and whichever answers first is used</li>
+ * </ul>
+ * The endpoint, timeouts and hedging of the shared instance can be overridden with the
+ * {@value #API_URL_PROPERTY}, {@value #CONNECT_TIMEOUT_PROPERTY}, {@value #REQUEST_TIMEOUT_PROPERTY}
+ * and {@value #HEDGING_PROPERTY} system properties.
+ */
+public class AIClient {
+    /** DeepSeek API endpoint URL */
+    public static final String DEFAULT_API_URL = "https://api.deepseek.com/v1/chat/completions";
+
+    /** System property that overrides the endpoint URL */
+    public static final String API_URL_PROPERTY = "deepseek.api.url";
+
+    /** System property that overrides the connect timeout, in milliseconds */
+    public static final String CONNECT_TIMEOUT_PROPERTY = "deepseek.connect.timeout.ms";
+
+    /** System property that overrides the response timeout, in milliseconds */
+    public static final String REQUEST_TIMEOUT_PROPERTY = "deepseek.request.timeout.ms";
+
+    /** System property that enables hedged requests */
+    public static final String HEDGING_PROPERTY = "deepseek.hedging";
+
+    /** Default time allowed to open a connection */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    /** Default time allowed for the response to arrive */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(90);
+
+    /** Default lower bound on the latency-derived response timeout */
+    public static final Duration DEFAULT_MIN_ADAPTIVE_TIMEOUT = Duration.ofSeconds(15);
+
+    /** Requests measured before timeouts and hedging follow the observed latency */
+    static final int MIN_LATENCY_SAMPLES = 20;
+
+    /** The latency-derived timeout is this multiple of the recent p99 latency */
+    static final int TIMEOUT_LATENCY_FACTOR = 3;
+
+    /** Model requested for every completion */
+    public static final String MODEL = "deepseek-chat";
+
+    /** Prefix of a server-sent event data line */
+    private static final String SSE_DATA = "data:";
+
+    /** Data of the event that ends a streamed reply */
+    private static final String SSE_DONE = "[DONE]";
+
+    /** Shared mapper; thread-safe once configured */
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final JsonFactory JSON_FACTORY = MAPPER.getFactory();
+
+    private static AIClient instance;
+
+    private final URI apiUri;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+    private final LatencyTracker latencies = new LatencyTracker();
+    private final AtomicInteger hedgedRequests = new AtomicInteger();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Duration minAdaptiveTimeout = DEFAULT_MIN_ADAPTIVE_TIMEOUT;
+    private boolean hedging;
+
+    /**
+     * A response with a status code other than 2xx.
+     */
+    public static class StatusException extends IOException {
+        private final int statusCode;
+
+        /**
+         * Creates the exception.
+         *
+         * @param statusCode the HTTP status code
+         */
+        public StatusException(int statusCode) {
+            super("Unexpected status code " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        /**
+         * Gets the HTTP status code.
+         *
+         * @return the status code
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * Checks whether repeating the request may succeed: rate limiting and server errors.
+         *
+         * @return true for 408, 429 and 5xx responses
+         */
+        public boolean isRetryable() {
+            return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+        }
+    }
+
+    /**
+     * A request refused without being sent because the endpoint's circuit breaker is open.
+     */
+    public static class CircuitOpenException extends IOException {
+        /**
+         * Creates the exception.
+         *
+         * @param endpoint the endpoint that is unavailable
+         */
+        public CircuitOpenException(URI endpoint) {
+            super("AI service at " + endpoint.getHost() + " is unavailable; try again later");
+        }
+    }
+
+    /**
+     * Lets another thread stop a streamed reply.
+     * <p>
+     * Interrupts alone are not enough: once the reply is arriving, the response stream
+     * keeps waiting for data when its reading thread is interrupted. Cancelling closes the
+     * stream instead, which wakes the reader immediately.
+     */
+    public static class Cancellation {
+        private volatile boolean cancelled;
+        private volatile Closeable body;
+
+        /**
+         * Stops the stream this cancellation is attached to, or the one it is attached to next.
+         */
+        public void cancel() {
+            cancelled = true;
+            closeQuietly(body);
+        }
+
+        /**
+         * Checks whether {@link #cancel()} has been called.
+         *
+         * @return true once cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void attach(Closeable body) {
+            this.body = body;
+            if (cancelled) {
+                closeQuietly(body);
+            }
+        }
+
+        private static void closeQuietly(Closeable body) {
+            if (body != null) {
+                try {
+                    body.close();
+                } catch (IOException e) {
+                    // Already closed
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the result out of a response.
+     */
+    @FunctionalInterface
+    private interface ResponseReader<T, R> {
+        R read(HttpResponse<T> response) throws IOException;
+    }
+
+    /**
+     * Creates a client for an endpoint with the default timeouts.
+     *
+     * @param apiUrl the chat completions URL
+     */
+    public AIClient(String apiUrl) {
+        this(apiUrl, DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Creates a client for an endpoint.
+     *
+     * @param apiUrl the chat completions URL
+     * @param connectTimeout time allowed to open a connection
+     * @param requestTimeout time allowed for the response to arrive
+     */
+    public AIClient(String apiUrl, Duration connectTimeout, Duration requestTimeout) {
+        this.apiUri = URI.create(apiUrl);
+        this.requestTimeout = requestTimeout;
+        // Plain-text endpoints (local test servers) would need an h2c upgrade on every POST; use HTTP/1.1 there
+        this.httpClient = HttpClient.newBuilder()
+                .version("https".equalsIgnoreCase(apiUri.getScheme())
+                        ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    /**
+     * Gets the shared client for the configured endpoint.
+     *
+     * @return the shared client
+     */
+    public static synchronized AIClient getInstance() {
+        if (instance == null) {
+            instance = new AIClient(System.getProperty(API_URL_PROPERTY, DEFAULT_API_URL),
+                    Duration.ofMillis(Long.getLong(CONNECT_TIMEOUT_PROPERTY, DEFAULT_CONNECT_TIMEOUT.toMillis())),
+                    Duration.ofMillis(Long.getLong(REQUEST_TIMEOUT_PROPERTY, DEFAULT_REQUEST_TIMEOUT.toMillis())))
+                    .withHedging(Boolean.getBoolean(HEDGING_PROPERTY));
+        }
+        return instance;
+    }
+
+    /**
+     * Sets the circuit breaker guarding the endpoint.
+     *
+     * @param circuitBreaker the circuit breaker
+     * @return this client
+     */
+    public AIClient withCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    /**
+     * Sets the lower bound on the response timeout derived from the observed latency.
+     * The configured response timeout remains the upper bound.
+     *
+     * @param minAdaptiveTimeout the lower bound
+     * @return this client
+     */
+    public AIClient withMinAdaptiveTimeout(Duration minAdaptiveTimeout) {
+        this.minAdaptiveTimeout = minAdaptiveTimeout;
+        return this;
+    }
+
+    /**
+     * Sets whether a slow non-streaming request is duplicated after the recent p95 latency.
+     * Hedging trades extra requests for a shorter tail latency.
+     *
+     * @param hedging true to send hedged requests
+     * @return this client
+     */
+    public AIClient withHedging(boolean hedging) {
+        this.hedging = hedging;
+        return this;
+    }
+
+    /**
+     * Checks whether requests are currently let through by the circuit breaker.
+     *
+     * @return false while the endpoint is considered down
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.getState() != CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Gets the circuit breaker guarding the endpoint.
+     *
+     * @return the circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Gets the latencies of recent successful non-streaming requests.
+     *
+     * @return the latency tracker
+     */
+    public LatencyTracker getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Gets the number of hedged duplicate requests sent so far.
+     *
+     * @return the hedged request count
+     */
+    public int getHedgedRequestCount() {
+        return hedgedRequests.get();
+    }
+
+    /**
+     * Sends a prompt as a single user message and returns the raw JSON response.
+     *
+     * @param apiKey the API key
+     * @param prompt the prompt
+     * @return the response body
+     * @throws IOException if the request fails, times out or gets a non-2xx response
+     */
+    public String send(String apiKey, String prompt) throws IOException {
+        return executeGuarded(request(apiKey, prompt, false, responseTimeout()),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8), response -> {
+                    checkStatus(response.statusCode());
+                    return response.body();
+                });
+    }
+
+    /**
+     * Sends a prompt as a single user message and returns the reply text,
+     * parsed from the response stream without buffering the whole body.
+     *
+     * @param apiKey the API key
+     * @param prompt the prompt
+     * @return the reply text
+     * @throws IOException if the request fails, times out, gets a non-2xx response or the reply has no content
+     */
+    public String ask(String apiKey, String prompt) throws IOException {
+        return executeGuarded(request(apiKey, prompt, false, responseTimeout()),
+                HttpResponse.BodyHandlers.ofInputStream(), response -> {
+                    try (InputStream body = response.body()) {
+                        checkStatus(response.statusCode());
+                        String content = parseContent(body);
+                        if (content == null) {
+                            throw new IOException("Response has no message content");
+                        }
+                        return content;
+                    }
+                });
+    }
+
+    /**
+     * Sends a prompt in streaming mode and hands each fragment of the reply to a callback as
+     * soon as its event arrives, so the first words can be shown long before the reply is complete.
+     *
+     * @param apiKey the API key
+     * @param prompt the prompt
+     * @param onToken receives each non-empty fragment of the reply, on the calling thread
+     * @return the whole reply text
+     * @throws IOException if the request fails, times out, gets a non-2xx response or is interrupted
+     */
+    public String stream(String apiKey, String prompt, Consumer<String> onToken) throws IOException {
+        return stream(apiKey, prompt, onToken, new Cancellation());
+    }
+
+    /**
+     * Sends a prompt in streaming mode and hands each fragment of the reply to a callback as
+     * soon as its event arrives, so the first words can be shown long before the reply is complete.
+     * <p>
+     * Cancelling, or interrupting the calling thread while the request is being sent,
+     * aborts the request with an {@link InterruptedIOException}.
+     *
+     * @param apiKey the API key
+     * @param prompt the prompt
+     * @param onToken receives each non-empty fragment of the reply, on the calling thread
+     * @param cancellation lets another thread stop the stream
+     * @return the whole reply text
+     * @throws IOException if the request fails, times out, gets a non-2xx response or is cancelled
+     */
+    public String stream(String apiKey, String prompt, Consumer<String> onToken, Cancellation cancellation)
+            throws IOException {
+        if (cancellation.isCancelled()) {
+            throw new InterruptedIOException("AI request was cancelled");
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            throw new CircuitOpenException(apiUri);
+        }
+        HttpResponse<InputStream> response;
+        try {
+            response = execute(request(apiKey, prompt, true, requestTimeout), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedIOException e) {
+            circuitBreaker.release();
+            throw e;
+        } catch (IOException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+        boolean pending = recordStatus(response.statusCode());
+        cancellation.attach(response.body());
+        StringBuilder reply = new StringBuilder();
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            checkStatus(response.statusCode());
+            String line;
+            while ((line = events.readLine()) != null && !cancellation.isCancelled()) {
+                if (!line.startsWith(SSE_DATA)) {
+                    continue; // blank separators, comments and keep-alives
+                }
+                String data = line.substring(SSE_DATA.length()).trim();
+                if (SSE_DONE.equals(data)) {
+                    break;
+                }
+                String token = parseDelta(data);
+                if (token != null && !token.isEmpty()) {
+                    reply.append(token);
+                    onToken.accept(token);
+                }
+            }
+            if (!cancellation.isCancelled()) {
+                pending = false;
+                circuitBreaker.recordSuccess();
+            }
+        } catch (IOException e) {
+            if (!cancellation.isCancelled()) {
+                if (pending) {
+                    pending = false;
+                    circuitBreaker.recordFailure();
+                }
+                throw e;
+            }
+        } finally {
+            if (pending) {
+                circuitBreaker.release();
+            }
+        }
+        if (cancellation.isCancelled()) {
+            throw new InterruptedIOException("AI request was cancelled");
+        }
+        return reply.toString();
+    }
+
+    /**
+     * Estimates the tokens a text takes up in a prompt: about four Latin characters per token
+     * and one token per CJK or other non-ASCII character.
+     *
+     * @param text the text
+     * @return the estimated token count
+     */
+    public static int estimateTokens(String text) {
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + other;
+    }
+
+    /**
+     * Extracts {@code choices[0].delta.content} from one streamed chat completions chunk.
+     *
+     * @param json the event data
+     * @return the fragment, or null if the chunk carries none
+     * @throws IOException if the data is not valid JSON
+     */
+    public static String parseDelta(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return parseChoice(parser, "delta");
+        }
+    }
+
+    /**
+     * Extracts {@code choices[0].message.content} from a chat completions response.
+     *
+     * @param json the response body
+     * @return the content, or null if the response has none
+     * @throws IOException if the body is not valid JSON
+     */
+    public static String parseContent(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return parseChoice(parser, "message");
+        }
+    }
+
+    /**
+     * Extracts {@code choices[0].message.content} from a chat completions response stream,
+     * skipping every other field without building a tree.
+     *
+     * @param json the response body
+     * @return the content, or null if the response has none
+     * @throws IOException if the body cannot be read or is not valid JSON
+     */
+    public static String parseContent(InputStream json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return parseChoice(parser, "message");
+        }
+    }
+
+    /**
+     * Reads {@code choices[0].<field>.content}.
+     */
+    private static String parseChoice(JsonParser parser, String field) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT || !seekField(parser, "choices")
+                || parser.nextToken() != JsonToken.START_ARRAY
+                || parser.nextToken() != JsonToken.START_OBJECT || !seekField(parser, field)
+                || parser.nextToken() != JsonToken.START_OBJECT || !seekField(parser, "content")) {
+            return null;
+        }
+        JsonToken value = parser.nextToken();
+        return value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    /**
+     * Advances within the current object to a field, skipping the values of other fields.
+     *
+     * @return true if the parser is now on the field name
+     */
+    private static boolean seekField(JsonParser parser, String name) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.currentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private HttpRequest request(String apiKey, String prompt, boolean stream, Duration timeout) throws IOException {
+        DeepseekRequest body = DeepseekRequest.builder()
+                .model(MODEL)
+                .messages(Collections.singletonList(DeepseekRequest.Message.builder()
+                        .role("user")
+                        .content(prompt)
+                        .build()))
+                .stream(stream ? Boolean.TRUE : null)
+                .build();
+        return HttpRequest.newBuilder(apiUri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", stream ? "text/event-stream" : "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                .build();
+    }
+
+    /**
+     * The configured response timeout, or three times the recent p99 latency once enough requests
+     * have been measured, whichever is shorter, but no shorter than the minimum adaptive timeout.
+     */
+    Duration responseTimeout() {
+        if (latencies.getCount() < MIN_LATENCY_SAMPLES) {
+            return requestTimeout;
+        }
+        long millis = Math.max(minAdaptiveTimeout.toMillis(), latencies.percentile(0.99) * TIMEOUT_LATENCY_FACTOR);
+        return Duration.ofMillis(Math.min(requestTimeout.toMillis(), millis));
+    }
+
+    /**
+     * Sends a non-streaming request through the circuit breaker, hedging it if enabled, reads its
+     * result and records its outcome and latency. A 2xx response only counts once its body has been
+     * read, so a body that fails halfway is a failure and the latency covers the whole reply.
+     */
+    private <T, R> R executeGuarded(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                    ResponseReader<T, R> reader) throws IOException {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new CircuitOpenException(apiUri);
+        }
+        long start = System.nanoTime();
+        HttpResponse<T> response;
+        try {
+            response = hedging && latencies.getCount() >= MIN_LATENCY_SAMPLES
+                    ? executeHedged(request, handler, latencies.percentile(0.95))
+                    : execute(request, handler);
+        } catch (InterruptedIOException e) {
+            circuitBreaker.release();
+            throw e;
+        } catch (IOException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+        boolean pending = recordStatus(response.statusCode());
+        try {
+            R result = reader.read(response);
+            if (pending) {
+                pending = false;
+                circuitBreaker.recordSuccess();
+                latencies.record((System.nanoTime() - start) / 1_000_000);
+            }
+            return result;
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            if (pending) {
+                pending = false;
+                circuitBreaker.recordFailure();
+            }
+            throw e;
+        } finally {
+            if (pending) {
+                circuitBreaker.release();
+            }
+        }
+    }
+
+    /**
+     * Tells the circuit breaker how a request went, as far as its status shows. Timeouts and
+     * server errors count as failures; rate limiting and client errors show the endpoint is up.
+     * A 2xx response is left to the caller, to record once its body has been read.
+     *
+     * @return true if the response is 2xx and its outcome is still to be recorded
+     */
+    private boolean recordStatus(int statusCode) {
+        if (statusCode == 408 || statusCode >= 500) {
+            circuitBreaker.recordFailure();
+            return false;
+        }
+        if (statusCode >= 200 && statusCode < 300) {
+            return true;
+        }
+        circuitBreaker.recordSuccess();
+        return false;
+    }
+
+    /**
+     * Sends a request and, if no response has arrived after a delay, sends a duplicate.
+     * The first successful response wins and the other one is discarded; a failure is only
+     * returned once both attempts have failed.
+     */
+    private <T> HttpResponse<T> executeHedged(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                              long hedgeAfterMillis) throws IOException {
+        CompletableFuture<HttpResponse<T>> primary = httpClient.sendAsync(request, handler);
+        CompletableFuture<HttpResponse<T>> hedge = null;
+        try {
+            try {
+                return primary.get(hedgeAfterMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                hedgedRequests.incrementAndGet();
+                hedge = httpClient.sendAsync(request, handler);
+            }
+            return firstSuccess(primary, hedge).get();
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("AI request was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> firstSuccess(CompletableFuture<HttpResponse<T>> first,
+                                                                       CompletableFuture<HttpResponse<T>> second) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+        for (CompletableFuture<HttpResponse<T>> attempt : Arrays.asList(first, second)) {
+            attempt.whenComplete((response, error) -> {
+                boolean last = remaining.decrementAndGet() == 0;
+                if (error != null) {
+                    if (last) {
+                        result.completeExceptionally(error);
+                    }
+                    return;
+                }
+                boolean usable = response.statusCode() < 500 || last;
+                if (!usable || !result.complete(response)) {
+                    discard(response);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof Closeable) {
+            Cancellation.closeQuietly((Closeable) response.body());
+        }
+    }
+
+    private <T> HttpResponse<T> execute(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("AI request was interrupted");
+        }
+    }
+
+    private static void checkStatus(int statusCode) throws StatusException {
+        if (statusCode < 200 || statusCode >= 300) {
+            throw new StatusException(statusCode);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.app.ui.pages.AI;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs AI work off the UI thread, most urgent first.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>One queue for all AI work, ordered by {@link Priority} and then by submission order</li>
+ *   <li>A limit on the tasks in flight at once, with one slot held back for interactive work
+ *       so background jobs never delay a chat answer</li>
+ *   <li>Each task runs on its own virtual thread when the runtime supports them,
+ *       otherwise on a daemon platform thread</li>
+ *   <li>Results as {@link CompletableFuture}s; cancelling one removes a queued task or
+ *       signals the task's {@link AIClient.Cancellation} and interrupts it</li>
+ * </ul>
+ */
+public class AITaskScheduler {
+    private static final Logger LOGGER = Logger.getLogger(AITaskScheduler.class.getName());
+
+    /** System property that overrides the number of tasks in flight at once */
+    public static final String MAX_IN_FLIGHT_PROPERTY = "ai.max.in.flight";
+
+    /** Default number of tasks in flight at once */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    private static AITaskScheduler instance;
+
+    /**
+     * Urgency of a task, most urgent first.
+     */
+    public enum Priority {
+        /** A user is waiting for the answer, such as a chat reply */
+        INTERACTIVE,
+        /** Work the user asked for but is not watching, such as regenerating advice */
+        ADVICE,
+        /** Bulk background work, such as classifying imported transactions */
+        BULK
+    }
+
+    /**
+     * Work run by the scheduler.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        /**
+         * Runs the task.
+         *
+         * @param cancellation signalled when the task's future is cancelled; pass it on to
+         *                     {@link AIClient#stream(String, String, java.util.function.Consumer, AIClient.Cancellation)}
+         *                     or check it between steps
+         * @return the result
+         * @throws Exception if the task fails
+         */
+        T run(AIClient.Cancellation cancellation) throws Exception;
+    }
+
+    private final int maxInFlight;
+    private final ThreadFactory threadFactory;
+    private final PriorityBlockingQueue<Job<?>> queue = new PriorityBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private int inFlight;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param maxInFlight the number of tasks in flight at once
+     */
+    public AITaskScheduler(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.threadFactory = createThreadFactory();
+    }
+
+    /**
+     * Gets the shared scheduler.
+     *
+     * @return the shared scheduler
+     */
+    public static synchronized AITaskScheduler getInstance() {
+        if (instance == null) {
+            instance = new AITaskScheduler(Integer.getInteger(MAX_IN_FLIGHT_PROPERTY, DEFAULT_MAX_IN_FLIGHT));
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a task.
+     *
+     * @param priority the task's urgency
+     * @param task the task
+     * @param <T> the result type
+     * @return the task's result; cancelling it cancels the task
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Task<T> task) {
+        Job<T> job = new Job<>(priority, sequence.getAndIncrement(), task);
+        queue.add(job);
+        dispatch();
+        return job.future;
+    }
+
+    /**
+     * Gets the number of tasks running.
+     *
+     * @return the running task count
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Gets the number of tasks waiting to run.
+     *
+     * @return the queued task count
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Starts queued tasks while there are free slots. Background tasks may not take the last slot.
+     */
+    private synchronized void dispatch() {
+        Job<?> next;
+        while ((next = queue.peek()) != null) {
+            int limit = next.priority == Priority.INTERACTIVE ? maxInFlight : Math.max(1, maxInFlight - 1);
+            if (inFlight >= limit) {
+                return;
+            }
+            queue.remove(next);
+            if (next.future.isDone()) {
+                continue; // cancelled while queued
+            }
+            inFlight++;
+            Job<?> job = next;
+            threadFactory.newThread(() -> {
+                try {
+                    job.run();
+                } finally {
+                    finished();
+                }
+            }).start();
+        }
+    }
+
+    private void finished() {
+        synchronized (this) {
+            inFlight--;
+        }
+        dispatch();
+    }
+
+    /**
+     * Creates virtual threads when the runtime has them (Java 21 and later), otherwise daemon platform threads.
+     */
+    private static ThreadFactory createThreadFactory() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "ai-task-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            LOGGER.log(Level.FINE, "Running AI tasks on virtual threads");
+            return factory;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, "ai-task-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+    /**
+     * A queued task with its future.
+     */
+    private static final class Job<T> implements Comparable<Job<?>> {
+        final Priority priority;
+        final long sequence;
+        final Task<T> task;
+        final AIClient.Cancellation cancellation = new AIClient.Cancellation();
+        final CompletableFuture<T> future;
+        volatile Thread thread;
+
+        Job(Priority priority, long sequence, Task<T> task) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+            this.future = new CompletableFuture<T>() {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    boolean cancelled = super.cancel(mayInterruptIfRunning);
+                    if (cancelled) {
+                        cancellation.cancel();
+                        Thread running = thread;
+                        if (running != null && mayInterruptIfRunning) {
+                            running.interrupt();
+                        }
+                    }
+                    return cancelled;
+                }
+            };
+        }
+
+        void run() {
+            thread = Thread.currentThread();
+            try {
+                if (!future.isDone()) {
+                    future.complete(task.run(cancellation));
+                }
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                thread = null;
+            }
+        }
+
+        @Override
+        public int compareTo(Job<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.app.ui.pages.AI;
+
+import java.time.Duration;
+
+/**
+ * A circuit breaker for one endpoint. After a run of consecutive failures it opens and rejects
+ * requests immediately, so callers fail fast instead of each waiting out a timeout. Once the open
+ * period has passed it lets a single probe request through, and closes again if the probe succeeds.
+ */
+public class CircuitBreaker {
+    /** Default number of consecutive failures that open the breaker */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    /** Default time the breaker stays open before a probe is allowed */
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * State of the breaker.
+     */
+    public enum State {
+        /** Requests pass through */
+        CLOSED,
+        /** Requests are rejected */
+        OPEN,
+        /** One probe request is allowed to test the endpoint */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    /**
+     * Creates a closed breaker with the default settings.
+     */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION);
+    }
+
+    /**
+     * Creates a closed breaker.
+     *
+     * @param failureThreshold consecutive failures that open the breaker
+     * @param openDuration time the breaker stays open before a probe is allowed
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Asks to send a request. Every permitted request must be followed by
+     * {@link #recordSuccess()}, {@link #recordFailure()} or {@link #release()}.
+     *
+     * @return true if the request may be sent
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Records that a request succeeded, closing the breaker.
+     */
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * Records that a request failed, opening the breaker if the probe failed
+     * or the failure threshold is reached. A late failure while the breaker is
+     * already open does not extend the open period.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state != State.OPEN && (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Gives back a permit without an outcome, such as when the caller was interrupted.
+     */
+    public synchronized void release() {
+        probeInFlight = false;
+    }
+
+    /**
+     * Gets the state of the breaker.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+}
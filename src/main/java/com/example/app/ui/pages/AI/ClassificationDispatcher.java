@@ -0,0 +1,379 @@
+package com.example.app.ui.pages.AI;
+
+import com.example.app.model.importer.ImportPipeline;
+import com.example.app.model.importer.TransactionSink;
+import com.example.app.user_data.AIResponseCache;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends transactions to the DeepSeek model for classification in controlled batches.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Packs rows into batches bounded by an estimated prompt token count and a row count</li>
+ *   <li>Runs a bounded number of requests concurrently as bulk work on the {@link AITaskScheduler},
+ *       so chat replies and advice are served first</li>
+ *   <li>Limits the request rate with a {@link TokenBucket}</li>
+ *   <li>Retries timeouts, rate limiting and server errors with exponential backoff and jitter</li>
+ *   <li>Numbers every row in the prompt and maps the answers back by row ID, so a reply that
+ *       skips or reorders rows cannot shift categories onto the wrong transactions</li>
+ *   <li>Optionally remembers the answer for each row in an {@link AIResponseCache},
+ *       so rows seen before are classified without a request</li>
+ * </ul>
+ * A batch that still fails after all retries leaves its rows unclassified rather than failing the caller,
+ * and while the client's circuit breaker is open no batches are sent at all, so an import falls back to
+ * cached and locally classified categories at once instead of waiting on an unavailable service.
+ */
+public class ClassificationDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(ClassificationDispatcher.class.getName());
+
+    /** Default upper bound on the estimated tokens of one prompt */
+    public static final int DEFAULT_MAX_BATCH_TOKENS = 2000;
+
+    /** Default upper bound on the rows of one prompt */
+    public static final int DEFAULT_MAX_BATCH_ROWS = 50;
+
+    /** Default number of requests in flight at once */
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    /** Default sustained request rate */
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 5.0;
+
+    /** Default number of attempts per batch */
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+
+    /** Default delay before the first retry; later retries double it */
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 500;
+
+    /** Instructions preceding the numbered rows */
+    static final String PROMPT_HEADER = "请你根据以下的账单信息，将每一笔交易归于{Gift,Entertainment,Service,Shopping,Other,Food}中的一类。"
+            + "每行格式为 编号|日期,描述,类别,金额。请对每一行输出一行 编号:类别，例如 3:Food，"
+            + "如果不属于任何类别归类为Other。除此之外不允许包含其它任何的内容。\n";
+
+    /** One answer line, such as {@code 12:Food} */
+    private static final Pattern ANSWER = Pattern.compile("(\\d+)\\s*[:：]\\s*([A-Za-z]+)");
+
+    private final AIClient client;
+    private final String apiKey;
+    private int maxBatchTokens = DEFAULT_MAX_BATCH_TOKENS;
+    private int maxBatchRows = DEFAULT_MAX_BATCH_ROWS;
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private TokenBucket rateLimiter = new TokenBucket(DEFAULT_REQUESTS_PER_SECOND, DEFAULT_CONCURRENCY);
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+    private AIResponseCache cache;
+    private AITaskScheduler scheduler;
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param client the client for the chat completions endpoint
+     * @param apiKey the API key sent with every request
+     */
+    public ClassificationDispatcher(AIClient client, String apiKey) {
+        this.client = client;
+        this.apiKey = apiKey;
+    }
+
+    /**
+     * Creates a dispatcher for the configured DeepSeek endpoint.
+     *
+     * @return the dispatcher
+     * @see classification#newDispatcher()
+     */
+    public static ClassificationDispatcher forDefaultEndpoint() {
+        return new classification().newDispatcher();
+    }
+
+    /**
+     * Sets the batch size limits.
+     *
+     * @param maxTokens upper bound on the estimated tokens of one prompt
+     * @param maxRows upper bound on the rows of one prompt
+     * @return this dispatcher
+     */
+    public ClassificationDispatcher withBatchLimits(int maxTokens, int maxRows) {
+        this.maxBatchTokens = Math.max(1, maxTokens);
+        this.maxBatchRows = Math.max(1, maxRows);
+        return this;
+    }
+
+    /**
+     * Sets how many requests may be in flight at once.
+     *
+     * @param concurrency the number of concurrent requests
+     * @return this dispatcher
+     */
+    public ClassificationDispatcher withConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    /**
+     * Sets the request rate limit.
+     *
+     * @param requestsPerSecond sustained request rate
+     * @param burst number of requests that may be sent at once after a quiet period
+     * @return this dispatcher
+     */
+    public ClassificationDispatcher withRateLimit(double requestsPerSecond, int burst) {
+        this.rateLimiter = new TokenBucket(requestsPerSecond, burst);
+        return this;
+    }
+
+    /**
+     * Sets the retry policy.
+     *
+     * @param maxAttempts attempts per batch, including the first
+     * @param initialBackoffMillis delay before the first retry; later retries double it
+     * @return this dispatcher
+     */
+    public ClassificationDispatcher withRetry(int maxAttempts, long initialBackoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(0, initialBackoffMillis);
+        return this;
+    }
+
+    /**
+     * Sets the cache consulted for each row before it is sent and updated with each answer.
+     *
+     * @param cache the response cache, or null for none
+     * @return this dispatcher
+     */
+    public ClassificationDispatcher withCache(AIResponseCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Sets the scheduler the batches run on.
+     *
+     * @param scheduler the scheduler, or null for the shared one
+     * @return this dispatcher
+     * @see AITaskScheduler#getInstance()
+     */
+    public ClassificationDispatcher withScheduler(AITaskScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    private AITaskScheduler scheduler() {
+        return scheduler != null ? scheduler : AITaskScheduler.getInstance();
+    }
+
+    /**
+     * Classifies the unconfirmed rows of a list.
+     *
+     * @param rows transactions in {@code [date, description, category, amount, confirmed]} layout
+     * @return the suggested category of each classified row, keyed by its index in {@code rows}
+     * @throws InterruptedIOException if the thread is interrupted while waiting for results
+     */
+    public Map<Integer, String> classify(List<Object[]> rows) throws InterruptedIOException {
+        List<Integer> ids = new ArrayList<>();
+        Map<Integer, String> results = new ConcurrentHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            if (row.length < 5 || !Boolean.TRUE.equals(row[4])) {
+                String cached = cache != null ? cache.get(cacheKey(row)) : null;
+                if (cached != null && classification.CATEGORIES.contains(cached)) {
+                    results.put(i, cached);
+                } else {
+                    ids.add(i);
+                }
+            }
+        }
+        int cacheHits = results.size();
+        List<List<Integer>> batches = pack(rows, ids);
+        if (batches.isEmpty()) {
+            return results;
+        }
+        if (!client.isAvailable()) {
+            LOGGER.log(Level.WARNING, "AI service unavailable; leaving {0} rows to local classification", ids.size());
+            return results;
+        }
+
+        // The semaphore bounds this call's share of the scheduler, so one import cannot take every background slot
+        Semaphore permits = new Semaphore(concurrency);
+        List<CompletableFuture<Map<Integer, String>>> futures = new ArrayList<>();
+        try {
+            for (List<Integer> batch : batches) {
+                permits.acquire();
+                CompletableFuture<Map<Integer, String>> future =
+                        scheduler().submit(AITaskScheduler.Priority.BULK, cancellation -> sendWithRetry(rows, batch));
+                future.whenComplete((result, error) -> permits.release());
+                futures.add(future);
+            }
+            for (CompletableFuture<Map<Integer, String>> future : futures) {
+                try {
+                    results.putAll(future.get());
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Classification batch failed: " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            for (CompletableFuture<?> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Classification was cancelled");
+        }
+        if (cache != null) {
+            for (int id : ids) {
+                String category = results.get(id);
+                if (category != null) {
+                    cache.put(cacheKey(rows.get(id)), category);
+                }
+            }
+        }
+        LOGGER.log(Level.INFO, "Classified {0} of {1} rows in {2} batches, {3} more from the cache",
+                new Object[]{results.size() - cacheHits, ids.size(), batches.size(), cacheHits});
+        return results;
+    }
+
+    /**
+     * Classifies the unconfirmed rows of a list and writes the categories into the rows.
+     *
+     * @param rows transactions in {@code [date, description, category, amount, confirmed]} layout
+     * @return the number of rows that received a category
+     * @throws InterruptedIOException if the thread is interrupted while waiting for results
+     */
+    public int classifyInPlace(List<Object[]> rows) throws InterruptedIOException {
+        Map<Integer, String> results = classify(rows);
+        for (Map.Entry<Integer, String> result : results.entrySet()) {
+            rows.get(result.getKey())[2] = result.getValue();
+        }
+        return results.size();
+    }
+
+    /**
+     * Wraps a sink so that rows of each batch still lacking a category are classified
+     * before the batch is persisted.
+     *
+     * @param target the sink to persist to
+     * @return the classifying sink
+     */
+    public TransactionSink classifyingSink(TransactionSink target) {
+        return batch -> {
+            List<Object[]> uncategorised = new ArrayList<>();
+            for (Object[] transaction : batch) {
+                String category = (String) transaction[2];
+                if (category == null || category.isEmpty() || ImportPipeline.UNCATEGORISED.equals(category)) {
+                    uncategorised.add(transaction);
+                }
+            }
+            if (!uncategorised.isEmpty()) {
+                classifyInPlace(uncategorised);
+            }
+            target.accept(batch);
+        };
+    }
+
+    /**
+     * Packs rows into batches whose estimated prompt size stays within the limits.
+     * A single row larger than the token limit gets a batch of its own.
+     */
+    List<List<Integer>> pack(List<Object[]> rows, List<Integer> ids) {
+        List<List<Integer>> batches = new ArrayList<>();
+        int headerTokens = estimateTokens(PROMPT_HEADER);
+        List<Integer> current = new ArrayList<>();
+        int currentTokens = headerTokens;
+        for (int id : ids) {
+            int rowTokens = estimateTokens(formatRow(id, rows.get(id)));
+            if (!current.isEmpty() && (current.size() >= maxBatchRows || currentTokens + rowTokens > maxBatchTokens)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentTokens = headerTokens;
+            }
+            current.add(id);
+            currentTokens += rowTokens;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * Estimates the tokens of a text.
+     *
+     * @see AIClient#estimateTokens(String)
+     */
+    static int estimateTokens(String text) {
+        return AIClient.estimateTokens(text);
+    }
+
+    private static String formatRow(int id, Object[] row) {
+        return id + "|" + rowText(row) + "\n";
+    }
+
+    private static String rowText(Object[] row) {
+        return row[0] + "," + row[1] + "," + row[2] + "," + String.format("%.2f", (Double) row[3]);
+    }
+
+    /**
+     * Keys a row's answer by the instructions and the row itself, independent of its batch and ID.
+     */
+    private static String cacheKey(Object[] row) {
+        return AIResponseCache.key(AIClient.MODEL, PROMPT_HEADER + rowText(row), "");
+    }
+
+    /**
+     * Sends one batch, retrying transient failures.
+     */
+    private Map<Integer, String> sendWithRetry(List<Object[]> rows, List<Integer> batch) throws Exception {
+        StringBuilder prompt = new StringBuilder(PROMPT_HEADER);
+        for (int id : batch) {
+            prompt.append(formatRow(id, rows.get(id)));
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                rateLimiter.acquire();
+                return parseAnswers(client.ask(apiKey, prompt.toString()), batch);
+            } catch (IOException e) {
+                boolean retryable = e instanceof AIClient.StatusException
+                        ? ((AIClient.StatusException) e).isRetryable()
+                        : !(e instanceof AIClient.CircuitOpenException || e instanceof InterruptedIOException);
+                if (!retryable || attempt >= maxAttempts) {
+                    throw e;
+                }
+                long backoff = initialBackoffMillis << (attempt - 1);
+                long delay = backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                LOGGER.log(Level.FINE, "Retrying classification batch in {0} ms: {1}",
+                        new Object[]{delay, e.getMessage()});
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Reads {@code id:Category} answers, keeping only known categories for rows of the batch.
+     */
+    static Map<Integer, String> parseAnswers(String content, List<Integer> batch) {
+        Map<Integer, String> answers = new ConcurrentHashMap<>();
+        Matcher matcher = ANSWER.matcher(content);
+        while (matcher.find()) {
+            int id = Integer.parseInt(matcher.group(1));
+            String category = matcher.group(2);
+            if (batch.contains(id) && classification.CATEGORIES.contains(category)) {
+                answers.put(id, category);
+            }
+        }
+        return answers.isEmpty() ? Collections.emptyMap() : answers;
+    }
+}
@@ -1,4 +1,5 @@
 package com.example.app.ui.pages.AI;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.Builder;
 import java.util.List;
@@ -10,6 +11,7 @@ import java.util.List;
  */
 @Data
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class DeepseekRequest {
     /**
      * The model identifier to use for this request.
@@ -23,6 +25,12 @@ public class DeepseekRequest {
      */
     private List<Message> messages;
 
+    /**
+     * Whether the reply should be sent incrementally as server-sent events.
+     * Omitted from the request when null, which the API treats as false.
+     */
+    private Boolean stream;
+
     /**
      * Represents a message in the conversation with the DeepSeek AI.
      * Each message has a role (e.g., "user", "assistant") and content.
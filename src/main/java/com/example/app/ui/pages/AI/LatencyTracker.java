@@ -0,0 +1,71 @@
+package com.example.app.ui.pages.AI;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of the most recent requests and reports their percentiles,
+ * so timeouts and hedging delays can follow how the endpoint is actually behaving.
+ */
+public class LatencyTracker {
+    /** Default number of recent requests kept */
+    public static final int DEFAULT_WINDOW = 100;
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    /**
+     * Creates a tracker with the default window.
+     */
+    public LatencyTracker() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * Creates a tracker.
+     *
+     * @param window number of recent requests kept
+     */
+    public LatencyTracker(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.samples = new long[window];
+    }
+
+    /**
+     * Records the latency of a request, replacing the oldest one once the window is full.
+     *
+     * @param millis the latency in milliseconds
+     */
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Gets the number of latencies in the window.
+     *
+     * @return the sample count
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets a percentile of the recorded latencies, by the nearest-rank method.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the latency in milliseconds, or -1 if nothing has been recorded
+     */
+    public synchronized long percentile(double percentile) {
+        if (count == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(Math.min(1, Math.max(0, percentile)) * count);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -1,43 +1,31 @@
 package com.example.app.ui.pages.AI;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Utility class for making requests to the DeepSeek AI API.
  * Provides methods to send prompts and parse responses from the API.
+ * Requests go through the shared {@link AIClient}.
  */
 public class getRes {
+    private final AIClient client;
+
     /**
-     * Private constructor to prevent instantiation of this utility class.
-     * This class only contains static methods and should not be instantiated.
+     * Creates a service that sends requests through the shared {@link AIClient}.
      */
     public getRes() {
-        // Prevent instantiation
+        this(AIClient.getInstance());
     }
 
     /**
-     * DeepSeek API endpoint URL
-     */
-    private static final String API_URL = "https://api.deepseek.com/v1/chat/completions";
-    
-    /**
-     * DeepSeek API Key - Keep this private and secure!
+     * Creates a service that sends requests through the given client.
+     *
+     * @param client the AI client
      */
-    private static String API_KEY = "sk-fdf26a37926f46ab8d4884c2cd533db8";
-    
-    private final RestTemplate restTemplate = new RestTemplate();
+    public getRes(AIClient client) {
+        this.client = client;
+    }
 
     /**
      * Sends a request to the DeepSeek API with the given prompt.
@@ -48,37 +36,24 @@ public class getRes {
      * @throws IOException If there is an error in the API communication
      */
     public String getResponse(String apiKey, String prompt) throws IOException {
-        // Build request body
-        DeepseekRequest.Message message = DeepseekRequest.Message.builder()
-                .role("user")
-                .content(prompt)
-                .build();
-        DeepseekRequest requestBody = DeepseekRequest.builder()
-                .model("deepseek-chat")
-                .messages(Collections.singletonList(message))
-                .build();
-
-        // Serialize request body to JSON string
-        String jsonBody = new ObjectMapper().writeValueAsString(requestBody);
-
-        // Create HTTP headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey); // Equivalent to headers.add("Authorization", "Bearer " + apiKey)
-
-        // Build HttpEntity object
-        HttpEntity<String> httpEntity = new HttpEntity<>(jsonBody, headers);
-
-        // Send HTTP POST request and get response
-        ResponseEntity<String> responseEntity = restTemplate.postForEntity(API_URL, httpEntity, String.class);
-
-        // Check response status code and response body validity
-        if (responseEntity.getStatusCode().is2xxSuccessful() && responseEntity.getBody() != null) {
-            return responseEntity.getBody();
-        }
-        throw new IOException("Unexpected status code" );
+        return client.send(apiKey, prompt);
     }
     
+    /**
+     * Sends a request to the DeepSeek API in streaming mode.
+     *
+     * @param apiKey The DeepSeek API key for authentication
+     * @param prompt The text prompt to send to the AI model
+     * @param onToken Receives each fragment of the reply as it arrives
+     * @param cancellation Lets another thread stop the reply
+     * @return The whole reply text
+     * @throws IOException If there is an error in the API communication or the reply is cancelled
+     */
+    public String streamResponse(String apiKey, String prompt, Consumer<String> onToken,
+                                 AIClient.Cancellation cancellation) throws IOException {
+        return client.stream(apiKey, prompt, onToken, cancellation);
+    }
+
     /**
      * Extracts the content from the DeepSeek API JSON response.
      * 
@@ -87,15 +62,12 @@ public class getRes {
      */
     public String parseAIResponse(String jsonResponse) {
         try {
-            JSONObject root = new JSONObject(jsonResponse);
-            JSONArray choices = root.getJSONArray("choices");
-            if (choices.length() > 0) {
-                JSONObject first = choices.getJSONObject(0);
-                JSONObject message = first.getJSONObject("message");
-                return message.getString("content");
+            String content = AIClient.parseContent(jsonResponse);
+            if (content != null) {
+                return content;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+        } catch (IOException e) {
+            // Not JSON; fall through to the error message
         }
         return "Error: Unable to parse AI response.";
     }
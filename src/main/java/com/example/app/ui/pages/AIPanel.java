@@ -5,9 +5,11 @@ import com.example.app.viewmodel.AIViewModel.ChatMessage;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.text.DefaultCaret;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.List;
 
 /**
  * The AI panel view component in the MVVM architecture.
@@ -17,12 +19,19 @@ import java.awt.event.ActionListener;
  * <ul>
  *   <li>Displays a chat area for AI and user messages</li>
  *   <li>Allows sending messages to the AI assistant</li>
+ *   <li>Shows AI replies word by word as they stream in, with a button to stop them</li>
+ *   <li>Appends only the new message or the fragments received since the last update to the chat,
+ *       never re-rendering the conversation, and shows finished replies without their Markdown marks</li>
+ *   <li>Loads earlier messages from the stored chat history when scrolled to the top</li>
  *   <li>Provides a button to regenerate financial advice</li>
  *   <li>Updates UI in response to ViewModel events</li>
  * </ul>
  
  */
 public class AIPanel extends JPanel implements AIViewModel.AIDataChangeListener {
+    /** Number of earlier messages loaded each time the chat is scrolled to the top */
+    private static final int HISTORY_PAGE_SIZE = 20;
+
     /** Reference to the ViewModel */
     private final AIViewModel viewModel;
 
@@ -35,9 +44,21 @@ public class AIPanel extends JPanel implements AIViewModel.AIDataChangeListener
     /** Button to send user messages */
     private JButton sendButton;
 
+    /** Button to stop the reply being streamed */
+    private JButton cancelButton;
+
     /** Button to regenerate financial advice */
     private JButton regenerateButton;
 
+    /** Offset in the chat area where the reply being streamed starts, or -1 when idle */
+    private int responseStart = -1;
+
+    /** Oldest message shown, or null once the start of the chat is shown */
+    private ChatMessage oldestShown;
+
+    /** Reply fragments received but not yet shown; guarded by itself */
+    private final StringBuilder pendingTokens = new StringBuilder();
+
     /**
      * Constructs a new AI panel for the specified user.
      *
@@ -52,9 +73,11 @@ public class AIPanel extends JPanel implements AIViewModel.AIDataChangeListener
         initializeUI();
 
         // Load initial messages from ViewModel
-        for (ChatMessage message : viewModel.getMessages()) {
-            appendMessage(message.getFormattedMessage());
+        List<ChatMessage> messages = viewModel.getMessages();
+        for (ChatMessage message : messages) {
+            appendMessage(format(message));
         }
+        oldestShown = messages.isEmpty() ? null : messages.get(0);
     }
 
     /**
@@ -92,9 +115,18 @@ public class AIPanel extends JPanel implements AIViewModel.AIDataChangeListener
         chatArea.setWrapStyleWord(true);
         chatArea.setFont(new Font("SansSerif", Font.PLAIN, 14));
         chatArea.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        // The caret is moved explicitly, so inserting earlier messages does not scroll the chat
+        ((DefaultCaret) chatArea.getCaret()).setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
         JScrollPane chatScrollPane = new JScrollPane(chatArea);
         chatScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         chatScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        JScrollBar scrollBar = chatScrollPane.getVerticalScrollBar();
+        scrollBar.addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting() && scrollBar.getValue() == scrollBar.getMinimum()
+                    && scrollBar.getMaximum() > scrollBar.getVisibleAmount()) {
+                loadEarlierMessages(scrollBar);
+            }
+        });
         add(chatScrollPane, BorderLayout.CENTER);
 
         // Input panel (text field + send button)
@@ -110,13 +142,25 @@ public class AIPanel extends JPanel implements AIViewModel.AIDataChangeListener
         sendButton.setFont(new Font("SansSerif", Font.BOLD, 14));
         sendButton.setFocusPainted(false);
         sendButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
-        inputPanel.add(sendButton, BorderLayout.EAST);
+
+        cancelButton = new JButton("Stop");
+        cancelButton.setName("cancelButton");
+        cancelButton.setFont(new Font("SansSerif", Font.BOLD, 14));
+        cancelButton.setFocusPainted(false);
+        cancelButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        cancelButton.setEnabled(false);
+
+        JPanel actionPanel = new JPanel(new GridLayout(1, 2, 5, 0));
+        actionPanel.add(sendButton);
+        actionPanel.add(cancelButton);
+        inputPanel.add(actionPanel, BorderLayout.EAST);
 
         add(inputPanel, BorderLayout.SOUTH);
 
         // Add action listeners for user interactions
         sendButton.addActionListener(e -> sendMessage());
         inputField.addActionListener(e -> sendMessage());
+        cancelButton.addActionListener(e -> viewModel.cancelResponse());
     }
 
     /**
@@ -124,7 +168,7 @@ public class AIPanel extends JPanel implements AIViewModel.AIDataChangeListener
      */
     private void sendMessage() {
         String userInput = inputField.getText().trim();
-        if (!userInput.isEmpty()) {
+        if (!userInput.isEmpty() && sendButton.isEnabled()) {
             // Clear input field immediately for better UX
             inputField.setText("");
 
@@ -133,6 +177,46 @@ public class AIPanel extends JPanel implements AIViewModel.AIDataChangeListener
         }
     }
 
+    /**
+     * Inserts a page of earlier messages at the top of the chat, keeping the visible messages in place.
+     *
+     * @param scrollBar the chat's vertical scroll bar
+     */
+    private void loadEarlierMessages(JScrollBar scrollBar) {
+        if (oldestShown == null) {
+            return;
+        }
+        List<ChatMessage> earlier = viewModel.getMessagesBefore(oldestShown, HISTORY_PAGE_SIZE);
+        if (earlier.isEmpty()) {
+            oldestShown = null;
+            return;
+        }
+        oldestShown = earlier.get(0);
+        StringBuilder text = new StringBuilder();
+        for (ChatMessage message : earlier) {
+            text.append(format(message)).append("\n");
+        }
+        int maximum = scrollBar.getMaximum();
+        int value = scrollBar.getValue();
+        chatArea.insert(text.toString(), 0);
+        chatArea.setCaretPosition(Math.min(chatArea.getCaretPosition() + text.length(), chatArea.getDocument().getLength()));
+        if (responseStart >= 0) {
+            responseStart += text.length();
+        }
+        // Once the inserted text is laid out, scroll down by its height
+        SwingUtilities.invokeLater(() -> scrollBar.setValue(value + scrollBar.getMaximum() - maximum));
+    }
+
+    /**
+     * Formats a finished message for the chat area.
+     *
+     * @param message the message
+     * @return the message with its sender prefix, AI replies without Markdown marks
+     */
+    private static String format(ChatMessage message) {
+        return message.isFromUser() ? message.getFormattedMessage() : "AI: " + ChatMarkdown.render(message.getContent());
+    }
+
     /**
      * Appends a message to the chat area.
      *
@@ -151,7 +235,87 @@ public class AIPanel extends JPanel implements AIViewModel.AIDataChangeListener
     @Override
     public void onMessageAdded(ChatMessage message) {
         // Ensure UI updates happen on the EDT
-        SwingUtilities.invokeLater(() -> appendMessage(message.getFormattedMessage()));
+        SwingUtilities.invokeLater(() -> {
+            if (responseStart >= 0) {
+                // Keep the reply being streamed at the end of the chat
+                String text = format(message) + "\n";
+                chatArea.insert(text, responseStart);
+                responseStart += text.length();
+            } else {
+                appendMessage(format(message));
+            }
+        });
+    }
+
+    /**
+     * Called when the ViewModel starts streaming a reply.
+     */
+    @Override
+    public void onResponseStarted() {
+        SwingUtilities.invokeLater(() -> {
+            responseStart = chatArea.getDocument().getLength();
+            chatArea.append("AI: ");
+            sendButton.setEnabled(false);
+            cancelButton.setEnabled(true);
+        });
+    }
+
+    /**
+     * Called with each fragment of the reply being streamed.
+     *
+     * @param token the next fragment of the reply
+     */
+    @Override
+    public void onResponseToken(String token) {
+        // Fragments arriving before the EDT gets to them are shown in one update
+        boolean schedule;
+        synchronized (pendingTokens) {
+            schedule = pendingTokens.length() == 0;
+            pendingTokens.append(token);
+        }
+        if (schedule) {
+            SwingUtilities.invokeLater(this::showPendingTokens);
+        }
+    }
+
+    /**
+     * Appends the reply fragments received since the last update.
+     */
+    private void showPendingTokens() {
+        String text;
+        synchronized (pendingTokens) {
+            text = pendingTokens.toString();
+            pendingTokens.setLength(0);
+        }
+        if (!text.isEmpty() && responseStart >= 0) {
+            chatArea.append(text);
+            chatArea.setCaretPosition(chatArea.getDocument().getLength());
+        }
+    }
+
+    /**
+     * Called when the streamed reply ends. Replaces the streamed text with the final message,
+     * which may carry a stop marker or be absent if nothing arrived.
+     *
+     * @param message the final reply, or null if none was received
+     */
+    @Override
+    public void onResponseCompleted(ChatMessage message) {
+        SwingUtilities.invokeLater(() -> {
+            synchronized (pendingTokens) {
+                pendingTokens.setLength(0);
+            }
+            if (responseStart >= 0) {
+                String text = message != null ? format(message) + "\n" : "";
+                chatArea.replaceRange(text, responseStart, chatArea.getDocument().getLength());
+                chatArea.setCaretPosition(chatArea.getDocument().getLength());
+                responseStart = -1;
+            } else if (message != null) {
+                appendMessage(format(message));
+            }
+            sendButton.setEnabled(true);
+            cancelButton.setEnabled(false);
+        });
     }
 
     /**
@@ -193,4 +357,4 @@ public class AIPanel extends JPanel implements AIViewModel.AIDataChangeListener
         viewModel.removeListener(this);
         viewModel.cleanup();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.app.ui.pages;
 
 import com.example.app.ui.CurrencyManager;
 import com.example.app.ui.CurrencyManager.CurrencyChangeListener;
+import com.example.app.ui.DeferredRefresh;
 import com.example.app.ui.dashboard.BudgetDialog;
 import com.example.app.viewmodel.BudgetViewModel;
 import javax.swing.*;
@@ -10,6 +11,7 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A panel for managing user budget allocations and viewing AI-generated budget suggestions.
@@ -20,7 +22,8 @@ import java.util.*;
  * <ul>
  *   <li>Displays a table of user budget categories, allocations, and spending</li>
  *   <li>Allows editing, adding, and deleting budget categories</li>
- *   <li>Shows AI-generated budget suggestions and allows applying them</li>
+ *   <li>Shows AI-generated budget suggestions and allows applying them; suggestions are fetched
+ *       in the background and filled in when they arrive, so building the panel never waits on the network</li>
  *   <li>Visualizes budget usage with progress bars and difference indicators</li>
  * </ul>
  
@@ -34,8 +37,14 @@ public class BudgetsPanel extends JPanel implements CurrencyChangeListener, Budg
     private final JPanel aiSuggestedPanel;
     /** Stores the last generated AI budget suggestions */
     private Map<String, Double> currentSuggestedBudgets;
+    /** Suggestions being fetched in the background, or null if none are */
+    private CompletableFuture<Map<String, Double>> suggestionRequest;
+    /** Whether to tell the user when the suggestions being fetched arrive */
+    private boolean announceSuggestions;
     /** The current currency symbol */
     private String currencySymbol;
+    /** Updates the tables now, or once the panel is shown if it is hidden */
+    private final DeferredRefresh tablesRefresh;
 
     /**
      * Constructs a new BudgetsPanel for the specified user.
@@ -191,6 +200,8 @@ public class BudgetsPanel extends JPanel implements CurrencyChangeListener, Budg
         contentPanel.add(aiPanel);
         add(contentPanel, BorderLayout.CENTER);
         
+        tablesRefresh = new DeferredRefresh(this, this::updateTables);
+        
         // Register as currency change listener
         CurrencyManager.getInstance().addCurrencyChangeListener(this);
     }
@@ -253,9 +264,10 @@ public class BudgetsPanel extends JPanel implements CurrencyChangeListener, Budg
         // Get actual budgets
         Map<String, Double> actualBudgets = viewModel.getCategoryBudgets();
         
-        // Create or use existing AI suggestions
+        // Use existing AI suggestions, or fill the table once they arrive
         if (currentSuggestedBudgets == null) {
-            currentSuggestedBudgets = viewModel.generateSuggestedBudgets();
+            requestSuggestions(table, false);
+            return;
         }
         
         // Display each category with comparison to actual budget
@@ -372,13 +384,35 @@ public class BudgetsPanel extends JPanel implements CurrencyChangeListener, Budg
      */
     private void shuffleAISuggestions(JTable aiTable) {
         // Generate new suggestions through view model
-        currentSuggestedBudgets = viewModel.generateSuggestedBudgets();
-        updateAISuggestedTable(aiTable);
-        
-        JOptionPane.showMessageDialog(this,
-                "New AI budget suggestions generated!",
-                "Suggestions Updated",
-                JOptionPane.INFORMATION_MESSAGE);
+        requestSuggestions(aiTable, true);
+    }
+    
+    /**
+     * Fetches AI budget suggestions in the background and shows them in the table when they arrive.
+     * If suggestions are already being fetched, those are shown instead.
+     *
+     * @param aiTable the JTable to update with the suggestions
+     * @param announce whether to tell the user once the suggestions are shown
+     */
+    private void requestSuggestions(JTable aiTable, boolean announce) {
+        announceSuggestions |= announce;
+        if (suggestionRequest != null && !suggestionRequest.isDone()) {
+            return;
+        }
+        CompletableFuture<Map<String, Double>> request = viewModel.generateSuggestedBudgetsAsync();
+        suggestionRequest = request;
+        request.whenComplete((suggested, error) -> SwingUtilities.invokeLater(() -> {
+            // Without an answer, suggest keeping the current budgets
+            currentSuggestedBudgets = suggested != null ? suggested : viewModel.getCategoryBudgets();
+            updateAISuggestedTable(aiTable);
+            if (announceSuggestions) {
+                announceSuggestions = false;
+                JOptionPane.showMessageDialog(this,
+                        "New AI budget suggestions generated!",
+                        "Suggestions Updated",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+        }));
     }
     
     /**
@@ -386,6 +420,13 @@ public class BudgetsPanel extends JPanel implements CurrencyChangeListener, Budg
      * Shows a confirmation dialog before applying.
      */
     private void applyAISuggestions() {
+        if (currentSuggestedBudgets == null) {
+            JOptionPane.showMessageDialog(this,
+                    "AI budget suggestions are still being generated. Please try again in a moment.",
+                    "Apply AI Suggestions",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
         int result = JOptionPane.showConfirmDialog(
                 this,
                 "Are you sure you want to apply AI suggested budget allocations to your budget?",
@@ -416,17 +457,23 @@ public class BudgetsPanel extends JPanel implements CurrencyChangeListener, Budg
     public void onCurrencyChanged(String currencyCode, String currencySymbol) {
         this.currencySymbol = currencySymbol;
         // Update tables when currency changes
-        updateUserCategoryTable((JTable)((JScrollPane)userBudgetsPanel.getComponent(0)).getViewport().getView());
-        updateAISuggestedTable((JTable)((JScrollPane)aiSuggestedPanel.getComponent(0)).getViewport().getView());
+        tablesRefresh.request();
     }
 
     /**
      * Called when budget data changes in the view model.
-     * Updates all tables to reflect the latest data.
+     * Updates all tables to reflect the latest data, or once the panel is shown if it is hidden.
      */
     @Override
     public void onBudgetDataChanged() {
         // Update UI when view model notifies of data changes
+        tablesRefresh.request();
+    }
+
+    /**
+     * Updates the user's budget table and the AI suggested table.
+     */
+    private void updateTables() {
         updateUserCategoryTable((JTable)((JScrollPane)userBudgetsPanel.getComponent(0)).getViewport().getView());
         updateAISuggestedTable((JTable)((JScrollPane)aiSuggestedPanel.getComponent(0)).getViewport().getView());
     }
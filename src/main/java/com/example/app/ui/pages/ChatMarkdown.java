@@ -0,0 +1,92 @@
+package com.example.app.ui.pages;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts the Markdown in AI replies to readable plain text for the chat area.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Removes heading marks, emphasis and inline code marks, and code fences</li>
+ *   <li>Shows list items as bullets and links as their text followed by the address</li>
+ *   <li>Leaves the text inside code blocks unchanged</li>
+ *   <li>Converts each message in a single pass over its lines, so the cost grows with the
+ *       message, not with the conversation</li>
+ *   <li>Keeps the most recently converted messages, so a repeated message is converted once</li>
+ * </ul>
+ */
+public final class ChatMarkdown {
+    /** Number of converted messages kept */
+    private static final int CACHE_SIZE = 256;
+
+    private static final Pattern HEADING = Pattern.compile("^#{1,6}\\s+");
+    private static final Pattern BULLET = Pattern.compile("^(\\s*)[-*+]\\s+");
+    private static final Pattern LINK = Pattern.compile("\\[([^\\]]+)\\]\\(([^)\\s]+)\\)");
+    private static final Pattern STRONG = Pattern.compile("(\\*\\*|__)(.+?)\\1");
+    private static final Pattern EMPHASIS = Pattern.compile("(?<![\\w*])\\*(?!\\s)([^*]+?)\\*(?![\\w*])");
+    private static final Pattern CODE = Pattern.compile("`([^`]+)`");
+
+    private static final Map<String, String> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private ChatMarkdown() {
+    }
+
+    /**
+     * Converts a finished message to plain text, reusing an earlier conversion of the same text.
+     *
+     * @param markdown the message text
+     * @return the text without Markdown marks
+     */
+    public static String render(String markdown) {
+        synchronized (CACHE) {
+            String cached = CACHE.get(markdown);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        String rendered = convert(markdown);
+        synchronized (CACHE) {
+            CACHE.put(markdown, rendered);
+        }
+        return rendered;
+    }
+
+    /**
+     * Converts one message line by line.
+     */
+    private static String convert(String markdown) {
+        StringBuilder out = new StringBuilder(markdown.length());
+        boolean inCode = false;
+        for (String line : markdown.split("\n", -1)) {
+            if (line.trim().startsWith("```")) {
+                inCode = !inCode;
+                continue;
+            }
+            if (out.length() > 0) {
+                out.append('\n');
+            }
+            out.append(inCode ? line : convertLine(line));
+        }
+        return out.toString();
+    }
+
+    private static String convertLine(String line) {
+        line = HEADING.matcher(line).replaceFirst("");
+        Matcher bullet = BULLET.matcher(line);
+        if (bullet.find()) {
+            line = bullet.group(1) + "• " + line.substring(bullet.end());
+        }
+        line = LINK.matcher(line).replaceAll("$1 ($2)");
+        line = STRONG.matcher(line).replaceAll("$2");
+        line = EMPHASIS.matcher(line).replaceAll("$1");
+        return CODE.matcher(line).replaceAll("$1");
+    }
+}
@@ -203,9 +203,9 @@ public class ReportsPanel extends JPanel implements ReportsChangeListener {
         loadDataButton.addActionListener(e -> {
             viewModel.loadTransactionData();
             // Refresh all charts
-            incomeExpensesPanel.refreshChart();
-            categoryBreakdownPanel.refreshChart();
-            trendReportPanel.refreshChart();
+            incomeExpensesPanel.requestRefresh();
+            categoryBreakdownPanel.requestRefresh();
+            trendReportPanel.requestRefresh();
             JOptionPane.showMessageDialog(this, "Transaction data loaded successfully", "Load Complete", JOptionPane.INFORMATION_MESSAGE);
         });
 
@@ -270,21 +270,21 @@ public class ReportsPanel extends JPanel implements ReportsChangeListener {
         updateReportInterval(interval);
 
         // Refresh all panels
-        incomeExpensesPanel.refreshChart();
-        categoryBreakdownPanel.refreshChart();
-        trendReportPanel.refreshChart();
+        incomeExpensesPanel.requestRefresh();
+        categoryBreakdownPanel.requestRefresh();
+        trendReportPanel.requestRefresh();
     }
 
     /**
      * Called when report data changes in the ViewModel.
-     * Refreshes all charts.
+     * Refreshes the charts on screen; charts on hidden tabs refresh when shown.
      */
     @Override
     public void onReportsDataChanged() {
         // Refresh all charts when data changes
-        incomeExpensesPanel.refreshChart();
-        categoryBreakdownPanel.refreshChart();
-        trendReportPanel.refreshChart();
+        incomeExpensesPanel.requestRefresh();
+        categoryBreakdownPanel.requestRefresh();
+        trendReportPanel.requestRefresh();
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.example.app.ui.pages;
 
+import com.example.app.ui.DeferredRefresh;
 import com.example.app.ui.dialogs.CSVImportDialog;
 import com.example.app.viewmodel.TransactionsViewModel;
 import com.example.app.viewmodel.TransactionsViewModel.TransactionChangeListener;
@@ -29,7 +30,10 @@ import java.util.logging.Logger;
  *   <li>Search and filter by category</li>
  *   <li>Add, delete, and edit transactions</li>
  *   <li>Import transactions from CSV</li>
+ *   <li>Re-categorize saved transactions with the merchant rules after they were edited</li>
  *   <li>Save and cancel changes</li>
+ *   <li>Keeps unsaved edits when transactions are imported in the background, merging the
+ *       imported rows in when the edits are saved</li>
  *   <li>Ask AI for assistance (placeholder)</li>
  * </ul>
  
@@ -52,8 +56,12 @@ public class TransactionsPanel extends JPanel implements TransactionChangeListen
     private JButton addButton, deleteButton, saveButton, cancelButton, askAIButton;
     /** Tracks if there are unsaved changes */
     private boolean hasUnsavedChanges = false;
+    /** Set when the ledger changed while there were unsaved changes, so the table is reloaded afterwards */
+    private boolean reloadPending = false;
     /** Stores original transactions for cancel operation */
     private List<Object[]> originalTransactions;
+    /** Reloads the table now, or once the panel is shown if it is hidden */
+    private final DeferredRefresh tableRefresh;
 
     /**
      * Constructs a new TransactionsPanel for the specified user.
@@ -88,6 +96,7 @@ public class TransactionsPanel extends JPanel implements TransactionChangeListen
         add(bottomPanel, BorderLayout.SOUTH);
 
         // Register as listener after UI is constructed
+        tableRefresh = new DeferredRefresh(this, this::reloadTable);
         this.viewModel.addTransactionChangeListener(this);
 
         // Load initial data after UI is ready
@@ -195,14 +204,17 @@ public class TransactionsPanel extends JPanel implements TransactionChangeListen
         addButton = new JButton("Add Transaction");
         deleteButton = new JButton("Delete Selected");
         JButton loadFromCSVButton = new JButton("Load from CSV");
+        JButton recategorizeButton = new JButton("Re-categorize");
 
         addButton.addActionListener(e -> addNewTransaction());
         deleteButton.addActionListener(e -> deleteSelectedTransactions());
         loadFromCSVButton.addActionListener(e -> openCSVImportDialog());
+        recategorizeButton.addActionListener(e -> recategorizeTransactions());
 
         leftPanel.add(addButton);
         leftPanel.add(deleteButton);
         leftPanel.add(loadFromCSVButton);
+        leftPanel.add(recategorizeButton);
 
         // Right side buttons
         JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -346,6 +358,30 @@ public class TransactionsPanel extends JPanel implements TransactionChangeListen
         }
     }
 
+    /**
+     * Re-applies the merchant rules to the saved transactions and reports how many changed.
+     * Unsaved changes must be saved or cancelled first.
+     */
+    private void recategorizeTransactions() {
+        if (hasUnsavedChanges) {
+            JOptionPane.showMessageDialog(this,
+                    "Please save or cancel your changes before re-categorizing.",
+                    "Re-categorize", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        int changed = viewModel.recategorizeTransactions();
+        if (changed < 0) {
+            JOptionPane.showMessageDialog(this,
+                    "Error saving re-categorized transactions",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this,
+                    changed + " transactions were re-categorized with your merchant rules",
+                    "Re-categorize", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
     /**
      * Placeholder for AI assistant integration.
      */
@@ -374,8 +410,9 @@ public class TransactionsPanel extends JPanel implements TransactionChangeListen
                 transactionsToSave.add(transactionData);
             }
 
-            // Save transactions through ViewModel
-            boolean success = viewModel.saveTransactions(transactionsToSave);
+            // Save transactions through ViewModel, keeping rows imported since the table was loaded
+            List<Object[]> loaded = originalTransactions != null ? originalTransactions : Collections.emptyList();
+            boolean success = viewModel.saveEditedTransactions(loaded, transactionsToSave);
 
             if (success) {
                 // Store as original data for cancellation
@@ -417,59 +454,74 @@ public class TransactionsPanel extends JPanel implements TransactionChangeListen
         this.hasUnsavedChanges = hasChanges;
         saveButton.setEnabled(hasChanges);
         cancelButton.setEnabled(hasChanges);
+        if (!hasChanges && reloadPending) {
+            reloadPending = false;
+            tableRefresh.request();
+        }
     }
 
     /**
      * Called when transactions data changes in the ViewModel.
-     * Updates the table and category filter.
+     * Updates the table and category filter, or once the panel is shown if it is hidden.
      */
     @Override
     public void onTransactionsChanged() {
-        SwingUtilities.invokeLater(() -> {
-            List<Object[]> currentTransactions = viewModel.getTransactions();
-            LOGGER.log(Level.INFO, "Updating UI with {0} transactions", currentTransactions.size());
+        SwingUtilities.invokeLater(tableRefresh::request);
+    }
 
-            // Store for cancellation
-            originalTransactions = new ArrayList<>(currentTransactions);
+    /**
+     * Rebuilds the table and category filter from the ViewModel's transactions.
+     * While there are unsaved changes the table is left alone and rebuilt once they are saved or cancelled.
+     */
+    private void reloadTable() {
+        if (hasUnsavedChanges) {
+            reloadPending = true;
+            LOGGER.log(Level.INFO, "Keeping unsaved changes; transactions are reloaded after they are saved");
+            return;
+        }
+        List<Object[]> currentTransactions = viewModel.getTransactions();
+        LOGGER.log(Level.INFO, "Updating UI with {0} transactions", currentTransactions.size());
 
-            // Clear and rebuild the table
-            tableModel.setRowCount(0);
+        // Store for cancellation
+        originalTransactions = new ArrayList<>(currentTransactions);
 
-            // Rebuild category filter
-            categoryFilterComboBox.removeAllItems();
-            categoryFilterComboBox.addItem(""); // Empty option for "show all"
+        // Clear and rebuild the table
+        tableModel.setRowCount(0);
 
-            Set<String> categories = viewModel.getCategories();
-            for (String category : categories) {
-                categoryFilterComboBox.addItem(category);
-            }
+        // Rebuild category filter
+        categoryFilterComboBox.removeAllItems();
+        categoryFilterComboBox.addItem(""); // Empty option for "show all"
 
-            // Add transactions to table
-            for (Object[] transaction : currentTransactions) {
-                if (transaction.length >= 4) {
-                    String date = transaction[0].toString();
-                    String description = transaction[1].toString();
-                    String category = transaction[2].toString();
-                    Double amount = 0.0;
-
-                    try {
-                        if (transaction[3] instanceof Double) {
-                            amount = (Double) transaction[3];
-                        } else {
-                            amount = Double.parseDouble(transaction[3].toString());
-                        }
-                    } catch (NumberFormatException e) {
-                        LOGGER.log(Level.WARNING, "Invalid amount format: " + transaction[3], e);
-                    }
+        Set<String> categories = viewModel.getCategories();
+        for (String category : categories) {
+            categoryFilterComboBox.addItem(category);
+        }
 
-                    // Add to table (with checkbox column set to false)
-                    tableModel.addRow(new Object[] {date, description, category, amount, false});
+        // Add transactions to table
+        for (Object[] transaction : currentTransactions) {
+            if (transaction.length >= 4) {
+                String date = transaction[0].toString();
+                String description = transaction[1].toString();
+                String category = transaction[2].toString();
+                Double amount = 0.0;
+
+                try {
+                    if (transaction[3] instanceof Double) {
+                        amount = (Double) transaction[3];
+                    } else {
+                        amount = Double.parseDouble(transaction[3].toString());
+                    }
+                } catch (NumberFormatException e) {
+                    LOGGER.log(Level.WARNING, "Invalid amount format: " + transaction[3], e);
                 }
+
+                // Add to table (with checkbox column set to false)
+                tableModel.addRow(new Object[] {date, description, category, amount, false});
             }
+        }
 
-            // Reset unsaved changes flag
-            setHasUnsavedChanges(false);
-        });
+        // Reset unsaved changes flag
+        setHasUnsavedChanges(false);
     }
 
     /**
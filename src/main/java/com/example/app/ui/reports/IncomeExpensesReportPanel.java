@@ -4,6 +4,7 @@ import com.example.app.viewmodel.reports.IncomeExpensesReportViewModel;
 import com.example.app.viewmodel.reports.IncomeExpensesReportViewModel.ChartDataChangeListener;
 import com.example.app.ui.CurrencyManager;
 import com.example.app.ui.CurrencyManager.CurrencyChangeListener;
+import com.example.app.ui.DeferredRefresh;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -40,6 +41,8 @@ public class IncomeExpensesReportPanel extends JPanel implements CurrencyChangeL
     private final IncomeExpensesReportViewModel viewModel;
     /** The chart panel displaying the time series chart */
     private ChartPanel chartPanel;
+    /** Refreshes the chart now, or once the panel is shown if it is hidden */
+    private final DeferredRefresh chartRefresh;
     /** The current time range for the report */
     private String timeRange = "Last 30 days";
 
@@ -60,6 +63,7 @@ public class IncomeExpensesReportPanel extends JPanel implements CurrencyChangeL
 
         add(chartPanel, BorderLayout.CENTER);
 
+        chartRefresh = new DeferredRefresh(this, this::refreshChart);
         CurrencyManager.getInstance().addCurrencyChangeListener(this);
     }
 
@@ -178,16 +182,23 @@ public class IncomeExpensesReportPanel extends JPanel implements CurrencyChangeL
      */
     @Override
     public void onCurrencyChanged(String currencyCode, String currencySymbol) {
-        refreshChart();
+        chartRefresh.request();
     }
 
     /**
      * Called when the chart data changes in the ViewModel.
-     * Refreshes the chart.
+     * Refreshes the chart, or once the panel is shown if it is hidden.
      */
     @Override
     public void onChartDataChanged() {
-        SwingUtilities.invokeLater(this::refreshChart);
+        SwingUtilities.invokeLater(chartRefresh::request);
+    }
+
+    /**
+     * Refreshes the chart now if the panel is showing, otherwise once it is shown.
+     */
+    public void requestRefresh() {
+        chartRefresh.request();
     }
 
     /**
@@ -2,6 +2,7 @@ package com.example.app.ui.reports;
 
 import com.example.app.ui.CurrencyManager;
 import com.example.app.ui.CurrencyManager.CurrencyChangeListener;
+import com.example.app.ui.DeferredRefresh;
 import com.example.app.viewmodel.reports.TrendReportViewModel;
 import com.example.app.viewmodel.reports.TrendReportViewModel.ChartDataChangeListener;
 
@@ -43,6 +44,8 @@ public class TrendReportPanel extends JPanel implements CurrencyChangeListener,
     private final TrendReportViewModel viewModel;
     /** The chart panel displaying the time series chart */
     private ChartPanel chartPanel;
+    /** Refreshes the chart now, or once the panel is shown if it is hidden */
+    private final DeferredRefresh chartRefresh;
     /** The current time range for the report */
     private String timeRange = "Last 30 days";
     /** The current interval for grouping data */
@@ -67,6 +70,7 @@ public class TrendReportPanel extends JPanel implements CurrencyChangeListener,
 
         add(chartPanel, BorderLayout.CENTER);
 
+        chartRefresh = new DeferredRefresh(this, this::refreshChart);
         // Register as currency change listener
         CurrencyManager.getInstance().addCurrencyChangeListener(this);
     }
@@ -349,17 +353,24 @@ public class TrendReportPanel extends JPanel implements CurrencyChangeListener,
     @Override
     public void onCurrencyChanged(String currencyCode, String currencySymbol) {
         // Refresh chart when currency changes
-        refreshChart();
+        chartRefresh.request();
     }
 
     /**
      * Called when the chart data changes in the ViewModel.
-     * Refreshes the chart.
+     * Refreshes the chart, or once the panel is shown if it is hidden.
      */
     @Override
     public void onChartDataChanged() {
         // Called by ViewModel when data changes
-        SwingUtilities.invokeLater(this::refreshChart);
+        SwingUtilities.invokeLater(chartRefresh::request);
+    }
+
+    /**
+     * Refreshes the chart now if the panel is showing, otherwise once it is shown.
+     */
+    public void requestRefresh() {
+        chartRefresh.request();
     }
 
     /**
@@ -0,0 +1,338 @@
+package com.example.app.user_data;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Disk-backed cache of AI responses under a user's data directory, so repeated questions about
+ * unchanged data are answered locally instead of calling the remote API again.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Keys are SHA-256 hashes of the model, the prompt and a fingerprint of the data the answer depends on</li>
+ *   <li>One file per entry, holding the creation time and the response</li>
+ *   <li>All entries are kept in memory as well, so a hit reads nothing from disk</li>
+ *   <li>Entries expire after a time-to-live</li>
+ *   <li>Least recently used entries are evicted once the entry count or total size exceeds its bound;
+ *       the order survives restarts through the files' modification times</li>
+ * </ul>
+ */
+public class AIResponseCache {
+    private static final Logger LOGGER = Logger.getLogger(AIResponseCache.class.getName());
+
+    /** Name of the cache directory inside a user's data directory */
+    public static final String CACHE_DIRECTORY = "ai_cache";
+
+    /** Default time an entry stays valid */
+    public static final Duration DEFAULT_TTL = Duration.ofDays(7);
+
+    /** Default upper bound on the number of entries */
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+
+    /** Default upper bound on the total size of the responses, in bytes */
+    public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+
+    /** Length of a key: a hex-encoded SHA-256 hash */
+    private static final int KEY_LENGTH = 64;
+
+    /** Shared caches by directory */
+    private static final Map<File, AIResponseCache> INSTANCES = new HashMap<>();
+
+    private final File directory;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * A cached response with its creation time.
+     */
+    private static final class Entry {
+        final String response;
+        final long createdAt;
+        final long bytes;
+
+        Entry(String response, long createdAt) {
+            this.response = response;
+            this.createdAt = createdAt;
+            this.bytes = response.length() * 2L;
+        }
+    }
+
+    /**
+     * Opens a cache in a directory, loading the entries stored there.
+     *
+     * @param directory the cache directory; created on the first write
+     * @param ttl time an entry stays valid
+     * @param maxEntries upper bound on the number of entries
+     * @param maxBytes upper bound on the total size of the responses, in bytes
+     */
+    public AIResponseCache(File directory, Duration ttl, int maxEntries, long maxBytes) {
+        this.directory = directory;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = Math.max(1, maxBytes);
+        load();
+    }
+
+    /**
+     * Gets the shared cache of a user, in the {@value #CACHE_DIRECTORY} folder of the user's data directory.
+     *
+     * @param username the username
+     * @return the user's cache
+     */
+    public static AIResponseCache forUser(String username) {
+        return forDirectory(new File(".\\user_data\\" + username));
+    }
+
+    /**
+     * Gets the shared cache in the {@value #CACHE_DIRECTORY} folder of a user data directory.
+     *
+     * @param userDirectory the user's data directory
+     * @return the cache
+     */
+    public static synchronized AIResponseCache forDirectory(File userDirectory) {
+        File directory = new File(userDirectory, CACHE_DIRECTORY).getAbsoluteFile();
+        return INSTANCES.computeIfAbsent(directory,
+                dir -> new AIResponseCache(dir, DEFAULT_TTL, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * Builds the key of a request.
+     *
+     * @param model the model answering the prompt
+     * @param prompt the prompt, including any instructions sent with it
+     * @param fingerprint fingerprint of the data the answer depends on, or an empty string
+     * @return the key
+     */
+    public static String key(String model, String prompt, String fingerprint) {
+        MessageDigest digest = sha256();
+        for (String part : new String[]{model, prompt, fingerprint}) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes a fingerprint of the aggregates of a ledger that AI answers about it depend on:
+     * the number of transactions, the months they cover and the income and spending per category.
+     * Edits that leave all of these unchanged keep the fingerprint.
+     *
+     * @param transactions transactions in {@code [date, description, category, amount, confirmed]} layout
+     * @return the fingerprint
+     */
+    public static String fingerprint(List<Object[]> transactions) {
+        Map<String, long[]> categories = new TreeMap<>();
+        String firstMonth = null;
+        String lastMonth = null;
+        for (Object[] transaction : transactions) {
+            String date = String.valueOf(transaction[0]);
+            String month = date.length() >= 7 ? date.substring(0, 7) : date;
+            if (firstMonth == null || month.compareTo(firstMonth) < 0) {
+                firstMonth = month;
+            }
+            if (lastMonth == null || month.compareTo(lastMonth) > 0) {
+                lastMonth = month;
+            }
+            long cents = Math.round(((Number) transaction[3]).doubleValue() * 100);
+            long[] totals = categories.computeIfAbsent(String.valueOf(transaction[2]), c -> new long[2]);
+            totals[cents < 0 ? 1 : 0] += cents;
+        }
+
+        StringBuilder aggregates = new StringBuilder();
+        aggregates.append(transactions.size()).append('|').append(firstMonth).append('|').append(lastMonth);
+        for (Map.Entry<String, long[]> category : categories.entrySet()) {
+            aggregates.append('|').append(category.getKey())
+                    .append(':').append(category.getValue()[0])
+                    .append(':').append(category.getValue()[1]);
+        }
+        return toHex(sha256().digest(aggregates.toString().getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+    }
+
+    /**
+     * Gets a cached response.
+     *
+     * @param key the key, from {@link #key(String, String, String)}
+     * @return the response, or null if it is not cached or has expired
+     */
+    public synchronized String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, System.currentTimeMillis())) {
+            remove(key);
+            return null;
+        }
+        File file = new File(directory, key);
+        if (!file.setLastModified(System.currentTimeMillis())) {
+            LOGGER.log(Level.FINE, "Could not update access time of {0}", file);
+        }
+        return entry.response;
+    }
+
+    /**
+     * Stores a response, evicting the least recently used entries if the cache is over its bounds.
+     *
+     * @param key the key, from {@link #key(String, String, String)}
+     * @param response the response
+     */
+    public synchronized void put(String key, String response) {
+        Entry entry = new Entry(response, System.currentTimeMillis());
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+        if (!write(key, entry)) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalBytes -= previous.bytes;
+        }
+        totalBytes += entry.bytes;
+        evict();
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public synchronized void clear() {
+        for (String key : new ArrayList<>(entries.keySet())) {
+            remove(key);
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt > ttlMillis;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || totalBytes > maxBytes) {
+            Map.Entry<String, Entry> entry = eldest.next();
+            totalBytes -= entry.getValue().bytes;
+            eldest.remove();
+            deleteFile(entry.getKey());
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.bytes;
+        }
+        deleteFile(key);
+    }
+
+    private void deleteFile(String key) {
+        File file = new File(directory, key);
+        if (file.exists() && !file.delete()) {
+            LOGGER.log(Level.WARNING, "Could not delete cache entry {0}", file);
+        }
+    }
+
+    /**
+     * Writes an entry through a temporary file, so a crash never leaves a partial entry.
+     */
+    private boolean write(String key, Entry entry) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOGGER.log(Level.WARNING, "Could not create cache directory at: {0}", directory.getAbsolutePath());
+            return false;
+        }
+        File file = new File(directory, key);
+        File temp = new File(directory, key + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(entry.createdAt + "\n");
+            writer.write(entry.response);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not write cache entry " + file, e);
+            return false;
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not store cache entry " + file, e);
+            return false;
+        }
+    }
+
+    /**
+     * Loads the stored entries, oldest access first, dropping expired and unreadable ones.
+     */
+    private void load() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            String name = file.getName();
+            if (name.length() != KEY_LENGTH) {
+                if (name.endsWith(".tmp") && !file.delete()) {
+                    LOGGER.log(Level.FINE, "Could not delete leftover {0}", file);
+                }
+                continue;
+            }
+            Entry entry = read(file);
+            if (entry == null || isExpired(entry, now)) {
+                deleteFile(name);
+                continue;
+            }
+            entries.put(name, entry);
+            totalBytes += entry.bytes;
+        }
+        evict();
+        LOGGER.log(Level.FINE, "Loaded {0} cached AI responses from {1}", new Object[]{entries.size(), directory});
+    }
+
+    private static Entry read(File file) {
+        try {
+            String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            int newline = content.indexOf('\n');
+            if (newline < 0) {
+                return null;
+            }
+            return new Entry(content.substring(newline + 1), Long.parseLong(content.substring(0, newline)));
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Skipping unreadable cache entry " + file, e);
+            return null;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
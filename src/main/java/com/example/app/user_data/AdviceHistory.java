@@ -0,0 +1,369 @@
+package com.example.app.user_data;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of the financial advice generated for a user, so earlier advice can be
+ * browsed and compared with the current advice.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>One line per entry: generation time, fingerprint of the data, hash of the prompt and the advice text</li>
+ *   <li>Saving appends a line; earlier entries are never rewritten except by compaction</li>
+ *   <li>An in-memory index of line offsets and the latest entry, built once per process,
+ *       so the latest advice is read without touching the file and any page is read with direct seeks</li>
+ *   <li>Bounded retention: only the newest entries are kept, and the file is compacted
+ *       once it holds twice as many lines, so appends stay cheap and the file stays small</li>
+ *   <li>A torn last line left by a crash is dropped on load</li>
+ * </ul>
+ */
+public class AdviceHistory {
+    private static final Logger LOGGER = Logger.getLogger(AdviceHistory.class.getName());
+
+    /** Name of the log file inside a user's data directory */
+    public static final String HISTORY_FILENAME = "advice_history.log";
+
+    /** System property that overrides the number of entries kept */
+    public static final String MAX_ENTRIES_PROPERTY = "advice.history.max.entries";
+
+    /** Default number of entries kept */
+    public static final int DEFAULT_MAX_ENTRIES = 200;
+
+    /** Placeholder for an unknown fingerprint or prompt hash */
+    public static final String UNKNOWN = "-";
+
+    /** Shared histories by file */
+    private static final Map<File, AdviceHistory> INSTANCES = new HashMap<>();
+
+    private final File file;
+    private final int maxEntries;
+    private final List<Long> offsets = new ArrayList<>();
+    private long length;
+    private Entry latest;
+
+    /**
+     * One piece of advice in the history.
+     */
+    public static final class Entry {
+        private final LocalDateTime generationTime;
+        private final String fingerprint;
+        private final String promptHash;
+        private final String advice;
+
+        /**
+         * Creates an entry.
+         *
+         * @param generationTime when the advice was generated
+         * @param fingerprint fingerprint of the data the advice is based on, or {@value AdviceHistory#UNKNOWN}
+         * @param promptHash hash of the prompt the advice answers, or {@value AdviceHistory#UNKNOWN}
+         * @param advice the advice text
+         */
+        public Entry(LocalDateTime generationTime, String fingerprint, String promptHash, String advice) {
+            this.generationTime = generationTime;
+            this.fingerprint = fingerprint == null || fingerprint.isEmpty() ? UNKNOWN : fingerprint;
+            this.promptHash = promptHash == null || promptHash.isEmpty() ? UNKNOWN : promptHash;
+            this.advice = advice;
+        }
+
+        /**
+         * Gets when the advice was generated.
+         *
+         * @return the generation time
+         */
+        public LocalDateTime getGenerationTime() {
+            return generationTime;
+        }
+
+        /**
+         * Gets the fingerprint of the data the advice is based on.
+         *
+         * @return the fingerprint, or {@value AdviceHistory#UNKNOWN}
+         */
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * Gets the hash of the prompt the advice answers.
+         *
+         * @return the prompt hash, or {@value AdviceHistory#UNKNOWN}
+         */
+        public String getPromptHash() {
+            return promptHash;
+        }
+
+        /**
+         * Gets the advice text.
+         *
+         * @return the advice
+         */
+        public String getAdvice() {
+            return advice;
+        }
+
+        private String toLine() {
+            return generationTime + "\t" + escape(fingerprint) + "\t" + escape(promptHash) + "\t" + escape(advice) + "\n";
+        }
+
+        private static Entry parse(String line) {
+            String[] fields = line.split("\t", 4);
+            if (fields.length != 4) {
+                return null;
+            }
+            try {
+                return new Entry(LocalDateTime.parse(fields[0]), unescape(fields[1]), unescape(fields[2]),
+                        unescape(fields[3]));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Opens a history file, building its index.
+     *
+     * @param file the log file; created on the first append
+     * @param maxEntries number of entries kept
+     */
+    public AdviceHistory(File file, int maxEntries) {
+        this.file = file;
+        this.maxEntries = Math.max(1, maxEntries);
+        load();
+    }
+
+    /**
+     * Gets the shared history of a user, in the user's data directory.
+     *
+     * @param username the username
+     * @return the user's history
+     */
+    public static AdviceHistory forUser(String username) {
+        return forDirectory(new File(".\\user_data\\" + username));
+    }
+
+    /**
+     * Gets the shared history in a user data directory.
+     *
+     * @param userDirectory the user's data directory
+     * @return the history
+     */
+    public static synchronized AdviceHistory forDirectory(File userDirectory) {
+        File file = new File(userDirectory, HISTORY_FILENAME).getAbsoluteFile();
+        return INSTANCES.computeIfAbsent(file,
+                f -> new AdviceHistory(f, Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES)));
+    }
+
+    /**
+     * Appends an entry, compacting the file if it has grown to twice the retention bound.
+     *
+     * @param entry the entry
+     * @return true if the entry was written
+     */
+    public synchronized boolean append(Entry entry) {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            LOGGER.log(Level.WARNING, "Could not create advice history directory at: {0}", directory.getAbsolutePath());
+            return false;
+        }
+        byte[] line = entry.toLine().getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = new FileOutputStream(file, true)) {
+            out.write(line);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not append to advice history " + file, e);
+            return false;
+        }
+        offsets.add(length);
+        length += line.length;
+        latest = entry;
+        if (offsets.size() >= 2 * maxEntries) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the most recent entry, without reading the file.
+     *
+     * @return the latest entry, or null if the history is empty
+     */
+    public synchronized Entry latest() {
+        return latest;
+    }
+
+    /**
+     * Gets the number of entries kept.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return Math.min(offsets.size(), maxEntries);
+    }
+
+    /**
+     * Gets one page of the history, newest entry first.
+     *
+     * @param page the page index, starting at 0
+     * @param pageSize entries per page
+     * @return the entries of the page; empty past the last page
+     */
+    public synchronized List<Entry> getPage(int page, int pageSize) {
+        List<Entry> entries = new ArrayList<>();
+        int first = page * pageSize;
+        if (page < 0 || pageSize < 1 || first >= size()) {
+            return entries;
+        }
+        int last = Math.min(size(), first + pageSize);
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            for (int rank = first; rank < last; rank++) {
+                int index = offsets.size() - 1 - rank;
+                long start = offsets.get(index);
+                long end = index + 1 < offsets.size() ? offsets.get(index + 1) : length;
+                byte[] line = new byte[(int) (end - start - 1)]; // without the newline
+                in.seek(start);
+                in.readFully(line);
+                Entry entry = Entry.parse(new String(line, StandardCharsets.UTF_8));
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read advice history " + file, e);
+        }
+        return entries;
+    }
+
+    /**
+     * Rewrites the file with only the newest entries, through a temporary file.
+     */
+    private void compact() {
+        int drop = offsets.size() - maxEntries;
+        long base = offsets.get(drop);
+        File temp = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile in = new RandomAccessFile(file, "r");
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+            in.seek(base);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not compact advice history " + file, e);
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not replace advice history " + file, e);
+            return;
+        }
+        List<Long> kept = new ArrayList<>(offsets.subList(drop, offsets.size()));
+        offsets.clear();
+        for (long offset : kept) {
+            offsets.add(offset - base);
+        }
+        length -= base;
+        LOGGER.log(Level.FINE, "Compacted advice history to {0} entries", offsets.size());
+    }
+
+    /**
+     * Indexes the line offsets, keeps the last entry and drops a torn last line.
+     */
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        long lineStart = 0;
+        long position = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    offsets.add(lineStart);
+                    lineStart = position;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read advice history " + file, e);
+            offsets.clear();
+            return;
+        }
+        length = lineStart;
+        if (position > lineStart) {
+            truncate(lineStart);
+        }
+        if (!offsets.isEmpty()) {
+            latest = readLast();
+        }
+    }
+
+    private Entry readLast() {
+        List<Entry> newest = getPage(0, 1);
+        return newest.isEmpty() ? null : newest.get(0);
+    }
+
+    private void truncate(long size) {
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(size);
+            LOGGER.log(Level.WARNING, "Dropped a torn last entry from {0}", file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not repair advice history " + file, e);
+        }
+    }
+
+    /**
+     * Escapes backslashes, line breaks and tabs so text fits in one tab-separated field.
+     */
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Reverses {@link #escape(String)}.
+     */
+    static String unescape(String text) {
+        StringBuilder unescaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 == text.length()) {
+                unescaped.append(c);
+                continue;
+            }
+            char next = text.charAt(++i);
+            unescaped.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next == 't' ? '\t' : next);
+        }
+        return unescaped.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.app.user_data;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only log of a user's chat with the AI assistant, so the conversation survives a restart
+ * and older messages can be read back a page at a time.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>One line per message: the sender and the escaped message text</li>
+ *   <li>Each message is identified by the file position of its line</li>
+ *   <li>Pages are read backwards from a position with direct seeks, so reading older messages
+ *       costs the same however long the conversation is, and nothing is kept in memory</li>
+ *   <li>A torn last line left by a crash is dropped on open</li>
+ * </ul>
+ */
+public class ChatHistory {
+    private static final Logger LOGGER = Logger.getLogger(ChatHistory.class.getName());
+
+    /** Name of the log file inside a user's data directory */
+    public static final String HISTORY_FILENAME = "chat_history.log";
+
+    private static final String USER = "U";
+    private static final String AI = "A";
+    private static final int BLOCK_SIZE = 4096;
+
+    private final File file;
+
+    /**
+     * One message read from the history.
+     */
+    public static final class Line {
+        private final long position;
+        private final boolean fromUser;
+        private final String content;
+
+        private Line(long position, boolean fromUser, String content) {
+            this.position = position;
+            this.fromUser = fromUser;
+            this.content = content;
+        }
+
+        /**
+         * Gets the position of the message in the file.
+         *
+         * @return the position
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * Checks if the message was sent by the user.
+         *
+         * @return true if from the user, false if from the AI
+         */
+        public boolean isFromUser() {
+            return fromUser;
+        }
+
+        /**
+         * Gets the message text.
+         *
+         * @return the message content
+         */
+        public String getContent() {
+            return content;
+        }
+
+        private static Line parse(String text, long position) {
+            String[] fields = text.split("\t", 2);
+            if (fields.length != 2 || !(USER.equals(fields[0]) || AI.equals(fields[0]))) {
+                return null;
+            }
+            return new Line(position, USER.equals(fields[0]), AdviceHistory.unescape(fields[1]));
+        }
+    }
+
+    /**
+     * Opens a chat history file, dropping a torn last line.
+     *
+     * @param file the log file; created on the first append
+     */
+    public ChatHistory(File file) {
+        this.file = file;
+        repair();
+    }
+
+    /**
+     * Opens the chat history of a user, in the user's data directory.
+     *
+     * @param username the username
+     * @return the user's chat history
+     */
+    public static ChatHistory forUser(String username) {
+        return new ChatHistory(new File(".\\user_data\\" + username, HISTORY_FILENAME));
+    }
+
+    /**
+     * Appends a message.
+     *
+     * @param fromUser true if sent by the user, false if sent by the AI
+     * @param content the message text
+     * @return the position of the message, or -1 if it could not be written
+     */
+    public synchronized long append(boolean fromUser, String content) {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            LOGGER.log(Level.WARNING, "Could not create chat history directory at: {0}", directory.getAbsolutePath());
+            return -1;
+        }
+        long position = file.length();
+        String line = (fromUser ? USER : AI) + "\t" + AdviceHistory.escape(content) + "\n";
+        try (OutputStream out = new FileOutputStream(file, true)) {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not append to chat history " + file, e);
+            return -1;
+        }
+        return position;
+    }
+
+    /**
+     * Reads the most recent messages.
+     *
+     * @param count the maximum number of messages
+     * @return the messages, oldest first
+     */
+    public List<Line> readRecent(int count) {
+        return readBefore(Long.MAX_VALUE, count);
+    }
+
+    /**
+     * Reads the messages just before a position.
+     *
+     * @param position the position of a message; only messages before it are read
+     * @param count the maximum number of messages
+     * @return the messages, oldest first; empty at the start of the history
+     */
+    public synchronized List<Line> readBefore(long position, int count) {
+        ArrayDeque<Line> lines = new ArrayDeque<>();
+        if (count < 1 || position <= 0 || !file.exists()) {
+            return new ArrayList<>(lines);
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            long end = Math.min(position, in.length());
+            while (lines.size() < count && end > 0) {
+                // The byte before end is the newline of the line being read
+                long start = lineStart(in, end - 1);
+                byte[] bytes = new byte[(int) (end - 1 - start)];
+                in.seek(start);
+                in.readFully(bytes);
+                Line line = Line.parse(new String(bytes, StandardCharsets.UTF_8), start);
+                if (line != null) {
+                    lines.addFirst(line);
+                }
+                end = start;
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read chat history " + file, e);
+        }
+        return new ArrayList<>(lines);
+    }
+
+    /**
+     * Finds where the line ending before the given offset starts, scanning backwards in blocks.
+     */
+    private static long lineStart(RandomAccessFile in, long end) throws IOException {
+        byte[] buffer = new byte[BLOCK_SIZE];
+        long blockEnd = end;
+        while (blockEnd > 0) {
+            long blockStart = Math.max(0, blockEnd - buffer.length);
+            int size = (int) (blockEnd - blockStart);
+            in.seek(blockStart);
+            in.readFully(buffer, 0, size);
+            for (int i = size - 1; i >= 0; i--) {
+                if (buffer[i] == '\n') {
+                    return blockStart + i + 1;
+                }
+            }
+            blockEnd = blockStart;
+        }
+        return 0;
+    }
+
+    /**
+     * Drops a last line that has no newline.
+     */
+    private void repair() {
+        if (!file.exists()) {
+            return;
+        }
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            long length = out.length();
+            if (length == 0) {
+                return;
+            }
+            out.seek(length - 1);
+            if (out.read() != '\n') {
+                out.setLength(lineStart(out, length));
+                LOGGER.log(Level.WARNING, "Dropped a torn last message from {0}", file);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not repair chat history " + file, e);
+        }
+    }
+}
@@ -15,6 +15,9 @@ import java.util.logging.Logger;
  *   <li>Stores advice in a user-specific file</li>
  *   <li>Initializes storage with default content if needed</li>
  *   <li>Loads and saves advice with timestamp</li>
+ *   <li>Appends every saved advice to the user's {@link AdviceHistory}, so earlier advice is kept</li>
+ *   <li>Remembers the last advice loaded or saved, so loading again only checks the file's size and time</li>
+ *   <li>Keeps the basis the advice was generated from in a companion file</li>
  * </ul>
  
  */
@@ -26,9 +29,16 @@ public class FinancialAdviceStorage {
     }
     private static final Logger LOGGER = Logger.getLogger(FinancialAdviceStorage.class.getName());
     private static final String ADVICE_FILENAME = "user_advice.txt";
+    private static final String BASIS_FILENAME = "user_advice_basis.txt";
     private static File adviceFile;
+    private static File basisFile;
     private static String username;
 
+    /** Last advice loaded or saved, valid while the file keeps the length and time recorded with it */
+    private static Object[] lastAdvice;
+    private static long lastAdviceLength = -1;
+    private static long lastAdviceModified = -1;
+
     /** Date format for storing advice generation time */
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -42,6 +52,8 @@ public class FinancialAdviceStorage {
         // Update file path to user-specific path
         String packagePath = ".\\user_data\\" + username;
         adviceFile = new File(packagePath, ADVICE_FILENAME);
+        basisFile = new File(packagePath, BASIS_FILENAME);
+        lastAdvice = null;
 
         // Ensure file exists
         initializeStorage();
@@ -70,10 +82,15 @@ public class FinancialAdviceStorage {
                 if (adviceFile.createNewFile()) {
                     LOGGER.log(Level.INFO, "Created advice file at: {0}", adviceFile.getAbsolutePath());
 
-                    // Create default advice content
+                    // Create default advice content, or restore the latest advice from the history
                     String defaultAdvice = "Welcome to your financial assistant! I'll analyze your transactions " +
                             "and provide personalized advice to help you manage your finances better.";
                     LocalDateTime now = LocalDateTime.now();
+                    AdviceHistory.Entry latest = getHistory().latest();
+                    if (latest != null) {
+                        defaultAdvice = latest.getAdvice();
+                        now = latest.getGenerationTime();
+                    }
 
                     // Save default advice with current timestamp
                     try (PrintWriter writer = new PrintWriter(new FileWriter(adviceFile))) {
@@ -101,8 +118,17 @@ public class FinancialAdviceStorage {
         return adviceFile.getAbsolutePath();
     }
 
+    /**
+     * Gets the advice history of the current user.
+     * @return The user's advice history
+     */
+    public static AdviceHistory getHistory() {
+        return AdviceHistory.forUser(username);
+    }
+
     /**
      * Loads financial advice from file.
+     * The file is only read again if it changed since it was last loaded or saved.
      * @return Object array containing [advice text, generation time] or null if loading failed
      */
     public static Object[] loadAdvice() {
@@ -111,6 +137,10 @@ public class FinancialAdviceStorage {
             LOGGER.log(Level.WARNING, "Advice file does not exist: {0}", adviceFile.getAbsolutePath());
             return null;
         }
+        if (lastAdvice != null && adviceFile.length() == lastAdviceLength
+                && adviceFile.lastModified() == lastAdviceModified) {
+            return lastAdvice.clone();
+        }
 
         try (BufferedReader reader = new BufferedReader(new FileReader(adviceFile))) {
             String dateStr = reader.readLine(); // First line is the date
@@ -136,6 +166,7 @@ public class FinancialAdviceStorage {
             String adviceText = adviceBuilder.toString();
 
             LOGGER.log(Level.INFO, "Successfully loaded advice from: {0}", adviceFile.getAbsolutePath());
+            remember(adviceText, generationTime);
             return new Object[]{adviceText, generationTime};
 
         } catch (IOException | java.time.format.DateTimeParseException e) {
@@ -151,15 +182,74 @@ public class FinancialAdviceStorage {
      * @return true if successful, false otherwise
      */
     public static boolean saveAdvice(String advice, LocalDateTime generationTime) {
+        return saveAdvice(advice, generationTime, AdviceHistory.UNKNOWN, AdviceHistory.UNKNOWN);
+    }
+
+    /**
+     * Saves financial advice to file and appends it to the advice history.
+     * @param advice Advice text to save
+     * @param generationTime Time when advice was generated
+     * @param fingerprint Fingerprint of the data the advice is based on
+     * @param promptHash Hash of the prompt the advice answers
+     * @return true if successful, false otherwise
+     */
+    public static boolean saveAdvice(String advice, LocalDateTime generationTime, String fingerprint,
+                                     String promptHash) {
+        AdviceHistory history = getHistory();
+        AdviceHistory.Entry latest = history.latest();
+        // Advice served again from the response cache repeats the latest entry; keep it once
+        if (latest == null || !latest.getAdvice().equals(advice) || !latest.getFingerprint().equals(fingerprint)
+                || !latest.getPromptHash().equals(promptHash)) {
+            history.append(new AdviceHistory.Entry(generationTime, fingerprint, promptHash, advice));
+        }
         try (PrintWriter writer = new PrintWriter(new FileWriter(adviceFile))) {
             writer.println(generationTime.format(DATE_FORMATTER));
             writer.println(advice);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error saving advice to file: " + e.getMessage(), e);
+            return false;
+        }
+        // Stored with second precision, so remember the time as it will be read back
+        remember(advice, LocalDateTime.parse(generationTime.format(DATE_FORMATTER), DATE_FORMATTER));
+
+        LOGGER.log(Level.INFO, "Successfully saved advice to: {0}", adviceFile.getAbsolutePath());
+        return true;
+    }
+
+    private static void remember(String advice, LocalDateTime generationTime) {
+        lastAdvice = new Object[]{advice, generationTime};
+        lastAdviceLength = adviceFile.length();
+        lastAdviceModified = adviceFile.lastModified();
+    }
+
+    /**
+     * Loads the basis the stored advice was generated from.
+     * @return The basis in its text form, or null if none has been saved
+     */
+    public static String loadAdviceBasis() {
+        if (basisFile == null || !basisFile.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(basisFile))) {
+            return reader.readLine();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error loading advice basis: " + e.getMessage(), e);
+            return null;
+        }
+    }
 
-            LOGGER.log(Level.INFO, "Successfully saved advice to: {0}", adviceFile.getAbsolutePath());
+    /**
+     * Saves the basis the stored advice was generated from.
+     * @param basis The basis in its text form
+     * @return true if successful, false otherwise
+     */
+    public static boolean saveAdviceBasis(String basis) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(basisFile))) {
+            writer.println(basis);
             return true;
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Error saving advice to file: " + e.getMessage(), e);
+            LOGGER.log(Level.WARNING, "Error saving advice basis: " + e.getMessage(), e);
             return false;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,322 @@
+package com.example.app.user_data;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent index of transaction fingerprints for detecting duplicates against a user's whole ledger.
+ * A fingerprint is a 64-bit hash of the normalized date, amount and description of a transaction,
+ * so checking a row costs O(1) without loading the ledger.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Primitive open-addressing set of fingerprints</li>
+ *   <li>Bloom filter in front of the set for fast negatives</li>
+ *   <li>Append-only index file stamped with the ledger size and modification time</li>
+ *   <li>Detects a stale index so the caller can rebuild it from the ledger</li>
+ * </ul>
+ */
+public class FingerprintIndex {
+    private static final Logger LOGGER = Logger.getLogger(FingerprintIndex.class.getName());
+
+    /** Magic number at the start of an index file ("FPX1") */
+    private static final int MAGIC = 0x46505831;
+
+    /** Offset of the ledger stamp within the header */
+    private static final int STAMP_OFFSET = 4;
+
+    /** Size of the header: magic, ledger length and ledger modification time */
+    private static final int HEADER_SIZE = 4 + 8 + 8;
+
+    /** Bits of Bloom filter per expected fingerprint, about 1% false positives */
+    private static final int BITS_PER_ENTRY = 10;
+
+    /** Number of Bloom filter probes */
+    private static final int BLOOM_PROBES = 7;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final File indexFile;
+    private final LongHashSet fingerprints;
+    private long[] bloom;
+    private int bloomCapacity;
+
+    /**
+     * Creates an in-memory index backed by an index file.
+     *
+     * @param indexFile the index file
+     * @param fingerprints the initial fingerprints
+     */
+    private FingerprintIndex(File indexFile, LongHashSet fingerprints) {
+        this.indexFile = indexFile;
+        this.fingerprints = fingerprints;
+        rebuildBloom();
+    }
+
+    /**
+     * Computes the fingerprint of a transaction record.
+     * The category and confirmed flag are ignored, so re-importing a statement
+     * that has since been recategorised still matches.
+     *
+     * @param transaction transaction record [date, description, category, amount, ...]
+     * @return the fingerprint
+     */
+    public static long fingerprint(Object[] transaction) {
+        return fingerprint((String) transaction[0], ((Number) transaction[3]).doubleValue(), (String) transaction[1]);
+    }
+
+    /**
+     * Computes the fingerprint of a transaction from its date, amount and description.
+     * Dates keep only the day, since imports store the day alone and two exports of one payment
+     * rarely agree on its time; amounts are compared in cents and descriptions ignore case and
+     * repeated whitespace.
+     *
+     * @param date the transaction date, optionally followed by a time
+     * @param amount the amount
+     * @param description the description, may be null
+     * @return the fingerprint
+     */
+    public static long fingerprint(String date, double amount, String description) {
+        long hash = FNV_OFFSET;
+        hash = hashString(hash, normalizeDate(date));
+        hash = (hash ^ '|') * FNV_PRIME;
+        long cents = Math.round(amount * 100);
+        for (int i = 0; i < 8; i++) {
+            hash = (hash ^ ((cents >>> (i * 8)) & 0xff)) * FNV_PRIME;
+        }
+        hash = (hash ^ '|') * FNV_PRIME;
+        hash = hashString(hash, normalizeDescription(description));
+        return finish(hash);
+    }
+
+    /**
+     * Opens an index file if it is up to date with the ledger.
+     *
+     * @param indexFile the index file
+     * @param ledgerFile the ledger the index describes
+     * @return the index, or null if the file is missing, corrupt or stale
+     */
+    public static FingerprintIndex open(File indexFile, File ledgerFile) {
+        if (!indexFile.exists() || indexFile.length() < HEADER_SIZE
+                || (indexFile.length() - HEADER_SIZE) % 8 != 0) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC
+                    || in.readLong() != ledgerFile.length()
+                    || in.readLong() != ledgerFile.lastModified()) {
+                LOGGER.log(Level.INFO, "Fingerprint index is stale: {0}", indexFile.getAbsolutePath());
+                return null;
+            }
+            int count = (int) ((indexFile.length() - HEADER_SIZE) / 8);
+            LongHashSet fingerprints = new LongHashSet(count);
+            for (int i = 0; i < count; i++) {
+                fingerprints.add(in.readLong());
+            }
+            LOGGER.log(Level.INFO, "Loaded {0} fingerprints from: {1}",
+                    new Object[]{fingerprints.size(), indexFile.getAbsolutePath()});
+            return new FingerprintIndex(indexFile, fingerprints);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error reading fingerprint index: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Builds an index from the full list of ledger transactions and writes it to disk.
+     * If the file cannot be written the index still works in memory.
+     *
+     * @param indexFile the index file
+     * @param transactions every transaction in the ledger
+     * @param ledgerFile the ledger the index describes
+     * @return the new index
+     */
+    public static FingerprintIndex rebuild(File indexFile, List<Object[]> transactions, File ledgerFile) {
+        FingerprintIndex index = new FingerprintIndex(indexFile, new LongHashSet(transactions.size()));
+        index.replaceAll(transactions, ledgerFile);
+        return index;
+    }
+
+    /**
+     * Checks whether a fingerprint is in the index.
+     * Most absent fingerprints are rejected by the Bloom filter without touching the set.
+     *
+     * @param fingerprint the fingerprint
+     * @return true if the ledger already holds a matching transaction
+     */
+    public synchronized boolean contains(long fingerprint) {
+        return mightContain(fingerprint) && fingerprints.contains(fingerprint);
+    }
+
+    /**
+     * Checks whether a transaction is in the index.
+     *
+     * @param transaction transaction record [date, description, category, amount, ...]
+     * @return true if the ledger already holds a matching transaction
+     */
+    public boolean contains(Object[] transaction) {
+        return contains(fingerprint(transaction));
+    }
+
+    /**
+     * Gets the number of distinct fingerprints.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return fingerprints.size();
+    }
+
+    /**
+     * Records transactions that were appended to the ledger.
+     * New fingerprints are appended to the index file and the ledger stamp is updated.
+     *
+     * @param transactions the appended transactions
+     * @param ledgerFile the ledger they were appended to
+     */
+    public synchronized void append(List<Object[]> transactions, File ledgerFile) {
+        LongHashSet added = new LongHashSet(transactions.size());
+        for (Object[] transaction : transactions) {
+            long fingerprint = fingerprint(transaction);
+            if (fingerprints.add(fingerprint)) {
+                added.add(fingerprint);
+                addToBloom(fingerprint);
+            }
+        }
+        if (fingerprints.size() > bloomCapacity) {
+            rebuildBloom();
+        }
+
+        if (!indexFile.exists() || indexFile.length() < HEADER_SIZE) {
+            writeAll(ledgerFile);
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(indexFile, "rw")) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(added.size() * 8);
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (long fingerprint : added.toArray()) {
+                out.writeLong(fingerprint);
+            }
+            file.seek(file.length());
+            file.write(bytes.toByteArray());
+            file.seek(STAMP_OFFSET);
+            file.writeLong(ledgerFile.length());
+            file.writeLong(ledgerFile.lastModified());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error appending to fingerprint index: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replaces the index contents after the ledger was rewritten.
+     *
+     * @param transactions every transaction in the ledger
+     * @param ledgerFile the rewritten ledger
+     */
+    public synchronized void replaceAll(List<Object[]> transactions, File ledgerFile) {
+        fingerprints.clear();
+        for (Object[] transaction : transactions) {
+            fingerprints.add(fingerprint(transaction));
+        }
+        rebuildBloom();
+        writeAll(ledgerFile);
+    }
+
+    /**
+     * Writes the whole index file.
+     */
+    private void writeAll(File ledgerFile) {
+        File directory = indexFile.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            LOGGER.log(Level.WARNING, "Could not create index directory at: {0}", directory.getAbsolutePath());
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(ledgerFile.length());
+            out.writeLong(ledgerFile.lastModified());
+            for (long fingerprint : fingerprints.toArray()) {
+                out.writeLong(fingerprint);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error writing fingerprint index: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean mightContain(long fingerprint) {
+        int bits = bloom.length * 64;
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32);
+        for (int i = 0; i < BLOOM_PROBES; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addToBloom(long fingerprint) {
+        int bits = bloom.length * 64;
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32);
+        for (int i = 0; i < BLOOM_PROBES; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Sizes the Bloom filter for twice the current number of fingerprints and refills it.
+     */
+    private void rebuildBloom() {
+        bloomCapacity = Math.max(1024, fingerprints.size() * 2);
+        bloom = new long[(int) Math.min(Integer.MAX_VALUE / 64, ((long) bloomCapacity * BITS_PER_ENTRY + 63) / 64)];
+        for (long fingerprint : fingerprints.toArray()) {
+            addToBloom(fingerprint);
+        }
+    }
+
+    private static String normalizeDate(String date) {
+        if (date == null) {
+            return "";
+        }
+        String trimmed = date.trim();
+        int end = 0;
+        while (end < trimmed.length() && trimmed.charAt(end) != ' ' && trimmed.charAt(end) != 'T') {
+            end++;
+        }
+        return trimmed.substring(0, end);
+    }
+
+    private static String normalizeDescription(String description) {
+        if (description == null) {
+            return "";
+        }
+        return description.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static long hashString(long hash, String value) {
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Final avalanche so fingerprints of similar rows differ in all bits.
+     */
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.app.user_data;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive {@code long} values using open addressing with linear probing.
+ * Avoids the boxing and per-entry objects of {@code HashSet<Long>}, so a large
+ * transaction history costs eight to sixteen bytes per entry.
+ */
+public final class LongHashSet {
+    private static final int MIN_CAPACITY = 16;
+
+    /** Slots; 0 marks an empty slot, so the value 0 is tracked separately */
+    private long[] slots;
+    private int size;
+    private boolean containsZero;
+
+    /**
+     * Creates an empty set.
+     */
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set sized for an expected number of values.
+     *
+     * @param expectedSize expected number of values
+     */
+    public LongHashSet(int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value the value to add
+     * @return true if the value was not already present
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) * 2 > slots.length) {
+            resize(slots.length * 2);
+        }
+        if (!insert(slots, value)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Checks whether a value is in the set.
+     *
+     * @param value the value to look up
+     * @return true if present
+     */
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == 0) {
+                return false;
+            }
+            if (slot == value) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of values in the set.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all values, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+        size = 0;
+        containsZero = false;
+    }
+
+    /**
+     * Copies the values into an array in no particular order.
+     *
+     * @return the values
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int index = 0;
+        if (containsZero) {
+            result[index++] = 0;
+        }
+        for (long slot : slots) {
+            if (slot != 0) {
+                result[index++] = slot;
+            }
+        }
+        return result;
+    }
+
+    private void resize(int newCapacity) {
+        long[] newSlots = new long[newCapacity];
+        for (long slot : slots) {
+            if (slot != 0) {
+                insert(newSlots, slot);
+            }
+        }
+        slots = newSlots;
+    }
+
+    private static boolean insert(long[] table, long value) {
+        int mask = table.length - 1;
+        for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+            long slot = table[i];
+            if (slot == 0) {
+                table[i] = value;
+                return true;
+            }
+            if (slot == value) {
+                return false;
+            }
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads the bits of a value so that nearby values land in different slots.
+     */
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
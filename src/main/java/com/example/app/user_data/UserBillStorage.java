@@ -1,5 +1,7 @@
 package com.example.app.user_data;
 
+import com.example.app.model.importer.MerchantRules;
+import com.example.app.model.importer.NaiveBayesClassifier;
 import com.example.app.ui.pages.AI.classification;
 
 import java.io.*;
@@ -19,6 +21,13 @@ import java.time.format.DateTimeFormatter;
  *   <li>Initializes storage with headers if needed</li>
  *   <li>Supports batch classification of transactions using AI</li>
  *   <li>Handles CSV escaping and parsing</li>
+ *   <li>Keeps a fingerprint index of the ledger to skip transactions that were already imported</li>
+ *   <li>Trains a local category classifier from confirmed transactions as they are saved</li>
+ *   <li>Loads the user's merchant keyword rules, reloading them after the file is edited</li>
+ *   <li>Fingerprints the ledger aggregates and gives access to the user's AI response cache</li>
+ *   <li>Serializes all writes to the ledger, so the background inbox import and the Transactions
+ *       page never interleave, and merges rows imported while the page was being edited</li>
+ *   <li>Counts the writes to each user's ledger, so readers can tell whether it changed</li>
  * </ul>
  
  */
@@ -29,8 +38,17 @@ public class UserBillStorage {
     }
     private static final Logger LOGGER = Logger.getLogger(UserBillStorage.class.getName());
     private static final String BILL_FILENAME = "user_bill.csv";
+    private static final String FINGERPRINT_FILENAME = "user_bill.fingerprints";
     private static File billFile;
+    private static FingerprintIndex fingerprintIndex;
+    private static NaiveBayesClassifier categoryClassifier;
+    private static MerchantRules merchantRules;
+    private static long merchantRulesModified;
+    private static String ledgerFingerprint;
+    private static long ledgerFingerprintLength;
+    private static long ledgerFingerprintModified;
     private static String username;
+    private static final Map<String, Long> LEDGER_VERSIONS = new HashMap<>();
 
     // CSV format definitions
     private static final String CSV_HEADER = "Date,Description,Category,Amount,Confirmed";
@@ -39,13 +57,22 @@ public class UserBillStorage {
 
     /**
      * Sets the current username and updates the file path.
+     * The fingerprint index, classifier, merchant rules and ledger fingerprint are kept while the
+     * same user is set again, and dropped when the user changes or the ledger file has been removed.
      * @param username The current user's username
      */
-    public static void setUsername(String username) {
+    public static synchronized void setUsername(String username) {
+        if (billFile != null && Objects.equals(username, UserBillStorage.username) && billFile.exists()) {
+            return;
+        }
         UserBillStorage.username = username;
         // Update file path to user-specific path
         String packagePath = ".\\user_data\\" + username;
         billFile = new File(packagePath, BILL_FILENAME);
+        fingerprintIndex = null;
+        categoryClassifier = null;
+        merchantRules = null;
+        ledgerFingerprint = null;
 
         // Ensure file exists
         initializeStorage();
@@ -99,6 +126,150 @@ public class UserBillStorage {
         return billFile.getAbsolutePath();
     }
 
+    /**
+     * Gets the directory holding the current user's data files.
+     * @return The user's data directory
+     */
+    public static File getUserDirectory() {
+        return billFile.getParentFile();
+    }
+
+    /**
+     * Gets the fingerprint index of the current user's ledger.
+     * The index is loaded from disk on first use, or rebuilt from the ledger if it is missing or stale.
+     * @return The fingerprint index
+     */
+    public static synchronized FingerprintIndex getFingerprintIndex() {
+        if (fingerprintIndex == null) {
+            File indexFile = new File(billFile.getParentFile(), FINGERPRINT_FILENAME);
+            fingerprintIndex = FingerprintIndex.open(indexFile, billFile);
+            if (fingerprintIndex == null) {
+                fingerprintIndex = FingerprintIndex.rebuild(indexFile, loadTransactions(), billFile);
+                LOGGER.log(Level.INFO, "Rebuilt fingerprint index with {0} entries", fingerprintIndex.size());
+            }
+        }
+        return fingerprintIndex;
+    }
+
+    /**
+     * Gets the local category classifier of the current user.
+     * It is trained from the confirmed rows of the ledger on first use, kept while the same user is set,
+     * and follows the ledger as transactions are appended or saved, including deletions and corrections.
+     * @return The category classifier
+     */
+    public static synchronized NaiveBayesClassifier getCategoryClassifier() {
+        if (categoryClassifier == null) {
+            categoryClassifier = new NaiveBayesClassifier();
+            int learned = categoryClassifier.learnConfirmed(loadTransactions());
+            LOGGER.log(Level.INFO, "Trained category classifier on {0} confirmed transactions", learned);
+        }
+        return categoryClassifier;
+    }
+
+    /**
+     * Gets the current user's merchant keyword rules.
+     * The rules file is created with default rules if missing and reloaded whenever it changes on disk.
+     * @return The compiled merchant rules
+     */
+    public static synchronized MerchantRules getMerchantRules() {
+        File rulesFile = new File(getUserDirectory(), MerchantRules.RULES_FILENAME);
+        if (merchantRules == null || rulesFile.lastModified() != merchantRulesModified) {
+            merchantRules = MerchantRules.load(getUserDirectory());
+            merchantRulesModified = rulesFile.lastModified();
+        }
+        return merchantRules;
+    }
+
+    /**
+     * Gets the merchant keyword rules stored in a user's data directory.
+     * The current user's rules come from the cache of {@link #getMerchantRules()}; other directories are read from disk.
+     * @param directory The user's data directory
+     * @return The compiled merchant rules
+     */
+    public static synchronized MerchantRules getMerchantRules(File directory) {
+        if (billFile != null && directory.equals(getUserDirectory())) {
+            return getMerchantRules();
+        }
+        return MerchantRules.load(directory);
+    }
+
+    /**
+     * Re-applies the current user's merchant rules to the ledger, e.g. after the rules file was edited.
+     * Confirmed transactions keep their category, and the ledger is only rewritten if a category changed.
+     * @return The number of transactions whose category changed, or -1 if the ledger could not be saved
+     */
+    public static synchronized int recategorizeTransactions() {
+        List<Object[]> transactions = loadTransactions();
+        int changed = getMerchantRules().recategorize(transactions);
+        if (changed > 0 && !saveTransactions(transactions)) {
+            return -1;
+        }
+        LOGGER.log(Level.INFO, "Re-categorized {0} transactions with the merchant rules", changed);
+        return changed;
+    }
+
+    /**
+     * Gets a fingerprint of the current user's ledger aggregates, for keying cached AI answers.
+     * It is recomputed only when the ledger file changes on disk.
+     * @return The fingerprint, or an empty string if no user is set
+     * @see AIResponseCache#fingerprint(List)
+     */
+    public static synchronized String getLedgerFingerprint() {
+        if (billFile == null) {
+            return "";
+        }
+        long length = billFile.length();
+        long modified = billFile.lastModified();
+        if (ledgerFingerprint == null || length != ledgerFingerprintLength || modified != ledgerFingerprintModified) {
+            ledgerFingerprint = AIResponseCache.fingerprint(loadTransactions());
+            ledgerFingerprintLength = length;
+            ledgerFingerprintModified = modified;
+        }
+        return ledgerFingerprint;
+    }
+
+    /**
+     * Gets the write version of a user's ledger. It goes up every time transactions are saved
+     * to or appended to the ledger, unlike the file's length and modification time, which a
+     * quick rewrite of the same size can leave unchanged.
+     * @param username The username
+     * @return The number of writes to the user's ledger so far
+     */
+    public static synchronized long getLedgerVersion(String username) {
+        return LEDGER_VERSIONS.getOrDefault(username, 0L);
+    }
+
+    private static void ledgerWritten() {
+        LEDGER_VERSIONS.merge(username, 1L, Long::sum);
+    }
+
+    /**
+     * Gets the AI response cache of the current user.
+     * @return The response cache
+     */
+    public static AIResponseCache getResponseCache() {
+        return AIResponseCache.forDirectory(getUserDirectory());
+    }
+
+    /**
+     * Teaches the category classifier, if it has been created, transactions appended to the ledger.
+     */
+    private static synchronized void learnConfirmed(List<Object[]> transactions) {
+        if (categoryClassifier != null) {
+            categoryClassifier.learnConfirmed(transactions);
+        }
+    }
+
+    /**
+     * Brings the category classifier, if it has been created, in line with a rewritten ledger,
+     * unlearning rows that were deleted, un-confirmed or re-categorized.
+     */
+    private static synchronized void syncConfirmed(List<Object[]> transactions) {
+        if (categoryClassifier != null) {
+            categoryClassifier.syncConfirmed(transactions);
+        }
+    }
+
     /**
      * Loads transactions from the CSV file.
      * @return List of transaction records
@@ -184,35 +355,85 @@ public class UserBillStorage {
      * @param transactions List of transactions to save
      * @return true if successful, false otherwise
      */
-    public static boolean saveTransactions(List<Object[]> transactions) {
+    public static synchronized boolean saveTransactions(List<Object[]> transactions) {
         try (PrintWriter writer = new PrintWriter(new FileWriter(billFile))) {
             // Write CSV header
             writer.println(CSV_HEADER);
 
-            // If no transactions, return immediately
-            if (transactions.isEmpty()) {
-                LOGGER.log(Level.INFO, "No transactions to save");
-                return true;
-            }
-
             // Write each transaction with its original category
             for (Object[] transaction : transactions) {
-                String dateStr = (String) transaction[0];
-                String description = escapeCSV((String) transaction[1]);
-                String category = escapeCSV((String) transaction[2]);
-                double amount = (Double) transaction[3];
-                boolean confirmed = transaction.length > 4 ? (Boolean) transaction[4] : false;
-
-                writer.println(String.format(CSV_FORMAT, dateStr, description, category, amount, confirmed));
+                writer.println(formatTransaction(transaction));
             }
 
-            LOGGER.log(Level.INFO, "Successfully saved {0} transactions to: {1}",
-                    new Object[]{transactions.size(), billFile.getAbsolutePath()});
-            return true;
+            if (transactions.isEmpty()) {
+                LOGGER.log(Level.INFO, "No transactions to save");
+            } else {
+                LOGGER.log(Level.INFO, "Successfully saved {0} transactions to: {1}",
+                        new Object[]{transactions.size(), billFile.getAbsolutePath()});
+            }
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Error saving transactions to file: " + e.getMessage(), e);
+            ledgerWritten(); // the file may have been truncated
             return false;
         }
+        ledgerWritten();
+
+        // The ledger was rewritten, so the index is rebuilt from the saved transactions
+        if (fingerprintIndex == null) {
+            File indexFile = new File(billFile.getParentFile(), FINGERPRINT_FILENAME);
+            fingerprintIndex = FingerprintIndex.rebuild(indexFile, transactions, billFile);
+        } else {
+            fingerprintIndex.replaceAll(transactions, billFile);
+        }
+        syncConfirmed(transactions);
+        return true;
+    }
+
+    /**
+     * Saves an edited copy of the ledger, keeping rows that were written to the ledger since the copy
+     * was loaded, such as transactions imported from the inbox in the meantime.
+     * Rows are matched by their fingerprint, so rows the user deleted or changed are not brought back.
+     * @param loaded The transactions the edits started from
+     * @param edited The edited transactions to save
+     * @return true if successful, false otherwise
+     */
+    public static synchronized boolean saveEditedTransactions(List<Object[]> loaded, List<Object[]> edited) {
+        Map<Long, Integer> known = new HashMap<>();
+        for (Object[] transaction : loaded) {
+            known.merge(FingerprintIndex.fingerprint(transaction), 1, Integer::sum);
+        }
+        List<Object[]> merged = new ArrayList<>(edited);
+        for (Object[] transaction : loadTransactions()) {
+            long fingerprint = FingerprintIndex.fingerprint(transaction);
+            Integer count = known.get(fingerprint);
+            if (count == null) {
+                merged.add(transaction);
+            } else if (count == 1) {
+                known.remove(fingerprint);
+            } else {
+                known.put(fingerprint, count - 1);
+            }
+        }
+        int added = merged.size() - edited.size();
+        if (added > 0) {
+            LOGGER.log(Level.INFO, "Kept {0} transactions written to the ledger during editing", added);
+        }
+        return saveTransactions(merged);
+    }
+
+    /**
+     * Formats a transaction as a CSV line.
+     * @param transaction Transaction record [date, description, category, amount, confirmed]
+     * @return The CSV line
+     */
+    private static String formatTransaction(Object[] transaction) {
+        String dateStr = (String) transaction[0];
+        String description = escapeCSV((String) transaction[1]);
+        String category = escapeCSV((String) transaction[2]);
+        double amount = (Double) transaction[3];
+        boolean confirmed = transaction.length > 4 ? (Boolean) transaction[4] : false;
+
+        return String.format(CSV_FORMAT, dateStr, description, category, amount, confirmed);
     }
 
     /**
@@ -233,18 +454,63 @@ public class UserBillStorage {
     }
 
     /**
-     * Adds new transactions to the existing records.
+     * Adds new transactions to the existing records, skipping any that are already in the ledger.
+     * Rows repeated within the list are all added, like rows repeated within one imported file.
+     * Duplicates are found through the fingerprint index, so the existing ledger is neither loaded nor rewritten.
      * @param newTransactions List of new transactions to add
      * @return true if successful, false otherwise
      */
-    public static boolean addTransactions(List<Object[]> newTransactions) {
-        // Load existing transactions
-        List<Object[]> existingTransactions = loadTransactions();
+    public static synchronized boolean addTransactions(List<Object[]> newTransactions) {
+        FingerprintIndex index = getFingerprintIndex();
+        List<Object[]> uniqueTransactions = new ArrayList<>();
 
-        // Add new transactions
-        existingTransactions.addAll(newTransactions);
+        for (Object[] transaction : newTransactions) {
+            if (!index.contains(FingerprintIndex.fingerprint(transaction))) {
+                uniqueTransactions.add(transaction);
+            }
+        }
+
+        int skipped = newTransactions.size() - uniqueTransactions.size();
+        if (skipped > 0) {
+            LOGGER.log(Level.INFO, "Skipped {0} transactions already in the ledger", skipped);
+        }
+        if (uniqueTransactions.isEmpty()) {
+            return true;
+        }
+
+        // Append only the new transactions
+        return appendTransactions(uniqueTransactions);
+    }
+
+    /**
+     * Appends transactions to the end of the CSV file without rewriting existing records.
+     * Writes the CSV header first if the file is missing or empty.
+     * Does not check for duplicates; see {@link #addTransactions(List)}.
+     * @param newTransactions List of transactions to append
+     * @return true if successful, false otherwise
+     */
+    public static synchronized boolean appendTransactions(List<Object[]> newTransactions) {
+        FingerprintIndex index = getFingerprintIndex();
+        boolean needsHeader = !billFile.exists() || billFile.length() == 0;
+        try (PrintWriter writer = new PrintWriter(new FileWriter(billFile, true))) {
+            if (needsHeader) {
+                writer.println(CSV_HEADER);
+            }
+            for (Object[] transaction : newTransactions) {
+                writer.println(formatTransaction(transaction));
+            }
+
+            LOGGER.log(Level.INFO, "Appended {0} transactions to: {1}",
+                    new Object[]{newTransactions.size(), billFile.getAbsolutePath()});
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error appending transactions to file: " + e.getMessage(), e);
+            ledgerWritten(); // some rows may have been written
+            return false;
+        }
+        ledgerWritten();
 
-        // Save updated transactions
-        return saveTransactions(existingTransactions);
+        index.append(newTransactions, billFile);
+        learnConfirmed(newTransactions);
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -2,11 +2,21 @@ package com.example.app.viewmodel;
 
 import com.example.app.model.FinancialAdvice;
 import com.example.app.ui.dashboard.OverviewPanel;
+import com.example.app.ui.pages.AI.AIClient;
+import com.example.app.ui.pages.AI.AITaskScheduler;
 import com.example.app.ui.pages.AI.getRes;
+import com.example.app.user_data.AIResponseCache;
+import com.example.app.user_data.ChatHistory;
+import com.example.app.user_data.UserBillStorage;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * ViewModel for the AI Panel following the MVVM pattern.
@@ -15,6 +25,12 @@ import java.util.List;
  * Features:
  * <ul>
  *   <li>Manages chat history and AI responses</li>
+ *   <li>Persists the chat per user in an append-only {@link ChatHistory}, keeps only a window of
+ *       recent messages in memory and reads older ones from disk a page at a time</li>
+ *   <li>Streams AI replies to listeners as they are generated and lets the user stop them</li>
+ *   <li>Runs replies as interactive work and advice regeneration as background work on the
+ *       {@link AITaskScheduler}, so neither blocks the UI thread</li>
+ *   <li>Answers repeated questions about unchanged data from the user's response cache</li>
  *   <li>Provides access to financial advice</li>
  *   <li>Notifies listeners about chat and advice updates</li>
  *   <li>Handles cleanup of listeners when no longer needed</li>
@@ -22,23 +38,39 @@ import java.util.List;
  
  */
 public class AIViewModel {
+    /** System property that overrides the number of recent messages kept in memory */
+    public static final String CHAT_WINDOW_PROPERTY = "chat.history.window";
+
+    /** Default number of recent messages kept in memory */
+    public static final int DEFAULT_CHAT_WINDOW = 100;
+
     // Model references
     private final getRes aiService;
+    private final AIResponseCache responseCache;
     private final String apiKey;
     private final String username;
 
-    // Chat message history
-    private final List<ChatMessage> messages;
+    // Chat message history: the full log on disk and a window of recent messages in memory
+    private final ChatHistory history;
+    private final ArrayDeque<ChatMessage> recent;
+    private int window = Integer.getInteger(CHAT_WINDOW_PROPERTY, DEFAULT_CHAT_WINDOW);
+
+    // Unmodifiable snapshot of the recent messages, replaced on each new message
+    private volatile List<ChatMessage> recentView = List.of();
 
     // Listeners for UI updates
     private final List<AIDataChangeListener> listeners;
 
+    // Task streaming the current reply, or null when idle
+    private volatile CompletableFuture<Void> responseTask;
+
     /**
      * Represents a chat message with content and sender information.
      */
     public static class ChatMessage {
         private final String content;
         private final boolean isFromUser;
+        private final long position;
 
         /**
          * Constructs a ChatMessage.
@@ -46,8 +78,13 @@ public class AIViewModel {
          * @param isFromUser true if sent by user, false if sent by AI
          */
         public ChatMessage(String content, boolean isFromUser) {
+            this(content, isFromUser, -1);
+        }
+
+        private ChatMessage(String content, boolean isFromUser, long position) {
             this.content = content;
             this.isFromUser = isFromUser;
+            this.position = position;
         }
 
         /**
@@ -95,6 +132,30 @@ public class AIViewModel {
          * Called when financial advice has been updated.
          */
         void onAdviceUpdated();
+
+        /**
+         * Called when the AI starts streaming a reply, before its first fragment.
+         */
+        default void onResponseStarted() {
+        }
+
+        /**
+         * Called with each fragment of the reply being streamed, in order.
+         * @param token the next fragment of the reply
+         */
+        default void onResponseToken(String token) {
+        }
+
+        /**
+         * Called when a streamed reply ends, whether complete, stopped or failed.
+         * The default implementation reports the reply as a new message.
+         * @param message the reply added to the history, or null if nothing was received
+         */
+        default void onResponseCompleted(ChatMessage message) {
+            if (message != null) {
+                onMessageAdded(message);
+            }
+        }
     }
 
     /**
@@ -103,17 +164,59 @@ public class AIViewModel {
      * @param username the username for which to manage AI interactions
      */
     public AIViewModel(String username) {
+        this(username, new getRes());
+    }
+
+    /**
+     * Constructs an AIViewModel for the specified user that talks to the AI through the given service.
+     * @param username the username for which to manage AI interactions
+     * @param aiService the AI service
+     */
+    public AIViewModel(String username, getRes aiService) {
+        this(username, aiService, AIResponseCache.forUser(username));
+    }
+
+    /**
+     * Constructs an AIViewModel for the specified user with the given AI service and response cache.
+     * @param username the username for which to manage AI interactions
+     * @param aiService the AI service
+     * @param responseCache the cache checked before asking the AI
+     */
+    public AIViewModel(String username, getRes aiService, AIResponseCache responseCache) {
         this.username = username;
-        this.aiService = new getRes();
+        this.aiService = aiService;
+        this.responseCache = responseCache;
         this.apiKey = "sk-fdf26a37926f46ab8d4884c2cd533db8";
-        this.messages = new ArrayList<>();
-        this.listeners = new ArrayList<>();
+        this.history = ChatHistory.forUser(username);
+        this.recent = new ArrayDeque<>();
+        this.listeners = new CopyOnWriteArrayList<>();
 
         // Initialize the shared advice with username
         OverviewPanel.sharedAdvice.initialize(username);
 
-        // Add initial welcome message
-        addAIMessage("Hello! I can help analyze your finances and provide personalized advice. Ask me anything about your financial data.");
+        // Restore the end of the last conversation, or start a new one with a welcome message
+        for (ChatHistory.Line line : history.readRecent(window)) {
+            recent.addLast(new ChatMessage(line.getContent(), line.isFromUser(), line.getPosition()));
+        }
+        recentView = List.copyOf(recent);
+        if (recent.isEmpty()) {
+            addAIMessage("Hello! I can help analyze your finances and provide personalized advice. Ask me anything about your financial data.");
+        }
+    }
+
+    /**
+     * Sets how many recent messages are kept in memory. Older messages stay available through
+     * {@link #getMessagesBefore(ChatMessage, int)}.
+     * @param window the number of messages kept
+     * @return this ViewModel
+     */
+    public synchronized AIViewModel withHistoryWindow(int window) {
+        this.window = Math.max(1, window);
+        while (recent.size() > this.window) {
+            recent.removeFirst();
+        }
+        recentView = List.copyOf(recent);
+        return this;
     }
 
     /**
@@ -135,7 +238,8 @@ public class AIViewModel {
     }
 
     /**
-     * Sends a user message to the AI and gets a response.
+     * Sends a user message to the AI and streams the response to listeners.
+     * A reply still streaming for an earlier message is stopped first.
      * @param userInput the user's input message
      */
     public void sendMessage(String userInput) {
@@ -143,41 +247,141 @@ public class AIViewModel {
             return;
         }
 
+        cancelResponse();
+
         // Add user message to history
         addUserMessage(userInput);
 
-        // Create a new thread to avoid blocking the UI
-        new Thread(() -> {
-            try {
-                // Call the AI service
-                String response = aiService.getResponse(apiKey, userInput);
-                String parsedResponse = aiService.parseAIResponse(response);
-
-                // Add AI response to history
-                addAIMessage(parsedResponse);
-            } catch (IOException e) {
-                // Notify listeners of error
-                notifyError("Error communicating with AI: " + e.getMessage());
+        // Answer or stream on the scheduler to avoid blocking the UI. The handle is published before the
+        // task is queued, so the task can recognize itself as the current reply when it finishes.
+        CompletableFuture<Void> handle = new CompletableFuture<>();
+        responseTask = handle;
+        CompletableFuture<Void> task = AITaskScheduler.getInstance().submit(AITaskScheduler.Priority.INTERACTIVE,
+                cancellation -> {
+                    // The ledger fingerprint may have to read the whole ledger, so the key is made here
+                    String key = AIResponseCache.key(AIClient.MODEL, userInput, UserBillStorage.getLedgerFingerprint());
+                    String cached = responseCache.get(key);
+                    if (cached != null) {
+                        // Answer a repeated question about unchanged data locally
+                        notifyResponseStarted();
+                        notifyResponseToken(cached);
+                        finishResponse(cached, handle);
+                    } else {
+                        streamResponse(userInput, key, cancellation, handle);
+                    }
+                    return null;
+                });
+        handle.whenComplete((result, error) -> {
+            if (handle.isCancelled()) {
+                task.cancel(true);
             }
-        }).start();
+        });
+        task.whenComplete((result, error) -> {
+            if (task.isCancelled()) {
+                clearResponse(handle); // stopped before it started streaming
+            }
+        });
     }
 
     /**
-     * Regenerates financial advice using the AI.
+     * Stops the reply currently being streamed. The part received so far is kept in the history.
      */
-    public void regenerateAdvice() {
-        // Access shared advice instance and regenerate
-        OverviewPanel.sharedAdvice.regenerate();
+    public void cancelResponse() {
+        // Also aborts a request still waiting for its response headers, or still queued
+        CompletableFuture<Void> task = responseTask;
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Checks whether a reply is currently being streamed.
+     * @return true while a reply is in progress
+     */
+    public boolean isResponding() {
+        return responseTask != null;
+    }
 
-        // Add system message to chat
-        addAIMessage("Financial advice has been updated with new AI insights.");
+    /**
+     * Streams one reply on the calling worker thread.
+     */
+    private void streamResponse(String userInput, String cacheKey, AIClient.Cancellation cancellation,
+                                CompletableFuture<Void> handle) {
+        StringBuilder partial = new StringBuilder();
+        notifyResponseStarted();
+        try {
+            String response = aiService.streamResponse(apiKey, userInput, token -> {
+                partial.append(token);
+                notifyResponseToken(token);
+            }, cancellation);
+            if (response.isEmpty()) {
+                finishResponse("Error: Unable to parse AI response.", handle);
+            } else {
+                responseCache.put(cacheKey, response);
+                finishResponse(response, handle);
+            }
+        } catch (InterruptedIOException e) {
+            finishResponse(partial.length() > 0 ? partial + " [stopped]" : null, handle);
+        } catch (IOException e) {
+            finishResponse(partial.length() > 0 ? partial.toString() : null, handle);
+            // Notify listeners of error
+            notifyError("Error communicating with AI: " + e.getMessage());
+        }
+    }
 
-        // Notify listeners specifically about advice update
+    /**
+     * Adds the streamed reply to the history and tells listeners the stream has ended.
+     * @param handle the reply's handle, or null for a reply that was not streamed
+     */
+    private void finishResponse(String content, CompletableFuture<Void> handle) {
+        ChatMessage message = null;
+        if (content != null) {
+            message = record(content, false);
+        }
+        if (handle != null) {
+            clearResponse(handle);
+        }
         for (AIDataChangeListener listener : new ArrayList<>(listeners)) {
-            listener.onAdviceUpdated();
+            listener.onResponseCompleted(message);
         }
     }
 
+    /**
+     * Marks the reply as finished, unless a newer reply has replaced it.
+     */
+    private void clearResponse(CompletableFuture<Void> handle) {
+        if (responseTask == handle) {
+            responseTask = null;
+        }
+        handle.complete(null);
+    }
+
+    /**
+     * Regenerates financial advice using the AI in the background.
+     * Listeners are told once the new advice is in place.
+     */
+    public void regenerateAdvice() {
+        addAIMessage("Regenerating financial advice...");
+
+        // Access shared advice instance and regenerate
+        OverviewPanel.sharedAdvice.regenerateAsync().whenComplete((advice, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                notifyError("Error regenerating advice: " + cause.getMessage());
+                return;
+            }
+
+            // Add system message to chat
+            addAIMessage("Financial advice has been updated with new AI insights.");
+
+            // Notify listeners specifically about advice update
+            for (AIDataChangeListener listener : new ArrayList<>(listeners)) {
+                listener.onAdviceUpdated();
+            }
+        });
+    }
+
     /**
      * Gets access to the financial advice model.
      * @return the FinancialAdvice instance
@@ -187,25 +391,51 @@ public class AIViewModel {
     }
 
     /**
-     * Gets all chat messages.
-     * @return a list of chat messages
+     * Gets the recent chat messages, oldest first.
+     * @return an unmodifiable snapshot of at most the history window of messages
      */
     public List<ChatMessage> getMessages() {
-        return new ArrayList<>(messages); // Return a copy to prevent external modification
+        return recentView;
+    }
+
+    /**
+     * Reads the messages sent before the given one from the stored history.
+     * @param message a message from this chat
+     * @param count the maximum number of messages
+     * @return the earlier messages, oldest first; empty at the start of the chat
+     */
+    public List<ChatMessage> getMessagesBefore(ChatMessage message, int count) {
+        List<ChatMessage> earlier = new ArrayList<>();
+        if (message.position < 0) {
+            return earlier; // not stored
+        }
+        for (ChatHistory.Line line : history.readBefore(message.position, count)) {
+            earlier.add(new ChatMessage(line.getContent(), line.isFromUser(), line.getPosition()));
+        }
+        return earlier;
     }
 
     // Private helper methods
 
+    /**
+     * Stores a message and adds it to the recent window, dropping the oldest beyond the window.
+     */
+    private synchronized ChatMessage record(String content, boolean isFromUser) {
+        ChatMessage message = new ChatMessage(content, isFromUser, history.append(isFromUser, content));
+        recent.addLast(message);
+        if (recent.size() > window) {
+            recent.removeFirst();
+        }
+        recentView = List.copyOf(recent);
+        return message;
+    }
+
     private void addUserMessage(String content) {
-        ChatMessage message = new ChatMessage(content, true);
-        messages.add(message);
-        notifyMessageAdded(message);
+        notifyMessageAdded(record(content, true));
     }
 
     private void addAIMessage(String content) {
-        ChatMessage message = new ChatMessage(content, false);
-        messages.add(message);
-        notifyMessageAdded(message);
+        notifyMessageAdded(record(content, false));
     }
 
     private void notifyMessageAdded(ChatMessage message) {
@@ -214,6 +444,18 @@ public class AIViewModel {
         }
     }
 
+    private void notifyResponseStarted() {
+        for (AIDataChangeListener listener : new ArrayList<>(listeners)) {
+            listener.onResponseStarted();
+        }
+    }
+
+    private void notifyResponseToken(String token) {
+        for (AIDataChangeListener listener : new ArrayList<>(listeners)) {
+            listener.onResponseToken(token);
+        }
+    }
+
     private void notifyError(String errorMessage) {
         for (AIDataChangeListener listener : new ArrayList<>(listeners)) {
             listener.onErrorOccurred(errorMessage);
@@ -224,6 +466,7 @@ public class AIViewModel {
      * Cleans up resources and listeners.
      */
     public void cleanup() {
+        cancelResponse();
         listeners.clear();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
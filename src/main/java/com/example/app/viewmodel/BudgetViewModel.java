@@ -2,6 +2,7 @@ package com.example.app.viewmodel;
 
 import com.example.app.model.DataRefreshListener;
 import com.example.app.model.DataRefreshManager;
+import com.example.app.ui.pages.AI.AITaskScheduler;
 import com.example.app.ui.pages.AI.getRes;
 import com.example.app.user_data.UserBillStorage;
 import com.example.app.user_data.UserBudgetStorage;
@@ -10,6 +11,7 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ViewModel for the Budget functionality, following the MVVM pattern.
@@ -21,7 +23,7 @@ import java.util.*;
  *   <li>Provides category budget and expense data for the view</li>
  *   <li>Listens for data refresh events and notifies listeners</li>
  *   <li>Supports registration and removal of budget change listeners</li>
- *   <li>Handles AI-based budget suggestions</li>
+ *   <li>Handles AI-based budget suggestions, optionally in the background</li>
  *   <li>Handles cleanup of listeners when no longer needed</li>
  * </ul>
  
@@ -266,11 +268,33 @@ public class BudgetViewModel implements DataRefreshListener {
      * @return a map of suggested budgets by category
      */
     public Map<String, Double> generateSuggestedBudgets() {
+        return suggestBudgets(new LinkedHashMap<>(categoryBudgets));
+    }
+
+    /**
+     * Generates AI-based suggested budgets in the background as {@link AITaskScheduler.Priority#ADVICE advice}
+     * work, so the calling thread never waits on the network. The current budgets are copied on the calling thread.
+     *
+     * @return the suggested budgets by category once the AI has answered
+     */
+    public CompletableFuture<Map<String, Double>> generateSuggestedBudgetsAsync() {
+        Map<String, Double> budgets = new LinkedHashMap<>(categoryBudgets);
+        return AITaskScheduler.getInstance().submit(AITaskScheduler.Priority.ADVICE,
+            cancellation -> suggestBudgets(budgets));
+    }
+
+    /**
+     * Asks the AI service to redistribute the given budgets.
+     *
+     * @param budgets the budgets to redistribute, by category
+     * @return a map of suggested budgets by category, or the given budgets if the AI could not be used
+     */
+    private Map<String, Double> suggestBudgets(Map<String, Double> budgets) {
         Map<String, Double> suggestedBudgets = new LinkedHashMap<>();
-        double totalBudget = categoryBudgets.values().stream().mapToDouble(Double::doubleValue).sum();
+        double totalBudget = budgets.values().stream().mapToDouble(Double::doubleValue).sum();
 
         StringBuilder sb = new StringBuilder();
-        for (Map.Entry<String, Double> e : categoryBudgets.entrySet()) {
+        for (Map.Entry<String, Double> e : budgets.entrySet()) {
             sb.append(e.getKey())
               .append(": ")
               .append(e.getValue())
@@ -293,29 +317,30 @@ public class BudgetViewModel implements DataRefreshListener {
 
         try {
             String API_KEY = "sk-fdf26a37926f46ab8d4884c2cd533db8";
-            String response = new getRes().getResponse(API_KEY, aiPrompt);
-            String res = new getRes().parseAIResponse(response);
+            getRes aiService = new getRes();
+            String response = aiService.getResponse(API_KEY, aiPrompt);
+            String res = aiService.parseAIResponse(response);
 
             // Clean up and parse response
             res = cleanupJsonResponse(res);
 
             try {
                 JSONObject json = new JSONObject(res);
-                for (String category : categoryBudgets.keySet()) {
+                for (String category : budgets.keySet()) {
                     double val = json.has(category)
                             ? json.getDouble(category)
-                            : categoryBudgets.get(category);
+                            : budgets.get(category);
                     suggestedBudgets.put(category, val);
                 }
             } catch (Exception e) {
                 System.err.println("Failed to parse AI JSON: " + e.getMessage());
                 // If parsing fails, return current budgets
-                return new LinkedHashMap<>(categoryBudgets);
+                return new LinkedHashMap<>(budgets);
             }
         } catch (IOException e) {
             System.err.println("Failed to get AI response: " + e.getMessage());
             // If API call fails, return current budgets
-            return new LinkedHashMap<>(categoryBudgets);
+            return new LinkedHashMap<>(budgets);
         }
 
         return suggestedBudgets;
@@ -157,6 +157,48 @@ public class TransactionsViewModel implements DataRefreshListener {
         return success;
     }
 
+    /**
+     * Saves transactions edited in the view, keeping rows written to the ledger since the view
+     * loaded them, such as transactions imported from the inbox in the meantime.
+     *
+     * @param loaded the transactions the edits started from
+     * @param edited the edited transactions to save
+     * @return true if saved successfully, false otherwise
+     */
+    public boolean saveEditedTransactions(List<Object[]> loaded, List<Object[]> edited) {
+        UserBillStorage.setUsername(username);
+        boolean success = UserBillStorage.saveEditedTransactions(loaded, edited);
+
+        if (success) {
+            // Notify system-wide refresh; this view model reloads the merged ledger as well
+            DataRefreshManager.getInstance().refreshTransactions();
+
+            LOGGER.log(Level.INFO, "Saved {0} edited transactions", edited.size());
+        } else {
+            LOGGER.log(Level.SEVERE, "Failed to save transactions");
+        }
+
+        return success;
+    }
+
+    /**
+     * Re-applies the merchant rules to the saved transactions, e.g. after the rules file was edited.
+     * Confirmed transactions keep their category.
+     *
+     * @return the number of transactions whose category changed, or -1 if they could not be saved
+     */
+    public int recategorizeTransactions() {
+        UserBillStorage.setUsername(username);
+        int changed = UserBillStorage.recategorizeTransactions();
+
+        if (changed > 0) {
+            // Notify system-wide refresh; this view model reloads the ledger as well
+            DataRefreshManager.getInstance().refreshTransactions();
+        }
+
+        return changed;
+    }
+
     /**
      * Adds new transactions to existing ones and saves.
      *
@@ -1,13 +1,12 @@
 package com.example.app.viewmodel.dashboard;
 
-import com.example.app.model.CSVDataImporter;
 import com.example.app.model.DataRefreshListener;
 import com.example.app.model.DataRefreshManager;
 import com.example.app.model.FinanceData;
+import com.example.app.model.UserSession;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -16,7 +15,7 @@ import java.util.logging.Logger;
  * <p>
  * Features:
  * <ul>
- *   <li>Loads and manages report data for the dashboard</li>
+ *   <li>Reads report data from the user's shared {@link UserSession}</li>
  *   <li>Notifies listeners when report data changes</li>
  *   <li>Handles data refresh events and reloads data as needed</li>
  *   <li>Provides access to the FinanceData model for charts</li>
@@ -25,8 +24,8 @@ import java.util.logging.Logger;
  */
 public class DashboardReportsViewModel implements DataRefreshListener {
     private static final Logger LOGGER = Logger.getLogger(DashboardReportsViewModel.class.getName());
+    private final UserSession session;
     private final FinanceData financeData;
-    private final String username;
     private final List<ReportDataChangeListener> listeners = new ArrayList<>();
 
     /**
@@ -41,23 +40,25 @@ public class DashboardReportsViewModel implements DataRefreshListener {
 
     /**
      * Constructs a DashboardReportsViewModel for the specified user.
-     * Initializes the FinanceData model and loads initial data.
+     * Uses the user's shared session data and registers for data refresh events.
      *
      * @param username the username for which to manage reports
      */
     public DashboardReportsViewModel(String username) {
-        this.username = username;
-        this.financeData = new FinanceData();
+        this(UserSession.forUser(username));
+    }
 
-        // Set data directory for loading budgets and transactions
-        String dataDirectory = ".\\user_data\\" + username;
-        financeData.setDataDirectory(dataDirectory);
+    /**
+     * Constructs a DashboardReportsViewModel that reads the data of the given session.
+     *
+     * @param session the user's session
+     */
+    public DashboardReportsViewModel(UserSession session) {
+        this.session = session;
+        this.financeData = session.getFinanceData();
 
         // Register for data refresh events
         DataRefreshManager.getInstance().addListener(this);
-
-        // Load initial data
-        loadTransactionData();
     }
 
     /**
@@ -89,21 +90,6 @@ public class DashboardReportsViewModel implements DataRefreshListener {
         }
     }
 
-    /**
-     * Loads transaction data from the user's CSV file and imports it into the FinanceData model.
-     */
-    private void loadTransactionData() {
-        String csvFilePath = ".\\user_data\\" + username + "\\user_bill.csv";
-        List<Object[]> transactions = CSVDataImporter.importTransactionsFromCSV(csvFilePath);
-
-        if (!transactions.isEmpty()) {
-            financeData.importTransactions(transactions);
-            LOGGER.log(Level.INFO, "Successfully loaded {0} transactions", transactions.size());
-        } else {
-            LOGGER.log(Level.WARNING, "No transactions loaded from {0}", csvFilePath);
-        }
-    }
-
     /**
      * Gets the FinanceData model for use in charts and reports.
      *
@@ -125,10 +111,10 @@ public class DashboardReportsViewModel implements DataRefreshListener {
             type == DataRefreshManager.RefreshType.BUDGETS ||
             type == DataRefreshManager.RefreshType.ALL) {
 
-            // Reload transaction data if needed
+            // Reload transaction data if needed; a no-op if another view model already has
             if (type == DataRefreshManager.RefreshType.TRANSACTIONS ||
                 type == DataRefreshManager.RefreshType.ALL) {
-                loadTransactionData();
+                session.reloadTransactions();
             }
 
             // Notify listeners about data change
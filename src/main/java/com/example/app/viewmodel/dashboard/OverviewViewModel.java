@@ -1,10 +1,11 @@
 package com.example.app.viewmodel.dashboard;
 
-import com.example.app.model.CSVDataImporter;
+import com.example.app.model.AdviceRefreshScheduler;
 import com.example.app.model.DataRefreshListener;
 import com.example.app.model.DataRefreshManager;
 import com.example.app.model.FinanceData;
 import com.example.app.model.FinancialAdvice;
+import com.example.app.model.UserSession;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,8 +19,9 @@ import java.util.logging.Logger;
  * <p>
  * Features:
  * <ul>
- *   <li>Loads and manages transactions and budgets from user storage</li>
+ *   <li>Reads transactions and budgets from the user's {@link UserSession}</li>
  *   <li>Provides access to financial data and advice for the view</li>
+ *   <li>Keeps the advice current in the background once the data drifts, so the view never waits on the AI</li>
  *   <li>Listens for data refresh events and notifies listeners</li>
  *   <li>Supports registration and removal of overview change listeners</li>
  *   <li>Detects and notifies about budget warnings</li>
@@ -29,10 +31,12 @@ import java.util.logging.Logger;
  */
 public class OverviewViewModel implements DataRefreshListener {
     private static final Logger LOGGER = Logger.getLogger(OverviewViewModel.class.getName());
+    private final UserSession session;
     private final FinanceData financeData;
     private final FinancialAdvice financialAdvice;
     private final String username;
     private final List<OverviewChangeListener> listeners = new ArrayList<>();
+    private final AdviceRefreshScheduler adviceRefresh;
 
     /** Budget warning threshold (percent) */
     private static final double BUDGET_WARNING_THRESHOLD = 90.0;
@@ -55,33 +59,41 @@ public class OverviewViewModel implements DataRefreshListener {
 
     /**
      * Constructs an OverviewViewModel for the specified user and data models.
-     * Initializes data directories, registers for data refresh events, and loads initial data.
+     * Loads the user's transactions and budgets into the given finance data, outside any shared session.
      *
      * @param username the username for which to manage overview data
      * @param financeData the finance data model
      * @param financialAdvice the financial advice model
      */
     public OverviewViewModel(String username, FinanceData financeData, FinancialAdvice financialAdvice) {
-        this.username = username;
-        this.financeData = financeData;
-        this.financialAdvice = financialAdvice;
+        this(new UserSession(username, financeData), financialAdvice);
+    }
 
-        // Set data directory and initialize
-        String dataDirectory = ".\\user_data\\" + username;
-        financeData.setDataDirectory(dataDirectory);
+    /**
+     * Constructs an OverviewViewModel that reads the data of the given session.
+     * Registers for data refresh events and checks the loaded data for budget warnings.
+     *
+     * @param session the user's session
+     * @param financialAdvice the financial advice model
+     */
+    public OverviewViewModel(UserSession session, FinancialAdvice financialAdvice) {
+        this.session = session;
+        this.username = session.getUsername();
+        this.financeData = session.getFinanceData();
+        this.financialAdvice = financialAdvice;
 
-        // Initialize the financial advice with username
+        // Initialize the financial advice with username and ground it in the loaded data
         financialAdvice.initialize(username);
+        financialAdvice.setFinanceData(financeData);
 
         // Register for data refresh events
         DataRefreshManager.getInstance().addListener(this);
 
-        // Load initial data
-        loadTransactionData();
-        financeData.loadBudgets();
-
         // Check for budget warnings
         checkBudgetWarnings();
+
+        // Regenerate the advice in idle time when the data drifts from what it was based on
+        adviceRefresh = new AdviceRefreshScheduler(financialAdvice, financeData).start();
     }
 
     /**
@@ -124,21 +136,6 @@ public class OverviewViewModel implements DataRefreshListener {
         }
     }
 
-    /**
-     * Loads transaction data from the user's CSV file and imports it into the FinanceData model.
-     */
-    private void loadTransactionData() {
-        String csvFilePath = ".\\user_data\\" + username + "\\user_bill.csv";
-        List<Object[]> transactions = CSVDataImporter.importTransactionsFromCSV(csvFilePath);
-
-        if (transactions != null && !transactions.isEmpty()) {
-            financeData.importTransactions(transactions);
-            LOGGER.log(Level.INFO, "OverviewViewModel: Successfully loaded {0} transactions", transactions.size());
-        } else {
-            LOGGER.log(Level.WARNING, "OverviewViewModel: No transactions loaded from {0}", csvFilePath);
-        }
-    }
-
     /**
      * Checks for budget warnings and notifies listeners if any are found.
      */
@@ -209,7 +206,7 @@ public class OverviewViewModel implements DataRefreshListener {
 
             // Reload transaction data if needed
             if (type == DataRefreshManager.RefreshType.TRANSACTIONS) {
-                loadTransactionData();
+                session.reloadTransactions();
             }
 
             // Reload budget data if needed
@@ -232,6 +229,7 @@ public class OverviewViewModel implements DataRefreshListener {
      */
     public void cleanup() {
         DataRefreshManager.getInstance().removeListener(this);
+        adviceRefresh.stop();
         listeners.clear();
     }
 }
\ No newline at end of file
@@ -1,13 +1,12 @@
 package com.example.app.viewmodel.pages;
 
-import com.example.app.model.CSVDataImporter;
 import com.example.app.model.DataRefreshListener;
 import com.example.app.model.DataRefreshManager;
 import com.example.app.model.FinanceData;
+import com.example.app.model.UserSession;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -16,7 +15,7 @@ import java.util.logging.Logger;
  * <p>
  * Features:
  * <ul>
- *   <li>Loads and manages transactions and budgets from user storage</li>
+ *   <li>Reads transactions and budgets from the user's shared {@link UserSession}</li>
  *   <li>Provides access to financial data for summary panels</li>
  *   <li>Tracks and notifies about the active dashboard panel</li>
  *   <li>Listens for data refresh events and notifies listeners</li>
@@ -27,6 +26,7 @@ import java.util.logging.Logger;
  */
 public class DashboardViewModel implements DataRefreshListener {
     private static final Logger LOGGER = Logger.getLogger(DashboardViewModel.class.getName());
+    private final UserSession session;
     private final FinanceData financeData;
     private final String username;
     private final List<DashboardChangeListener> listeners = new ArrayList<>();
@@ -61,24 +61,26 @@ public class DashboardViewModel implements DataRefreshListener {
 
     /**
      * Constructs a DashboardViewModel for the specified user.
-     * Initializes data directories, registers for data refresh events, and loads initial data.
+     * Uses the user's shared session data and registers for data refresh events.
      *
      * @param username the username for which to manage dashboard data
      */
     public DashboardViewModel(String username) {
-        this.username = username;
-        this.financeData = new FinanceData();
+        this(UserSession.forUser(username));
+    }
 
-        // Set data directory
-        String dataDirectory = ".\\user_data\\" + username;
-        financeData.setDataDirectory(dataDirectory);
+    /**
+     * Constructs a DashboardViewModel that reads the data of the given session.
+     *
+     * @param session the user's session
+     */
+    public DashboardViewModel(UserSession session) {
+        this.session = session;
+        this.username = session.getUsername();
+        this.financeData = session.getFinanceData();
 
         // Register for data refresh events
         DataRefreshManager.getInstance().addListener(this);
-
-        // Load initial data
-        loadTransactionData();
-        financeData.loadBudgets();
     }
 
     /**
@@ -134,21 +136,6 @@ public class DashboardViewModel implements DataRefreshListener {
         return activePanel;
     }
 
-    /**
-     * Loads transaction data from the user's CSV file and imports it into the FinanceData model.
-     */
-    private void loadTransactionData() {
-        String csvFilePath = ".\\user_data\\" + username + "\\user_bill.csv";
-        List<Object[]> transactions = CSVDataImporter.importTransactionsFromCSV(csvFilePath);
-
-        if (transactions != null && !transactions.isEmpty()) {
-            financeData.importTransactions(transactions);
-            LOGGER.log(Level.INFO, "DashboardViewModel: Successfully loaded {0} transactions", transactions.size());
-        } else {
-            LOGGER.log(Level.WARNING, "DashboardViewModel: No transactions loaded from {0}", csvFilePath);
-        }
-    }
-
     /**
      * Gets the finance data for summary panels.
      *
@@ -206,10 +193,10 @@ public class DashboardViewModel implements DataRefreshListener {
             type == DataRefreshManager.RefreshType.BUDGETS ||
             type == DataRefreshManager.RefreshType.ALL) {
 
-            // Reload transaction data if needed
+            // Reload transaction data if needed; a no-op if another view model already has
             if (type == DataRefreshManager.RefreshType.TRANSACTIONS ||
                 type == DataRefreshManager.RefreshType.ALL) {
-                loadTransactionData();
+                session.reloadTransactions();
             }
 
             // Notify listeners about data change
@@ -1,13 +1,12 @@
 package com.example.app.viewmodel.pages;
 
-import com.example.app.model.CSVDataImporter;
 import com.example.app.model.DataRefreshListener;
 import com.example.app.model.DataRefreshManager;
 import com.example.app.model.FinanceData;
+import com.example.app.model.UserSession;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -16,7 +15,7 @@ import java.util.logging.Logger;
  * <p>
  * Features:
  * <ul>
- *   <li>Loads and manages report data for the reports panel</li>
+ *   <li>Reads report data from the user's shared {@link UserSession}</li>
  *   <li>Notifies listeners when report data changes</li>
  *   <li>Handles data refresh events and reloads data as needed</li>
  *   <li>Provides access to the FinanceData model for charts and reports</li>
@@ -27,8 +26,8 @@ import java.util.logging.Logger;
  */
 public class ReportsViewModel implements DataRefreshListener {
     private static final Logger LOGGER = Logger.getLogger(ReportsViewModel.class.getName());
+    private final UserSession session;
     private final FinanceData financeData;
-    private final String username;
     private final List<ReportsChangeListener> listeners = new ArrayList<>();
 
     /**
@@ -43,18 +42,24 @@ public class ReportsViewModel implements DataRefreshListener {
 
     /**
      * Constructs a ReportsViewModel for the specified user.
-     * Initializes the FinanceData model and loads initial data.
+     * Uses the user's shared session data and registers for data refresh events.
      *
      * @param username the username for which to manage reports
      */
     public ReportsViewModel(String username) {
-        this.username = username;
-        this.financeData = new FinanceData();
-        String dataDirectory = ".\\user_data\\" + username;
-        financeData.setDataDirectory(dataDirectory);
+        this(UserSession.forUser(username));
+    }
+
+    /**
+     * Constructs a ReportsViewModel that reads the data of the given session.
+     *
+     * @param session the user's session
+     */
+    public ReportsViewModel(UserSession session) {
+        this.session = session;
+        this.financeData = session.getFinanceData();
 
         DataRefreshManager.getInstance().addListener(this);
-        loadTransactionData();
     }
 
     /**
@@ -85,17 +90,10 @@ public class ReportsViewModel implements DataRefreshListener {
     }
 
     /**
-     * Loads transaction data from the user's CSV file and imports it into the FinanceData model.
+     * Imports the user's transactions into the shared FinanceData model if the ledger has changed.
      */
     public void loadTransactionData() {
-        String csvFilePath = ".\\user_data\\" + username + "\\user_bill.csv";
-        List<Object[]> transactions = CSVDataImporter.importTransactionsFromCSV(csvFilePath);
-        if (!transactions.isEmpty()) {
-            financeData.importTransactions(transactions);
-            LOGGER.log(Level.INFO, "Loaded {0} transactions", transactions.size());
-        } else {
-            LOGGER.log(Level.WARNING, "No transactions loaded from {0}", csvFilePath);
-        }
+        session.reloadTransactions();
     }
 
     /**
@@ -130,4 +128,4 @@ public class ReportsViewModel implements DataRefreshListener {
         DataRefreshManager.getInstance().removeListener(this);
         listeners.clear();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.example.app.model;
+
+import org.junit.jupiter.api.*;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AdviceBasis class.
+ * These tests verify the drift rules for a new month, large spending and budget crossings,
+ * and the round trip through the stored text form.
+ */
+class AdviceBasisTest {
+
+    private static final YearMonth APRIL = YearMonth.of(2025, 4);
+
+    /**
+     * Creates finance data with the given expenses in the Food category.
+     */
+    private static FinanceData withFoodExpenses(double... amounts) {
+        List<Object[]> transactions = new ArrayList<>();
+        transactions.add(new Object[]{"2025-04-01", "Salary", "Income", 5000.0, true});
+        for (int i = 0; i < amounts.length; i++) {
+            transactions.add(new Object[]{String.format("2025-04-%02d", i + 2), "Canteen", "Food", -amounts[i], true});
+        }
+        FinanceData data = new FinanceData();
+        data.importTransactions(transactions);
+        return data;
+    }
+
+    /**
+     * Tests that small changes in spending keep the advice current.
+     */
+    @Test
+    @DisplayName("Should not drift on small changes")
+    void testNoDrift() {
+        AdviceBasis before = AdviceBasis.of(withFoodExpenses(300), APRIL);
+        AdviceBasis after = AdviceBasis.of(withFoodExpenses(300, 20), APRIL);
+
+        assertNull(after.describeDrift(before, 0.10, 100));
+        assertNull(before.describeDrift(before, 0.10, 100));
+    }
+
+    /**
+     * Tests that a new month makes the advice stale.
+     */
+    @Test
+    @DisplayName("Should drift in a new month")
+    void testNewMonth() {
+        FinanceData data = withFoodExpenses(300);
+
+        String reason = AdviceBasis.of(data, APRIL.plusMonths(1)).describeDrift(AdviceBasis.of(data, APRIL), 0.10, 100);
+
+        assertEquals("new month 2025-05", reason);
+    }
+
+    /**
+     * Tests that a large change in spending makes the advice stale.
+     */
+    @Test
+    @DisplayName("Should drift on large spending")
+    void testLargeSpend() {
+        AdviceBasis before = AdviceBasis.of(withFoodExpenses(300), APRIL);
+        AdviceBasis after = AdviceBasis.of(withFoodExpenses(300, 150), APRIL);
+
+        assertEquals("spending moved by 150.00", after.describeDrift(before, 0.10, 100));
+        assertNull(after.describeDrift(before, 0.10, 200), "Below the minimum change");
+    }
+
+    /**
+     * Tests that a budget crossing its warning level or its limit makes the advice stale.
+     */
+    @Test
+    @DisplayName("Should drift when a budget crosses a threshold")
+    void testBudgetCrossing() {
+        // Importing gives Food a budget of 1000
+        AdviceBasis before = AdviceBasis.of(withFoodExpenses(860), APRIL);
+        AdviceBasis warning = AdviceBasis.of(withFoodExpenses(860, 40), APRIL);
+        AdviceBasis over = AdviceBasis.of(withFoodExpenses(860, 40, 110), APRIL);
+
+        assertEquals("Food budget crossed a threshold", warning.describeDrift(before, 0.10, 1000));
+        assertEquals("Food budget crossed a threshold", over.describeDrift(warning, 0.10, 1000));
+        assertNull(warning.describeDrift(warning, 0.10, 1000));
+    }
+
+    /**
+     * Tests that the text form parses back to an equal basis and invalid text is rejected.
+     */
+    @Test
+    @DisplayName("Should round-trip through its text form")
+    void testParse() {
+        AdviceBasis basis = AdviceBasis.of(withFoodExpenses(700, 30.26), APRIL);
+
+        assertEquals(basis, AdviceBasis.parse(basis.toString()));
+        assertTrue(basis.toString().startsWith("2025-04|730.26|"), basis.toString());
+        assertNull(AdviceBasis.parse(null));
+        assertNull(AdviceBasis.parse("garbage"));
+        assertNull(AdviceBasis.parse("2025-13|1.00|"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.app.model;
+
+import com.example.app.ui.pages.AI.AIClient;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AdviceContextBuilder class.
+ * These tests verify the summary sections, the detection of unusually large expenses,
+ * the ordering of months and merchants, and that the summary stays within its token budget.
+ */
+class AdviceContextBuilderTest {
+
+    /**
+     * The FinanceData instance summarized by the tests.
+     */
+    private FinanceData financeData;
+
+    /**
+     * Sets up finance data with two months of transactions before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        List<Object[]> transactions = new ArrayList<>();
+        transactions.add(new Object[]{"2025-03-01", "Salary", "Income", 5000.0, true});
+        transactions.add(new Object[]{"2025-03-02", "Rent", "Housing", -1400.0, true});
+        transactions.add(new Object[]{"2025-03-05", "Canteen", "Food", -30.0, true});
+        transactions.add(new Object[]{"2025-03-12", "Canteen", "Food", -28.0, true});
+        transactions.add(new Object[]{"2025-04-02", "Canteen", "Food", -32.0, true});
+        transactions.add(new Object[]{"2025-04-09", "Bakery", "Food", -25.0, true});
+        transactions.add(new Object[]{"2025-04-20", "Seafood Banquet", "Food", -480.0, true});
+        transactions.add(new Object[]{"2025-04-21", "Metro", "Transportation", -6.0, true});
+        financeData = new FinanceData();
+        financeData.importTransactions(transactions);
+    }
+
+    /**
+     * Tests that the summary covers totals, budgets, unusual expenses, merchants and months.
+     */
+    @Test
+    @DisplayName("Should summarize the finance data by section")
+    void testSections() {
+        String summary = new AdviceContextBuilder(financeData).withTokenBudget(10_000).build();
+
+        assertTrue(summary.startsWith("Overview:\n- 8 transactions from 2025-03-01 to 2025-04-21\n"), summary);
+        assertTrue(summary.contains("- Income 5000.00, expenses 2001.00, balance "), summary);
+        assertTrue(summary.contains("- Housing: spent 1400.00 of 1400.00 (100%)\n"), summary);
+        assertTrue(summary.contains("Unusually large expenses:\n- 2025-04-20 Food 480.00 at Seafood Banquet (usually 30.00)\n"),
+                summary);
+        assertTrue(summary.contains("Top merchants by spending:\n- Rent: 1400.00 in 1 payment\n- Seafood Banquet: 480.00"),
+                summary);
+        assertTrue(summary.contains("- Canteen: 90.00 in 3 payments\n"), summary);
+        assertTrue(summary.indexOf("- 2025-04: Food 537.00, Transportation 6.00") < summary.indexOf("- 2025-03:"),
+                "Newest month comes first: " + summary);
+    }
+
+    /**
+     * Tests that budget lines are ordered by how much of the budget is used.
+     */
+    @Test
+    @DisplayName("Should list the most used budgets first")
+    void testBudgetOrder() {
+        String summary = new AdviceContextBuilder(financeData).withTokenBudget(10_000).build();
+
+        assertTrue(summary.indexOf("- Housing: spent") < summary.indexOf("- Food: spent"), summary);
+        assertTrue(summary.indexOf("- Food: spent") < summary.indexOf("- Transportation: spent"), summary);
+    }
+
+    /**
+     * Tests that the summary stays within the token budget, keeping the most important sections.
+     */
+    @Test
+    @DisplayName("Should stay within the token budget")
+    void testTokenBudget() {
+        String[] categories = {"Food", "Shopping", "Entertainment", "Service", "Gift", "Transportation"};
+        List<Object[]> history = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            for (int day = 1; day <= 28; day += 3) {
+                for (String category : categories) {
+                    history.add(new Object[]{String.format("2024-%02d-%02d", month, day), category + " shop " + day,
+                            category, -5.0 - day, true});
+                }
+            }
+        }
+        FinanceData longHistory = new FinanceData();
+        longHistory.importTransactions(history);
+
+        String full = new AdviceContextBuilder(longHistory).withTokenBudget(100_000).build();
+        String small = new AdviceContextBuilder(longHistory).withTokenBudget(120).build();
+        String medium = new AdviceContextBuilder(longHistory).withTokenBudget(400).build();
+
+        assertTrue(AIClient.estimateTokens(full) > 400);
+        assertTrue(AIClient.estimateTokens(small) <= 120);
+        assertTrue(AIClient.estimateTokens(medium) <= 400);
+        assertTrue(small.startsWith("Overview:"));
+        assertFalse(small.contains("Monthly spending"));
+        assertTrue(medium.contains("- 2024-12:"));
+        assertFalse(medium.contains("- 2024-01:"), "Oldest months are left out first");
+    }
+
+    /**
+     * Tests that an empty ledger gives an empty summary.
+     */
+    @Test
+    @DisplayName("Should return an empty summary without transactions")
+    void testEmpty() {
+        assertEquals("", new AdviceContextBuilder(new FinanceData()).build());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.app.model;
+
+import com.example.app.user_data.FinancialAdviceStorage;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AdviceRefreshScheduler class.
+ * These tests verify that advice is regenerated only when the data drifts from its basis,
+ * and that a burst of data changes leads to a single check after the idle delay.
+ */
+class AdviceRefreshSchedulerTest {
+
+    private static final String TEST_USERNAME = "testuser_advice_refresh";
+
+    private FinanceData financeData;
+    private FinancialAdvice advice;
+    private AtomicInteger regenerations;
+    private AdviceRefreshScheduler scheduler;
+
+    /**
+     * Sets up finance data and counts regenerations instead of calling the AI.
+     */
+    @BeforeEach
+    void setUp() {
+        financeData = new FinanceData();
+        financeData.importTransactions(expenses(300));
+        advice = new FinancialAdvice();
+        regenerations = new AtomicInteger();
+        scheduler = new AdviceRefreshScheduler(advice, financeData, () -> {
+            regenerations.incrementAndGet();
+            return CompletableFuture.completedFuture("advice");
+        });
+    }
+
+    /**
+     * Stops the scheduler and removes the stored advice files.
+     */
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+        File directory = new File(".\\user_data\\" + TEST_USERNAME);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Tests that advice generated from the current data is kept, and regenerated once spending moves.
+     */
+    @Test
+    @DisplayName("Should regenerate only when the data drifts")
+    void testDrift() {
+        storeBasis(AdviceBasis.of(financeData, YearMonth.now()));
+
+        assertNull(scheduler.check());
+        assertEquals(0, regenerations.get());
+
+        financeData.importTransactions(expenses(300, 250));
+        assertNotNull(scheduler.check());
+        assertEquals(1, regenerations.get());
+    }
+
+    /**
+     * Tests that advice without a recorded basis is regenerated.
+     */
+    @Test
+    @DisplayName("Should regenerate advice without a basis")
+    void testNoBasis() {
+        assertNull(advice.getBasis());
+
+        assertNotNull(scheduler.check());
+        assertEquals(1, regenerations.get());
+    }
+
+    /**
+     * Tests that several data changes in a row lead to one check after the idle delay.
+     *
+     * @throws InterruptedException If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should check once after a burst of changes")
+    void testDebounce() throws InterruptedException {
+        scheduler.withIdleDelay(Duration.ofMillis(150)).start();
+        for (int i = 0; i < 3; i++) {
+            DataRefreshManager.getInstance().notifyRefresh(DataRefreshManager.RefreshType.TRANSACTIONS);
+            Thread.sleep(30);
+        }
+        assertEquals(0, regenerations.get(), "Nothing happens while the data keeps changing");
+
+        Thread.sleep(400);
+        assertEquals(1, regenerations.get());
+    }
+
+    private void storeBasis(AdviceBasis basis) {
+        FinancialAdviceStorage.setUsername(TEST_USERNAME);
+        FinancialAdviceStorage.saveAdviceBasis(basis.toString());
+        advice.initialize(TEST_USERNAME);
+        assertEquals(basis, advice.getBasis());
+    }
+
+    private static List<Object[]> expenses(double... amounts) {
+        List<Object[]> transactions = new ArrayList<>();
+        for (int i = 0; i < amounts.length; i++) {
+            transactions.add(new Object[]{String.format("2025-04-%02d", i + 1), "Canteen", "Food", -amounts[i], true});
+        }
+        return transactions;
+    }
+}
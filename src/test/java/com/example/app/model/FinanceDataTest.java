@@ -41,6 +41,25 @@ class FinanceDataTest {
         assertNotNull(financeData.getTransactions());
     }
 
+    /**
+     * Tests that expenses without a budgeted category are categorized by merchant keyword rules.
+     */
+    @Test
+    @DisplayName("Merchant keywords categorize uncategorized expenses")
+    void testMerchantRuleCategorization() {
+        List<Object[]> transactions = new ArrayList<>();
+        transactions.add(new Object[]{"2024-06-01", "美团外卖-风味餐厅", "商户消费", -35.0});
+        transactions.add(new Object[]{"2024-06-02", "北京一卡通充值", "商户消费", -100.0});
+        transactions.add(new Object[]{"2024-06-03", "Unknown shop", "商户消费", -10.0});
+
+        financeData.importTransactions(transactions);
+
+        List<FinanceData.Transaction> imported = financeData.getTransactions();
+        assertEquals("Food", imported.get(0).getCategory());
+        assertEquals("Transportation", imported.get(1).getCategory());
+        assertEquals("Other", imported.get(2).getCategory());
+    }
+
     /**
      * Tests that importing transactions correctly updates all relevant data structures.
      * Verifies transaction list, daily and category summaries, and total calculations.
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.*;
 import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -139,4 +140,26 @@ class FinancialAdviceTest {
         // This will attempt to call the real getRes API, which may fail, but should not throw
         assertDoesNotThrow(advice::regenerate);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that the advice prompt carries a bounded summary of the attached finance data.
+     */
+    @Test
+    @DisplayName("buildPrompt includes a bounded data summary")
+    void testBuildPromptIncludesDataSummary() {
+        FinanceData financeData = new FinanceData();
+        financeData.importTransactions(Arrays.asList(
+                new Object[]{"2025-04-01", "Salary", "Income", 5000.0, true},
+                new Object[]{"2025-04-02", "Canteen", "Food", -30.0, true}));
+        FinancialAdvice advice = new FinancialAdvice();
+        advice.setFinanceData(financeData);
+
+        String prompt = advice.buildPrompt();
+        assertTrue(prompt.startsWith("Please analyze my financial data"));
+        assertTrue(prompt.contains("Here is a summary of my finances:\nOverview:\n- 2 transactions"), prompt);
+        assertTrue(prompt.contains("- Canteen: 30.00 in 1 payment"), prompt);
+
+        advice.setContextTokenBudget(0);
+        assertFalse(advice.buildPrompt().contains("Overview:"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.app.model;
+
+import com.example.app.user_data.UserBillStorage;
+import com.example.app.viewmodel.dashboard.DashboardReportsViewModel;
+import com.example.app.viewmodel.pages.ReportsViewModel;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the UserSession class.
+ * These tests verify that a user's view models share one copy of the finance data,
+ * and that the ledger is imported again only after it has changed.
+ */
+class UserSessionTest {
+
+    private static final String TEST_USERNAME = "testuser_session";
+
+    /**
+     * Starts each test with an empty ledger and no session.
+     */
+    @BeforeEach
+    void setUp() {
+        UserSession.close(TEST_USERNAME);
+        UserBillStorage.setUsername(TEST_USERNAME);
+        saveIncome(1000.0);
+    }
+
+    /**
+     * Closes the session and removes the test user's files.
+     */
+    @AfterEach
+    void tearDown() {
+        UserSession.close(TEST_USERNAME);
+        File directory = new File(".\\user_data\\" + TEST_USERNAME);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Tests that view models of the same user read the same finance data.
+     */
+    @Test
+    @DisplayName("Should share one FinanceData between view models")
+    void testSharedData() {
+        ReportsViewModel reports = new ReportsViewModel(TEST_USERNAME);
+        DashboardReportsViewModel dashboardReports = new DashboardReportsViewModel(TEST_USERNAME);
+        try {
+            assertSame(UserSession.forUser(TEST_USERNAME), UserSession.forUser(TEST_USERNAME));
+            assertSame(reports.getFinanceData(), dashboardReports.getFinanceData());
+            assertEquals(1000.0, reports.getFinanceData().getTotalIncome(), 0.001);
+        } finally {
+            reports.cleanup();
+            dashboardReports.cleanup();
+        }
+    }
+
+    /**
+     * Tests that the ledger is imported once per change, without adding up earlier imports.
+     */
+    @Test
+    @DisplayName("Should import the ledger only after it changes")
+    void testReloadOnlyOnChange() {
+        UserSession session = UserSession.forUser(TEST_USERNAME);
+        assertFalse(session.reloadTransactions(), "Unchanged ledger");
+
+        saveIncome(1000.0, 250.0);
+        assertTrue(session.reloadTransactions());
+        assertFalse(session.reloadTransactions(), "Already imported by an earlier caller");
+        assertEquals(1250.0, session.getFinanceData().getTotalIncome(), 0.001);
+        assertEquals(1250.0, session.getFinanceData().getCategoryIncomes().values().stream()
+                .mapToDouble(Double::doubleValue).sum(), 0.001, "Category totals are not added up across imports");
+    }
+
+    /**
+     * Tests that a rewrite that keeps the ledger's size is picked up, even within the file system's
+     * modification time resolution.
+     */
+    @Test
+    @DisplayName("Should import a same-size rewrite of the ledger")
+    void testReloadSameSizeRewrite() {
+        UserSession session = UserSession.forUser(TEST_USERNAME);
+
+        saveIncome(2000.0);
+
+        assertTrue(session.reloadTransactions());
+        assertEquals(2000.0, session.getFinanceData().getTotalIncome(), 0.001);
+    }
+
+    /**
+     * Tests that a closed session is replaced with a freshly loaded one.
+     */
+    @Test
+    @DisplayName("Should load a new session after closing")
+    void testClose() {
+        UserSession first = UserSession.forUser(TEST_USERNAME);
+        UserSession.close(TEST_USERNAME);
+
+        UserSession second = UserSession.forUser(TEST_USERNAME);
+
+        assertNotSame(first, second);
+        assertNotSame(first.getFinanceData(), second.getFinanceData());
+        assertEquals(1000.0, second.getFinanceData().getTotalIncome(), 0.001);
+    }
+
+    private static void saveIncome(double... amounts) {
+        List<Object[]> transactions = new ArrayList<>();
+        for (int i = 0; i < amounts.length; i++) {
+            transactions.add(new Object[]{String.format("2025-05-%02d", i + 1), "Salary", "Income", amounts[i], true});
+        }
+        UserBillStorage.saveTransactions(transactions);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.app.model.importer;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BatchImport class.
+ * These tests import folders of CSV files with different layouts and verify
+ * cross-file deduplication, per-file mapping detection, error reporting and the single write.
+ */
+class BatchImportTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<List<Object[]>> writes;
+    private TransactionSink sink;
+
+    /**
+     * Sets up a sink that records every write before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        writes = new ArrayList<>();
+        sink = batch -> writes.add(new ArrayList<>(batch));
+    }
+
+    /**
+     * Tests that a folder of statements in different formats is merged and written once,
+     * with a transaction that appears in two files imported only once.
+     */
+    @Test
+    @DisplayName("Should import a folder in one write and dedupe across files")
+    void testFolderImport() throws IOException {
+        Files.write(tempDir.resolve("bank.csv"), Arrays.asList(
+                "Date,Description,Amount",
+                "2025-04-01,Rent,-1500.00",
+                "2025-04-14,Lunch,-25.50"));
+        Files.write(tempDir.resolve("wechat.csv"), Arrays.asList(
+                "Transaction Time,Product,Income/Expense,Amount",
+                "2025/4/14 12:19,Lunch,Expense,25.50",
+                "2025/4/15 09:00,Refund,Income,5.00"));
+        Files.write(tempDir.resolve("notes.txt"), Collections.singletonList("ignored"));
+
+        ImportResult result = new BatchImport(sink)
+                .withParallelism(2)
+                .run(Collections.singletonList(tempDir));
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(3, result.getImportedRows());
+        assertEquals(1, result.getDuplicateRows());
+        assertEquals(1, writes.size());
+        assertEquals(3, writes.get(0).size());
+        assertEquals("Rent", result.getTransactions().get(0)[1]);
+        assertEquals("Refund", result.getTransactions().get(2)[1]);
+    }
+
+    /**
+     * Tests that a file that cannot be mapped is reported while the other files are imported.
+     */
+    @Test
+    @DisplayName("Should report failed files and import the rest")
+    void testFailedFile() throws IOException {
+        Path good = tempDir.resolve("good.csv");
+        Path bad = tempDir.resolve("bad.csv");
+        Files.write(good, Arrays.asList("Date,Description,Amount", "2025-04-14,Lunch,-25.50"));
+        Files.write(bad, Arrays.asList("Foo,Bar", "1,2"));
+
+        ImportResult result = new BatchImport(sink).run(Arrays.asList(good, bad));
+
+        assertEquals(1, result.getImportedRows());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("bad.csv"));
+    }
+
+    /**
+     * Tests that near duplicates across files are flagged.
+     */
+    @Test
+    @DisplayName("Should flag near duplicates across files")
+    void testNearDuplicatesAcrossFiles() throws IOException {
+        Path first = tempDir.resolve("a.csv");
+        Path second = tempDir.resolve("b.csv");
+        Files.write(first, Arrays.asList("Date,Description,Amount", "2025-03-16,Meituan 25031611101234,-88.00"));
+        Files.write(second, Arrays.asList("Date,Description,Amount", "2025-03-16,Meituan 25031611109999,-88.00"));
+
+        ImportResult result = new BatchImport(sink)
+                .withNearDuplicateDetection(new NearDuplicateDetector(), ImportPipeline.NearDuplicatePolicy.SKIP)
+                .run(Arrays.asList(first, second));
+
+        assertEquals(1, result.getImportedRows());
+        assertEquals(1, result.getNearDuplicates().size());
+        assertTrue(result.getNearDuplicates().get(0).startsWith("b.csv"));
+    }
+}
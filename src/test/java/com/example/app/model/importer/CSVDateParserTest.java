@@ -0,0 +1,95 @@
+package com.example.app.model.importer;
+
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CSVDateParser class.
+ * These tests verify format sniffing, the year-first fast path, fallback to other formats
+ * and that unparseable values are reported without throwing.
+ */
+class CSVDateParserTest {
+
+    /**
+     * Tests that sniffing locks in the format that matches the sample values.
+     * Verifies that a day greater than 12 disambiguates European from US dates.
+     */
+    @Test
+    @DisplayName("Should sniff day-first format from sample values")
+    void testSniffDayFirstFormat() {
+        List<String> samples = Arrays.asList("01/02/2025", "25/03/2025", "14/04/2025");
+        CSVDateParser parser = CSVDateParser.sniff(samples, "yyyy-MM-dd");
+
+        assertEquals("dd/MM/yyyy", parser.getPattern());
+        assertEquals(LocalDate.of(2025, 2, 1), parser.parse("01/02/2025"));
+        assertEquals("2025-03-25", parser.format("25/03/2025"));
+    }
+
+    /**
+     * Tests that the preferred format is kept when it matches every sample.
+     */
+    @Test
+    @DisplayName("Should keep preferred format when it fits")
+    void testPreferredFormatWinsTies() {
+        List<String> samples = Arrays.asList("01/02/2025", "03/04/2025");
+        CSVDateParser parser = CSVDateParser.sniff(samples, "dd/MM/yyyy");
+
+        assertEquals("dd/MM/yyyy", parser.getPattern());
+        assertEquals(LocalDate.of(2025, 4, 3), parser.parse("03/04/2025"));
+    }
+
+    /**
+     * Tests the hand-written fast path for year-first layouts with optional time of day.
+     * Verifies single digit months and days as produced by WeChat Pay exports.
+     */
+    @Test
+    @DisplayName("Should parse year-first dates with optional time on the fast path")
+    void testYearFirstFastPath() {
+        assertEquals(LocalDate.of(2025, 4, 14), CSVDateParser.parseYearFirst("2025-04-14", '-'));
+        assertEquals(LocalDate.of(2025, 4, 14), CSVDateParser.parseYearFirst("2025-04-14 12:19", '-'));
+        assertEquals(LocalDate.of(2025, 4, 14), CSVDateParser.parseYearFirst("2025-04-14 12:19:59", '-'));
+        assertEquals(LocalDate.of(2025, 4, 4), CSVDateParser.parseYearFirst("2025/4/4 9:05", '/'));
+
+        assertNull(CSVDateParser.parseYearFirst("2025-02-30", '-'));
+        assertNull(CSVDateParser.parseYearFirst("2025-13-01", '-'));
+        assertNull(CSVDateParser.parseYearFirst("2025-04-14 25:00", '-'));
+        assertNull(CSVDateParser.parseYearFirst("2025-04-14 12", '-'));
+        assertNull(CSVDateParser.parseYearFirst("2025/04/14", '-'));
+        assertTrue(CSVDateParser.isYearFirstNumeric("yyyy/M/d HH:mm"));
+        assertFalse(CSVDateParser.isYearFirstNumeric("dd/MM/yyyy"));
+    }
+
+    /**
+     * Tests that values in a format other than the locked one are still parsed via fallback,
+     * and that garbage values yield null instead of an exception.
+     */
+    @Test
+    @DisplayName("Should fall back to other formats and return null for invalid values")
+    void testFallbackAndInvalidValues() {
+        CSVDateParser parser = CSVDateParser.sniff(Collections.singletonList("2025-04-14"), null);
+
+        assertEquals("yyyy-MM-dd", parser.getPattern());
+        assertEquals(LocalDate.of(2025, 4, 14), parser.parse("2025.04.14"));
+        assertNull(parser.parse("not a date"));
+        assertNull(parser.parse(""));
+        assertNull(parser.parse(null));
+    }
+
+    /**
+     * Tests that an invalid user-entered pattern is ignored rather than throwing.
+     */
+    @Test
+    @DisplayName("Should ignore invalid preferred patterns")
+    void testInvalidPreferredPattern() {
+        assertNull(CSVDateParser.formatterFor("yyyy-MM-dd qqqqqq bb"));
+        CSVDateParser parser = CSVDateParser.sniff(Collections.singletonList("2025-04-14"), "yyyy-MM-dd qqqqqq bb");
+        assertEquals("yyyy-MM-dd", parser.getPattern());
+        assertSame(CSVDateParser.formatterFor("dd/MM/yyyy"), CSVDateParser.formatterFor("dd/MM/yyyy"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.app.model.importer;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ColumnMapping class.
+ * These tests verify template lookup and detection, header guessing and identifier matching.
+ */
+class ColumnMappingTest {
+
+    /**
+     * Tests that a WeChat Pay header row is detected as the WeChat Pay template.
+     */
+    @Test
+    @DisplayName("Should detect the WeChat Pay template from headers")
+    void testDetectTemplate() {
+        List<String> headers = Arrays.asList("Transaction Time", "Type", "Counterparty",
+                "Product", "Income/Expense", "Amount", "Status");
+
+        ColumnMapping mapping = ColumnMapping.forHeaders(headers);
+
+        assertEquals(ColumnMapping.WECHAT_PAY, mapping.getName());
+        assertTrue(mapping.isUseTypeColumn());
+        assertEquals(5, ColumnMapping.indexOf(headers, mapping.getAmountColumn()));
+        assertTrue(ColumnMapping.getTemplateNames().contains(ColumnMapping.WECHAT_PAY));
+    }
+
+    /**
+     * Tests that unknown headers fall back to a guessed custom mapping.
+     */
+    @Test
+    @DisplayName("Should guess columns from header names")
+    void testGuessMapping() {
+        List<String> headers = Arrays.asList("Posting Date", "Memo", "Category", "Amount");
+
+        ColumnMapping mapping = ColumnMapping.forHeaders(headers);
+
+        assertEquals(ColumnMapping.CUSTOM, mapping.getName());
+        assertEquals("Posting Date", mapping.getDateColumn());
+        assertEquals("Memo", mapping.getDescriptionColumn());
+        assertEquals("Category", mapping.getCategoryColumn());
+        assertEquals("Amount", mapping.getAmountColumn());
+        assertFalse(mapping.isUseTypeColumn());
+        assertNull(mapping.getTypeColumn());
+    }
+
+    /**
+     * Tests identifier parsing and exact/partial matching.
+     */
+    @Test
+    @DisplayName("Should parse and match identifiers case-insensitively")
+    void testIdentifiers() {
+        Set<String> identifiers = ColumnMapping.parseIdentifiers(" Income , Deposit,,");
+
+        assertEquals(2, identifiers.size());
+        assertTrue(ColumnMapping.matchesAnyIdentifier("INCOME", identifiers));
+        assertTrue(ColumnMapping.matchesAnyIdentifier("Cash deposit", identifiers));
+        assertFalse(ColumnMapping.matchesAnyIdentifier("Expense", identifiers));
+        assertFalse(ColumnMapping.matchesAnyIdentifier(null, identifiers));
+        assertTrue(ColumnMapping.parseIdentifiers(null).isEmpty());
+    }
+
+    /**
+     * Tests that the tokenizer handles quoted fields, escaped quotes and byte order marks.
+     */
+    @Test
+    @DisplayName("Should tokenize quoted fields and strip byte order marks")
+    void testTokenizer() {
+        assertEquals(Arrays.asList("a", "b,c", "say \"hi\"", ""),
+                CSVTokenizer.tokenize("a, \"b,c\" ,\"say \"\"hi\"\"\","));
+        assertEquals("Date", CSVTokenizer.stripByteOrderMark("\uFEFFDate"));
+        assertEquals("Date", CSVTokenizer.stripByteOrderMark("Date"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.FingerprintIndex;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ExternalMergeSorter and OutOfCoreImport classes.
+ * These tests use tiny run sizes to force spilling and multi-pass merging,
+ * and verify ordering, deduplication and clean-up of temporary files.
+ */
+class ExternalMergeSorterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<Object[]> received;
+    private TransactionSink sink;
+
+    /**
+     * Sets up an in-memory target sink before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        received = new ArrayList<>();
+        sink = batch -> received.addAll(batch);
+    }
+
+    /**
+     * Tests that transactions are merged in date order across many spilled runs
+     * and that transactions repeating those of an earlier source are dropped.
+     */
+    @Test
+    @DisplayName("Should merge spilled runs in date order and drop duplicates")
+    void testMergeOrderAndDuplicates() throws IOException {
+        File spillDir = tempDir.resolve("spill").toFile();
+        List<Object[]> input = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int day = (i * 37) % 28 + 1;
+            input.add(new Object[]{String.format("2025-02-%02d", day), "Item " + i, "Other", -1.0 - i, false});
+        }
+        List<Object[]> repeated = Arrays.asList(input.get(10).clone(), input.get(250).clone());
+        Collections.shuffle(input, new java.util.Random(42));
+
+        long written;
+        try (ExternalMergeSorter sorter = new ExternalMergeSorter(spillDir, 3)) {
+            for (int i = 0; i < input.size(); i += 7) {
+                sorter.accept(input.subList(i, Math.min(input.size(), i + 7)));
+            }
+            sorter.startSource();
+            sorter.accept(repeated);
+            assertTrue(sorter.getRunCount() > ExternalMergeSorter.MAX_FAN_IN);
+
+            written = sorter.mergeInto(sink, 50, null, ImportPipeline.NearDuplicatePolicy.FLAG);
+            assertEquals(2, sorter.getDuplicateRows());
+            assertEquals(0, sorter.getRepeatedRows());
+        }
+
+        assertEquals(500, written);
+        assertEquals(500, received.size());
+        for (int i = 1; i < received.size(); i++) {
+            assertTrue(((String) received.get(i - 1)[0]).compareTo((String) received.get(i)[0]) <= 0);
+        }
+        try (Stream<Path> files = Files.list(spillDir.toPath())) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * Tests that transactions already in the ledger index are dropped while merging.
+     */
+    @Test
+    @DisplayName("Should drop transactions already in the ledger")
+    void testLedgerIndex() throws IOException {
+        Object[] lunch = {"2025-04-14", "Lunch", "Food", -25.50, false};
+        Object[] bus = {"2025-04-13", "Bus", "Transportation", -2.00, false};
+        FingerprintIndex index = FingerprintIndex.rebuild(tempDir.resolve("index").toFile(),
+                Collections.singletonList(lunch), tempDir.resolve("ledger.csv").toFile());
+
+        try (ExternalMergeSorter sorter = new ExternalMergeSorter(tempDir.toFile(), 1)) {
+            sorter.accept(Arrays.asList(lunch, bus));
+            assertEquals(1, sorter.mergeInto(sink, 10, index, ImportPipeline.NearDuplicatePolicy.FLAG));
+        }
+        assertEquals("Bus", received.get(0)[1]);
+    }
+
+    /**
+     * Tests an out-of-core import of two files that overlap, verifying combined counts and ordering.
+     */
+    @Test
+    @DisplayName("Should import several files out of core")
+    void testOutOfCoreImport() throws IOException {
+        Path first = tempDir.resolve("first.csv");
+        Path second = tempDir.resolve("second.csv");
+        Files.write(first, Arrays.asList("Date,Description,Amount",
+                "2025-04-14,Lunch,-25.50", "2025-04-12,Taxi,-30.00", "bad,row,x"));
+        Files.write(second, Arrays.asList("Date,Description,Amount",
+                "2025-04-13,Bus,-2.00", "2025-04-14,Lunch,-25.50"));
+        ColumnMapping mapping = ColumnMapping.guess(CSVTokenizer.tokenize("Date,Description,Amount"));
+
+        ImportResult result = new OutOfCoreImport(mapping, sink, tempDir.resolve("spill").toFile())
+                .withRunSize(2)
+                .run(Arrays.asList(first, second));
+
+        assertEquals(5, result.getTotalRows());
+        assertEquals(3, result.getImportedRows());
+        assertEquals(1, result.getSkippedRows());
+        assertEquals(1, result.getDuplicateRows());
+        assertTrue(result.getTransactions().isEmpty());
+        assertTrue(result.getErrors().get(0).startsWith("first.csv"));
+        assertEquals(Arrays.asList("Taxi", "Bus", "Lunch"),
+                Arrays.asList(received.get(0)[1], received.get(1)[1], received.get(2)[1]));
+    }
+}
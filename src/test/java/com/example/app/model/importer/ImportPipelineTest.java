@@ -0,0 +1,241 @@
+package com.example.app.model.importer;
+
+import com.example.app.user_data.FingerprintIndex;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ImportPipeline class.
+ * These tests run the pipeline against in-memory CSV data and an in-memory sink,
+ * verifying parsing, sign normalization, classification, deduplication and batching.
+ */
+class ImportPipelineTest {
+
+    /** Sink that records every batch it receives */
+    private List<List<Object[]>> batches;
+    private TransactionSink sink;
+
+    /**
+     * Sets up an in-memory sink before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        batches = Collections.synchronizedList(new ArrayList<>());
+        sink = batch -> batches.add(new ArrayList<>(batch));
+    }
+
+    /**
+     * Tests that rows are parsed into transaction arrays and handed to the sink.
+     * Verifies date normalization, amount parsing and the unconfirmed flag.
+     */
+    @Test
+    @DisplayName("Should parse rows and persist them to the sink")
+    void testBasicImport() throws IOException {
+        String csv = "Date,Description,Category,Amount\n"
+                + "2025-04-14,Lunch,Food,-25.50\n"
+                + "2025-04-15,Salary,Income,3000\n";
+        ColumnMapping mapping = ColumnMapping.guess(CSVTokenizer.tokenize("Date,Description,Category,Amount"));
+
+        ImportResult result = new ImportPipeline(mapping, sink).run(new StringReader(csv));
+
+        assertEquals(2, result.getTotalRows());
+        assertEquals(2, result.getImportedRows());
+        assertEquals(0, result.getSkippedRows());
+        assertEquals(2, result.getTransactions().size());
+
+        Object[] lunch = result.getTransactions().get(0);
+        assertEquals("2025-04-14", lunch[0]);
+        assertEquals("Lunch", lunch[1]);
+        assertEquals("Food", lunch[2]);
+        assertEquals(-25.50, (Double) lunch[3], 0.001);
+        assertEquals(Boolean.FALSE, lunch[4]);
+
+        int persisted = batches.stream().mapToInt(List::size).sum();
+        assertEquals(2, persisted);
+    }
+
+    /**
+     * Tests that a type column decides the sign and the classifier fills missing categories.
+     */
+    @Test
+    @DisplayName("Should apply type identifiers and classify rows without a category")
+    void testTypeColumnAndClassifier() throws IOException {
+        String csv = "Transaction Time,Product,Income/Expense,Amount\n"
+                + "2025/4/14 12:19,Coffee,Expense,18.00\n"
+                + "2025/4/15 09:00,Refund,Income,5.00\n";
+        ColumnMapping mapping = ColumnMapping.forTemplate(ColumnMapping.WECHAT_PAY);
+
+        ImportResult result = new ImportPipeline(mapping, sink)
+                .withClassifier((description, amount) -> amount < 0 ? "Food" : null)
+                .run(new StringReader(csv));
+
+        assertEquals(2, result.getImportedRows());
+        Object[] coffee = result.getTransactions().get(0);
+        assertEquals("2025-04-14", coffee[0]);
+        assertEquals(-18.00, (Double) coffee[3], 0.001);
+        assertEquals("Food", coffee[2]);
+
+        Object[] refund = result.getTransactions().get(1);
+        assertEquals(5.00, (Double) refund[3], 0.001);
+        assertEquals(ImportPipeline.UNCATEGORISED, refund[2]);
+    }
+
+    /**
+     * Tests that invalid rows are skipped with an error, and that a row repeated within the file is
+     * imported, since it can be a genuine second payment, and reported.
+     */
+    @Test
+    @DisplayName("Should skip invalid rows and keep repeated rows")
+    void testInvalidRowsAndDuplicates() throws IOException {
+        String csv = "Date,Description,Amount\n"
+                + "2025-04-14,Lunch,-25.50\n"
+                + "not a date,Broken,-1\n"
+                + "2025-04-14,Lunch,-25.50\n"
+                + "2025-04-16,Bus,abc\n";
+        ColumnMapping mapping = ColumnMapping.guess(CSVTokenizer.tokenize("Date,Description,Amount"));
+
+        ImportResult result = new ImportPipeline(mapping, sink).run(new StringReader(csv));
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(2, result.getImportedRows());
+        assertEquals(2, result.getSkippedRows());
+        assertEquals(0, result.getDuplicateRows());
+        assertEquals(1, result.getNearDuplicates().size());
+        assertTrue(result.getNearDuplicates().get(0).endsWith("repeats an earlier row"));
+        assertEquals(2, result.getErrors().size());
+        assertFalse(result.formatErrors(500).isEmpty());
+    }
+
+    /**
+     * Tests that a row repeated within one file is kept and reported with the FLAG policy, and skipped
+     * with the SKIP policy, whether the file is imported on its own, in a batch or out of core.
+     */
+    @Test
+    @DisplayName("Should handle rows repeated within a file the same on every import path")
+    void testRepeatsOnEveryPath(@TempDir Path tempDir) throws IOException {
+        Path statement = tempDir.resolve("statement.csv");
+        Files.write(statement, Arrays.asList("Date,Description,Amount",
+                "2025-04-14,Coffee,-12.00", "2025-04-14,Coffee,-12.00", "2025-04-15,Bus,-2.00"));
+        ColumnMapping mapping = ColumnMapping.guess(CSVTokenizer.tokenize("Date,Description,Amount"));
+
+        for (ImportPipeline.NearDuplicatePolicy policy : ImportPipeline.NearDuplicatePolicy.values()) {
+            int expected = policy == ImportPipeline.NearDuplicatePolicy.FLAG ? 3 : 2;
+            List<ImportResult> results = new ArrayList<>();
+            results.add(new ImportPipeline(mapping, sink)
+                    .withNearDuplicateDetection(null, policy)
+                    .run(statement));
+            results.add(new BatchImport(sink)
+                    .withNearDuplicateDetection(null, policy)
+                    .run(Collections.singletonList(statement)));
+            results.add(new OutOfCoreImport(mapping, sink, tempDir.resolve("spill").toFile())
+                    .withRunSize(1)
+                    .withNearDuplicatePolicy(policy)
+                    .run(Collections.singletonList(statement)));
+
+            for (ImportResult result : results) {
+                assertEquals(expected, result.getImportedRows(), policy.name());
+                assertEquals(0, result.getDuplicateRows(), policy.name());
+                assertEquals(1, result.getNearDuplicates().size(), policy.name());
+                assertTrue(result.getNearDuplicates().get(0).endsWith("repeats an earlier row"));
+            }
+        }
+    }
+
+    /**
+     * Tests that rows already recorded in the ledger index are counted as duplicates and not persisted.
+     */
+    @Test
+    @DisplayName("Should skip rows already in the ledger")
+    void testLedgerIndexDeduplication(@TempDir Path tempDir) throws IOException {
+        File ledgerFile = tempDir.resolve("user_bill.csv").toFile();
+        List<Object[]> ledger = Collections.singletonList(new Object[]{"2025-04-14", "Lunch", "Food", -25.50, true});
+        FingerprintIndex index = FingerprintIndex.rebuild(tempDir.resolve("index").toFile(), ledger, ledgerFile);
+
+        String csv = "Date,Description,Amount\n"
+                + "2025-04-14,lunch,-25.5\n"
+                + "2025-04-15,Dinner,-40.00\n";
+        ColumnMapping mapping = ColumnMapping.guess(CSVTokenizer.tokenize("Date,Description,Amount"));
+
+        ImportResult result = new ImportPipeline(mapping, sink)
+                .withLedgerIndex(index)
+                .run(new StringReader(csv));
+
+        assertEquals(1, result.getImportedRows());
+        assertEquals(1, result.getDuplicateRows());
+        assertEquals("Dinner", result.getTransactions().get(0)[1]);
+    }
+
+    /**
+     * Tests that a small queue and batch size still deliver every row, in order, in bounded batches.
+     */
+    @Test
+    @DisplayName("Should deliver all rows in bounded batches under back-pressure")
+    void testBackPressureAndBatching() throws IOException {
+        StringBuilder csv = new StringBuilder("Date,Description,Amount\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append("2025-04-14,Item ").append(i).append(",-").append(i + 1).append(".00\n");
+        }
+        ColumnMapping mapping = ColumnMapping.guess(CSVTokenizer.tokenize("Date,Description,Amount"));
+
+        ImportResult result = new ImportPipeline(mapping, sink)
+                .withQueueCapacity(4)
+                .withBatchSize(64)
+                .collectTransactions(false)
+                .run(new StringReader(csv.toString()));
+
+        assertEquals(1000, result.getImportedRows());
+        assertTrue(result.getTransactions().isEmpty());
+        assertEquals(ImportPipeline.STAGE_NAMES.size(), result.getStageStats().size());
+
+        int total = 0;
+        for (List<Object[]> batch : batches) {
+            assertTrue(batch.size() <= 64);
+            for (Object[] row : batch) {
+                assertEquals("Item " + total, row[1]);
+                total++;
+            }
+        }
+        assertEquals(1000, total);
+    }
+
+    /**
+     * Tests that a missing required column fails the whole import.
+     */
+    @Test
+    @DisplayName("Should fail when a required column is missing")
+    void testMissingRequiredColumn() {
+        String csv = "Description,Category\nLunch,Food\n";
+        ColumnMapping mapping = ColumnMapping.builder().dateColumn("Date").amountColumn("Amount").build();
+
+        assertThrows(IOException.class, () -> new ImportPipeline(mapping, sink).run(new StringReader(csv)));
+    }
+
+    /**
+     * Tests that a failing sink aborts the import with its exception.
+     */
+    @Test
+    @DisplayName("Should propagate sink failures")
+    void testSinkFailure() {
+        String csv = "Date,Amount\n2025-04-14,-1\n";
+        ColumnMapping mapping = ColumnMapping.guess(CSVTokenizer.tokenize("Date,Amount"));
+        TransactionSink failing = batch -> {
+            throw new IOException("disk full");
+        };
+
+        IOException e = assertThrows(IOException.class,
+                () -> new ImportPipeline(mapping, failing).run(new StringReader(csv)));
+        assertTrue(e.getMessage().contains("disk full"));
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.app.model.importer;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ImportSource class.
+ * These tests read plain, gzip and zip files and verify that compressed content
+ * is streamed into the import pipeline without being extracted to disk.
+ */
+class ImportSourceTest {
+
+    private static final String BANK_CSV = "Date,Description,Amount\n"
+            + "2025-04-01,Rent,-1500.00\n"
+            + "2025-04-14,Lunch,-25.50\n";
+
+    @TempDir
+    Path tempDir;
+
+    private List<Object[]> written;
+    private TransactionSink sink;
+
+    /**
+     * Sets up a sink that records the written transactions before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        written = new ArrayList<>();
+        sink = written::addAll;
+    }
+
+    /**
+     * Tests which file names are recognised as importable.
+     */
+    @Test
+    @DisplayName("Should recognise CSV, gzip and zip files")
+    void testIsSupported() {
+        assertTrue(ImportSource.isSupported(Paths.get("statement.csv")));
+        assertTrue(ImportSource.isSupported(Paths.get("statement.CSV.gz")));
+        assertTrue(ImportSource.isSupported(Paths.get("april.zip")));
+        assertFalse(ImportSource.isSupported(Paths.get("notes.txt")));
+        assertFalse(ImportSource.isSupported(Paths.get("statement.csv.part")));
+    }
+
+    /**
+     * Tests that a gzip-compressed export is decompressed while the pipeline reads it.
+     */
+    @Test
+    @DisplayName("Should import a gzip file through the pipeline")
+    void testGzipImport() throws IOException {
+        Path file = tempDir.resolve("bank.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(BANK_CSV.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ImportSource source = ImportSource.single(file);
+        ImportResult result = new ImportPipeline(ColumnMapping.forHeaders(source.readHeader()), sink).run(source);
+
+        assertEquals("bank.csv.gz", source.getName());
+        assertEquals(2, result.getImportedRows());
+        assertEquals(2, written.size());
+        assertEquals("Rent", written.get(0)[1]);
+    }
+
+    /**
+     * Tests that the estimated size of compressed sources is their uncompressed size,
+     * so a small archive of a large statement is still imported out of core.
+     */
+    @Test
+    @DisplayName("Should estimate the uncompressed size of sources")
+    void testEstimatedSize() throws IOException {
+        StringBuilder csv = new StringBuilder("Date,Description,Amount\n");
+        for (int i = 0; i < 20000; i++) {
+            csv.append("2025-04-14,Lunch,-25.50\n");
+        }
+        byte[] content = csv.toString().getBytes(StandardCharsets.UTF_8);
+        Path plain = tempDir.resolve("bank.csv");
+        Files.write(plain, content);
+        Path gzip = tempDir.resolve("bank.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(content);
+        }
+        Path zip = tempDir.resolve("bank.zip");
+        writeZip(zip, StandardCharsets.UTF_8, "bank.csv", csv.toString());
+
+        assertTrue(Files.size(gzip) < content.length / 10);
+        assertEquals(content.length, ImportSource.single(plain).getEstimatedSize());
+        assertEquals(content.length, ImportSource.single(gzip).getEstimatedSize());
+        assertEquals(content.length, ImportSource.single(zip).getEstimatedSize());
+        assertEquals(-1, new ImportSource("stream", () -> null).getEstimatedSize());
+    }
+
+    /**
+     * Tests that every CSV entry of a zip archive becomes a source, skipping folders,
+     * macOS metadata and other files.
+     */
+    @Test
+    @DisplayName("Should list each CSV entry of a zip archive")
+    void testZipEntries() throws IOException {
+        Path file = tempDir.resolve("april.zip");
+        writeZip(file, StandardCharsets.UTF_8,
+                "bank.csv", BANK_CSV,
+                "cards/visa.csv", "Date,Description,Amount\n2025-04-20,Books,-40.00\n",
+                "__MACOSX/cards/._visa.csv", "junk",
+                "readme.txt", "ignored");
+
+        List<ImportSource> sources = ImportSource.fromFile(file);
+
+        assertEquals(2, sources.size());
+        assertEquals("april.zip!/bank.csv", sources.get(0).getName());
+        assertEquals("april.zip!/cards/visa.csv", sources.get(1).getName());
+        assertEquals(Arrays.asList("Date", "Description", "Amount"), sources.get(1).readHeader());
+        assertThrows(IOException.class, () -> ImportSource.single(file));
+    }
+
+    /**
+     * Tests that a zip archive whose entry names are GBK-encoded, as produced by Chinese Windows tools,
+     * still lists and reads its entries.
+     */
+    @Test
+    @DisplayName("Should read zip archives with GBK entry names")
+    void testGbkEntryNames() throws IOException {
+        Assumptions.assumeTrue(Charset.isSupported("GBK"));
+        Path file = tempDir.resolve("statements.zip");
+        writeZip(file, Charset.forName("GBK"), "微信账单.csv", BANK_CSV);
+
+        List<ImportSource> sources = ImportSource.fromFile(file);
+
+        assertEquals(1, sources.size());
+        assertEquals("statements.zip!/微信账单.csv", sources.get(0).getName());
+        assertEquals("Date", sources.get(0).readHeader().get(0));
+    }
+
+    /**
+     * Tests that CSV content is read as UTF-8 when it is valid UTF-8 or starts with a byte order mark,
+     * and as GB18030, as exported by many Chinese banks, otherwise.
+     */
+    @Test
+    @DisplayName("Should detect UTF-8 and GB18030 content")
+    void testContentCharset() throws IOException {
+        Assumptions.assumeTrue(Charset.isSupported("GB18030"));
+        String csv = "日期,描述,金额\n2025-04-01,房租,-1500.00\n";
+        Path utf8 = tempDir.resolve("utf8.csv");
+        Files.write(utf8, csv.getBytes(StandardCharsets.UTF_8));
+        Path bom = tempDir.resolve("bom.csv");
+        Files.write(bom, ("\uFEFF" + csv).getBytes(StandardCharsets.UTF_8));
+        Path gb = tempDir.resolve("gb.csv");
+        Files.write(gb, csv.getBytes(Charset.forName("GB18030")));
+
+        assertEquals(Arrays.asList("日期", "描述", "金额"), ImportSource.single(utf8).readHeader());
+        assertEquals(Arrays.asList("日期", "描述", "金额"), ImportSource.single(bom).readHeader());
+        assertEquals(Arrays.asList("日期", "描述", "金额"), ImportSource.single(gb).readHeader());
+    }
+
+    /**
+     * Tests that a batch import of an archive imports all entries in one write.
+     */
+    @Test
+    @DisplayName("Should batch import every entry of a zip archive")
+    void testZipBatchImport() throws IOException {
+        Path file = tempDir.resolve("april.zip");
+        writeZip(file, StandardCharsets.UTF_8,
+                "bank.csv", BANK_CSV,
+                "visa.csv", "Date,Description,Amount\n2025-04-20,Books,-40.00\n2025-04-14,Lunch,-25.50\n");
+
+        ImportResult result = new BatchImport(sink).run(Collections.singletonList(file));
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(3, result.getImportedRows());
+        assertEquals(1, result.getDuplicateRows());
+        assertEquals(3, written.size());
+    }
+
+    /**
+     * Writes a zip archive from alternating entry names and contents.
+     */
+    private static void writeZip(Path file, Charset nameCharset, String... namesAndContents) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file), nameCharset)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+    }
+}
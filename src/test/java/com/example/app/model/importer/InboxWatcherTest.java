@@ -0,0 +1,110 @@
+package com.example.app.model.importer;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the InboxWatcher class.
+ * These tests drop files into a temporary inbox and verify that they are imported,
+ * archived, or moved aside when they cannot be imported.
+ */
+class InboxWatcherTest {
+
+    @TempDir
+    Path userDirectory;
+
+    private InboxWatcher watcher;
+
+    /**
+     * Stops the watcher after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Tests that a file already in the inbox and a file dropped later are both imported and archived.
+     */
+    @Test
+    @DisplayName("Should import and archive files dropped into the inbox")
+    void testImportsAndArchives() throws Exception {
+        List<Object[]> persisted = new ArrayList<>();
+        CountDownLatch imported = new CountDownLatch(2);
+        ColumnMapping mapping = ColumnMapping.guess(CSVTokenizer.tokenize("Date,Description,Amount"));
+        InboxWatcher.FileImporter importer = file ->
+                new ImportPipeline(mapping, batch -> {
+                    synchronized (persisted) {
+                        persisted.addAll(batch);
+                    }
+                }).run(file);
+
+        Path inbox = userDirectory.resolve(InboxWatcher.INBOX_DIRECTORY);
+        Files.createDirectories(inbox);
+        Files.write(inbox.resolve("april.csv"), Arrays.asList("Date,Description,Amount", "2025-04-14,Lunch,-25.50"));
+
+        watcher = new InboxWatcher(userDirectory.toFile(), importer, (archived, result) -> imported.countDown(), 0);
+        watcher.start();
+        Files.write(inbox.resolve("may.csv"), Arrays.asList("Date,Description,Amount", "2025-05-01,Rent,-1500.00"));
+        Files.write(inbox.resolve("notes.txt"), Arrays.asList("not a statement"));
+
+        assertTrue(imported.await(20, TimeUnit.SECONDS), "Both inbox files should be imported");
+        assertEquals(2, persisted.size());
+        assertTrue(Files.exists(watcher.getArchive().resolve("april.csv")));
+        assertTrue(Files.exists(watcher.getArchive().resolve("may.csv")));
+        assertFalse(Files.exists(inbox.resolve("april.csv")));
+        assertTrue(Files.exists(inbox.resolve("notes.txt")));
+    }
+
+    /**
+     * Tests that a file the importer rejects is moved to the failed folder and reported.
+     */
+    @Test
+    @DisplayName("Should move files that cannot be imported to the failed folder")
+    void testFailedFile() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        InboxWatcher.FileImporter importer = file -> {
+            throw new IOException("unknown layout");
+        };
+        watcher = new InboxWatcher(userDirectory.toFile(), importer, new InboxWatcher.Listener() {
+            @Override
+            public void onFileImported(Path archivedFile, ImportResult result) {
+                fail("File should not be imported");
+            }
+
+            @Override
+            public void onFileFailed(Path failedFile, Exception error) {
+                failed.countDown();
+            }
+        }, 0);
+        watcher.start();
+        Files.write(watcher.getInbox().resolve("broken.csv"), Arrays.asList("Foo,Bar", "1,2"));
+
+        assertTrue(failed.await(20, TimeUnit.SECONDS), "Failure should be reported");
+        assertTrue(Files.exists(watcher.getArchive().resolve(InboxWatcher.FAILED_DIRECTORY).resolve("broken.csv")));
+    }
+
+    /**
+     * Tests which file names are picked up from the inbox.
+     */
+    @Test
+    @DisplayName("Should only pick up CSV files")
+    void testSupportedFiles() {
+        assertTrue(InboxWatcher.isSupported(Path.of("statement.CSV")));
+        assertFalse(InboxWatcher.isSupported(Path.of("statement.csv.part")));
+        assertFalse(InboxWatcher.isSupported(Path.of(".~lock.statement.csv")));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.app.model.importer;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MerchantRules class.
+ * These tests verify keyword matching through the Aho-Corasick automaton, priority resolution,
+ * loading and seeding the rules file, and re-categorizing a ledger.
+ */
+class MerchantRulesTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that every keyword contained in a description is found, including overlapping ones.
+     */
+    @Test
+    @DisplayName("Should find all overlapping keywords in one pass")
+    void testFindAll() {
+        MerchantRules rules = new MerchantRules(Arrays.asList(
+                new MerchantRules.Rule("he", "A", 0),
+                new MerchantRules.Rule("she", "B", 0),
+                new MerchantRules.Rule("his", "C", 0),
+                new MerchantRules.Rule("hers", "D", 0)));
+
+        List<String> keywords = new ArrayList<>();
+        for (MerchantRules.Rule rule : rules.findAll("ushers")) {
+            keywords.add(rule.getKeyword());
+        }
+
+        assertEquals(Arrays.asList("she", "he", "hers"), keywords);
+        assertTrue(rules.findAll("nothing").isEmpty());
+        assertTrue(rules.findAll(null).isEmpty());
+    }
+
+    /**
+     * Tests that the highest priority wins, then the longest keyword.
+     */
+    @Test
+    @DisplayName("Should resolve several matches by priority and length")
+    void testPriority() {
+        MerchantRules rules = new MerchantRules(MerchantRules.getDefaultRules());
+
+        assertEquals("Food", rules.classify("美团外卖-梨花盏核桃碳烤肉", -58.0));
+        assertEquals("Transportation", rules.classify("美团打车-行程订单", -23.0));
+        assertEquals("Transportation", rules.classify("北京一卡通充值", -100.0));
+        assertEquals("Food", rules.classify("物美超市", -45.6));
+        assertNull(rules.classify("Starbucks", -30.0));
+
+        MerchantRules custom = new MerchantRules(Arrays.asList(
+                new MerchantRules.Rule("coffee", "Food", 0),
+                new MerchantRules.Rule("coffee beans", "Shopping", 0),
+                new MerchantRules.Rule("airport", "Transportation", 5)));
+        assertEquals("Shopping", custom.classify("Coffee Beans Co", -20.0));
+        assertEquals("Transportation", custom.classify("Airport coffee beans", -20.0));
+    }
+
+    /**
+     * Tests that a missing rules file is created with the defaults and that user edits are loaded.
+     */
+    @Test
+    @DisplayName("Should seed and load the user rules file")
+    void testLoad() throws IOException {
+        File directory = tempDir.toFile();
+        MerchantRules seeded = MerchantRules.load(directory);
+        Path file = tempDir.resolve(MerchantRules.RULES_FILENAME);
+
+        assertTrue(Files.exists(file));
+        assertEquals(MerchantRules.getDefaultRules().size(), seeded.getRules().size());
+
+        Files.write(file, Arrays.asList(
+                "Keyword,Category,Priority",
+                "// gym membership",
+                "Gym,Healthcare,3",
+                "\"Books, Inc\",Shopping",
+                "broken line"), StandardCharsets.UTF_8);
+        MerchantRules edited = MerchantRules.load(directory);
+
+        assertEquals(2, edited.getRules().size());
+        assertEquals(3, edited.getRules().get(0).getPriority());
+        assertEquals("Healthcare", edited.classify("City GYM monthly", -50.0));
+        assertEquals("Shopping", edited.classify("books, inc online", -12.0));
+    }
+
+    /**
+     * Tests that re-categorizing a ledger leaves confirmed rows untouched.
+     */
+    @Test
+    @DisplayName("Should re-categorize unconfirmed rows only")
+    void testRecategorize() {
+        MerchantRules rules = new MerchantRules(MerchantRules.getDefaultRules());
+        List<Object[]> ledger = Arrays.asList(
+                new Object[]{"2025-04-01", "美团外卖", "Other", -30.0, false},
+                new Object[]{"2025-04-02", "美团外卖", "Gift", -30.0, true},
+                new Object[]{"2025-04-03", "Unknown", "Other", -30.0, false});
+
+        assertEquals(1, rules.recategorize(ledger));
+        assertEquals("Food", ledger.get(0)[2]);
+        assertEquals("Gift", ledger.get(1)[2]);
+        assertEquals("Other", ledger.get(2)[2]);
+    }
+
+    /**
+     * Tests that rules come before the next classifier when chained.
+     */
+    @Test
+    @DisplayName("Should ask the next classifier only when no rule matches")
+    void testOrElse() {
+        TransactionClassifier chained = new MerchantRules(MerchantRules.getDefaultRules())
+                .orElse((description, amount) -> "Other");
+
+        assertEquals("Food", chained.classify("美团外卖", -30.0));
+        assertEquals("Other", chained.classify("Unknown", -30.0));
+    }
+}
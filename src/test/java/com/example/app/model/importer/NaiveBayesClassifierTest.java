@@ -0,0 +1,186 @@
+package com.example.app.model.importer;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the NaiveBayesClassifier class.
+ * These tests train the classifier from confirmed ledger rows and verify predictions,
+ * incremental training, the remote fallback and use in the import pipeline.
+ */
+class NaiveBayesClassifierTest {
+
+    private NaiveBayesClassifier classifier;
+    private List<Object[]> ledger;
+
+    /**
+     * Trains a classifier on a small confirmed ledger before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        classifier = new NaiveBayesClassifier();
+        ledger = new ArrayList<>(Arrays.asList(
+                row("2025-04-01", "美团外卖-风味餐厅", "Food", -32.00, true),
+                row("2025-04-02", "美团外卖-兰州拉面", "Food", -18.50, true),
+                row("2025-04-03", "Starbucks Coffee", "Food", -28.00, true),
+                row("2025-04-04", "物美超市", "Shopping", -156.30, true),
+                row("2025-04-05", "京东商城-数码配件", "Shopping", -299.00, true),
+                row("2025-04-06", "万达影城", "Entertainment", -60.00, true),
+                row("2025-04-07", "微信红包", "Gift", 88.00, true),
+                row("2025-04-08", "Unconfirmed guess", "Gift", -5.00, false)));
+        classifier.learnConfirmed(ledger);
+    }
+
+    /**
+     * Tests that only confirmed rows are learned and that syncing with a saved ledger
+     * learns only the rows added since.
+     */
+    @Test
+    @DisplayName("Should learn confirmed rows once")
+    void testIncrementalTraining() {
+        assertEquals(7, classifier.getTrainingSize());
+
+        ledger.add(row("2025-04-09", "滴滴出行", "Service", -24.00, true));
+
+        assertEquals(1, classifier.syncConfirmed(ledger));
+        assertEquals(8, classifier.getTrainingSize());
+        assertEquals(0, classifier.syncConfirmed(ledger));
+        assertEquals(8, classifier.getTrainingSize());
+    }
+
+    /**
+     * Tests that identical confirmed rows are each learned, and that rows deleted from
+     * or un-confirmed in the saved ledger are unlearned.
+     */
+    @Test
+    @DisplayName("Should learn identical rows and unlearn removed ones")
+    void testRemovedRows() {
+        assertEquals(2, classifier.learnConfirmed(Arrays.asList(
+                row("2025-04-10", "物美超市", "Shopping", -12.00, true),
+                row("2025-04-10", "物美超市", "Shopping", -12.00, true))));
+        assertEquals(9, classifier.getTrainingSize());
+
+        ledger.add(row("2025-04-10", "物美超市", "Shopping", -12.00, true));
+        ledger.set(5, row("2025-04-06", "万达影城", "Entertainment", -60.00, false));
+        ledger.remove(6);
+
+        assertEquals(0, classifier.syncConfirmed(ledger));
+        assertEquals(6, classifier.getTrainingSize());
+        assertNotEquals("Entertainment", classifier.predict("万达影城", -60.00).getCategory());
+    }
+
+    /**
+     * Tests that a confirmed transaction whose category was corrected is relearned under the new
+     * category and no longer counts for the old one.
+     */
+    @Test
+    @DisplayName("Should relearn a corrected category")
+    void testCorrectedCategory() {
+        NaiveBayesClassifier corrected = new NaiveBayesClassifier();
+        corrected.learnConfirmed(Arrays.asList(
+                row("2025-04-01", "中国石化加油站", "Shopping", -300.00, true),
+                row("2025-04-02", "万达影城", "Entertainment", -60.00, true)));
+        assertEquals("Shopping", corrected.predict("中国石化加油站", -280.00).getCategory());
+
+        int learned = corrected.syncConfirmed(Arrays.asList(
+                row("2025-04-01", "中国石化加油站", "Transport", -300.00, true),
+                row("2025-04-02", "万达影城", "Entertainment", -60.00, true)));
+
+        assertEquals(1, learned);
+        assertEquals(2, corrected.getTrainingSize());
+        assertEquals("Transport", corrected.predict("中国石化加油站", -280.00).getCategory());
+    }
+
+    /**
+     * Tests that descriptions sharing character n-grams with the training data are classified locally.
+     */
+    @Test
+    @DisplayName("Should classify similar descriptions locally")
+    void testPredict() {
+        assertEquals("Food", classifier.predict("美团外卖-黄焖鸡米饭", -25.00).getCategory());
+        assertEquals("Shopping", classifier.predict("物美超市(学院路店)", -88.00).getCategory());
+        assertEquals("Gift", classifier.predict("微信红包", 20.00).getCategory());
+        assertEquals("Food", classifier.classify("Starbucks Reserve", -35.00));
+    }
+
+    /**
+     * Tests that an untrained classifier makes no prediction.
+     */
+    @Test
+    @DisplayName("Should make no prediction before training")
+    void testUntrained() {
+        NaiveBayesClassifier empty = new NaiveBayesClassifier();
+
+        assertNull(empty.predict("anything", -1.0));
+        assertNull(empty.classify("anything", -1.0));
+    }
+
+    /**
+     * Tests that the fallback is only asked about rows the local model is unsure about.
+     */
+    @Test
+    @DisplayName("Should ask the fallback only for low-confidence rows")
+    void testFallback() {
+        AtomicInteger remoteCalls = new AtomicInteger();
+        TransactionClassifier combined = classifier.withFallback((description, amount) -> {
+            remoteCalls.incrementAndGet();
+            return "Other";
+        }, NaiveBayesClassifier.DEFAULT_MIN_CONFIDENCE);
+
+        assertEquals("Food", combined.classify("美团外卖-风味餐厅", -32.00));
+        assertEquals(0, remoteCalls.get());
+
+        assertEquals("Other", combined.classify("停车费", -40.00));
+        assertEquals(1, remoteCalls.get());
+    }
+
+    /**
+     * Tests that the classify stage fills in categories for an export without a category column.
+     */
+    @Test
+    @DisplayName("Should categorise rows in the import pipeline")
+    void testPipelineClassification() throws IOException {
+        String csv = "Date,Description,Amount\n"
+                + "2025-05-01,美团外卖-麻辣烫,-21.00\n"
+                + "2025-05-02,物美超市,-45.60\n";
+        List<Object[]> written = new ArrayList<>();
+
+        ImportResult result = new ImportPipeline(ColumnMapping.forHeaders(Arrays.asList("Date", "Description", "Amount")),
+                written::addAll)
+                .withClassifier(classifier)
+                .run(new StringReader(csv));
+
+        assertEquals(2, result.getImportedRows());
+        assertEquals("Food", written.get(0)[2]);
+        assertEquals("Shopping", written.get(1)[2]);
+    }
+
+    /**
+     * Tests that classifying a large number of rows stays fast enough to run inside an import.
+     */
+    @Test
+    @DisplayName("Should classify many rows quickly")
+    void testThroughput() {
+        List<String> descriptions = Collections.nCopies(20000, "美团外卖-黄焖鸡米饭");
+        long start = System.nanoTime();
+        for (String description : descriptions) {
+            assertNotNull(classifier.predict(description, -25.00));
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 5000, "Classifying 20000 rows took " + elapsedMillis + " ms");
+    }
+
+    private static Object[] row(String date, String description, String category, double amount, boolean confirmed) {
+        return new Object[] {date, description, category, amount, confirmed};
+    }
+}
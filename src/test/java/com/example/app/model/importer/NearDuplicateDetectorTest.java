@@ -0,0 +1,111 @@
+package com.example.app.model.importer;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the NearDuplicateDetector class.
+ * These tests verify description normalization, blocking by amount and date,
+ * and the FLAG and SKIP policies of the import pipeline.
+ */
+class NearDuplicateDetectorTest {
+
+    /**
+     * Tests that order numbers, punctuation and case are removed before comparison.
+     */
+    @Test
+    @DisplayName("Should strip order numbers and punctuation when normalizing")
+    void testNormalize() {
+        assertEquals("梨花盏核桃碳烤肉美团app",
+                NearDuplicateDetector.normalize("梨花盏核桃碳烤肉-美团App-2503161110123456"));
+        assertEquals("coffee42", NearDuplicateDetector.normalize(" Coffee #42 "));
+        assertEquals("", NearDuplicateDetector.normalize(null));
+        assertEquals(1.0, NearDuplicateDetector.similarity("abc", "abc"), 0.0001);
+        assertEquals(0.0, NearDuplicateDetector.similarity("abc", "xyz"), 0.0001);
+    }
+
+    /**
+     * Tests that the same payment with a different order suffix one day later is matched.
+     */
+    @Test
+    @DisplayName("Should match the same payment with a different order suffix")
+    void testMatchesDifferentSuffix() {
+        NearDuplicateDetector detector = new NearDuplicateDetector();
+        Object[] existing = {"2025-03-16", "梨花盏核桃碳烤肉-美团App-2503161110123456", "Food", -88.00, true};
+        detector.add(existing);
+
+        Object[] candidate = {"2025-03-17 12:30", "梨花盏核桃碳烤肉-美团App-2503161110999999", "Other", -88.00, false};
+        assertSame(existing, detector.findMatch(candidate));
+    }
+
+    /**
+     * Tests that different amounts, dates more than a day apart and unrelated descriptions do not match.
+     */
+    @Test
+    @DisplayName("Should not match outside the amount and date block or on different descriptions")
+    void testNoMatchOutsideBlock() {
+        NearDuplicateDetector detector = new NearDuplicateDetector();
+        detector.add(new Object[]{"2025-03-16", "Starbucks Coffee 001234567", "Food", -30.00, true});
+
+        assertNull(detector.findMatch(new Object[]{"2025-03-16", "Starbucks Coffee 007654321", "Food", -30.01, true}));
+        assertNull(detector.findMatch(new Object[]{"2025-03-18", "Starbucks Coffee 007654321", "Food", -30.00, true}));
+        assertNull(detector.findMatch(new Object[]{"2025-03-16", "Metro card top-up", "Food", -30.00, true}));
+        assertNotNull(detector.findMatch(new Object[]{"2025-03-15", "Starbucks Coffee 007654321", "Food", -30.00, true}));
+    }
+
+    /**
+     * Tests that lookups stay cheap for a large number of transactions sharing no block.
+     */
+    @Test
+    @DisplayName("Should handle large imports without pairwise comparison")
+    void testLargeImport() {
+        NearDuplicateDetector detector = new NearDuplicateDetector();
+        List<Object[]> transactions = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            transactions.add(new Object[]{"2025-01-01", "Shop " + i, "Other", -(i + 1) / 100.0, false});
+        }
+        detector.addAll(transactions);
+
+        assertEquals(50000, detector.size());
+        assertTimeoutPreemptively(java.time.Duration.ofSeconds(5), () -> {
+            for (Object[] transaction : transactions) {
+                assertNotNull(detector.findMatch(transaction));
+            }
+        });
+    }
+
+    /**
+     * Tests that the pipeline flags or skips near duplicates depending on the policy.
+     */
+    @Test
+    @DisplayName("Should flag or skip near duplicates in the import pipeline")
+    void testPipelinePolicies() throws IOException {
+        String csv = "Date,Description,Amount\n"
+                + "2025-03-16,Meituan order 25031611101234,-88.00\n"
+                + "2025-03-16,Meituan order 25031611109999,-88.00\n"
+                + "2025-03-17,Bus,-2.00\n";
+        ColumnMapping mapping = ColumnMapping.guess(CSVTokenizer.tokenize("Date,Description,Amount"));
+        TransactionSink sink = batch -> { };
+
+        ImportResult flagged = new ImportPipeline(mapping, sink)
+                .withNearDuplicateDetection(new NearDuplicateDetector(), ImportPipeline.NearDuplicatePolicy.FLAG)
+                .run(new StringReader(csv));
+        assertEquals(3, flagged.getImportedRows());
+        assertEquals(1, flagged.getNearDuplicates().size());
+
+        NearDuplicateDetector seeded = new NearDuplicateDetector();
+        seeded.addAll(Collections.singletonList(new Object[]{"2025-03-17", "BUS", "Transportation", -2.00, true}));
+        ImportResult skipped = new ImportPipeline(mapping, sink)
+                .withNearDuplicateDetection(seeded, ImportPipeline.NearDuplicatePolicy.SKIP)
+                .run(new StringReader(csv));
+        assertEquals(1, skipped.getImportedRows());
+        assertEquals(2, skipped.getNearDuplicates().size());
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.app.ui;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.*;
+import java.awt.event.HierarchyEvent;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DeferredRefresh class.
+ * These tests verify that a refresh runs in the next frame while the component is on screen,
+ * and that changes made while it is hidden are refreshed once when it is shown.
+ */
+class DeferredRefreshTest {
+
+    private StubPanel panel;
+    private AtomicInteger refreshes;
+    private DeferredRefresh refresh;
+
+    /**
+     * Creates a panel whose visibility the tests control, since no window can be shown here.
+     */
+    @BeforeEach
+    void setUp() {
+        panel = new StubPanel();
+        refreshes = new AtomicInteger();
+        refresh = new DeferredRefresh(panel, refreshes::incrementAndGet);
+    }
+
+    /**
+     * Tests that repeated requests for a showing component are refreshed once in the next frame.
+     *
+     * @throws Exception If the event thread is interrupted
+     */
+    @Test
+    @DisplayName("Should refresh a showing component once in the next frame")
+    void testShowing() throws Exception {
+        panel.setState(true, true);
+
+        SwingUtilities.invokeAndWait(() -> {
+            refresh.request();
+            refresh.request();
+            assertEquals(0, refreshes.get(), "Refresh waits for the frame");
+        });
+
+        awaitRefreshes(1);
+        assertFalse(refresh.isStale());
+    }
+
+    /**
+     * Tests that a component not yet in a window is refreshed at once, as before.
+     */
+    @Test
+    @DisplayName("Should refresh a component not yet in a window at once")
+    void testNotDisplayable() {
+        panel.setState(false, false);
+
+        refresh.request();
+
+        assertEquals(1, refreshes.get());
+    }
+
+    /**
+     * Tests that changes made while hidden are refreshed once when the component is shown.
+     *
+     * @throws Exception If the event thread is interrupted
+     */
+    @Test
+    @DisplayName("Should refresh a hidden component once when it is shown")
+    void testHidden() throws Exception {
+        panel.setState(true, false);
+
+        refresh.request();
+        refresh.request();
+        refresh.request();
+
+        assertEquals(0, refreshes.get(), "Hidden component is not refreshed");
+        assertTrue(refresh.isStale());
+
+        panel.setState(true, true);
+        panel.fireShowingChanged();
+        panel.fireShowingChanged();
+
+        awaitRefreshes(1);
+        assertFalse(refresh.isStale());
+    }
+
+    /**
+     * Tests that a refresh waiting for its frame is put off when the component is hidden.
+     *
+     * @throws Exception If the event thread is interrupted
+     */
+    @Test
+    @DisplayName("Should put off a scheduled refresh when the component is hidden")
+    void testHiddenBeforeFrame() throws Exception {
+        panel.setState(true, true);
+        SwingUtilities.invokeAndWait(() -> {
+            refresh.request();
+            panel.setState(true, false);
+            panel.fireShowingChanged();
+        });
+
+        assertTrue(refresh.isStale());
+        Thread.sleep(100);
+        assertEquals(0, refreshes.get());
+
+        panel.setState(true, true);
+        panel.fireShowingChanged();
+
+        awaitRefreshes(1);
+    }
+
+    /**
+     * Tests that showing a component that missed no changes does not refresh it.
+     */
+    @Test
+    @DisplayName("Should not refresh a component that is up to date when shown")
+    void testShownUpToDate() {
+        panel.setState(true, true);
+        panel.fireShowingChanged();
+
+        assertEquals(0, refreshes.get());
+    }
+
+    /**
+     * Waits for the frame after a request, then checks the number of refreshes.
+     *
+     * @param expected the expected number of refreshes
+     * @throws InterruptedException If the wait is interrupted
+     */
+    private void awaitRefreshes(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (refreshes.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100); // no further refreshes follow
+        assertEquals(expected, refreshes.get());
+    }
+
+    /**
+     * Panel that reports a chosen visibility and can fire showing changes.
+     */
+    private static class StubPanel extends JPanel {
+        private boolean displayable;
+        private boolean showing;
+
+        void setState(boolean displayable, boolean showing) {
+            this.displayable = displayable;
+            this.showing = showing;
+        }
+
+        void fireShowingChanged() {
+            dispatchEvent(new HierarchyEvent(this, HierarchyEvent.HIERARCHY_CHANGED, this, null,
+                    HierarchyEvent.SHOWING_CHANGED));
+        }
+
+        @Override
+        public boolean isDisplayable() {
+            return displayable;
+        }
+
+        @Override
+        public boolean isShowing() {
+            return showing;
+        }
+    }
+}
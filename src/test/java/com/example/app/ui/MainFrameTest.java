@@ -67,6 +67,21 @@ class MainFrameTest {
         });
     }
 
+    @Test
+    @DisplayName("Should build pages only when first shown")
+    void testPagesBuiltOnFirstNavigation() throws Exception {
+        Assumptions.assumeFalse(GraphicsEnvironment.isHeadless(), "Needs a display");
+        SwingUtilities.invokeAndWait(() -> {
+            frame = new MainFrame(TEST_USER);
+            assertTrue(frame.isPageBuilt(MainFrame.DASHBOARD_PAGE));
+            assertFalse(frame.isPageBuilt(MainFrame.REPORTS_PAGE), "Pages other than the dashboard wait for navigation");
+
+            findButtonByText(frame.getContentPane(), "Reports").doClick();
+            assertTrue(frame.isPageBuilt(MainFrame.REPORTS_PAGE));
+            assertFalse(frame.isPageBuilt(MainFrame.AI_PAGE));
+        });
+    }
+
     // --- Utility methods ---
     private JButton findButtonByText(Container parent, String text) {
         for (Component comp : parent.getComponents()) {
@@ -0,0 +1,131 @@
+package com.example.app.ui;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RenderScheduler class.
+ * These tests verify that redraws run on the event dispatch thread, that superseded and
+ * cancelled requests are dropped, and that frames are at least one frame interval apart.
+ */
+class RenderSchedulerTest {
+
+    private static final int FRAME_INTERVAL_MS = 100;
+
+    private RenderScheduler scheduler;
+
+    /**
+     * Creates a scheduler with a long frame interval so frame gaps can be measured.
+     */
+    @BeforeEach
+    void setUp() {
+        scheduler = new RenderScheduler(FRAME_INTERVAL_MS);
+    }
+
+    /**
+     * Tests that only the latest request per key runs, once, on the event dispatch thread.
+     * The burst is requested in one event, so no frame can run in between.
+     *
+     * @throws Exception If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should run only the latest request per key")
+    void testSupersededRequestsDropped() throws Exception {
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger latest = new AtomicInteger();
+        AtomicInteger onEventThread = new AtomicInteger();
+        CountDownLatch frame = new CountDownLatch(1);
+        Object chart = new Object();
+
+        SwingUtilities.invokeAndWait(() -> {
+            scheduler.schedule(chart, first::incrementAndGet);
+            scheduler.schedule(chart, first::incrementAndGet);
+            scheduler.schedule(chart, () -> {
+                latest.incrementAndGet();
+                if (SwingUtilities.isEventDispatchThread()) {
+                    onEventThread.incrementAndGet();
+                }
+            });
+            scheduler.schedule(new Object(), frame::countDown);
+        });
+
+        assertTrue(frame.await(2, TimeUnit.SECONDS));
+        assertEquals(0, first.get());
+        assertEquals(1, latest.get());
+        assertEquals(1, onEventThread.get());
+    }
+
+    /**
+     * Tests that a redraw requested during a frame waits a full frame interval.
+     *
+     * @throws InterruptedException If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should run at most one frame per interval")
+    void testFrameRateCapped() throws InterruptedException {
+        AtomicLong firstFrame = new AtomicLong();
+        AtomicLong secondFrame = new AtomicLong();
+        CountDownLatch frames = new CountDownLatch(1);
+        Object panel = new Object();
+
+        scheduler.schedule(panel, () -> {
+            firstFrame.set(System.nanoTime());
+            scheduler.schedule(panel, () -> {
+                secondFrame.set(System.nanoTime());
+                frames.countDown();
+            });
+        });
+
+        assertTrue(frames.await(2, TimeUnit.SECONDS));
+        long gapMs = (secondFrame.get() - firstFrame.get()) / 1_000_000;
+        assertTrue(gapMs >= FRAME_INTERVAL_MS - 10, "Frames were " + gapMs + " ms apart");
+    }
+
+    /**
+     * Tests that a cancelled request does not run.
+     *
+     * @throws Exception If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should drop a cancelled request")
+    void testCancel() throws Exception {
+        AtomicInteger cancelled = new AtomicInteger();
+        CountDownLatch frame = new CountDownLatch(1);
+        Object chart = new Object();
+
+        SwingUtilities.invokeAndWait(() -> {
+            scheduler.schedule(chart, cancelled::incrementAndGet);
+            assertTrue(scheduler.cancel(chart));
+            assertFalse(scheduler.cancel(chart), "Nothing left to cancel");
+        });
+        scheduler.schedule(new Object(), frame::countDown);
+
+        assertTrue(frame.await(2, TimeUnit.SECONDS));
+        assertEquals(0, cancelled.get());
+    }
+
+    /**
+     * Tests that a failing redraw does not stop the others in its frame.
+     *
+     * @throws InterruptedException If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should run the other redraws when one fails")
+    void testFailingRedraw() throws InterruptedException {
+        CountDownLatch frame = new CountDownLatch(1);
+
+        scheduler.schedule(new Object(), () -> {
+            throw new IllegalStateException("broken chart");
+        });
+        scheduler.schedule(new Object(), frame::countDown);
+
+        assertTrue(frame.await(2, TimeUnit.SECONDS));
+    }
+}
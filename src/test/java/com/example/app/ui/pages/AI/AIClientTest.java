@@ -0,0 +1,251 @@
+package com.example.app.ui.pages.AI;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AIClient class.
+ * These tests run against a local fake DeepSeek endpoint and verify raw, parsed and event-streamed
+ * responses, status and timeout handling, the circuit breaker, latency-based timeouts, hedging,
+ * cancellation and the streaming content parser.
+ */
+class AIClientTest {
+
+    private FakeDeepSeekServer server;
+
+    /**
+     * Starts a fake endpoint before each test.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeDeepSeekServer();
+    }
+
+    /**
+     * Stops the fake endpoint after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests that repeated calls through one client return the raw body and the reply text.
+     */
+    @Test
+    @DisplayName("Should send prompts and read replies through one client")
+    void testSendAndAsk() throws IOException {
+        AIClient client = new AIClient(server.getUrl());
+
+        String raw = client.send("key", "1|2025-04-14,风味餐厅,商户消费,-15.00");
+        String content = client.ask("key", "7|2025-04-14,Coffee,商户消费,-15.00");
+
+        assertTrue(raw.contains("\"choices\""));
+        assertEquals("1:Food", AIClient.parseContent(raw));
+        assertEquals("7:Food", content);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    /**
+     * Tests that a non-2xx response is reported with its status code.
+     */
+    @Test
+    @DisplayName("Should report error statuses")
+    void testErrorStatus() {
+        AIClient client = new AIClient(server.getUrl());
+        server.failNext(2, 429);
+
+        AIClient.StatusException e = assertThrows(AIClient.StatusException.class, () -> client.send("key", "hi"));
+        assertEquals(429, e.getStatusCode());
+        assertTrue(e.isRetryable());
+        assertThrows(AIClient.StatusException.class, () -> client.ask("key", "hi"));
+        assertFalse(new AIClient.StatusException(401).isRetryable());
+    }
+
+    /**
+     * Tests that a slow response fails once the response timeout passes.
+     */
+    @Test
+    @DisplayName("Should time out slow responses")
+    void testTimeout() {
+        server.withLatency(2000);
+        AIClient client = new AIClient(server.getUrl(), Duration.ofSeconds(1), Duration.ofMillis(200));
+
+        assertThrows(HttpTimeoutException.class, () -> client.ask("key", "hi"));
+    }
+
+    /**
+     * Tests that repeated server errors open the circuit breaker, which then fails fast
+     * until a probe request succeeds.
+     *
+     * @throws Exception If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should fail fast while the circuit breaker is open")
+    void testCircuitBreaker() throws Exception {
+        AIClient client = new AIClient(server.getUrl())
+                .withCircuitBreaker(new CircuitBreaker(2, Duration.ofMillis(200)));
+        server.failNext(3, 503);
+
+        assertThrows(AIClient.StatusException.class, () -> client.ask("key", "hi"));
+        assertThrows(AIClient.StatusException.class, () -> client.send("key", "hi"));
+        assertFalse(client.isAvailable());
+        assertThrows(AIClient.CircuitOpenException.class, () -> client.ask("key", "hi"));
+        assertThrows(AIClient.CircuitOpenException.class, () -> client.stream("key", "hi", token -> { }));
+        assertEquals(2, server.getRequestCount(), "No request is sent while the breaker is open");
+
+        Thread.sleep(250);
+        assertThrows(AIClient.StatusException.class, () -> client.ask("key", "hi"));
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState(), "A failed probe reopens it");
+
+        Thread.sleep(250);
+        assertEquals("1:Food", client.ask("key", "1|2025-04-14,风味餐厅,商户消费,-15.00"));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+        assertEquals(4, server.getRequestCount());
+    }
+
+    /**
+     * Tests that once latencies are known, a stalled request times out long before the configured timeout.
+     *
+     * @throws Exception If a warm-up request fails
+     */
+    @Test
+    @DisplayName("Should derive the timeout from recent latencies")
+    void testAdaptiveTimeout() throws Exception {
+        AIClient client = new AIClient(server.getUrl(), Duration.ofSeconds(1), Duration.ofSeconds(30))
+                .withMinAdaptiveTimeout(Duration.ofMillis(300));
+        assertEquals(Duration.ofSeconds(30), client.responseTimeout());
+        for (int i = 0; i < AIClient.MIN_LATENCY_SAMPLES; i++) {
+            client.ask("key", "hi");
+        }
+        assertEquals(Duration.ofMillis(300), client.responseTimeout());
+
+        server.delayNext(1, 5000);
+        long start = System.nanoTime();
+        assertThrows(HttpTimeoutException.class, () -> client.ask("key", "hi"));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 3000);
+    }
+
+    /**
+     * Tests that a request slower than the recent p95 latency is hedged and answered by the duplicate.
+     *
+     * @throws Exception If a request fails
+     */
+    @Test
+    @DisplayName("Should hedge requests slower than the p95 latency")
+    void testHedging() throws Exception {
+        AIClient client = new AIClient(server.getUrl()).withHedging(true);
+        for (int i = 0; i < AIClient.MIN_LATENCY_SAMPLES; i++) {
+            client.ask("key", "hi");
+        }
+        assertEquals(0, client.getHedgedRequestCount());
+
+        server.delayNext(1, 5000);
+        long start = System.nanoTime();
+        String content = client.ask("key", "1|2025-04-14,风味餐厅,商户消费,-15.00");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("1:Food", content);
+        assertEquals(1, client.getHedgedRequestCount());
+        assertEquals(AIClient.MIN_LATENCY_SAMPLES + 2, server.getRequestCount());
+        assertTrue(elapsedMillis < 3000, "Hedged request took " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Tests that a streamed reply is handed over fragment by fragment and returned whole.
+     */
+    @Test
+    @DisplayName("Should stream reply fragments as events arrive")
+    void testStream() throws IOException {
+        String reply = "Your food spending rose 20% this month; consider cooking at home.";
+        server.withReply(reply).withChunks(5, 0);
+        AIClient client = new AIClient(server.getUrl());
+        List<String> tokens = new CopyOnWriteArrayList<>();
+
+        String result = client.stream("key", "How is my spending?", tokens::add);
+
+        assertEquals(reply, result);
+        assertEquals(reply, String.join("", tokens));
+        assertEquals((reply.length() + 4) / 5, tokens.size());
+    }
+
+    /**
+     * Tests that a stream cut off partway counts as a failure for the circuit breaker,
+     * even though its response headers arrived fine.
+     */
+    @Test
+    @DisplayName("Should count a stream cut off partway as a failure")
+    void testStreamFailsMidway() {
+        server.withReply("x".repeat(50)).withChunks(1, 0).abortStreamsAfter(5);
+        AIClient client = new AIClient(server.getUrl())
+                .withCircuitBreaker(new CircuitBreaker(1, Duration.ofMinutes(1)));
+
+        assertThrows(IOException.class, () -> client.stream("key", "hi", token -> { }));
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+    }
+
+    /**
+     * Tests that cancelling from another thread stops the stream after the fragments received so far.
+     */
+    @Test
+    @DisplayName("Should stop streaming when cancelled")
+    void testStreamCancelled() throws Exception {
+        server.withReply("x".repeat(200)).withChunks(1, 20);
+        AIClient client = new AIClient(server.getUrl());
+        CountDownLatch firstToken = new CountDownLatch(1);
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AIClient.Cancellation cancellation = new AIClient.Cancellation();
+
+        Thread worker = new Thread(() -> {
+            try {
+                client.stream("key", "hi", token -> {
+                    tokens.add(token);
+                    firstToken.countDown();
+                }, cancellation);
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        worker.start();
+        assertTrue(firstToken.await(5, TimeUnit.SECONDS));
+        cancellation.cancel();
+        worker.join(5000);
+
+        assertFalse(worker.isAlive());
+        assertInstanceOf(InterruptedIOException.class, failure.get());
+        assertTrue(tokens.size() < 200, "Received " + tokens.size() + " fragments");
+    }
+
+    /**
+     * Tests that the streaming parser skips unrelated fields and handles missing content.
+     */
+    @Test
+    @DisplayName("Should extract the reply text from a response stream")
+    void testParseContent() throws IOException {
+        String json = "{\"id\":\"x\",\"usage\":{\"tokens\":[1,2,{\"a\":\"b\"}]},"
+                + "\"choices\":[{\"index\":0,\"logprobs\":null,"
+                + "\"message\":{\"role\":\"assistant\",\"content\":\"你好\\nworld\"}}]}";
+
+        assertEquals("你好\nworld",
+                AIClient.parseContent(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+        assertNull(AIClient.parseContent("{\"choices\":[]}"));
+        assertNull(AIClient.parseContent("{\"choices\":[{\"message\":{\"content\":null}}]}"));
+        assertThrows(IOException.class, () -> AIClient.parseContent("not a json"));
+        assertEquals("Hi", AIClient.parseDelta("{\"id\":\"c\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Hi\"}}]}"));
+        assertNull(AIClient.parseDelta("{\"choices\":[{\"delta\":{\"role\":\"assistant\"},\"finish_reason\":\"stop\"}]}"));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.app.ui.pages.AI;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AITaskScheduler class.
+ * These tests verify priority ordering, the in-flight limit with its interactive slot,
+ * cancellation of queued and running tasks, and failed tasks.
+ */
+class AITaskSchedulerTest {
+
+    /**
+     * Tests that queued tasks start most urgent first, then in submission order.
+     *
+     * @throws Exception If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should start queued tasks by priority")
+    void testPriorityOrder() throws Exception {
+        AITaskScheduler scheduler = new AITaskScheduler(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = scheduler.submit(AITaskScheduler.Priority.INTERACTIVE, c -> {
+            release.await();
+            return null;
+        });
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<?> bulk = scheduler.submit(AITaskScheduler.Priority.BULK, c -> order.add("bulk"));
+        CompletableFuture<?> advice = scheduler.submit(AITaskScheduler.Priority.ADVICE, c -> order.add("advice"));
+        CompletableFuture<?> first = scheduler.submit(AITaskScheduler.Priority.INTERACTIVE, c -> order.add("chat 1"));
+        CompletableFuture<?> second = scheduler.submit(AITaskScheduler.Priority.INTERACTIVE, c -> order.add("chat 2"));
+        assertEquals(4, scheduler.getQueued());
+
+        release.countDown();
+        CompletableFuture.allOf(blocker, bulk, advice, first, second).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("chat 1", "chat 2", "advice", "bulk"), order);
+    }
+
+    /**
+     * Tests that background tasks never take the last slot, so an interactive task starts at once.
+     *
+     * @throws Exception If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should keep a slot free for interactive tasks")
+    void testInteractiveSlot() throws Exception {
+        AITaskScheduler scheduler = new AITaskScheduler(3);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            scheduler.submit(AITaskScheduler.Priority.BULK, c -> release.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, scheduler.getInFlight());
+        assertEquals(2, scheduler.getQueued());
+
+        CompletableFuture<String> chat = scheduler.submit(AITaskScheduler.Priority.INTERACTIVE, c -> "answer");
+
+        assertEquals("answer", chat.get(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    /**
+     * Tests that a cancelled task is skipped while queued and signalled and interrupted while running.
+     *
+     * @throws Exception If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should cancel queued and running tasks")
+    void testCancel() throws Exception {
+        AITaskScheduler scheduler = new AITaskScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        List<Boolean> signalled = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> running = scheduler.submit(AITaskScheduler.Priority.INTERACTIVE, c -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                signalled.add(c.isCancelled());
+                stopped.countDown();
+            }
+            return null;
+        });
+        List<String> ran = new CopyOnWriteArrayList<>();
+        CompletableFuture<?> queued = scheduler.submit(AITaskScheduler.Priority.ADVICE, c -> ran.add("queued"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(queued.cancel(true));
+        assertTrue(running.cancel(true));
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(true), signalled);
+        assertThrows(CancellationException.class, running::join);
+        assertEquals("done", scheduler.submit(AITaskScheduler.Priority.BULK, c -> "done").get(5, TimeUnit.SECONDS));
+        assertTrue(ran.isEmpty(), "A cancelled task never runs");
+    }
+
+    /**
+     * Tests that a failing task completes its future exceptionally and frees its slot.
+     *
+     * @throws Exception If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should report failed tasks")
+    void testFailure() throws Exception {
+        AITaskScheduler scheduler = new AITaskScheduler(1);
+        CompletableFuture<Object> failed = scheduler.submit(AITaskScheduler.Priority.ADVICE, c -> {
+            throw new IllegalStateException("boom");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1, scheduler.submit(AITaskScheduler.Priority.ADVICE, c -> 1).get(5, TimeUnit.SECONDS));
+    }
+}
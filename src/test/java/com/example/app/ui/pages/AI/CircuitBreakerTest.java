@@ -0,0 +1,92 @@
+package com.example.app.ui.pages.AI;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CircuitBreaker class.
+ * These tests verify opening after consecutive failures, the single half-open probe,
+ * closing after a successful probe, late failures while open and argument validation.
+ */
+class CircuitBreakerTest {
+
+    /**
+     * Tests that the breaker opens after the threshold of consecutive failures, and a success resets the count.
+     */
+    @Test
+    @DisplayName("Should open after consecutive failures")
+    void testOpens() {
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofMinutes(1));
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    /**
+     * Tests that after the open period one probe is let through, and its outcome decides the state.
+     *
+     * @throws InterruptedException If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should let one probe through after the open period")
+    void testHalfOpen() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMillis(50));
+        breaker.recordFailure();
+        assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(80);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "Only one probe at a time");
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(80);
+        assertTrue(breaker.tryAcquire());
+        breaker.release();
+        assertTrue(breaker.tryAcquire(), "A released probe can be retried");
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    /**
+     * Tests that a failure reported while the breaker is already open does not keep it open longer.
+     *
+     * @throws InterruptedException If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should not extend the open period on late failures")
+    void testLateFailure() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMillis(100));
+        breaker.recordFailure();
+
+        Thread.sleep(60);
+        breaker.recordFailure();
+        Thread.sleep(60);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    /**
+     * Tests that invalid settings are rejected.
+     */
+    @Test
+    @DisplayName("Should reject a non-positive failure threshold")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0, Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.app.ui.pages.AI;
+
+import com.example.app.user_data.AIResponseCache;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ClassificationDispatcher class.
+ * These tests run against a local fake DeepSeek endpoint and verify batching by token budget,
+ * bounded concurrency, retries with backoff, mapping answers back by row ID and caching answers per row.
+ */
+class ClassificationDispatcherTest {
+
+    private FakeDeepSeekServer server;
+
+    /**
+     * Starts a fake endpoint before each test.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeDeepSeekServer();
+    }
+
+    /**
+     * Stops the fake endpoint after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests that rows are packed into batches by row count and that reordered answers
+     * are mapped back to the right rows.
+     */
+    @Test
+    @DisplayName("Should batch rows and map answers back by row ID")
+    void testBatchingAndMapping() throws IOException {
+        List<Object[]> rows = rows(25);
+        rows.get(3)[1] = "风味餐厅";
+        rows.get(17)[1] = "Coffee Lab";
+
+        ClassificationDispatcher dispatcher = dispatcher().withBatchLimits(10_000, 10);
+        Map<Integer, String> results = dispatcher.classify(rows);
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(25, results.size());
+        assertEquals("Food", results.get(3));
+        assertEquals("Food", results.get(17));
+        assertEquals("Other", results.get(4));
+    }
+
+    /**
+     * Tests that the token budget splits batches and a single oversized row still gets sent.
+     */
+    @Test
+    @DisplayName("Should split batches by estimated tokens")
+    void testTokenBudget() {
+        List<Object[]> rows = rows(4);
+        rows.get(2)[1] = String.join("", Collections.nCopies(300, "长"));
+        List<Integer> ids = Arrays.asList(0, 1, 2, 3);
+
+        int header = ClassificationDispatcher.estimateTokens(ClassificationDispatcher.PROMPT_HEADER);
+        List<List<Integer>> batches = dispatcher().withBatchLimits(header + 40, 100).pack(rows, ids);
+
+        assertEquals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2), Arrays.asList(3)), batches);
+        assertEquals(2, ClassificationDispatcher.estimateTokens("abcdefgh"));
+        assertEquals(3, ClassificationDispatcher.estimateTokens("美团a"));
+    }
+
+    /**
+     * Tests that rate limiting and server errors are retried and confirmed rows are not sent.
+     */
+    @Test
+    @DisplayName("Should retry transient failures and skip confirmed rows")
+    void testRetry() throws IOException {
+        List<Object[]> rows = rows(3);
+        rows.get(1)[4] = true;
+        server.failNext(2, 429);
+
+        int classified = dispatcher().classifyInPlace(rows);
+
+        assertEquals(2, classified);
+        assertEquals(3, server.getRequestCount());
+        assertEquals("Other", rows.get(0)[2]);
+        assertEquals("Groceries", rows.get(1)[2]);
+    }
+
+    /**
+     * Tests that a batch that keeps failing leaves its rows unclassified instead of throwing.
+     */
+    @Test
+    @DisplayName("Should give up after the last attempt")
+    void testGiveUp() throws IOException {
+        server.failNext(100, 503);
+
+        Map<Integer, String> results = dispatcher().withRetry(3, 1).classify(rows(2));
+
+        assertTrue(results.isEmpty());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    /**
+     * Tests that once the circuit breaker opens, retries stop and later calls send nothing.
+     */
+    @Test
+    @DisplayName("Should stop sending while the service is unavailable")
+    void testCircuitOpen() throws IOException {
+        server.failNext(100, 503);
+        AIClient client = new AIClient(server.getUrl())
+                .withCircuitBreaker(new CircuitBreaker(1, Duration.ofMinutes(1)));
+        ClassificationDispatcher dispatcher = new ClassificationDispatcher(client, "test-key")
+                .withRateLimit(1000, 10)
+                .withRetry(4, 1);
+
+        assertTrue(dispatcher.classify(rows(2)).isEmpty());
+        assertEquals(1, server.getRequestCount(), "Retries stop once the breaker opens");
+
+        assertTrue(dispatcher.classify(rows(2)).isEmpty());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    /**
+     * Tests that no more requests than the concurrency bound are in flight at once.
+     */
+    @Test
+    @DisplayName("Should bound concurrent requests")
+    void testConcurrencyBound() throws IOException {
+        server.withLatency(50);
+
+        long start = System.nanoTime();
+        Map<Integer, String> results = dispatcher()
+                .withBatchLimits(10_000, 5)
+                .withConcurrency(3)
+                .classify(rows(60));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(60, results.size());
+        assertEquals(12, server.getRequestCount());
+        assertTrue(server.getMaxInFlight() <= 3, "Peak concurrency was " + server.getMaxInFlight());
+        assertTrue(server.getMaxInFlight() > 1, "Requests were not sent concurrently");
+        System.out.println("Classified 60 rows in 12 requests in " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Tests that the classifying sink only sends rows that still lack a category.
+     */
+    @Test
+    @DisplayName("Should classify uncategorised rows before persisting")
+    void testClassifyingSink() throws IOException {
+        List<Object[]> saved = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        batch.add(new Object[]{"2025-04-01", "风味餐厅", "Uncategorised", -15.0, false});
+        batch.add(new Object[]{"2025-04-02", "Rent", "Housing", -1500.0, false});
+
+        dispatcher().classifyingSink(saved::addAll).accept(batch);
+
+        assertEquals(2, saved.size());
+        assertEquals("Food", saved.get(0)[2]);
+        assertEquals("Housing", saved.get(1)[2]);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    /**
+     * Tests that answers are cached per row, so only new rows are sent the next time.
+     */
+    @Test
+    @DisplayName("Should classify previously seen rows from the cache")
+    void testCache(@TempDir Path tempDir) throws IOException {
+        AIResponseCache cache = new AIResponseCache(tempDir.toFile(), Duration.ofHours(1), 100, 100_000);
+        List<Object[]> first = rows(3);
+        first.get(0)[1] = "风味餐厅";
+        dispatcher().withCache(cache).classifyInPlace(first);
+        assertEquals(1, server.getRequestCount());
+        assertEquals(3, cache.size());
+
+        List<Object[]> second = rows(4);
+        second.get(0)[1] = "风味餐厅";
+        Map<Integer, String> results = dispatcher().withCache(cache).classify(second);
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals(4, results.size());
+        assertEquals("Food", results.get(0));
+        assertEquals(4, cache.size());
+
+        dispatcher().withCache(cache).classify(rows(3));
+        assertEquals(3, server.getRequestCount(), "Changed rows are sent again");
+    }
+
+    private ClassificationDispatcher dispatcher() {
+        return new ClassificationDispatcher(new AIClient(server.getUrl()), "test-key")
+                .withRateLimit(1000, 10)
+                .withRetry(4, 1);
+    }
+
+    private static List<Object[]> rows(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"2025-04-" + String.format("%02d", i % 28 + 1), "Shop " + i, "Groceries",
+                    -10.0 - i, false});
+        }
+        return rows;
+    }
+}
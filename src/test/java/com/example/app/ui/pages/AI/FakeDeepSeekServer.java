@@ -0,0 +1,259 @@
+package com.example.app.ui.pages.AI;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local stand-in for the DeepSeek chat completions endpoint, for testing and benchmarking
+ * classification offline. It answers every numbered {@code id|date,description,category,amount}
+ * prompt line with an {@code id:Category} line, in reverse order, and can add latency,
+ * delay or fail a number of requests first. Requests with {@code "stream": true} are answered with
+ * server-sent events carrying a few characters each, and can be cut off partway.
+ */
+public class FakeDeepSeekServer implements AutoCloseable {
+    private static final Pattern ROW = Pattern.compile("^(\\d+)\\|[^,]*,([^,]*),.*$", Pattern.MULTILINE);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger delaysLeft = new AtomicInteger();
+    private volatile long delayMillis;
+    private volatile int failureStatus = 429;
+    private volatile long latencyMillis;
+    private volatile long chunkDelayMillis;
+    private volatile int chunkSize = 4;
+    private volatile int abortAfterChunks = -1;
+    private volatile String reply;
+    private volatile Function<String, String> categorizer = description ->
+            description.contains("餐") || description.toLowerCase().contains("coffee") ? "Food" : "Other";
+
+    /**
+     * Starts the server on a free local port.
+     *
+     * @throws IOException if the server cannot be started
+     */
+    public FakeDeepSeekServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Gets the chat completions URL of this server.
+     *
+     * @return the URL
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    /**
+     * Makes the next requests fail.
+     *
+     * @param count number of requests to fail
+     * @param status HTTP status to fail them with
+     * @return this server
+     */
+    public FakeDeepSeekServer failNext(int count, int status) {
+        failuresLeft.set(count);
+        failureStatus = status;
+        return this;
+    }
+
+    /**
+     * Delays the next requests, on top of any latency added to every response.
+     *
+     * @param count number of requests to delay
+     * @param delayMillis delay in milliseconds
+     * @return this server
+     */
+    public FakeDeepSeekServer delayNext(int count, long delayMillis) {
+        this.delayMillis = delayMillis;
+        delaysLeft.set(count);
+        return this;
+    }
+
+    /**
+     * Delays every response.
+     *
+     * @param latencyMillis delay in milliseconds
+     * @return this server
+     */
+    public FakeDeepSeekServer withLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * Sets how streamed replies are split into events.
+     *
+     * @param chunkSize characters per event
+     * @param chunkDelayMillis delay before each event in milliseconds
+     * @return this server
+     */
+    public FakeDeepSeekServer withChunks(int chunkSize, long chunkDelayMillis) {
+        this.chunkSize = chunkSize;
+        this.chunkDelayMillis = chunkDelayMillis;
+        return this;
+    }
+
+    /**
+     * Drops the connection of every streamed reply after a number of events, before the reply is complete.
+     *
+     * @param chunks events sent before the connection is dropped
+     * @return this server
+     */
+    public FakeDeepSeekServer abortStreamsAfter(int chunks) {
+        this.abortAfterChunks = chunks;
+        return this;
+    }
+
+    /**
+     * Answers every prompt with a fixed text instead of categorizing its rows.
+     *
+     * @param reply the reply text
+     * @return this server
+     */
+    public FakeDeepSeekServer withReply(String reply) {
+        this.reply = reply;
+        return this;
+    }
+
+    /**
+     * Sets how descriptions are categorized.
+     *
+     * @param categorizer maps a description to a category
+     * @return this server
+     */
+    public FakeDeepSeekServer withCategorizer(Function<String, String> categorizer) {
+        this.categorizer = categorizer;
+        return this;
+    }
+
+    /**
+     * Gets the number of requests received, including failed ones.
+     *
+     * @return the request count
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the largest number of requests that were being handled at the same time.
+     *
+     * @return the peak concurrency
+     */
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (delaysLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                Thread.sleep(delayMillis);
+            }
+            if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                send(exchange, failureStatus, "{\"error\":{\"message\":\"try again\"}}");
+                return;
+            }
+
+            String prompt = request.path("messages").path(0).path("content").asText();
+            String content = reply;
+            if (content == null) {
+                List<String> answers = new ArrayList<>();
+                Matcher matcher = ROW.matcher(prompt);
+                while (matcher.find()) {
+                    answers.add(matcher.group(1) + ":" + categorizer.apply(matcher.group(2)));
+                }
+                Collections.reverse(answers);
+                content = String.join("\n", answers);
+            }
+
+            if (request.path("stream").asBoolean()) {
+                sendEvents(exchange, content);
+                return;
+            }
+            ObjectNode response = MAPPER.createObjectNode();
+            ObjectNode message = response.putArray("choices").addObject().putObject("message");
+            message.put("role", "assistant");
+            message.put("content", content);
+            send(exchange, 200, MAPPER.writeValueAsString(response));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "{}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void sendEvents(HttpExchange exchange, String content) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        int abortAfter = abortAfterChunks;
+        // A declared length that is never reached makes the client see the connection drop
+        exchange.sendResponseHeaders(200, abortAfter >= 0 ? Integer.MAX_VALUE : 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < content.length(); i += chunkSize) {
+                if (abortAfter >= 0 && i / chunkSize >= abortAfter) {
+                    exchange.close();
+                    return;
+                }
+                if (chunkDelayMillis > 0) {
+                    Thread.sleep(chunkDelayMillis);
+                }
+                ObjectNode chunk = MAPPER.createObjectNode();
+                chunk.putArray("choices").addObject().putObject("delta")
+                        .put("content", content.substring(i, Math.min(content.length(), i + chunkSize)));
+                out.write(("data: " + MAPPER.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // The client went away mid-stream
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
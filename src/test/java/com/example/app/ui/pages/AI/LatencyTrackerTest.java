@@ -0,0 +1,58 @@
+package com.example.app.ui.pages.AI;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LatencyTracker class.
+ * These tests verify nearest-rank percentiles, the sliding window and argument validation.
+ */
+class LatencyTrackerTest {
+
+    /**
+     * Tests percentiles over the recorded latencies.
+     */
+    @Test
+    @DisplayName("Should report nearest-rank percentiles")
+    void testPercentiles() {
+        LatencyTracker tracker = new LatencyTracker();
+        assertEquals(-1, tracker.percentile(0.5));
+
+        for (int millis = 100; millis >= 1; millis--) {
+            tracker.record(millis);
+        }
+
+        assertEquals(100, tracker.getCount());
+        assertEquals(50, tracker.percentile(0.5));
+        assertEquals(95, tracker.percentile(0.95));
+        assertEquals(100, tracker.percentile(1));
+        assertEquals(1, tracker.percentile(0));
+    }
+
+    /**
+     * Tests that only the most recent latencies are kept.
+     */
+    @Test
+    @DisplayName("Should keep only the most recent latencies")
+    void testWindow() {
+        LatencyTracker tracker = new LatencyTracker(3);
+        tracker.record(1000);
+        tracker.record(10);
+        tracker.record(20);
+        tracker.record(30);
+
+        assertEquals(3, tracker.getCount());
+        assertEquals(30, tracker.percentile(1));
+        assertEquals(10, tracker.percentile(0));
+    }
+
+    /**
+     * Tests that invalid settings are rejected.
+     */
+    @Test
+    @DisplayName("Should reject a non-positive window")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyTracker(0));
+    }
+}
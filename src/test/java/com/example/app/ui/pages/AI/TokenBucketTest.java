@@ -0,0 +1,54 @@
+package com.example.app.ui.pages.AI;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TokenBucket class.
+ * These tests verify the burst capacity, refilling over time and argument validation.
+ */
+class TokenBucketTest {
+
+    /**
+     * Tests that a full bucket allows a burst and then refuses until refilled.
+     */
+    @Test
+    @DisplayName("Should allow a burst and then limit the rate")
+    void testBurst() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    /**
+     * Tests that acquire waits for tokens at the configured rate.
+     */
+    @Test
+    @DisplayName("Should wait for tokens at the configured rate")
+    void testAcquireWaits() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 1);
+        bucket.acquire();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            bucket.acquire();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis >= 40, "Five tokens at 100/s took only " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Tests that invalid settings are rejected.
+     */
+    @Test
+    @DisplayName("Should reject non-positive rate or burst")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.app.ui.pages;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ChatMarkdown class.
+ * These tests verify that Markdown marks are removed from AI replies while code blocks
+ * are kept as written, and that a repeated message reuses its conversion.
+ */
+class ChatMarkdownTest {
+
+    /**
+     * Tests that headings, emphasis, inline code, lists and links are shown as plain text.
+     */
+    @Test
+    @DisplayName("Should remove Markdown marks")
+    void testRender() {
+        String markdown = "## Summary\n"
+                + "You spent **too much** on *takeaways* this month.\n"
+                + "- Cook at home\n"
+                + "  * Use `meal plans`\n"
+                + "See [the guide](https://example.com/budget).";
+
+        assertEquals("Summary\n"
+                + "You spent too much on takeaways this month.\n"
+                + "• Cook at home\n"
+                + "  • Use meal plans\n"
+                + "See the guide (https://example.com/budget).", ChatMarkdown.render(markdown));
+    }
+
+    /**
+     * Tests that text inside a code block is left unchanged and the fences are dropped.
+     */
+    @Test
+    @DisplayName("Should keep code blocks as written")
+    void testCodeBlock() {
+        String markdown = "Try this:\n```\n**total** = income - spending\n```\nDone.";
+
+        assertEquals("Try this:\n**total** = income - spending\nDone.", ChatMarkdown.render(markdown));
+    }
+
+    /**
+     * Tests that plain text and arithmetic with asterisks are left alone.
+     */
+    @Test
+    @DisplayName("Should leave plain text unchanged")
+    void testPlainText() {
+        assertEquals("Hello! Ask me anything.", ChatMarkdown.render("Hello! Ask me anything."));
+        assertEquals("2 * 3 * 4 = 24", ChatMarkdown.render("2 * 3 * 4 = 24"));
+    }
+
+    /**
+     * Tests that converting the same message again returns the cached result.
+     */
+    @Test
+    @DisplayName("Should reuse the conversion of a repeated message")
+    void testCache() {
+        String markdown = "**Cached** reply " + System.nanoTime();
+
+        assertSame(ChatMarkdown.render(markdown), ChatMarkdown.render(markdown));
+    }
+}
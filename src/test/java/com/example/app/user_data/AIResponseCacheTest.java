@@ -0,0 +1,141 @@
+package com.example.app.user_data;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AIResponseCache class.
+ * These tests verify key and fingerprint construction, persistence across instances,
+ * expiry and least-recently-used eviction.
+ */
+class AIResponseCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File cacheDir;
+
+    /**
+     * Sets the cache directory before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheDir = tempDir.resolve(AIResponseCache.CACHE_DIRECTORY).toFile();
+    }
+
+    /**
+     * Tests that keys depend on every part of the request.
+     */
+    @Test
+    @DisplayName("Should key by model, prompt and data fingerprint")
+    void testKey() {
+        String key = AIResponseCache.key("deepseek-chat", "How is my spending?", "abc");
+
+        assertEquals(64, key.length());
+        assertEquals(key, AIResponseCache.key("deepseek-chat", "How is my spending?", "abc"));
+        assertNotEquals(key, AIResponseCache.key("deepseek-reasoner", "How is my spending?", "abc"));
+        assertNotEquals(key, AIResponseCache.key("deepseek-chat", "How is my saving?", "abc"));
+        assertNotEquals(key, AIResponseCache.key("deepseek-chat", "How is my spending?", "abd"));
+        assertNotEquals(AIResponseCache.key("a", "bc", ""), AIResponseCache.key("ab", "c", ""));
+    }
+
+    /**
+     * Tests that the ledger fingerprint follows the aggregates, not the row order or descriptions.
+     */
+    @Test
+    @DisplayName("Should fingerprint ledger aggregates")
+    void testFingerprint() {
+        List<Object[]> ledger = new ArrayList<>(Arrays.asList(
+                new Object[]{"2025-03-02 12:00", "Lunch", "Food", -25.50, true},
+                new Object[]{"2025-04-01 09:00", "Salary", "Income", 5000.0, true},
+                new Object[]{"2025-04-03 18:00", "Dinner", "Food", -60.0, false}));
+        String fingerprint = AIResponseCache.fingerprint(ledger);
+
+        List<Object[]> reordered = new ArrayList<>(Arrays.asList(ledger.get(2), ledger.get(0), ledger.get(1)));
+        assertEquals(fingerprint, AIResponseCache.fingerprint(reordered));
+
+        ledger.set(0, new Object[]{"2025-03-02 12:00", "Lunch at cafe", "Food", -25.50, true});
+        assertEquals(fingerprint, AIResponseCache.fingerprint(ledger));
+
+        ledger.set(0, new Object[]{"2025-03-02 12:00", "Lunch", "Food", -25.60, true});
+        assertNotEquals(fingerprint, AIResponseCache.fingerprint(ledger));
+
+        ledger.set(0, new Object[]{"2025-03-02 12:00", "Lunch", "Shopping", -25.50, true});
+        assertNotEquals(fingerprint, AIResponseCache.fingerprint(ledger));
+    }
+
+    /**
+     * Tests that entries are stored on disk and loaded by a new instance.
+     */
+    @Test
+    @DisplayName("Should persist entries across instances")
+    void testPersistence() {
+        AIResponseCache cache = new AIResponseCache(cacheDir, Duration.ofHours(1), 10, 10_000);
+        String key = AIResponseCache.key("m", "prompt", "");
+        assertNull(cache.get(key));
+
+        cache.put(key, "Spend less on food.\nSave 10% of your salary.");
+        assertEquals("Spend less on food.\nSave 10% of your salary.", cache.get(key));
+
+        AIResponseCache reopened = new AIResponseCache(cacheDir, Duration.ofHours(1), 10, 10_000);
+        assertEquals(1, reopened.size());
+        assertEquals("Spend less on food.\nSave 10% of your salary.", reopened.get(key));
+
+        reopened.clear();
+        assertEquals(0, new AIResponseCache(cacheDir, Duration.ofHours(1), 10, 10_000).size());
+    }
+
+    /**
+     * Tests that expired entries are neither returned nor loaded.
+     *
+     * @throws Exception If the test is interrupted
+     */
+    @Test
+    @DisplayName("Should expire entries after the time-to-live")
+    void testExpiry() throws Exception {
+        AIResponseCache cache = new AIResponseCache(cacheDir, Duration.ofMillis(50), 10, 10_000);
+        String key = AIResponseCache.key("m", "prompt", "");
+        cache.put(key, "answer");
+        assertEquals("answer", cache.get(key));
+
+        Thread.sleep(100);
+
+        assertNull(cache.get(key));
+        assertEquals(0, cache.size());
+        assertFalse(new File(cacheDir, key).exists());
+    }
+
+    /**
+     * Tests that the least recently used entries are evicted by count and by size.
+     */
+    @Test
+    @DisplayName("Should evict least recently used entries")
+    void testEviction() {
+        AIResponseCache cache = new AIResponseCache(cacheDir, Duration.ofHours(1), 2, 100);
+        cache.put("a".repeat(64), "first");
+        cache.put("b".repeat(64), "second");
+        cache.get("a".repeat(64));
+        cache.put("c".repeat(64), "third");
+
+        assertEquals(2, cache.size());
+        assertEquals("first", cache.get("a".repeat(64)));
+        assertNull(cache.get("b".repeat(64)));
+        assertFalse(new File(cacheDir, "b".repeat(64)).exists());
+
+        cache.put("d".repeat(64), "x".repeat(46));
+        assertEquals(1, cache.size());
+        assertEquals("x".repeat(46), cache.get("d".repeat(64)));
+
+        cache.put("e".repeat(64), "x".repeat(60));
+        assertNull(cache.get("e".repeat(64)), "An entry larger than the cache is not stored");
+    }
+}
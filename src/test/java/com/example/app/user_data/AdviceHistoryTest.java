@@ -0,0 +1,130 @@
+package com.example.app.user_data;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AdviceHistory class.
+ * These tests verify appending and reloading entries, paging newest first,
+ * bounded retention with compaction, and recovery from a torn last line.
+ */
+class AdviceHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+
+    /**
+     * Sets the history file before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve(AdviceHistory.HISTORY_FILENAME).toFile();
+    }
+
+    /**
+     * Tests that entries, including multi-line text, survive a reload and the latest is indexed.
+     */
+    @Test
+    @DisplayName("Should append entries and reload them")
+    void testAppendAndReload() {
+        AdviceHistory history = new AdviceHistory(file, 10);
+        assertNull(history.latest());
+
+        history.append(entry(1, "Cut back on takeaways."));
+        history.append(new AdviceHistory.Entry(LocalDateTime.of(2025, 4, 2, 9, 30), "fp2", "ph2",
+                "Line one\nLine\ttwo with a \\ backslash"));
+
+        AdviceHistory reopened = new AdviceHistory(file, 10);
+        assertEquals(2, reopened.size());
+        AdviceHistory.Entry latest = reopened.latest();
+        assertEquals("Line one\nLine\ttwo with a \\ backslash", latest.getAdvice());
+        assertEquals("fp2", latest.getFingerprint());
+        assertEquals("ph2", latest.getPromptHash());
+        assertEquals(LocalDateTime.of(2025, 4, 2, 9, 30), latest.getGenerationTime());
+        assertEquals(AdviceHistory.UNKNOWN, new AdviceHistory.Entry(LocalDateTime.now(), null, "", "x").getFingerprint());
+    }
+
+    /**
+     * Tests that pages list the newest entries first.
+     */
+    @Test
+    @DisplayName("Should page through entries newest first")
+    void testPaging() {
+        AdviceHistory history = new AdviceHistory(file, 10);
+        for (int i = 1; i <= 5; i++) {
+            history.append(entry(i, "advice " + i));
+        }
+
+        assertEquals(List.of("advice 5", "advice 4"), texts(history.getPage(0, 2)));
+        assertEquals(List.of("advice 3", "advice 2"), texts(history.getPage(1, 2)));
+        assertEquals(List.of("advice 1"), texts(history.getPage(2, 2)));
+        assertTrue(history.getPage(3, 2).isEmpty());
+        assertTrue(history.getPage(-1, 2).isEmpty());
+    }
+
+    /**
+     * Tests that only the newest entries are kept and the file is compacted.
+     *
+     * @throws IOException If the file cannot be read
+     */
+    @Test
+    @DisplayName("Should keep only the newest entries")
+    void testRetention() throws IOException {
+        AdviceHistory history = new AdviceHistory(file, 3);
+        for (int i = 1; i <= 5; i++) {
+            history.append(entry(i, "advice " + i));
+        }
+        assertEquals(3, history.size());
+        assertEquals(List.of("advice 5", "advice 4", "advice 3"), texts(history.getPage(0, 10)));
+
+        history.append(entry(6, "advice 6"));
+        assertEquals(3, Files.readAllLines(file.toPath()).size(), "Compacted once twice the bound was reached");
+        assertEquals(List.of("advice 6", "advice 5", "advice 4"), texts(history.getPage(0, 10)));
+
+        history.append(entry(7, "advice 7"));
+        AdviceHistory reopened = new AdviceHistory(file, 3);
+        assertEquals(List.of("advice 7", "advice 6", "advice 5"), texts(reopened.getPage(0, 10)));
+    }
+
+    /**
+     * Tests that a partly written last line is dropped and appending continues cleanly.
+     *
+     * @throws IOException If the file cannot be written
+     */
+    @Test
+    @DisplayName("Should drop a torn last line")
+    void testTornLine() throws IOException {
+        new AdviceHistory(file, 10).append(entry(1, "complete"));
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("2025-04-02T10:00\tfp\tph\tcut of".getBytes(StandardCharsets.UTF_8));
+        }
+
+        AdviceHistory reopened = new AdviceHistory(file, 10);
+        assertEquals(1, reopened.size());
+        assertEquals("complete", reopened.latest().getAdvice());
+
+        reopened.append(entry(3, "after"));
+        assertEquals(List.of("after", "complete"), texts(new AdviceHistory(file, 10).getPage(0, 10)));
+    }
+
+    private static AdviceHistory.Entry entry(int day, String advice) {
+        return new AdviceHistory.Entry(LocalDateTime.of(2025, 4, day, 12, 0), "fp" + day, "ph" + day, advice);
+    }
+
+    private static List<String> texts(List<AdviceHistory.Entry> entries) {
+        return entries.stream().map(AdviceHistory.Entry::getAdvice).toList();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.app.user_data;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ChatHistory class.
+ * These tests verify appending messages, reading them back a page at a time
+ * from the end of the file, and recovery from a torn last line.
+ */
+class ChatHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+
+    /**
+     * Sets the history file before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve(ChatHistory.HISTORY_FILENAME).toFile();
+    }
+
+    /**
+     * Tests that messages, including multi-line text, are read back with their sender.
+     */
+    @Test
+    @DisplayName("Should read back appended messages")
+    void testAppendAndRead() {
+        ChatHistory history = new ChatHistory(file);
+        assertTrue(history.readRecent(10).isEmpty());
+
+        long first = history.append(true, "How is my spending?");
+        long second = history.append(false, "Line one\nLine\ttwo with a \\ backslash");
+
+        List<ChatHistory.Line> lines = new ChatHistory(file).readRecent(10);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).isFromUser());
+        assertEquals("How is my spending?", lines.get(0).getContent());
+        assertEquals(first, lines.get(0).getPosition());
+        assertFalse(lines.get(1).isFromUser());
+        assertEquals("Line one\nLine\ttwo with a \\ backslash", lines.get(1).getContent());
+        assertEquals(second, lines.get(1).getPosition());
+    }
+
+    /**
+     * Tests that pages before a message are read newest page first, each page oldest first.
+     */
+    @Test
+    @DisplayName("Should page backwards from a message")
+    void testReadBefore() {
+        ChatHistory history = new ChatHistory(file);
+        for (int i = 1; i <= 5; i++) {
+            history.append(i % 2 == 1, "message " + i);
+        }
+
+        List<ChatHistory.Line> recent = history.readRecent(2);
+        assertEquals(List.of("message 4", "message 5"), contents(recent));
+        List<ChatHistory.Line> page = history.readBefore(recent.get(0).getPosition(), 2);
+        assertEquals(List.of("message 2", "message 3"), contents(page));
+        page = history.readBefore(page.get(0).getPosition(), 2);
+        assertEquals(List.of("message 1"), contents(page));
+        assertTrue(history.readBefore(page.get(0).getPosition(), 2).isEmpty());
+    }
+
+    /**
+     * Tests that a message longer than the read block is found when paging backwards.
+     */
+    @Test
+    @DisplayName("Should read messages longer than a block")
+    void testLongMessage() {
+        ChatHistory history = new ChatHistory(file);
+        String longText = "x".repeat(10_000);
+        history.append(true, "before");
+        history.append(false, longText);
+        history.append(true, "after");
+
+        assertEquals(List.of("before", longText, "after"), contents(history.readRecent(5)));
+    }
+
+    /**
+     * Tests that a partly written last line is dropped and appending continues cleanly.
+     *
+     * @throws IOException If the file cannot be written
+     */
+    @Test
+    @DisplayName("Should drop a torn last line")
+    void testTornLine() throws IOException {
+        new ChatHistory(file).append(true, "complete");
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("A\tcut of".getBytes(StandardCharsets.UTF_8));
+        }
+
+        ChatHistory reopened = new ChatHistory(file);
+        assertEquals(List.of("complete"), contents(reopened.readRecent(10)));
+
+        reopened.append(false, "after");
+        assertEquals(List.of("complete", "after"), contents(new ChatHistory(file).readRecent(10)));
+    }
+
+    private static List<String> contents(List<ChatHistory.Line> lines) {
+        return lines.stream().map(ChatHistory.Line::getContent).toList();
+    }
+}
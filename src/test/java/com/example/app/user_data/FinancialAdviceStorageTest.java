@@ -151,4 +151,25 @@ class FinancialAdviceStorageTest {
             assertEquals(now, fileTime.withNano(0));
         }
     }
+
+    /**
+     * Tests that saving the same advice for the same data again adds no history entry,
+     * while advice for changed data does.
+     */
+    @Test
+    @DisplayName("Should not repeat the latest history entry")
+    void testRepeatedAdviceKeptOnce() {
+        String advice = "Cached advice " + System.nanoTime();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        AdviceHistory history = FinancialAdviceStorage.getHistory();
+        int before = history.size();
+
+        assertTrue(FinancialAdviceStorage.saveAdvice(advice, now, "ledger-1", "prompt-1"));
+        assertTrue(FinancialAdviceStorage.saveAdvice(advice, now.plusMinutes(1), "ledger-1", "prompt-1"));
+        assertEquals(before + 1, history.size(), "Same advice for the same data");
+
+        assertTrue(FinancialAdviceStorage.saveAdvice(advice, now.plusMinutes(2), "ledger-2", "prompt-1"));
+        assertEquals(before + 2, history.size(), "Same advice for changed data");
+        assertEquals(now.plusMinutes(2), FinancialAdviceStorage.loadAdvice()[1]);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.example.app.user_data;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FingerprintIndex class.
+ * These tests verify fingerprint normalization, membership checks, persistence
+ * of the index file and detection of a stale index.
+ */
+class FingerprintIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File ledgerFile;
+    private File indexFile;
+
+    /**
+     * Creates a small ledger file before each test.
+     *
+     * @throws Exception If the ledger cannot be written
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        ledgerFile = tempDir.resolve("user_bill.csv").toFile();
+        indexFile = tempDir.resolve("user_bill.fingerprints").toFile();
+        Files.write(ledgerFile.toPath(), Arrays.asList(
+                "Date,Description,Category,Amount,Confirmed",
+                "2025-04-14,Lunch,Food,-25.50,true"));
+    }
+
+    /**
+     * Tests that fingerprints ignore time of day, case, whitespace and category,
+     * but not the amount or the day.
+     */
+    @Test
+    @DisplayName("Should normalize date, amount and description")
+    void testFingerprintNormalization() {
+        long base = FingerprintIndex.fingerprint("2025-04-14", -25.50, "Lunch at Cafe");
+
+        assertEquals(base, FingerprintIndex.fingerprint("2025-04-14 12:30", -25.5, "  lunch   AT cafe "));
+        assertEquals(base, FingerprintIndex.fingerprint(
+                new Object[]{"2025-04-14", "Lunch at Cafe", "Other", -25.50, false}));
+        assertNotEquals(base, FingerprintIndex.fingerprint("2025-04-14", -25.51, "Lunch at Cafe"));
+        assertNotEquals(base, FingerprintIndex.fingerprint("2025-04-15", -25.50, "Lunch at Cafe"));
+        assertNotEquals(base, FingerprintIndex.fingerprint("2025-04-14", 25.50, "Lunch at Cafe"));
+    }
+
+    /**
+     * Tests that a rebuilt index is written to disk and reopened while the ledger is unchanged.
+     */
+    @Test
+    @DisplayName("Should persist and reopen the index")
+    void testRebuildAndOpen() {
+        List<Object[]> ledger = Collections.singletonList(new Object[]{"2025-04-14", "Lunch", "Food", -25.50, true});
+        FingerprintIndex index = FingerprintIndex.rebuild(indexFile, ledger, ledgerFile);
+
+        assertTrue(indexFile.exists());
+        assertTrue(index.contains(ledger.get(0)));
+        assertFalse(index.contains(new Object[]{"2025-04-14", "Dinner", "Food", -25.50, true}));
+
+        FingerprintIndex reopened = FingerprintIndex.open(indexFile, ledgerFile);
+        assertNotNull(reopened);
+        assertEquals(1, reopened.size());
+        assertTrue(reopened.contains(ledger.get(0)));
+    }
+
+    /**
+     * Tests that appended fingerprints survive a reopen and that an index
+     * is reported stale once the ledger changes behind its back.
+     *
+     * @throws Exception If the ledger cannot be written
+     */
+    @Test
+    @DisplayName("Should append fingerprints and detect a stale index")
+    void testAppendAndStaleDetection() throws Exception {
+        FingerprintIndex index = FingerprintIndex.rebuild(indexFile, new ArrayList<>(), ledgerFile);
+        Object[] bus = {"2025-04-15", "Bus", "Transportation", -2.00, false};
+
+        Files.write(ledgerFile.toPath(), Collections.singletonList("2025-04-15,Bus,Transportation,-2.00,false"),
+                java.nio.file.StandardOpenOption.APPEND);
+        index.append(Collections.singletonList(bus), ledgerFile);
+
+        FingerprintIndex reopened = FingerprintIndex.open(indexFile, ledgerFile);
+        assertNotNull(reopened);
+        assertTrue(reopened.contains(bus));
+
+        Files.write(ledgerFile.toPath(), Collections.singletonList("2025-04-16,Taxi,Transportation,-30.00,false"),
+                java.nio.file.StandardOpenOption.APPEND);
+        assertNull(FingerprintIndex.open(indexFile, ledgerFile));
+    }
+
+    /**
+     * Tests that membership stays exact after the Bloom filter has been resized many times.
+     */
+    @Test
+    @DisplayName("Should keep exact membership for many fingerprints")
+    void testManyFingerprints() {
+        List<Object[]> transactions = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            transactions.add(new Object[]{"2025-01-01", "Item " + i, "Other", -(double) i, false});
+        }
+        FingerprintIndex index = FingerprintIndex.rebuild(indexFile, new ArrayList<>(), ledgerFile);
+        index.append(transactions, ledgerFile);
+
+        assertEquals(5000, index.size());
+        for (Object[] transaction : transactions) {
+            assertTrue(index.contains(transaction));
+        }
+        int falsePositives = 0;
+        for (int i = 5000; i < 10000; i++) {
+            if (index.contains(new Object[]{"2025-01-01", "Item " + i, "Other", -(double) i, false})) {
+                falsePositives++;
+            }
+        }
+        assertEquals(0, falsePositives);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.app.user_data;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LongHashSet class.
+ * These tests verify adding, lookup, growth and the special handling of zero.
+ */
+class LongHashSetTest {
+
+    /**
+     * Tests that values are added once and found afterwards, including across resizes.
+     */
+    @Test
+    @DisplayName("Should add and find values across resizes")
+    void testAddAndContains() {
+        LongHashSet set = new LongHashSet();
+        for (long i = 1; i <= 10000; i++) {
+            assertTrue(set.add(i * 31));
+        }
+        assertFalse(set.add(31));
+        assertEquals(10000, set.size());
+        assertTrue(set.contains(310000));
+        assertFalse(set.contains(32));
+        assertFalse(set.contains(-31));
+    }
+
+    /**
+     * Tests that zero, which marks empty slots internally, behaves like any other value.
+     */
+    @Test
+    @DisplayName("Should store zero and clear all values")
+    void testZeroAndClear() {
+        LongHashSet set = new LongHashSet(4);
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        set.add(Long.MIN_VALUE);
+
+        long[] values = set.toArray();
+        Arrays.sort(values);
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 0}, values);
+
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(Long.MIN_VALUE));
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.app.user_data;
 
+import com.example.app.model.importer.MerchantRules;
 import org.junit.jupiter.api.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -144,4 +147,74 @@ class UserBillStorageTest {
         List<String> lines = java.nio.file.Files.readAllLines(BILL_FILE.toPath());
         assertTrue(lines.stream().anyMatch(line -> line.contains("Persisted")));
     }
+
+    /**
+     * Tests that adding transactions skips rows already in the ledger but keeps rows repeated
+     * within the added list, like the import paths do.
+     */
+    @Test
+    @DisplayName("Should add repeated rows but skip rows already in the ledger")
+    void testAddTransactionsKeepsRepeatedRows() {
+        List<Object[]> transactions = new ArrayList<>();
+        transactions.add(new Object[]{"2025-03-01", "Lunch", "Food", -20.0, true});
+        assertTrue(UserBillStorage.saveTransactions(transactions));
+
+        List<Object[]> added = new ArrayList<>();
+        added.add(new Object[]{"2025-03-01", "Lunch", "Food", -20.0, false});
+        added.add(new Object[]{"2025-03-02", "Coffee", "Food", -12.0, false});
+        added.add(new Object[]{"2025-03-02", "Coffee", "Food", -12.0, false});
+        assertTrue(UserBillStorage.addTransactions(added));
+
+        assertEquals(3, UserBillStorage.loadTransactions().size());
+    }
+
+    /**
+     * Tests that saving an edited copy of the ledger keeps rows appended since the copy was loaded,
+     * such as an inbox import, without bringing back rows the user deleted.
+     */
+    @Test
+    @DisplayName("Should keep transactions appended while the ledger was being edited")
+    void testSaveEditedTransactionsKeepsAppendedRows() {
+        List<Object[]> transactions = new ArrayList<>();
+        transactions.add(new Object[]{"2025-03-01 12:00", "Lunch", "Food", -20.0, true});
+        transactions.add(new Object[]{"2025-03-02 08:30", "Bus", "Transportation", -2.5, true});
+        assertTrue(UserBillStorage.saveTransactions(transactions));
+        List<Object[]> loaded = UserBillStorage.loadTransactions();
+
+        List<Object[]> imported = new ArrayList<>();
+        imported.add(new Object[]{"2025-03-03 18:00", "Cinema", "Entertainment", -45.0, true});
+        assertTrue(UserBillStorage.appendTransactions(imported));
+
+        List<Object[]> edited = new ArrayList<>();
+        edited.add(new Object[]{"2025-03-01 12:00", "Lunch", "Dining", -20.0, true});
+        assertTrue(UserBillStorage.saveEditedTransactions(loaded, edited));
+
+        List<Object[]> saved = UserBillStorage.loadTransactions();
+        assertEquals(2, saved.size());
+        assertEquals("Dining", saved.get(0)[2]);
+        assertEquals("Cinema", saved.get(1)[1]);
+    }
+
+    /**
+     * Tests that re-categorizing the ledger applies the merchant rules to unconfirmed rows only.
+     *
+     * @throws IOException If the rules file cannot be written
+     */
+    @Test
+    @DisplayName("Should re-categorize unconfirmed transactions with the merchant rules")
+    void testRecategorizeTransactions() throws IOException {
+        List<Object[]> transactions = new ArrayList<>();
+        transactions.add(new Object[]{"2025-03-01 20:00", "City Cinema", "Other", -45.0, false});
+        transactions.add(new Object[]{"2025-03-02 20:00", "City Cinema", "Gifts", -30.0, true});
+        assertTrue(UserBillStorage.saveTransactions(transactions));
+        MerchantRules.save(UserBillStorage.getUserDirectory(),
+                Collections.singletonList(new MerchantRules.Rule("Cinema", "Entertainment", 0)));
+
+        assertEquals(1, UserBillStorage.recategorizeTransactions());
+
+        List<Object[]> saved = UserBillStorage.loadTransactions();
+        assertEquals("Entertainment", saved.get(0)[2]);
+        assertEquals("Gifts", saved.get(1)[2]);
+        assertEquals(0, UserBillStorage.recategorizeTransactions());
+    }
 }
\ No newline at end of file
@@ -1,9 +1,21 @@
 package com.example.app.viewmodel;
 
+import com.example.app.ui.pages.AI.AIClient;
+import com.example.app.ui.pages.AI.FakeDeepSeekServer;
+import com.example.app.ui.pages.AI.getRes;
+import com.example.app.user_data.AIResponseCache;
+import com.example.app.user_data.ChatHistory;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -11,6 +23,9 @@ class AIViewModelTest {
     private static final String TEST_USERNAME = "testuser_ai";
     private AIViewModel viewModel;
 
+    @TempDir
+    Path cacheDir;
+
     @BeforeEach
     void setUp() {
         viewModel = new AIViewModel(TEST_USERNAME);
@@ -52,4 +67,137 @@ class AIViewModelTest {
         int after = viewModel.getMessages().size();
         assertTrue(after > before);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSendMessageStreamsReply() throws Exception {
+        try (FakeDeepSeekServer server = new FakeDeepSeekServer()) {
+            server.withReply("Spend less on takeaways.").withChunks(3, 0);
+            AIViewModel streaming = new AIViewModel(TEST_USERNAME, new getRes(new AIClient(server.getUrl())), cache());
+            StreamRecorder recorder = new StreamRecorder();
+            streaming.addListener(recorder);
+
+            streaming.sendMessage("How is my spending?");
+
+            assertTrue(recorder.completed.await(5, TimeUnit.SECONDS));
+            assertTrue(recorder.started);
+            assertTrue(recorder.tokens.size() > 1);
+            assertEquals("Spend less on takeaways.", String.join("", recorder.tokens));
+            assertEquals("Spend less on takeaways.", recorder.message.get().getContent());
+            List<AIViewModel.ChatMessage> messages = streaming.getMessages();
+            assertEquals("Spend less on takeaways.", messages.get(messages.size() - 1).getContent());
+            assertFalse(streaming.isResponding());
+        }
+    }
+
+    @Test
+    void testCancelResponseKeepsPartialReply() throws Exception {
+        try (FakeDeepSeekServer server = new FakeDeepSeekServer()) {
+            server.withReply("y".repeat(200)).withChunks(1, 20);
+            AIViewModel streaming = new AIViewModel(TEST_USERNAME, new getRes(new AIClient(server.getUrl())), cache());
+            StreamRecorder recorder = new StreamRecorder();
+            streaming.addListener(recorder);
+
+            streaming.sendMessage("Tell me everything");
+            assertTrue(recorder.firstToken.await(5, TimeUnit.SECONDS));
+            streaming.cancelResponse();
+
+            assertTrue(recorder.completed.await(5, TimeUnit.SECONDS));
+            assertTrue(recorder.message.get().getContent().endsWith(" [stopped]"));
+            assertTrue(recorder.tokens.size() < 200);
+            assertFalse(streaming.isResponding());
+        }
+    }
+
+    @Test
+    void testRepeatedQuestionIsAnsweredFromCache() throws Exception {
+        try (FakeDeepSeekServer server = new FakeDeepSeekServer()) {
+            server.withReply("Your spending is on track.");
+            AIViewModel cached = new AIViewModel(TEST_USERNAME, new getRes(new AIClient(server.getUrl())), cache());
+            StreamRecorder first = new StreamRecorder();
+            cached.addListener(first);
+            cached.sendMessage("How is my spending?");
+            assertTrue(first.completed.await(5, TimeUnit.SECONDS));
+            cached.removeListener(first);
+
+            StreamRecorder second = new StreamRecorder();
+            cached.addListener(second);
+            cached.sendMessage("How is my spending?");
+
+            assertTrue(second.completed.await(5, TimeUnit.SECONDS));
+            assertEquals("Your spending is on track.", second.message.get().getContent());
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testChatIsRestoredForTheUser() {
+        AIViewModel restored = new AIViewModel(TEST_USERNAME);
+
+        List<AIViewModel.ChatMessage> messages = restored.getMessages();
+        assertEquals(1, messages.size(), "No second welcome message");
+        assertEquals(viewModel.getMessages().get(0).getContent(), messages.get(0).getContent());
+    }
+
+    @Test
+    void testOlderMessagesArePagedFromDisk() {
+        ChatHistory history = ChatHistory.forUser(TEST_USERNAME);
+        for (int i = 1; i <= 5; i++) {
+            history.append(i % 2 == 0, "message " + i);
+        }
+        AIViewModel paged = new AIViewModel(TEST_USERNAME).withHistoryWindow(2);
+
+        List<AIViewModel.ChatMessage> recent = paged.getMessages();
+        assertEquals(List.of("message 4", "message 5"), contents(recent));
+        assertSame(recent, paged.getMessages(), "Getting the messages does not copy them");
+        List<AIViewModel.ChatMessage> earlier = paged.getMessagesBefore(recent.get(0), 3);
+        assertEquals(List.of("message 1", "message 2", "message 3"), contents(earlier));
+        assertTrue(earlier.get(1).isFromUser());
+        assertEquals(List.of("Hello! I can help analyze your finances and provide personalized advice. Ask me anything about your financial data."),
+                contents(paged.getMessagesBefore(earlier.get(0), 3)));
+    }
+
+    private static List<String> contents(List<AIViewModel.ChatMessage> messages) {
+        return messages.stream().map(AIViewModel.ChatMessage::getContent).toList();
+    }
+
+    private AIResponseCache cache() {
+        return new AIResponseCache(cacheDir.toFile(), Duration.ofHours(1), 10, 10_000);
+    }
+
+    private static class StreamRecorder implements AIViewModel.AIDataChangeListener {
+        final List<String> tokens = new CopyOnWriteArrayList<>();
+        final CountDownLatch firstToken = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        final AtomicReference<AIViewModel.ChatMessage> message = new AtomicReference<>();
+        volatile boolean started;
+
+        @Override
+        public void onMessageAdded(AIViewModel.ChatMessage message) {
+        }
+
+        @Override
+        public void onErrorOccurred(String errorMessage) {
+        }
+
+        @Override
+        public void onAdviceUpdated() {
+        }
+
+        @Override
+        public void onResponseStarted() {
+            started = true;
+        }
+
+        @Override
+        public void onResponseToken(String token) {
+            tokens.add(token);
+            firstToken.countDown();
+        }
+
+        @Override
+        public void onResponseCompleted(AIViewModel.ChatMessage message) {
+            this.message.set(message);
+            completed.countDown();
+        }
+    }
+}